@@ -0,0 +1,230 @@
+package com.example.pizza;
+
+import java.util.List;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+import org.openjdk.jcstress.infra.results.I_Result;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+/**
+ * Tests jcstress des entrelacements d'opérations sur le
+ * {@link CommandeManager}.
+ * Chaque test exécute ses acteurs en concurrence sur un gestionnaire neuf,
+ * des millions de fois ; les résultats interdits sont ceux qu'aucun ordre
+ * séquentiel des opérations ne peut produire. Les contenus du carnet sont
+ * résumés en masques : bit 0 pour la pizza A, bit 1 pour B, bit 2 pour C.
+ */
+public class CommandeManagerStress {
+
+    private CommandeManagerStress() {
+    }
+
+    private static int masque(List<Pizza> commandes, Pizza a, Pizza b, Pizza c) {
+        int masque = 0;
+        for (Pizza pizza : commandes) {
+            if (pizza == a) {
+                masque |= 1;
+            } else if (pizza == b) {
+                masque |= 2;
+            } else if (pizza == c) {
+                masque |= 4;
+            } else {
+                masque |= 8;
+            }
+        }
+        return masque;
+    }
+
+    /**
+     * Un lot ajouté par {@link CommandeManager#ajouterCommandes} est vu en
+     * entier ou pas du tout, par la copie comme par le nombre de commandes.
+     */
+    @JCStressTest
+    @Outcome(id = "0, 0", expect = Expect.ACCEPTABLE, desc = "Lecture avant l'ajout du lot")
+    @Outcome(id = "3, 2", expect = Expect.ACCEPTABLE, desc = "Lecture après l'ajout du lot")
+    @Outcome(id = "0, 2", expect = Expect.ACCEPTABLE, desc = "Lot ajouté entre la copie et le comptage")
+    @Outcome(expect = Expect.FORBIDDEN, desc = "Lot vu à moitié")
+    @State
+    public static class AjoutLot {
+        private final CommandeManager manager = new CommandeManager();
+        private final Pizza a = new PizzaFromage();
+        private final Pizza b = new PizzaVegetarienne();
+
+        @Actor
+        public void ajouter() {
+            manager.ajouterCommandes(List.of(a, b));
+        }
+
+        @Actor
+        public void lire(II_Result r) {
+            r.r1 = masque(manager.getCommandes(), a, b, null);
+            r.r2 = manager.getNombreCommandes();
+        }
+    }
+
+    /**
+     * Une commande groupée annulée disparaît d'un bloc du carnet.
+     */
+    @JCStressTest
+    @Outcome(id = "3, 2", expect = Expect.ACCEPTABLE, desc = "Lecture avant l'annulation")
+    @Outcome(id = "0, 0", expect = Expect.ACCEPTABLE, desc = "Lecture après l'annulation")
+    @Outcome(id = "3, 0", expect = Expect.ACCEPTABLE, desc = "Annulation entre la copie et le comptage")
+    @Outcome(expect = Expect.FORBIDDEN, desc = "Commande vue à moitié annulée")
+    @State
+    public static class AnnulationGroupee {
+        private final CommandeManager manager = new CommandeManager();
+        private final Pizza a = new PizzaFromage();
+        private final Pizza b = new PizzaVegetarienne();
+        private final Commande commande = new Commande(a, b);
+
+        public AnnulationGroupee() {
+            manager.passerCommande(commande);
+        }
+
+        @Actor
+        public void annuler() {
+            manager.annulerCommande(commande.getId());
+        }
+
+        @Actor
+        public void lire(II_Result r) {
+            r.r1 = masque(manager.getCommandes(), a, b, null);
+            r.r2 = manager.getNombreCommandes();
+        }
+    }
+
+    /**
+     * Un vidage concurrent d'un ajout retire les commandes présentes avant
+     * lui, et le nombre de commandes reste celui de la table.
+     */
+    @JCStressTest
+    @Outcome(id = "4, 1", expect = Expect.ACCEPTABLE, desc = "Ajout après le vidage")
+    @Outcome(id = "0, 0", expect = Expect.ACCEPTABLE, desc = "Ajout avant le vidage")
+    @Outcome(expect = Expect.FORBIDDEN, desc = "Commande survivant au vidage, ou nombre faux")
+    @State
+    public static class VidageEtAjout {
+        private final CommandeManager manager = new CommandeManager();
+        private final Pizza a = new PizzaFromage();
+        private final Pizza b = new PizzaVegetarienne();
+        private final Pizza c = new PizzaFromage();
+
+        public VidageEtAjout() {
+            manager.ajouterCommandes(List.of(a, b));
+        }
+
+        @Actor
+        public void vider() {
+            manager.viderCommandes();
+        }
+
+        @Actor
+        public void ajouter() {
+            manager.ajouterCommande(c);
+        }
+
+        @Arbiter
+        public void constater(II_Result r) {
+            r.r1 = masque(manager.getCommandes(), a, b, c);
+            r.r2 = manager.getNombreCommandes();
+        }
+    }
+
+    /**
+     * Une commande trouvée par identifiant est comptée par une lecture
+     * ultérieure du nombre de commandes : la recherche sans verrou ne devance
+     * pas le comptage optimiste.
+     */
+    @JCStressTest
+    @Outcome(id = "false, false", expect = Expect.ACCEPTABLE, desc = "Lectures avant l'ajout")
+    @Outcome(id = "false, true", expect = Expect.ACCEPTABLE, desc = "Ajout entre les deux lectures")
+    @Outcome(id = "true, true", expect = Expect.ACCEPTABLE, desc = "Lectures après l'ajout")
+    @Outcome(id = "true, false", expect = Expect.FORBIDDEN, desc = "Commande trouvée mais non comptée")
+    @State
+    public static class RechercheEtComptage {
+        private final CommandeManager manager = new CommandeManager();
+        private final Pizza a = new PizzaFromage();
+
+        @Actor
+        public void ajouter() {
+            manager.ajouterCommande(a);
+        }
+
+        @Actor
+        public void lire(ZZ_Result r) {
+            r.r1 = manager.trouverCommande(a.getId()) == a;
+            r.r2 = manager.getNombreCommandes() == 1;
+        }
+    }
+
+    /**
+     * Deux suppressions concurrentes de la même commande : une seule la
+     * retire.
+     */
+    @JCStressTest
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Le premier acteur retire la commande")
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Le second acteur retire la commande")
+    @Outcome(expect = Expect.FORBIDDEN, desc = "Commande retirée deux fois ou jamais")
+    @State
+    public static class DoubleSuppression {
+        private final CommandeManager manager = new CommandeManager();
+        private final Pizza a = new PizzaFromage();
+
+        public DoubleSuppression() {
+            manager.ajouterCommande(a);
+        }
+
+        @Actor
+        public void supprimer1(II_Result r) {
+            r.r1 = manager.supprimerCommande(a.getId()) == a ? 1 : 0;
+        }
+
+        @Actor
+        public void supprimer2(II_Result r) {
+            r.r2 = manager.supprimerCommande(a.getId()) == a ? 1 : 0;
+        }
+    }
+
+    /**
+     * Un parcours concurrent d'un ajout et d'une suppression voit toujours la
+     * commande présente du début à la fin.
+     */
+    @JCStressTest
+    @Outcome(id = "1", expect = Expect.ACCEPTABLE, desc = "Seule la commande permanente est vue")
+    @Outcome(id = "3", expect = Expect.ACCEPTABLE, desc = "La commande ajoutée est aussi vue")
+    @Outcome(id = "5", expect = Expect.ACCEPTABLE, desc = "La commande supprimée est aussi vue")
+    @Outcome(id = "7", expect = Expect.ACCEPTABLE, desc = "Les trois commandes sont vues")
+    @Outcome(expect = Expect.FORBIDDEN, desc = "Commande permanente omise")
+    @State
+    public static class ParcoursConcurrent {
+        private final CommandeManager manager = new CommandeManager();
+        private final Pizza a = new PizzaFromage();
+        private final Pizza b = new PizzaVegetarienne();
+        private final Pizza c = new PizzaFromage();
+
+        public ParcoursConcurrent() {
+            manager.ajouterCommandes(List.of(a, c));
+        }
+
+        @Actor
+        public void ajouter() {
+            manager.ajouterCommande(b);
+        }
+
+        @Actor
+        public void supprimer() {
+            manager.supprimerCommande(c);
+        }
+
+        @Actor
+        public void parcourir(I_Result r) {
+            int[] masque = new int[1];
+            manager.parcourirCommandes(pizza -> masque[0] |= pizza == a ? 1 : pizza == b ? 2 : pizza == c ? 4 : 8);
+            r.r1 = masque[0];
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.pizza;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.I_Result;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+/**
+ * Tests jcstress de la publication du {@link CommandeManager}.
+ * L'idiome du holder doit donner à tous les threads la même instance,
+ * entièrement construite ; et un gestionnaire publié par une simple course
+ * de données doit rester utilisable, puisque tout son état est atteint par
+ * des champs finaux.
+ */
+public class SingletonStress {
+
+    private SingletonStress() {
+    }
+
+    /**
+     * Deux threads obtiennent l'instance unique en concurrence.
+     */
+    @JCStressTest
+    @Outcome(id = "true, true", expect = Expect.ACCEPTABLE, desc = "Même instance, entièrement construite")
+    @Outcome(expect = Expect.FORBIDDEN, desc = "Instances distinctes ou partiellement construites")
+    @State
+    public static class PublicationSingleton {
+        private CommandeManager vu1;
+        private CommandeManager vu2;
+        private boolean construit1;
+        private boolean construit2;
+
+        @Actor
+        public void obtenir1() {
+            vu1 = CommandeManager.getInstance();
+            construit1 = vu1.getFlux() != null && vu1.getNombreCommandes() >= 0;
+        }
+
+        @Actor
+        public void obtenir2() {
+            vu2 = CommandeManager.getInstance();
+            construit2 = vu2.getFlux() != null && vu2.getNombreCommandes() >= 0;
+        }
+
+        @Arbiter
+        public void constater(ZZ_Result r) {
+            r.r1 = vu1 != null && vu1 == vu2;
+            r.r2 = construit1 && construit2;
+        }
+    }
+
+    /**
+     * Un gestionnaire publié sans synchronisation : le lecteur le voit absent
+     * ou entièrement initialisé, jamais avec une table ou un lock null.
+     */
+    @JCStressTest
+    @Outcome(id = "-1", expect = Expect.ACCEPTABLE, desc = "Gestionnaire pas encore publié")
+    @Outcome(id = "0", expect = Expect.ACCEPTABLE, desc = "Gestionnaire publié et utilisable")
+    @Outcome(expect = Expect.FORBIDDEN, desc = "Gestionnaire vu partiellement construit")
+    @State
+    public static class PublicationParCourse {
+        private CommandeManager manager;
+
+        @Actor
+        public void publier() {
+            manager = new CommandeManager();
+        }
+
+        @Actor
+        public void lire(I_Result r) {
+            CommandeManager vu = manager;
+            if (vu == null) {
+                r.r1 = -1;
+                return;
+            }
+            try {
+                r.r1 = vu.getNombreCommandes() + vu.getCommandes().size();
+            } catch (RuntimeException e) {
+                r.r1 = 1;
+            }
+        }
+    }
+}
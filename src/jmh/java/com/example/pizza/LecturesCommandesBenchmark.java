@@ -0,0 +1,172 @@
+package com.example.pizza;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark du carnet de commandes sous différents mélanges de lectures et
+ * d'écritures.
+ * Compare le {@link CommandeManager}, dont les lectures sont optimistes, à un
+ * carnet de référence protégé par un seul {@link ReentrantLock} pour toutes
+ * les opérations, tel qu'était le gestionnaire auparavant.
+ * <p>
+ * Chaque opération est, selon {@code pourcentageEcritures}, un ajout suivi
+ * d'un retrait, ou une lecture : recherche par identifiant, nombre de
+ * commandes, ou (une fois sur seize) copie du carnet.
+ * <p>
+ * Résultat attendu : à 0 % et 1 % d'écritures, les lectures du gestionnaire
+ * passent à l'échelle avec le nombre de threads, alors que le carnet de
+ * référence sérialise tout ; à 50 %, les deux sont dominés par les écritures.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LecturesCommandesBenchmark {
+
+    private static final int TAILLE_CARNET = 1_000;
+
+    @Param({ "0", "1", "10", "50" })
+    private int pourcentageEcritures;
+
+    private CommandeManager manager;
+    private CarnetVerrouille reference;
+    private long[] ids;
+
+    /**
+     * Carnet de référence : une table triée et un seul lock exclusif.
+     */
+    private static final class CarnetVerrouille {
+        private final ReentrantLock verrou = new ReentrantLock();
+        private final NavigableMap<Long, Pizza> commandes = new TreeMap<>();
+
+        void ajouter(Pizza pizza) {
+            verrou.lock();
+            try {
+                commandes.put(pizza.getId(), pizza);
+            } finally {
+                verrou.unlock();
+            }
+        }
+
+        void supprimer(Pizza pizza) {
+            verrou.lock();
+            try {
+                commandes.remove(pizza.getId(), pizza);
+            } finally {
+                verrou.unlock();
+            }
+        }
+
+        Pizza trouver(long id) {
+            verrou.lock();
+            try {
+                return commandes.get(id);
+            } finally {
+                verrou.unlock();
+            }
+        }
+
+        int nombre() {
+            verrou.lock();
+            try {
+                return commandes.size();
+            } finally {
+                verrou.unlock();
+            }
+        }
+
+        List<Pizza> copier() {
+            verrou.lock();
+            try {
+                List<Pizza> copie = new ArrayList<>(commandes.size());
+                for (Pizza pizza : commandes.values()) {
+                    copie.add(pizza);
+                }
+                return copie;
+            } finally {
+                verrou.unlock();
+            }
+        }
+    }
+
+    /**
+     * Remplit les deux carnets avec les mêmes commandes.
+     */
+    @Setup
+    public void preparer() {
+        manager = new CommandeManager();
+        reference = new CarnetVerrouille();
+        ids = new long[TAILLE_CARNET];
+        for (int i = 0; i < TAILLE_CARNET; i++) {
+            Pizza pizza = i % 2 == 0 ? new PizzaFromage() : new PizzaVegetarienne();
+            manager.ajouterCommande(pizza);
+            reference.ajouter(pizza);
+            ids[i] = pizza.getId();
+        }
+    }
+
+    /**
+     * Opération du mélange sur le gestionnaire.
+     *
+     * @return Le résultat de l'opération
+     */
+    @Benchmark
+    public Object gestionnaire() {
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        int tirage = aleatoire.nextInt(100);
+        if (tirage < pourcentageEcritures) {
+            Pizza pizza = new PizzaFromage();
+            manager.ajouterCommande(pizza);
+            manager.supprimerCommande(pizza);
+            return pizza;
+        }
+        if ((tirage & 15) == 0) {
+            return manager.getCommandes();
+        }
+        return (tirage & 1) == 0 ? manager.trouverCommande(ids[aleatoire.nextInt(ids.length)])
+                : (Object) manager.getNombreCommandes();
+    }
+
+    /**
+     * Même opération sur le carnet protégé par un seul lock exclusif.
+     *
+     * @return Le résultat de l'opération
+     */
+    @Benchmark
+    public Object lockExclusif() {
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        int tirage = aleatoire.nextInt(100);
+        if (tirage < pourcentageEcritures) {
+            Pizza pizza = new PizzaFromage();
+            reference.ajouter(pizza);
+            reference.supprimer(pizza);
+            return pizza;
+        }
+        if ((tirage & 15) == 0) {
+            return reference.copier();
+        }
+        return (tirage & 1) == 0 ? reference.trouver(ids[aleatoire.nextInt(ids.length)])
+                : (Object) reference.nombre();
+    }
+}
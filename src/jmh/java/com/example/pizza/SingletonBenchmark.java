@@ -0,0 +1,86 @@
+package com.example.pizza;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark de l'accès au singleton {@link CommandeManager}.
+ * Compare {@link CommandeManager#getInstance()} (idiome du holder) à la
+ * lecture directe d'un champ final statique, qui constitue le coût plancher,
+ * et à un double-checked locking correct (champ volatile) tel qu'il aurait
+ * fallu l'écrire avec l'ancien lock.
+ * <p>
+ * Résultat attendu : {@code holder} et {@code champFinal} sont
+ * indiscernables, le JIT réduisant l'appel à une constante.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SingletonBenchmark {
+
+    private static final CommandeManager REFERENCE = new CommandeManager();
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    private static volatile CommandeManager instanceVolatile;
+
+    private static CommandeManager doubleCheckVolatile() {
+        CommandeManager local = instanceVolatile;
+        if (local == null) {
+            LOCK.lock();
+            try {
+                local = instanceVolatile;
+                if (local == null) {
+                    local = new CommandeManager();
+                    instanceVolatile = local;
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        }
+        return local;
+    }
+
+    /**
+     * Accès par l'idiome du holder.
+     *
+     * @return L'instance unique
+     */
+    @Benchmark
+    public CommandeManager holder() {
+        return CommandeManager.getInstance();
+    }
+
+    /**
+     * Lecture directe d'un champ final statique (coût plancher).
+     *
+     * @return L'instance de référence
+     */
+    @Benchmark
+    public CommandeManager champFinal() {
+        return REFERENCE;
+    }
+
+    /**
+     * Double-checked locking avec champ volatile.
+     *
+     * @return L'instance unique du benchmark
+     */
+    @Benchmark
+    public CommandeManager doubleCheck() {
+        return doubleCheckVolatile();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.pizza;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache borné des recettes validées, indexé par clé canonique.
+ * Les configurations répétées (la grande majorité des commandes
+ * personnalisées) partagent ainsi une même {@link RecettePizza} immuable au
+ * lieu d'être revalidées et réallouées à chaque construction.
+ * <p>
+ * Les lectures ne prennent aucun verrou. Les insertions, rares, sont
+ * sérialisées par un {@link ReentrantLock} et évincent l'entrée la moins
+ * récemment utilisée lorsque la capacité est atteinte.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public final class CacheRecettes {
+    /**
+     * Capacité du cache partagé.
+     */
+    public static final int CAPACITE_PAR_DEFAUT = 256;
+
+    private static final CacheRecettes INSTANCE = new CacheRecettes(CAPACITE_PAR_DEFAUT);
+
+    private final int capacite;
+    private final Map<Long, Entree> entrees;
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Entrée du cache : la recette et la date de son dernier accès.
+     */
+    private static final class Entree {
+        private final RecettePizza recette;
+        private volatile long dernierAcces;
+
+        private Entree(RecettePizza recette, long dernierAcces) {
+            this.recette = recette;
+            this.dernierAcces = dernierAcces;
+        }
+    }
+
+    /**
+     * Crée un cache de la capacité donnée.
+     *
+     * @param capacite Le nombre maximal de recettes conservées
+     * @throws IllegalArgumentException si la capacité n'est pas positive
+     */
+    public CacheRecettes(int capacite) {
+        if (capacite <= 0) {
+            throw new IllegalArgumentException("La capacité doit être positive");
+        }
+        this.capacite = capacite;
+        this.entrees = new ConcurrentHashMap<>(capacite * 2);
+    }
+
+    /**
+     * Retourne le cache partagé utilisé par le {@link Pizza.PizzaBuilder}.
+     *
+     * @return Le cache partagé
+     */
+    public static CacheRecettes getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Retourne la recette validée correspondant à une clé canonique, en la
+     * créant si nécessaire.
+     *
+     * @param cle La clé canonique de la recette
+     * @return La recette partagée
+     * @throws IllegalArgumentException si la clé n'est pas encodable
+     * @throws IllegalStateException    si la recette n'est pas valide
+     */
+    public RecettePizza obtenir(long cle) {
+        if (cle < 0) {
+            throw new IllegalArgumentException("Clé de recette invalide: " + cle);
+        }
+        Entree entree = entrees.get(cle);
+        if (entree != null) {
+            succes.increment();
+            entree.dernierAcces = System.nanoTime();
+            return entree.recette;
+        }
+        return charger(cle);
+    }
+
+    private RecettePizza charger(long cle) {
+        verrou.lock();
+        try {
+            Entree entree = entrees.get(cle);
+            if (entree != null) {
+                succes.increment();
+                return entree.recette;
+            }
+            echecs.increment();
+            RecettePizza recette = RecettePizza.decoder(cle);
+            recette.valider();
+            if (entrees.size() >= capacite) {
+                evincerMoinsRecente();
+            }
+            entrees.put(cle, new Entree(recette, System.nanoTime()));
+            return recette;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void evincerMoinsRecente() {
+        Long victime = null;
+        long plusAncien = Long.MAX_VALUE;
+        for (Map.Entry<Long, Entree> e : entrees.entrySet()) {
+            long acces = e.getValue().dernierAcces;
+            if (acces < plusAncien) {
+                plusAncien = acces;
+                victime = e.getKey();
+            }
+        }
+        if (victime != null) {
+            entrees.remove(victime);
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Vide le cache et remet les compteurs à zéro.
+     */
+    public void vider() {
+        verrou.lock();
+        try {
+            entrees.clear();
+            succes.reset();
+            echecs.reset();
+            evictions.reset();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Retourne le nombre de recettes actuellement en cache.
+     *
+     * @return La taille du cache
+     */
+    public int getTaille() {
+        return entrees.size();
+    }
+
+    /**
+     * Retourne la capacité du cache.
+     *
+     * @return Le nombre maximal de recettes conservées
+     */
+    public int getCapacite() {
+        return capacite;
+    }
+
+    /**
+     * Retourne le nombre de recherches satisfaites par le cache.
+     *
+     * @return Le nombre de succès
+     */
+    public long getNombreSucces() {
+        return succes.sum();
+    }
+
+    /**
+     * Retourne le nombre de recherches ayant nécessité la création d'une recette.
+     *
+     * @return Le nombre d'échecs
+     */
+    public long getNombreEchecs() {
+        return echecs.sum();
+    }
+
+    /**
+     * Retourne le nombre de recettes évincées depuis la création du cache.
+     *
+     * @return Le nombre d'évictions
+     */
+    public long getNombreEvictions() {
+        return evictions.sum();
+    }
+}
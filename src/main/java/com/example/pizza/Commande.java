@@ -0,0 +1,172 @@
+package com.example.pizza;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Commande d'un client regroupant plusieurs pizzas.
+ * Les pizzas sont tenues dans un tableau de taille exacte, fixé à la
+ * création. Le {@link CommandeManager} ajoute toutes les pizzas d'une
+ * commande, ou annule celles encore au carnet, en une seule opération
+ * ({@link CommandeManager#passerCommande} et
+ * {@link CommandeManager#annulerCommande}), et les étapes de cuisine
+ * peuvent la traiter d'un bloc par {@link #preparer()}, {@link #cuire()} et
+ * {@link #emballer()}.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public final class Commande {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final long id;
+    private final Pizza[] pizzas;
+
+    /**
+     * Crée une commande.
+     *
+     * @param pizzas Les pizzas de la commande, dans l'ordre
+     * @throws IllegalArgumentException si la commande est vide, contient null
+     *                                  ou deux fois la même pizza
+     */
+    public Commande(Pizza... pizzas) {
+        if (pizzas == null || pizzas.length == 0) {
+            throw new IllegalArgumentException("Une commande contient au moins une pizza");
+        }
+        Pizza[] copie = pizzas.clone();
+        for (int i = 0; i < copie.length; i++) {
+            if (copie[i] == null) {
+                throw new IllegalArgumentException("La pizza ne peut pas être null");
+            }
+            for (int j = 0; j < i; j++) {
+                if (copie[j].getId() == copie[i].getId()) {
+                    throw new IllegalArgumentException("Pizza en double dans la commande: " + copie[i].getId());
+                }
+            }
+        }
+        this.id = SEQUENCE.incrementAndGet();
+        this.pizzas = copie;
+    }
+
+    /**
+     * Crée une commande à partir d'une collection de pizzas.
+     *
+     * @param pizzas Les pizzas de la commande, dans l'ordre
+     * @throws IllegalArgumentException si la commande est vide, contient null
+     *                                  ou deux fois la même pizza
+     */
+    public Commande(Collection<? extends Pizza> pizzas) {
+        this(pizzas == null ? null : pizzas.toArray(new Pizza[0]));
+    }
+
+    /**
+     * Retourne l'identifiant de la commande, distinct de ceux des pizzas.
+     *
+     * @return L'identifiant de la commande
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Retourne le nombre de pizzas de la commande.
+     *
+     * @return Le nombre de pizzas
+     */
+    public int getNombrePizzas() {
+        return pizzas.length;
+    }
+
+    /**
+     * Retourne une pizza de la commande.
+     *
+     * @param indice La position de la pizza, à partir de 0
+     * @return La pizza
+     * @throws IndexOutOfBoundsException si l'indice est hors de la commande
+     */
+    public Pizza pizza(int indice) {
+        return pizzas[indice];
+    }
+
+    /**
+     * Retourne les pizzas de la commande.
+     *
+     * @return Une liste non modifiable des pizzas, dans l'ordre
+     */
+    public List<Pizza> getPizzas() {
+        return List.of(pizzas);
+    }
+
+    /**
+     * Retourne l'état de la commande : celui de la pizza la moins avancée
+     * parmi celles qui ne sont pas annulées, ou {@link EtatCommande#ANNULEE}
+     * si toutes le sont.
+     *
+     * @return L'état de la commande
+     */
+    public EtatCommande getEtat() {
+        EtatCommande etat = EtatCommande.ANNULEE;
+        for (Pizza pizza : pizzas) {
+            EtatCommande courant = pizza.getEtat();
+            if (courant != EtatCommande.ANNULEE && (etat == EtatCommande.ANNULEE
+                    || courant.ordinal() < etat.ordinal())) {
+                etat = courant;
+            }
+        }
+        return etat;
+    }
+
+    /**
+     * Prépare toutes les pizzas de la commande.
+     */
+    public void preparer() {
+        for (Pizza pizza : pizzas) {
+            pizza.preparer();
+        }
+    }
+
+    /**
+     * Cuit toutes les pizzas de la commande.
+     */
+    public void cuire() {
+        for (Pizza pizza : pizzas) {
+            pizza.cuire();
+        }
+    }
+
+    /**
+     * Emballe toutes les pizzas de la commande.
+     */
+    public void emballer() {
+        for (Pizza pizza : pizzas) {
+            pizza.emballer();
+        }
+    }
+
+    /**
+     * Annule les pizzas de la commande qui ne sont pas déjà livrées ou
+     * annulées.
+     *
+     * @return Le nombre de pizzas annulées par cet appel
+     */
+    public int annuler() {
+        int annulees = 0;
+        for (Pizza pizza : pizzas) {
+            if (pizza.annuler()) {
+                annulees++;
+            }
+        }
+        return annulees;
+    }
+
+    @Override
+    public String toString() {
+        long[] ids = new long[pizzas.length];
+        for (int i = 0; i < pizzas.length; i++) {
+            ids[i] = pizzas[i].getId();
+        }
+        return "Commande " + id + " " + Arrays.toString(ids);
+    }
+}
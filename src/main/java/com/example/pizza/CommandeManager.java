@@ -1,8 +1,17 @@
 package com.example.pizza;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * Gestionnaire de commandes de pizzas.
@@ -15,86 +24,851 @@ import java.util.concurrent.locks.ReentrantLock;
  * @version 1.0
  */
 public class CommandeManager {
-    // Instance unique du CommandeManager (pattern Singleton)
-    private static CommandeManager instance;
+    // Nombre de commandes copiées sous le lock à chaque étape d'un parcours
+    private static final int tailleLotParcours = 256;
 
-    // Lock utilisé pour assurer la thread-safety lors de la création de l'instance
-    // Le ReentrantLock permet à un thread de réacquérir le même lock plusieurs fois
-    // sans bloquer, ce qui est utile pour les méthodes récursives
-    private static final ReentrantLock lock = new ReentrantLock();
+    // Lock propre à chaque gestionnaire, protégeant la table des commandes.
+    // Chaque magasin d'un CommandeManagerMultiMagasins possède ainsi son propre
+    // point de contention.
+    private final ReentrantLock verrou = new ReentrantLock();
 
-    private final List<Pizza> commandes;
+    // Version de la table des commandes, utilisée en seqlock : les écrivains,
+    // déjà sérialisés par le lock, prennent le verrou d'écriture le temps de
+    // modifier la table, et les lecteurs la lisent sans verrou puis valident
+    // qu'aucune écriture ne s'est intercalée. Le verrou de lecture ne sert
+    // qu'en repli, lorsque la validation échoue.
+    private final StampedLock versions = new StampedLock();
+
+    // Commandes indexées par identifiant : l'ordre de parcours est l'ordre de
+    // création des pizzas, et la recherche ou la suppression d'une commande
+    // se fait en O(log n) au lieu d'un parcours de liste. La table tolère les
+    // lectures concurrentes des modifications, ce que la lecture optimiste
+    // exige : un parcours invalidé se termine normalement avant d'être repris.
+    private final NavigableMap<Long, Pizza> commandes;
+
+    // Nombre de commandes de la table, modifié sous le verrou d'écriture
+    private int nombreCommandes;
+
+    // Effectif de chaque état parmi les commandes rattachées au carnet, indexé
+    // par ordinal. Les transitions ne prennent que ce lock-ci : elles ne
+    // contendent pas avec les écritures de la table.
+    private final ReentrantLock verrouEffectifs = new ReentrantLock();
+    private final int[] effectifs = new int[EtatCommande.values().length];
+
+    // Commandes groupées par identifiant de commande ; leurs pizzas sont aussi
+    // indexées individuellement dans la table des commandes. Une commande
+    // groupée est oubliée dès que sa dernière pizza quitte le carnet.
+    private final NavigableMap<Long, Groupe> commandesGroupees;
+
+    // Commande groupée de chaque pizza ajoutée au titre d'une commande
+    // groupée, par identifiant de pizza
+    private final Map<Long, Groupe> groupesDesPizzas;
+
+    // Flux des modifications, alimenté sous le lock pour que l'ordre des
+    // événements soit celui des modifications ; la livraison n'est signalée
+    // qu'une fois le lock relâché
+    private final FluxCommandes flux = new FluxCommandes();
+
+    // Stock des garnitures réservé à l'ajout des commandes (null : pas de suivi)
+    private volatile Inventaire inventaire;
+
+    // Statistiques horodatant les ajouts (null : pas de mesure)
+    private volatile StatistiquesCommandes statistiques;
+
+    // Clés d'idempotence des soumissions, créé à la première soumission avec clé
+    private volatile RegistreIdempotence idempotence;
+
+    // Suivi asynchrone des commandes soumises, créé à la première soumission
+    private volatile SuiviCommandes suivis;
+
+    /**
+     * Commande groupée et nombre de ses pizzas encore au carnet, modifié sous
+     * le lock.
+     */
+    private static final class Groupe {
+        private final Commande commande;
+        private int presentes;
+
+        private Groupe(Commande commande) {
+            this.commande = commande;
+        }
+    }
+
+    /**
+     * Porteur de l'instance unique (idiome "initialization-on-demand holder").
+     * La JVM n'initialise cette classe qu'au premier appel de
+     * {@link CommandeManager#getInstance()}, et l'initialisation d'une classe
+     * est garantie thread-safe : l'instance est publiée entièrement construite
+     * à tous les threads, sans lock ni champ volatile.
+     */
+    private static final class Holder {
+        private static final CommandeManager instance = new CommandeManager();
+    }
 
     /**
-     * Constructeur privé pour empêcher l'instanciation directe.
-     * Initialise la liste des commandes.
+     * Constructeur réservé au paquetage.
+     * Le singleton est obtenu par {@link #getInstance()} ; les instances
+     * supplémentaires servent de partitions à {@link CommandeManagerMultiMagasins}
+     * et de gestionnaires isolés pour les tests et benchmarks, qui ne partagent
+     * ainsi pas l'état global.
+     * Initialise la table des commandes.
      */
-    private CommandeManager() {
-        this.commandes = new ArrayList<>();
+    CommandeManager() {
+        this.commandes = new ConcurrentSkipListMap<>();
+        this.commandesGroupees = new TreeMap<>();
+        this.groupesDesPizzas = new HashMap<>();
     }
 
     /**
      * Retourne l'instance unique du CommandeManager.
-     * Si l'instance n'existe pas, elle est créée de manière thread-safe.
+     * L'instance est créée paresseusement et de manière thread-safe lors du
+     * premier appel ; les appels suivants se réduisent à la lecture d'un champ
+     * final statique.
      *
      * @return L'instance unique du CommandeManager
      */
     public static CommandeManager getInstance() {
-        // Premier check sans lock pour éviter le coût du lock si l'instance existe déjà
-        if (instance == null) {
-            // Acquisition du lock pour la création de l'instance
-            // Cela empêche plusieurs threads de créer simultanément l'instance
-            lock.lock();
-            try {
-                // Double-check pattern pour éviter la création multiple d'instances
-                // même si plusieurs threads passent le premier check
-                if (instance == null) {
-                    instance = new CommandeManager();
-                }
-            } finally {
-                // Le lock est toujours libéré dans le bloc finally
-                // pour garantir qu'il sera libéré même en cas d'exception
-                lock.unlock();
+        return Holder.instance;
+    }
+
+    /**
+     * Définit l'inventaire dont les garnitures sont réservées à l'ajout des
+     * commandes et libérées à leur suppression. L'inventaire ne peut changer
+     * que lorsque le carnet est vide : les commandes déjà présentes n'ont
+     * rien réservé dans le nouvel inventaire, et leur suppression y
+     * restituerait un stock jamais prélevé.
+     *
+     * @param inventaire L'inventaire, ou null pour ne pas suivre le stock
+     * @throws IllegalStateException si le carnet contient des commandes
+     */
+    public void setInventaire(Inventaire inventaire) {
+        verrou.lock();
+        try {
+            if (nombreCommandes > 0 && this.inventaire != inventaire) {
+                throw new IllegalStateException("Inventaire modifiable seulement sur un carnet vide");
             }
+            this.inventaire = inventaire;
+        } finally {
+            verrou.unlock();
         }
-        return instance;
+    }
+
+    /**
+     * Définit les statistiques qui horodatent et comptent les ajouts de
+     * commandes. Utiliser plutôt
+     * {@link StatistiquesCommandes#brancher(CommandeManager)}.
+     *
+     * @param statistiques Les statistiques, ou null pour ne plus mesurer
+     */
+    public void setStatistiques(StatistiquesCommandes statistiques) {
+        this.statistiques = statistiques;
     }
 
     /**
      * Ajoute une commande de pizza.
+     * Une pizza déjà présente n'est pas ajoutée une seconde fois. Si un
+     * inventaire est défini, toutes les garnitures de la pizza sont réservées
+     * avant l'ajout, sans prendre le lock du gestionnaire.
      *
      * @param pizza La pizza à ajouter à la commande
      * @throws IllegalArgumentException si la pizza est null
+     * @throws IllegalStateException    si le stock ne permet pas de réaliser la
+     *                                  pizza
      */
     public void ajouterCommande(Pizza pizza) {
         if (pizza == null) {
             throw new IllegalArgumentException("La pizza ne peut pas être null");
         }
-        commandes.add(pizza);
+        Inventaire stock = inventaire;
+        if (stock != null && !stock.reserver(pizza)) {
+            if (trouverCommande(pizza.getId()) == pizza) {
+                // Pizza déjà présente : rien à réserver de nouveau
+                return;
+            }
+            throw new IllegalStateException("Stock insuffisant pour la commande " + pizza.getId());
+        }
+        boolean ajoutee;
+        verrou.lock();
+        long ecriture = versions.writeLock();
+        try {
+            ajoutee = commandes.put(pizza.getId(), pizza) == null;
+            if (ajoutee) {
+                nombreCommandes++;
+                compter(pizza);
+                flux.publier(EvenementCommande.Type.AJOUT, pizza);
+            }
+        } finally {
+            versions.unlockWrite(ecriture);
+            verrou.unlock();
+        }
+        flux.signaler();
+        if (!ajoutee && stock != null) {
+            // Pizza déjà présente : sa réservation initiale suffit
+            stock.liberer(pizza);
+        }
+        StatistiquesCommandes mesure = statistiques;
+        if (ajoutee && mesure != null) {
+            mesure.enregistrerAjout(pizza);
+        }
+    }
+
+    /**
+     * Ajoute une commande identifiée par une clé d'idempotence.
+     * Un terminal qui renvoie une commande après un délai d'attente réutilise
+     * la même clé : tant que la clé est retenue par le
+     * {@link RegistreIdempotence}, la commande d'origine est retournée et
+     * aucune nouvelle commande n'est ajoutée. Une soumission répétée pendant
+     * l'ajout de la commande d'origine attend cet ajout, et échoue avec lui.
+     *
+     * @param cleIdempotence La clé fournie par le client
+     * @param pizza          La pizza à ajouter si la clé est nouvelle
+     * @return La pizza ajoutée, ou la commande d'origine si la clé a déjà été
+     *         soumise
+     * @throws IllegalArgumentException si la clé ou la pizza est null
+     * @throws IllegalStateException    si le stock ne permet pas de réaliser la
+     *                                  pizza (la clé n'est alors pas retenue),
+     *                                  ou si l'ajout de la commande d'origine
+     *                                  attendu a échoué
+     */
+    public Pizza ajouterCommande(String cleIdempotence, Pizza pizza) {
+        if (pizza == null) {
+            throw new IllegalArgumentException("La pizza ne peut pas être null");
+        }
+        RegistreIdempotence registre = registreIdempotence();
+        Pizza originale = registre.soumettre(cleIdempotence, pizza);
+        if (originale != null) {
+            return originale;
+        }
+        try {
+            ajouterCommande(pizza);
+        } catch (RuntimeException | Error e) {
+            registre.retirer(cleIdempotence, pizza, e);
+            throw e;
+        }
+        registre.confirmer(cleIdempotence, pizza);
+        return pizza;
+    }
+
+    /**
+     * Soumet une commande et retourne son suivi asynchrone : un
+     * {@link java.util.concurrent.CompletableFuture} par étape de cuisine,
+     * complété lorsque la commande l'atteint. Annuler le suivi, ou laisser
+     * expirer son délai, retire et annule la commande ; une commande annulée
+     * ou retirée du carnet fait échouer son suivi.
+     *
+     * @param pizza La pizza à ajouter
+     * @return Le suivi de la commande
+     * @throws IllegalArgumentException si la pizza est null
+     * @throws IllegalStateException    si le stock ne permet pas de réaliser la
+     *                                  pizza
+     */
+    public SuiviCommande soumettre(Pizza pizza) {
+        if (pizza == null) {
+            throw new IllegalArgumentException("La pizza ne peut pas être null");
+        }
+        ajouterCommande(pizza);
+        // Suivie une fois au carnet : un vidage concurrent ne peut pas faire
+        // échouer le suivi d'une commande qui n'y est pas encore
+        return suiviCommandes().suivre(pizza);
+    }
+
+    private SuiviCommandes suiviCommandes() {
+        SuiviCommandes registre = suivis;
+        if (registre == null) {
+            verrou.lock();
+            try {
+                if (suivis == null) {
+                    suivis = new SuiviCommandes(this);
+                }
+                registre = suivis;
+            } finally {
+                verrou.unlock();
+            }
+        }
+        return registre;
+    }
+
+    /**
+     * Remplace le registre des clés d'idempotence, par exemple pour changer
+     * la durée de rétention des clés.
+     *
+     * @param idempotence Le nouveau registre
+     */
+    public void setIdempotence(RegistreIdempotence idempotence) {
+        this.idempotence = idempotence;
+    }
+
+    private RegistreIdempotence registreIdempotence() {
+        RegistreIdempotence registre = idempotence;
+        if (registre == null) {
+            verrou.lock();
+            try {
+                if (idempotence == null) {
+                    idempotence = new RegistreIdempotence();
+                }
+                registre = idempotence;
+            } finally {
+                verrou.unlock();
+            }
+        }
+        return registre;
+    }
+
+    /**
+     * Ajoute un lot de commandes sous une seule acquisition du lock.
+     * Le lot est vérifié avant toute insertion : soit toutes les pizzas sont
+     * ajoutées, soit aucune.
+     *
+     * @param pizzas Les pizzas à ajouter
+     * @throws IllegalArgumentException si le lot ou l'une des pizzas est null
+     * @throws IllegalStateException    si le stock ne permet pas de réaliser
+     *                                  tout le lot
+     */
+    public void ajouterCommandes(Collection<? extends Pizza> pizzas) {
+        if (pizzas == null) {
+            throw new IllegalArgumentException("Le lot de pizzas ne peut pas être null");
+        }
+        for (Pizza pizza : pizzas) {
+            if (pizza == null) {
+                throw new IllegalArgumentException("La pizza ne peut pas être null");
+            }
+        }
+        ajouterLot(pizzas, null);
+    }
+
+    /**
+     * Passe une commande groupée : toutes ses pizzas sont ajoutées sous une
+     * seule acquisition du lock, ou aucune si le stock ne permet pas de toutes
+     * les réaliser. Une commande encore au carnet n'est pas ajoutée une
+     * seconde fois.
+     *
+     * @param commande La commande à passer
+     * @throws IllegalArgumentException si la commande est null
+     * @throws IllegalStateException    si le stock ne permet pas de réaliser
+     *                                  toute la commande
+     */
+    public void passerCommande(Commande commande) {
+        if (commande == null) {
+            throw new IllegalArgumentException("La commande ne peut pas être null");
+        }
+        ajouterLot(commande.getPizzas(), commande);
+    }
+
+    /**
+     * Ajoute un lot de pizzas vérifié, éventuellement au titre d'une commande
+     * groupée.
+     */
+    private void ajouterLot(Collection<? extends Pizza> pizzas, Commande commande) {
+        Inventaire stock = inventaire;
+        if (stock != null) {
+            reserverLot(stock, pizzas);
+        }
+        StatistiquesCommandes mesure = statistiques;
+        List<Pizza> dejaPresentes = null;
+        List<Pizza> ajoutees = mesure == null ? null : new ArrayList<>(pizzas.size());
+        verrou.lock();
+        long ecriture = versions.writeLock();
+        try {
+            boolean dejaPassee = commande != null && commandesGroupees.containsKey(commande.getId());
+            Groupe groupe = commande == null || dejaPassee ? null : new Groupe(commande);
+            for (Pizza pizza : pizzas) {
+                if (!dejaPassee && commandes.put(pizza.getId(), pizza) == null) {
+                    nombreCommandes++;
+                    compter(pizza);
+                    flux.publier(EvenementCommande.Type.AJOUT, pizza);
+                    if (groupe != null) {
+                        groupe.presentes++;
+                        groupesDesPizzas.put(pizza.getId(), groupe);
+                    }
+                    if (ajoutees != null) {
+                        ajoutees.add(pizza);
+                    }
+                } else if (stock != null) {
+                    if (dejaPresentes == null) {
+                        dejaPresentes = new ArrayList<>();
+                    }
+                    dejaPresentes.add(pizza);
+                }
+            }
+            if (groupe != null && groupe.presentes > 0) {
+                commandesGroupees.put(commande.getId(), groupe);
+            }
+        } finally {
+            versions.unlockWrite(ecriture);
+            verrou.unlock();
+        }
+        flux.signaler();
+        if (dejaPresentes != null) {
+            for (Pizza pizza : dejaPresentes) {
+                stock.liberer(pizza);
+            }
+        }
+        if (ajoutees != null) {
+            for (Pizza pizza : ajoutees) {
+                mesure.enregistrerAjout(pizza);
+            }
+        }
+    }
+
+    private static void reserverLot(Inventaire stock, Collection<? extends Pizza> pizzas) {
+        List<Pizza> reservees = new ArrayList<>(pizzas.size());
+        for (Pizza pizza : pizzas) {
+            if (!stock.reserver(pizza)) {
+                for (Pizza reservee : reservees) {
+                    stock.liberer(reservee);
+                }
+                throw new IllegalStateException("Stock insuffisant pour la commande " + pizza.getId());
+            }
+            reservees.add(pizza);
+        }
+    }
+
+    /**
+     * Libère les garnitures d'une commande retirée avant le début de sa
+     * préparation. Les garnitures d'une commande dont la préparation a
+     * commencé sont considérées comme consommées, même si elle a été annulée
+     * depuis.
+     */
+    private void libererStock(Pizza pizza) {
+        Inventaire stock = inventaire;
+        if (stock != null && !pizza.isPreparationCommencee()) {
+            stock.liberer(pizza);
+        }
     }
 
     /**
      * Supprime une commande de pizza.
+     * Les garnitures réservées sont restituées à l'inventaire si la préparation
+     * n'a pas commencé.
      *
      * @param pizza La pizza à supprimer de la commande
      */
     public void supprimerCommande(Pizza pizza) {
-        commandes.remove(pizza);
+        if (pizza == null) {
+            return;
+        }
+        boolean supprimee;
+        verrou.lock();
+        long ecriture = versions.writeLock();
+        try {
+            supprimee = commandes.remove(pizza.getId(), pizza);
+            if (supprimee) {
+                nombreCommandes--;
+                decompter(pizza);
+                retirerDuGroupe(pizza);
+                flux.publier(EvenementCommande.Type.SUPPRESSION, pizza);
+            }
+        } finally {
+            versions.unlockWrite(ecriture);
+            verrou.unlock();
+        }
+        flux.signaler();
+        if (supprimee) {
+            libererStock(pizza);
+        }
+    }
+
+    /**
+     * Décompte une pizza retirée du carnet de sa commande groupée, et oublie
+     * la commande groupée lorsqu'il s'agissait de sa dernière pizza. Appelé
+     * sous le verrou d'écriture.
+     */
+    private void retirerDuGroupe(Pizza pizza) {
+        if (groupesDesPizzas.isEmpty()) {
+            return;
+        }
+        Groupe groupe = groupesDesPizzas.remove(pizza.getId());
+        if (groupe != null && --groupe.presentes == 0) {
+            commandesGroupees.remove(groupe.commande.getId());
+        }
+    }
+
+    /**
+     * Rattache une pizza ajoutée au carnet et la compte dans son état courant.
+     * Appelé sous le verrou d'écriture. La pizza est rattachée avant que son
+     * état soit lu : une transition concurrente a soit déjà eu lieu, soit
+     * verra le carnet et recomptera la pizza.
+     */
+    private void compter(Pizza pizza) {
+        verrouEffectifs.lock();
+        try {
+            if (pizza.rattacher(this)) {
+                EtatCommande etat = pizza.getEtat();
+                pizza.setEtatCompte(etat);
+                effectifs[etat.ordinal()]++;
+            }
+        } finally {
+            verrouEffectifs.unlock();
+        }
+    }
+
+    /**
+     * Détache une pizza retirée du carnet et la retire de l'effectif de
+     * l'état dans lequel elle était comptée. Appelé sous le verrou
+     * d'écriture.
+     */
+    private void decompter(Pizza pizza) {
+        verrouEffectifs.lock();
+        try {
+            if (pizza.detacher(this)) {
+                effectifs[pizza.getEtatCompte().ordinal()]--;
+                pizza.setEtatCompte(null);
+            }
+        } finally {
+            verrouEffectifs.unlock();
+        }
+    }
+
+    /**
+     * Reporte dans les effectifs l'état courant d'une pizza rattachée au
+     * carnet. Appelé par la pizza après chacune de ses transitions.
+     *
+     * @param pizza La pizza dont l'état a changé
+     */
+    void recompter(Pizza pizza) {
+        verrouEffectifs.lock();
+        try {
+            EtatCommande compte = pizza.getEtatCompte();
+            EtatCommande etat = pizza.getEtat();
+            if (pizza.getCarnet() == this && compte != etat) {
+                effectifs[compte.ordinal()]--;
+                effectifs[etat.ordinal()]++;
+                pizza.setEtatCompte(etat);
+            }
+        } finally {
+            verrouEffectifs.unlock();
+        }
+    }
+
+    /**
+     * Supprime une commande à partir de son identifiant.
+     *
+     * @param id L'identifiant de la commande
+     * @return La pizza supprimée, ou null si aucune commande ne porte cet
+     *         identifiant
+     */
+    public Pizza supprimerCommande(long id) {
+        Pizza pizza;
+        verrou.lock();
+        long ecriture = versions.writeLock();
+        try {
+            pizza = commandes.remove(id);
+            if (pizza != null) {
+                nombreCommandes--;
+                decompter(pizza);
+                retirerDuGroupe(pizza);
+                flux.publier(EvenementCommande.Type.SUPPRESSION, pizza);
+            }
+        } finally {
+            versions.unlockWrite(ecriture);
+            verrou.unlock();
+        }
+        flux.signaler();
+        if (pizza != null) {
+            libererStock(pizza);
+        }
+        return pizza;
+    }
+
+    /**
+     * Annule une commande groupée : ses pizzas encore présentes sont retirées
+     * sous une seule acquisition du lock, leurs garnitures sont restituées si
+     * la préparation n'a pas commencé, puis elles sont annulées. Les pizzas
+     * de la commande qui ont déjà quitté le carnet ne sont pas modifiées.
+     *
+     * @param idCommande L'identifiant de la commande groupée
+     * @return La commande annulée, ou null si aucune commande groupée ne porte
+     *         cet identifiant
+     */
+    public Commande annulerCommande(long idCommande) {
+        Commande commande;
+        Pizza[] retirees;
+        int nombre = 0;
+        verrou.lock();
+        long ecriture = versions.writeLock();
+        try {
+            Groupe groupe = commandesGroupees.remove(idCommande);
+            if (groupe == null) {
+                return null;
+            }
+            commande = groupe.commande;
+            retirees = new Pizza[commande.getNombrePizzas()];
+            for (int i = 0; i < retirees.length; i++) {
+                Pizza pizza = commande.pizza(i);
+                // Une pizza retirée individuellement entre-temps est ignorée
+                if (commandes.remove(pizza.getId(), pizza)) {
+                    nombreCommandes--;
+                    decompter(pizza);
+                    groupesDesPizzas.remove(pizza.getId(), groupe);
+                    flux.publier(EvenementCommande.Type.SUPPRESSION, pizza);
+                    retirees[nombre++] = pizza;
+                }
+            }
+        } finally {
+            versions.unlockWrite(ecriture);
+            verrou.unlock();
+        }
+        flux.signaler();
+        for (int i = 0; i < nombre; i++) {
+            libererStock(retirees[i]);
+            // Seules les pizzas retirées ici sont annulées : une pizza sortie
+            // du carnet, remise au livreur par exemple, garde son état
+            retirees[i].annuler();
+        }
+        return commande;
+    }
+
+    /**
+     * Recherche une commande groupée à partir de son identifiant.
+     * Une pizza de la commande a pu être retirée individuellement depuis ;
+     * une commande dont plus aucune pizza n'est au carnet (livrées, expirées
+     * ou supprimées une à une) n'est plus retenue.
+     *
+     * @param idCommande L'identifiant de la commande groupée
+     * @return La commande, ou null si elle est absente
+     */
+    public Commande trouverCommandeGroupee(long idCommande) {
+        verrou.lock();
+        try {
+            Groupe groupe = commandesGroupees.get(idCommande);
+            return groupe == null ? null : groupe.commande;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Recherche une commande à partir de son identifiant.
+     * La recherche d'une seule clé est atomique par elle-même : elle ne prend
+     * aucun verrou et n'a pas à être validée.
+     *
+     * @param id L'identifiant de la commande
+     * @return La pizza correspondante, ou null si elle est absente
+     */
+    public Pizza trouverCommande(long id) {
+        return commandes.get(id);
     }
 
     /**
      * Retourne une copie défensive de la liste des commandes.
+     * La copie est remplie directement : {@code new ArrayList<>(values())}
+     * passerait par un tableau intermédiaire de la taille du carnet. Elle est
+     * faite sans verrou, puis refaite sous le verrou de lecture si une
+     * modification s'est intercalée, de sorte qu'elle ne contient jamais un
+     * lot à moitié ajouté ou retiré.
      *
      * @return Une nouvelle liste contenant toutes les commandes
      */
     public List<Pizza> getCommandes() {
-        return new ArrayList<>(commandes);
+        long lecture = versions.tryOptimisticRead();
+        if (lecture != 0) {
+            List<Pizza> copie = copierCommandes(nombreCommandes);
+            if (versions.validate(lecture)) {
+                return copie;
+            }
+        }
+        lecture = versions.readLock();
+        try {
+            return copierCommandes(nombreCommandes);
+        } finally {
+            versions.unlockRead(lecture);
+        }
+    }
+
+    private List<Pizza> copierCommandes(int taille) {
+        // Une taille lue pendant une écriture peut être incohérente : la copie
+        // sera de toute façon écartée à la validation
+        List<Pizza> copie = new ArrayList<>(Math.max(taille, 0));
+        for (Pizza pizza : commandes.values()) {
+            copie.add(pizza);
+        }
+        return copie;
+    }
+
+    /**
+     * Retourne le flux des modifications du carnet de commandes.
+     * Les abonnés reçoivent par lots les ajouts, les suppressions et les
+     * vidages, au lieu de comparer des copies successives de
+     * {@link #getCommandes()}.
+     *
+     * @return Le publieur des événements de ce gestionnaire
+     */
+    public Flow.Publisher<List<EvenementCommande>> getFlux() {
+        return flux;
+    }
+
+    /**
+     * Retourne le numéro de séquence du dernier événement publié sur le flux.
+     *
+     * @return Le numéro de séquence, ou 0 avant le premier événement
+     */
+    long getSequenceFlux() {
+        return flux.getSequence();
+    }
+
+    /**
+     * Parcourt toutes les commandes sans copier la table.
+     * Le parcours avance par lots, dans l'ordre des identifiants : chaque lot
+     * est relevé sous le lock, qui est relâché avant d'appeler le consommateur.
+     * Les ajouts et suppressions concurrents ne sont donc pas bloqués pendant le
+     * parcours, et un lot n'est relevé sous le verrou de lecture que si une
+     * modification a invalidé son relevé optimiste. Le parcours s'arrête à la
+     * plus grande commande présente à son début : il se termine même si les
+     * ajouts ne cessent pas. Une commande ajoutée ou supprimée pendant le
+     * parcours peut être vue ou non, mais aucune commande présente du début à
+     * la fin du parcours n'est omise ni vue deux fois.
+     *
+     * @param consommateur Le traitement appliqué à chaque commande
+     * @return Le nombre de commandes parcourues
+     */
+    public long parcourirCommandes(Consumer<? super Pizza> consommateur) {
+        Map.Entry<Long, Pizza> derniere = commandes.lastEntry();
+        if (derniere == null) {
+            return 0;
+        }
+        long borne = derniere.getKey();
+        Pizza[] lot = new Pizza[tailleLotParcours];
+        long dernierId = Long.MIN_VALUE;
+        long total = 0;
+        int taille;
+        do {
+            long lecture = versions.tryOptimisticRead();
+            taille = lecture == 0 ? 0 : releverLot(dernierId, borne, lot);
+            if (lecture == 0 || !versions.validate(lecture)) {
+                lecture = versions.readLock();
+                try {
+                    taille = releverLot(dernierId, borne, lot);
+                } finally {
+                    versions.unlockRead(lecture);
+                }
+            }
+            if (taille > 0) {
+                dernierId = lot[taille - 1].getId();
+            }
+            for (int i = 0; i < taille; i++) {
+                consommateur.accept(lot[i]);
+                lot[i] = null;
+            }
+            total += taille;
+        } while (taille == lot.length);
+        return total;
+    }
+
+    private int releverLot(long dernierId, long borne, Pizza[] lot) {
+        int taille = 0;
+        for (Pizza pizza : commandes.subMap(dernierId, false, borne, true).values()) {
+            lot[taille++] = pizza;
+            if (taille == lot.length) {
+                break;
+            }
+        }
+        return taille;
+    }
+
+    /**
+     * Retourne les commandes se trouvant dans un état donné.
+     * L'état de chaque pizza évoluant sans lock, le résultat reflète l'état
+     * observé au moment du parcours.
+     *
+     * @param etat L'état recherché
+     * @return Une nouvelle liste contenant les commandes dans cet état
+     */
+    public List<Pizza> commandesDansEtat(EtatCommande etat) {
+        long lecture = versions.tryOptimisticRead();
+        if (lecture != 0) {
+            List<Pizza> resultat = filtrerCommandes(etat);
+            if (versions.validate(lecture)) {
+                return resultat;
+            }
+        }
+        lecture = versions.readLock();
+        try {
+            return filtrerCommandes(etat);
+        } finally {
+            versions.unlockRead(lecture);
+        }
     }
 
     /**
-     * Vide la liste des commandes.
+     * Retourne le nombre de commandes du carnet se trouvant dans un état
+     * donné, tenu à jour à chaque ajout, suppression et transition, sans
+     * parcourir le carnet. Une pizza déjà comptée par un autre carnet ne
+     * l'est pas par celui-ci.
+     *
+     * @param etat L'état recherché
+     * @return L'effectif de l'état
+     */
+    public int nombreCommandesDansEtat(EtatCommande etat) {
+        verrouEffectifs.lock();
+        try {
+            return effectifs[etat.ordinal()];
+        } finally {
+            verrouEffectifs.unlock();
+        }
+    }
+
+    private List<Pizza> filtrerCommandes(EtatCommande etat) {
+        List<Pizza> resultat = new ArrayList<>();
+        for (Pizza pizza : commandes.values()) {
+            if (pizza.getEtat() == etat) {
+                resultat.add(pizza);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne le nombre de commandes sans copier la table ni prendre de
+     * verrou, sauf si une modification est en cours.
+     *
+     * @return Le nombre de commandes en cours
+     */
+    public int getNombreCommandes() {
+        long lecture = versions.tryOptimisticRead();
+        int nombre = nombreCommandes;
+        if (lecture != 0 && versions.validate(lecture)) {
+            return nombre;
+        }
+        lecture = versions.readLock();
+        try {
+            return nombreCommandes;
+        } finally {
+            versions.unlockRead(lecture);
+        }
+    }
+
+    /**
+     * Vide la table des commandes.
+     * Les garnitures des commandes non préparées sont restituées à
+     * l'inventaire.
      */
     public void viderCommandes() {
-        commandes.clear();
+        List<Pizza> retirees = null;
+        verrou.lock();
+        long ecriture = versions.writeLock();
+        try {
+            if (!commandes.isEmpty()) {
+                if (inventaire != null) {
+                    retirees = new ArrayList<>(commandes.values());
+                }
+                for (Pizza pizza : commandes.values()) {
+                    decompter(pizza);
+                }
+                commandes.clear();
+                nombreCommandes = 0;
+                commandesGroupees.clear();
+                groupesDesPizzas.clear();
+                flux.publier(EvenementCommande.Type.VIDAGE, null);
+            }
+        } finally {
+            versions.unlockWrite(ecriture);
+            verrou.unlock();
+        }
+        flux.signaler();
+        if (retirees != null) {
+            for (Pizza pizza : retirees) {
+                libererStock(pizza);
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.example.pizza;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gestionnaire de commandes partitionné par magasin.
+ * Chaque magasin dispose de son propre {@link CommandeManager}, avec un
+ * stockage et un lock indépendants : les commandes de deux restaurants
+ * différents ne se disputent jamais le même verrou. Les lectures agrégées
+ * parcourent les partitions une à une.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class CommandeManagerMultiMagasins {
+
+    private final Map<String, CommandeManager> magasins = new ConcurrentHashMap<>();
+
+    /**
+     * Retourne le gestionnaire de commandes d'un magasin, en le créant si
+     * nécessaire.
+     *
+     * @param idMagasin L'identifiant du magasin
+     * @return Le gestionnaire dédié au magasin
+     * @throws IllegalArgumentException si l'identifiant est null
+     */
+    public CommandeManager magasin(String idMagasin) {
+        verifierMagasin(idMagasin);
+        return magasins.computeIfAbsent(idMagasin, id -> new CommandeManager());
+    }
+
+    /**
+     * Ajoute une commande de pizza dans un magasin.
+     *
+     * @param idMagasin L'identifiant du magasin
+     * @param pizza     La pizza à ajouter
+     * @throws IllegalArgumentException si le magasin ou la pizza est null
+     */
+    public void ajouterCommande(String idMagasin, Pizza pizza) {
+        magasin(idMagasin).ajouterCommande(pizza);
+    }
+
+    /**
+     * Supprime une commande de pizza d'un magasin.
+     *
+     * @param idMagasin L'identifiant du magasin
+     * @param pizza     La pizza à supprimer
+     * @throws IllegalArgumentException si l'identifiant du magasin est null
+     */
+    public void supprimerCommande(String idMagasin, Pizza pizza) {
+        verifierMagasin(idMagasin);
+        CommandeManager manager = magasins.get(idMagasin);
+        if (manager != null) {
+            manager.supprimerCommande(pizza);
+        }
+    }
+
+    private static void verifierMagasin(String idMagasin) {
+        if (idMagasin == null) {
+            throw new IllegalArgumentException("L'identifiant du magasin ne peut pas être null");
+        }
+    }
+
+    /**
+     * Retourne les identifiants des magasins connus.
+     *
+     * @return Un ensemble non modifiable des identifiants
+     */
+    public Set<String> getMagasins() {
+        return Collections.unmodifiableSet(magasins.keySet());
+    }
+
+    /**
+     * Retourne toutes les commandes, tous magasins confondus.
+     * Chaque partition est copiée sous son propre lock ; le résultat n'est donc
+     * pas un instantané atomique de l'ensemble des magasins.
+     *
+     * @return Une nouvelle liste contenant toutes les commandes
+     */
+    public List<Pizza> getCommandes() {
+        List<Pizza> toutes = new ArrayList<>();
+        for (CommandeManager manager : magasins.values()) {
+            toutes.addAll(manager.getCommandes());
+        }
+        return toutes;
+    }
+
+    /**
+     * Retourne le nombre total de commandes, tous magasins confondus.
+     *
+     * @return Le nombre de commandes
+     */
+    public int getNombreCommandes() {
+        int total = 0;
+        for (CommandeManager manager : magasins.values()) {
+            total += manager.getNombreCommandes();
+        }
+        return total;
+    }
+
+    /**
+     * Retourne le nombre de commandes de chaque magasin.
+     *
+     * @return Une table triée associant chaque magasin à son nombre de commandes
+     */
+    public Map<String, Integer> getNombreCommandesParMagasin() {
+        Map<String, Integer> compteurs = new TreeMap<>();
+        for (Map.Entry<String, CommandeManager> entree : magasins.entrySet()) {
+            compteurs.put(entree.getKey(), entree.getValue().getNombreCommandes());
+        }
+        return compteurs;
+    }
+
+    /**
+     * Vide les commandes de tous les magasins.
+     */
+    public void viderCommandes() {
+        for (CommandeManager manager : magasins.values()) {
+            manager.viderCommandes();
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.example.pizza;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Contrôle d'admission adaptatif des commandes d'un {@link CommandeManager}.
+ * Le contrôleur limite le nombre de commandes en cuisine, admises et pas encore
+ * emballées (ni annulées, livrées ou retirées du carnet). Au-delà de la limite,
+ * une commande est refusée immédiatement avec un délai de nouvel essai,
+ * plutôt que d'allonger la file de toutes les commandes déjà acceptées.
+ * <p>
+ * La limite s'ajuste à la manière d'AIMD, sur le temps d'attente mesuré entre
+ * l'admission d'une commande et le début de sa préparation. Une attente
+ * supérieure à la cible réduit la limite d'un facteur
+ * {@value #FACTEUR_REDUCTION}, une seule fois par épisode de congestion : les
+ * commandes admises avant la dernière réduction ne la déclenchent pas de
+ * nouveau. Une attente inférieure à la cible, alors que la limite est
+ * utilisée au moins de moitié, l'augmente de 1/limite, soit d'une unité
+ * toutes les {@code limite} commandes.
+ * <p>
+ * Le délai de nouvel essai estime le temps nécessaire pour que la cuisine
+ * libère assez de places : l'excédent par rapport à la limite multiplié par
+ * l'intervalle moyen entre deux sorties de cuisine.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class ControleAdmission implements EcouteurTransitions, Flow.Subscriber<List<EvenementCommande>> {
+    /**
+     * Facteur appliqué à la limite lorsque l'attente dépasse la cible.
+     */
+    public static final double FACTEUR_REDUCTION = 0.8;
+
+    /**
+     * Limite initiale par défaut du nombre de commandes en cuisine.
+     */
+    public static final int LIMITE_INITIALE_PAR_DEFAUT = 20;
+
+    /**
+     * Délai de nouvel essai minimal.
+     */
+    public static final Duration REESSAI_MINIMAL = Duration.ofMillis(100);
+
+    /**
+     * Délai de nouvel essai maximal.
+     */
+    public static final Duration REESSAI_MAXIMAL = Duration.ofMinutes(1);
+
+    // Poids d'une nouvelle mesure dans la moyenne mobile des intervalles de sortie
+    private static final double POIDS_INTERVALLE = 0.2;
+
+    private final CommandeManager manager;
+    private final long attenteCible;
+    private final int limiteMinimale;
+    private final int limiteMaximale;
+    private final LongSupplier horloge;
+    // Commandes en cuisine et instant de leur admission
+    private final ConcurrentHashMap<Pizza, Long> admises = new ConcurrentHashMap<>();
+    private final AtomicInteger enCours = new AtomicInteger();
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder rejets = new LongAdder();
+    private final HistogrammeLatence attentes = new HistogrammeLatence();
+    private final ReentrantLock verrou = new ReentrantLock();
+    private volatile int limiteEntiere;
+    private double limite;
+    private long derniereReduction = Long.MIN_VALUE;
+    private long derniereSortie;
+    private double intervalleSorties;
+    private Flow.Subscription abonnement;
+
+    /**
+     * Décision d'admission d'une commande.
+     *
+     * @param commande       La commande ajoutée au carnet, ou null si elle est
+     *                       refusée
+     * @param reessayerApres Le délai après lequel soumettre de nouveau une
+     *                       commande refusée, ou {@link Duration#ZERO}
+     */
+    public record Decision(Pizza commande, Duration reessayerApres) {
+        /**
+         * Indique si la commande a été admise.
+         *
+         * @return true si la commande a été ajoutée au carnet
+         */
+        public boolean isAdmise() {
+            return commande != null;
+        }
+    }
+
+    /**
+     * Crée un contrôleur mesuré avec {@link System#nanoTime()}, de limite
+     * initiale {@value #LIMITE_INITIALE_PAR_DEFAUT}.
+     *
+     * @param manager      Le gestionnaire protégé
+     * @param attenteCible L'attente avant préparation à ne pas dépasser
+     */
+    public ControleAdmission(CommandeManager manager, Duration attenteCible) {
+        this(manager, attenteCible, LIMITE_INITIALE_PAR_DEFAUT, 1, 10_000, System::nanoTime);
+    }
+
+    /**
+     * Crée un contrôleur.
+     *
+     * @param manager         Le gestionnaire protégé
+     * @param attenteCible    L'attente avant préparation à ne pas dépasser
+     * @param limiteInitiale  La limite initiale du nombre de commandes en
+     *                        cuisine
+     * @param limiteMinimale  La limite en dessous de laquelle la limite ne
+     *                        descend pas
+     * @param limiteMaximale  La limite au-dessus de laquelle la limite ne monte
+     *                        pas
+     * @param horloge         L'horloge, en nanosecondes
+     * @throws IllegalArgumentException si l'attente n'est pas positive ou si les
+     *                                  limites ne vérifient pas
+     *                                  1 ≤ minimale ≤ initiale ≤ maximale
+     */
+    public ControleAdmission(CommandeManager manager, Duration attenteCible, int limiteInitiale,
+            int limiteMinimale, int limiteMaximale, LongSupplier horloge) {
+        if (attenteCible.isNegative() || attenteCible.isZero()) {
+            throw new IllegalArgumentException("L'attente cible doit être positive");
+        }
+        if (limiteMinimale < 1 || limiteInitiale < limiteMinimale || limiteMaximale < limiteInitiale) {
+            throw new IllegalArgumentException("Limites d'admission incohérentes: " + limiteMinimale + " ≤ "
+                    + limiteInitiale + " ≤ " + limiteMaximale);
+        }
+        this.manager = manager;
+        this.attenteCible = attenteCible.toNanos();
+        this.limiteMinimale = limiteMinimale;
+        this.limiteMaximale = limiteMaximale;
+        this.horloge = horloge;
+        this.limite = limiteInitiale;
+        this.limiteEntiere = limiteInitiale;
+    }
+
+    /**
+     * Branche le contrôleur sur les transitions des pizzas et sur le flux du
+     * gestionnaire, qui signale les commandes retirées du carnet.
+     */
+    public void brancher() {
+        Pizza.ajouterEcouteur(this);
+        manager.getFlux().subscribe(this);
+    }
+
+    /**
+     * Débranche le contrôleur.
+     */
+    public void debrancher() {
+        Pizza.retirerEcouteur(this);
+        Flow.Subscription courant;
+        verrou.lock();
+        try {
+            courant = abonnement;
+            abonnement = null;
+        } finally {
+            verrou.unlock();
+        }
+        if (courant != null) {
+            courant.cancel();
+        }
+    }
+
+    /**
+     * Admet une commande si la limite le permet, et l'ajoute alors au carnet.
+     *
+     * @param pizza La commande soumise
+     * @return La décision : la commande admise, ou le délai de nouvel essai
+     * @throws IllegalArgumentException si la pizza est null
+     * @throws IllegalStateException    si le stock ne permet pas de réaliser la
+     *                                  pizza (la place est alors rendue)
+     */
+    public Decision admettre(Pizza pizza) {
+        return admettre(null, pizza);
+    }
+
+    /**
+     * Admet une commande identifiée par une clé d'idempotence si la limite le
+     * permet (voir {@link CommandeManager#ajouterCommande(String, Pizza)}).
+     * Une clé déjà soumise ne consomme pas de place : la commande d'origine
+     * est retournée comme admise.
+     *
+     * @param cleIdempotence La clé fournie par le client, ou null
+     * @param pizza          La commande soumise
+     * @return La décision : la commande admise (ou d'origine), ou le délai de
+     *         nouvel essai
+     * @throws IllegalArgumentException si la pizza est null
+     * @throws IllegalStateException    si le stock ne permet pas de réaliser la
+     *                                  pizza (la place est alors rendue)
+     */
+    public Decision admettre(String cleIdempotence, Pizza pizza) {
+        if (pizza == null) {
+            throw new IllegalArgumentException("La pizza ne peut pas être null");
+        }
+        int courant;
+        do {
+            courant = enCours.get();
+            if (courant >= limiteEntiere) {
+                rejets.increment();
+                return new Decision(null, delaiReessai(courant));
+            }
+        } while (!enCours.compareAndSet(courant, courant + 1));
+        boolean nouvelle = admises.putIfAbsent(pizza, horloge.getAsLong()) == null;
+        if (!nouvelle) {
+            // Commande déjà en cuisine : elle occupe déjà sa place
+            enCours.decrementAndGet();
+        }
+        Pizza commande;
+        try {
+            commande = cleIdempotence == null ? ajouter(pizza) : manager.ajouterCommande(cleIdempotence, pizza);
+        } catch (RuntimeException e) {
+            if (nouvelle) {
+                liberer(pizza, false);
+            }
+            throw e;
+        }
+        if (commande != pizza && nouvelle) {
+            liberer(pizza, false);
+        }
+        admissions.increment();
+        return new Decision(commande, Duration.ZERO);
+    }
+
+    private Pizza ajouter(Pizza pizza) {
+        manager.ajouterCommande(pizza);
+        return pizza;
+    }
+
+    /**
+     * Retourne la limite courante du nombre de commandes en cuisine.
+     *
+     * @return La limite
+     */
+    public int getLimite() {
+        return limiteEntiere;
+    }
+
+    /**
+     * Retourne le nombre de commandes admises et encore en cuisine.
+     *
+     * @return Le nombre de commandes en cours
+     */
+    public int getEnCours() {
+        return enCours.get();
+    }
+
+    /**
+     * Retourne le nombre de commandes admises.
+     *
+     * @return Le nombre total d'admissions
+     */
+    public long getNombreAdmissions() {
+        return admissions.sum();
+    }
+
+    /**
+     * Retourne le nombre de commandes refusées.
+     *
+     * @return Le nombre total de refus
+     */
+    public long getNombreRejets() {
+        return rejets.sum();
+    }
+
+    /**
+     * Retourne l'histogramme des attentes avant préparation des commandes
+     * admises, en nanosecondes.
+     *
+     * @return L'histogramme des attentes
+     */
+    public HistogrammeLatence getAttentes() {
+        return attentes;
+    }
+
+    /**
+     * Estime le délai nécessaire pour que la cuisine libère une place.
+     */
+    private Duration delaiReessai(int courant) {
+        double intervalle;
+        verrou.lock();
+        try {
+            intervalle = intervalleSorties;
+        } finally {
+            verrou.unlock();
+        }
+        long excedent = courant - limiteEntiere + 1L;
+        long delai = intervalle > 0 ? (long) (excedent * intervalle) : attenteCible;
+        return Duration.ofNanos(Math.max(REESSAI_MINIMAL.toNanos(), Math.min(REESSAI_MAXIMAL.toNanos(), delai)));
+    }
+
+    /**
+     * Rend la place d'une commande sortie de cuisine.
+     *
+     * @param sortie true si la commande a quitté la cuisine (et non échoué à
+     *               l'ajout), ce qui alimente l'intervalle moyen des sorties
+     */
+    private void liberer(Pizza pizza, boolean sortie) {
+        if (admises.remove(pizza) == null) {
+            return;
+        }
+        enCours.decrementAndGet();
+        if (!sortie) {
+            return;
+        }
+        long maintenant = horloge.getAsLong();
+        verrou.lock();
+        try {
+            if (derniereSortie != 0) {
+                double mesure = maintenant - derniereSortie;
+                intervalleSorties = intervalleSorties == 0 ? mesure
+                        : intervalleSorties + POIDS_INTERVALLE * (mesure - intervalleSorties);
+            }
+            derniereSortie = maintenant;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Ajuste la limite d'après l'attente d'une commande admise à un instant
+     * donné.
+     */
+    private void ajuster(long attente, long admission) {
+        verrou.lock();
+        try {
+            if (attente > attenteCible) {
+                if (admission > derniereReduction) {
+                    limite = Math.max(limiteMinimale, limite * FACTEUR_REDUCTION);
+                    derniereReduction = horloge.getAsLong();
+                }
+            } else if (enCours.get() * 2 >= limite) {
+                limite = Math.min(limiteMaximale, limite + 1 / limite);
+            }
+            limiteEntiere = (int) limite;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    @Override
+    public void transition(Pizza pizza, EtatCommande ancien, EtatCommande nouveau) {
+        if (ancien == EtatCommande.RECUE && nouveau == EtatCommande.EN_PREPARATION) {
+            Long admission = admises.get(pizza);
+            if (admission != null) {
+                long attente = horloge.getAsLong() - admission;
+                attentes.enregistrer(attente);
+                ajuster(attente, admission);
+            }
+        } else if (nouveau == EtatCommande.EMBALLEE || nouveau.isTerminal()) {
+            liberer(pizza, true);
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        verrou.lock();
+        try {
+            abonnement = subscription;
+        } finally {
+            verrou.unlock();
+        }
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<EvenementCommande> evenements) {
+        for (EvenementCommande evenement : evenements) {
+            if (evenement.type() == EvenementCommande.Type.SUPPRESSION) {
+                liberer(evenement.pizza(), false);
+            } else if (evenement.type() == EvenementCommande.Type.VIDAGE) {
+                for (Pizza pizza : admises.keySet()) {
+                    if (manager.trouverCommande(pizza.getId()) != pizza) {
+                        liberer(pizza, false);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Appelé si le flux a débordé : le contrôleur se réabonne et rend la place
+     * des commandes qui ne sont plus au carnet.
+     */
+    @Override
+    public void onError(Throwable erreur) {
+        verrou.lock();
+        try {
+            if (abonnement == null) {
+                return;
+            }
+        } finally {
+            verrou.unlock();
+        }
+        manager.getFlux().subscribe(this);
+        for (Pizza pizza : admises.keySet()) {
+            if (manager.trouverCommande(pizza.getId()) != pizza) {
+                liberer(pizza, false);
+            }
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        // Le flux d'un gestionnaire ne se termine pas
+    }
+}
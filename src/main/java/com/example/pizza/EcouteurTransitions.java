@@ -0,0 +1,22 @@
+package com.example.pizza;
+
+/**
+ * Écouteur des transitions d'état des commandes, abonné par
+ * {@link Pizza#ajouterEcouteur(EcouteurTransitions)}.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface EcouteurTransitions {
+
+    /**
+     * Appelé après chaque transition d'état réussie, sur le thread qui l'a
+     * effectuée.
+     *
+     * @param pizza   La commande concernée
+     * @param ancien  L'état quitté
+     * @param nouveau L'état atteint
+     */
+    void transition(Pizza pizza, EtatCommande ancien, EtatCommande nouveau);
+}
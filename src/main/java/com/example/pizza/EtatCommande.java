@@ -0,0 +1,50 @@
+package com.example.pizza;
+
+/**
+ * États du cycle de vie d'une commande de pizza.
+ * Le cycle nominal est RECUE → EN_PREPARATION → EN_CUISSON → EMBALLEE →
+ * LIVREE ; une commande non terminée peut être ANNULEE à tout moment.
+ * <p>
+ * L'effectif de chaque état est tenu par chaque carnet pour ses propres
+ * commandes : voir
+ * {@link CommandeManager#nombreCommandesDansEtat(EtatCommande)}.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public enum EtatCommande {
+    RECUE,
+    EN_PREPARATION,
+    EN_CUISSON,
+    EMBALLEE,
+    LIVREE,
+    ANNULEE;
+
+    /**
+     * Indique si la transition vers l'état cible est autorisée.
+     *
+     * @param cible L'état cible
+     * @return true si la transition est autorisée
+     */
+    public boolean peutPasserA(EtatCommande cible) {
+        if (cible == ANNULEE) {
+            return !isTerminal();
+        }
+        return switch (this) {
+            case RECUE -> cible == EN_PREPARATION;
+            case EN_PREPARATION -> cible == EN_CUISSON;
+            case EN_CUISSON -> cible == EMBALLEE;
+            case EMBALLEE -> cible == LIVREE;
+            case LIVREE, ANNULEE -> false;
+        };
+    }
+
+    /**
+     * Indique si l'état est terminal (aucune transition possible).
+     *
+     * @return true pour LIVREE et ANNULEE
+     */
+    public boolean isTerminal() {
+        return this == LIVREE || this == ANNULEE;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.pizza;
+
+/**
+ * Événement de modification du carnet de commandes, publié par le
+ * {@link FluxCommandes} d'un {@link CommandeManager}.
+ *
+ * @param type     La nature de la modification
+ * @param pizza    La commande concernée, ou null pour un vidage
+ * @param sequence Le numéro d'ordre de l'événement, strictement croissant
+ *                 pour un même gestionnaire
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public record EvenementCommande(Type type, Pizza pizza, long sequence) {
+
+    /**
+     * Nature d'une modification du carnet de commandes.
+     */
+    public enum Type {
+        /** Une commande a été ajoutée. */
+        AJOUT,
+        /** Une commande a été supprimée. */
+        SUPPRESSION,
+        /** Toutes les commandes ont été supprimées par {@code viderCommandes}. */
+        VIDAGE
+    }
+}
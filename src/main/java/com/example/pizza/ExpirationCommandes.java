@@ -0,0 +1,277 @@
+package com.example.pizza;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Expiration des commandes inactives d'un {@link CommandeManager}.
+ * Une commande sans activité (ajout ou transition d'état) pendant la durée de
+ * vie configurée est retirée du carnet puis annulée, comme pour une
+ * annulation par l'API : ses garnitures ne sont restituées à l'inventaire que
+ * si sa préparation n'avait pas commencé. Une commande livrée ou déjà annulée
+ * n'expire pas et reste au carnet jusqu'à sa suppression par l'appelant.
+ * <p>
+ * Les échéances sont rangées dans une {@link RoueTemporelle} : l'expiration ne
+ * parcourt jamais le carnet. Les ajouts sont connus par le flux du
+ * gestionnaire ({@link CommandeManager#getFlux()}) : sous son lock,
+ * {@code ajouterCommande} ne fait que mettre un événement en file, et la
+ * roue n'est mise à jour que lors de la livraison, hors du thread appelant.
+ * Une transition d'une commande du carnet ne fait que relever l'heure dans la
+ * pizza ; l'échéance n'est pas déplacée à ce moment, mais recalculée
+ * lorsqu'elle arrive (report paresseux), si bien que chaque commande occupe
+ * une seule entrée de la roue.
+ * Une commande supprimée entre-temps est simplement ignorée à son échéance.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class ExpirationCommandes implements EcouteurTransitions, Flow.Subscriber<List<EvenementCommande>> {
+    private static final int RESOLUTIONS_PAR_DUREE_DE_VIE = 64;
+    private static final long RESOLUTION_MINIMALE = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final CommandeManager manager;
+    private final long dureeDeVie;
+    private final long resolution;
+    private final LongSupplier horloge;
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final RoueTemporelle<Pizza> roue;
+    private ScheduledExecutorService tic;
+    private Flow.Subscription abonnement;
+    private long nombreExpirees;
+
+    /**
+     * Crée une expiration mesurée avec {@link System#nanoTime()}, d'une
+     * résolution d'environ 1/64 de la durée de vie.
+     *
+     * @param manager    Le gestionnaire surveillé
+     * @param dureeDeVie La durée d'inactivité au-delà de laquelle une commande
+     *                   expire
+     */
+    public ExpirationCommandes(CommandeManager manager, Duration dureeDeVie) {
+        this(manager, dureeDeVie, Duration.ofNanos(Math.max(RESOLUTION_MINIMALE,
+                dureeDeVie.toNanos() / RESOLUTIONS_PAR_DUREE_DE_VIE)), System::nanoTime);
+    }
+
+    /**
+     * Crée une expiration.
+     *
+     * @param manager    Le gestionnaire surveillé
+     * @param dureeDeVie La durée d'inactivité au-delà de laquelle une commande
+     *                   expire
+     * @param resolution La précision des échéances et la période de
+     *                   {@link #demarrer()}
+     * @param horloge    L'horloge, en nanosecondes
+     * @throws IllegalArgumentException si une durée n'est pas positive
+     */
+    public ExpirationCommandes(CommandeManager manager, Duration dureeDeVie, Duration resolution,
+            LongSupplier horloge) {
+        if (dureeDeVie.isNegative() || dureeDeVie.isZero() || resolution.isNegative() || resolution.isZero()) {
+            throw new IllegalArgumentException("La durée de vie et la résolution doivent être positives");
+        }
+        this.manager = manager;
+        this.dureeDeVie = dureeDeVie.toNanos();
+        this.resolution = resolution.toNanos();
+        this.horloge = horloge;
+        this.roue = new RoueTemporelle<>(this.resolution, horloge.getAsLong());
+    }
+
+    /**
+     * Branche l'expiration sur le flux du gestionnaire et sur les transitions
+     * des pizzas. Seules les commandes ajoutées après le branchement sont
+     * surveillées.
+     */
+    public void brancher() {
+        Pizza.ajouterEcouteur(this);
+        manager.getFlux().subscribe(this);
+    }
+
+    /**
+     * Branche l'expiration et lance un thread qui la déclenche à chaque
+     * résolution.
+     */
+    public void demarrer() {
+        brancher();
+        tic = Executors.newSingleThreadScheduledExecutor(tache -> {
+            Thread thread = new Thread(tache, "expiration-commandes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tic.scheduleAtFixedRate(this::expirer, resolution, resolution, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Arrête le thread de déclenchement et débranche l'expiration.
+     */
+    public void arreter() {
+        if (tic != null) {
+            tic.shutdownNow();
+            tic = null;
+        }
+        Pizza.retirerEcouteur(this);
+        Flow.Subscription courant;
+        verrou.lock();
+        try {
+            courant = abonnement;
+            abonnement = null;
+            roue.vider();
+        } finally {
+            verrou.unlock();
+        }
+        if (courant != null) {
+            courant.cancel();
+        }
+    }
+
+    /**
+     * Retire et annule les commandes dont la durée de vie est écoulée.
+     *
+     * @return Le nombre de commandes expirées par cet appel
+     */
+    public int expirer() {
+        long maintenant = horloge.getAsLong();
+        List<Pizza> echues = new ArrayList<>();
+        verrou.lock();
+        try {
+            roue.avancer(maintenant, echues::add);
+            for (int i = echues.size() - 1; i >= 0; i--) {
+                // Activité depuis la planification : report de l'échéance
+                long echeance = echues.get(i).getInstantActivite() + dureeDeVie;
+                if (echeance > maintenant) {
+                    roue.planifier(echues.get(i), echeance);
+                    echues.set(i, echues.get(echues.size() - 1));
+                    echues.remove(echues.size() - 1);
+                }
+            }
+        } finally {
+            verrou.unlock();
+        }
+        int expirees = 0;
+        for (Pizza pizza : echues) {
+            // Une commande livrée n'expire pas : elle reste au carnet jusqu'à
+            // ce que l'appelant la supprime
+            if (pizza.getEtat().isTerminal() || manager.trouverCommande(pizza.getId()) != pizza) {
+                continue;
+            }
+            // Retirée avant d'être annulée : le stock d'une commande déjà en
+            // préparation n'est pas restitué
+            if (manager.supprimerCommande(pizza.getId()) == pizza && pizza.annuler()) {
+                expirees++;
+            }
+        }
+        verrou.lock();
+        try {
+            nombreExpirees += expirees;
+        } finally {
+            verrou.unlock();
+        }
+        return expirees;
+    }
+
+    /**
+     * Retourne le nombre de commandes surveillées (y compris celles supprimées
+     * depuis, jusqu'à leur échéance).
+     *
+     * @return Le nombre d'échéances en attente
+     */
+    public int getNombreSurveillees() {
+        verrou.lock();
+        try {
+            return roue.getTaille();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Retourne le nombre total de commandes expirées.
+     *
+     * @return Le nombre de commandes annulées et retirées pour inactivité
+     */
+    public long getNombreExpirees() {
+        verrou.lock();
+        try {
+            return nombreExpirees;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    @Override
+    public void transition(Pizza pizza, EtatCommande ancien, EtatCommande nouveau) {
+        // L'écouteur est global : seules les commandes de ce carnet sont
+        // horodatées avec cette horloge
+        if (manager.trouverCommande(pizza.getId()) == pizza) {
+            pizza.setInstantActivite(horloge.getAsLong());
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        verrou.lock();
+        try {
+            abonnement = subscription;
+        } finally {
+            verrou.unlock();
+        }
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<EvenementCommande> evenements) {
+        long maintenant = horloge.getAsLong();
+        verrou.lock();
+        try {
+            for (EvenementCommande evenement : evenements) {
+                if (evenement.type() == EvenementCommande.Type.AJOUT) {
+                    Pizza pizza = evenement.pizza();
+                    pizza.setInstantActivite(maintenant);
+                    roue.planifier(pizza, maintenant + dureeDeVie);
+                } else if (evenement.type() == EvenementCommande.Type.VIDAGE) {
+                    roue.vider();
+                }
+            }
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Appelé si le flux a débordé : l'expiration se réabonne et replanifie
+     * toutes les commandes présentes, seul cas où le carnet est parcouru.
+     */
+    @Override
+    public void onError(Throwable erreur) {
+        verrou.lock();
+        try {
+            if (abonnement == null) {
+                return;
+            }
+            roue.vider();
+        } finally {
+            verrou.unlock();
+        }
+        manager.getFlux().subscribe(this);
+        long maintenant = horloge.getAsLong();
+        manager.parcourirCommandes(pizza -> {
+            verrou.lock();
+            try {
+                pizza.setInstantActivite(maintenant);
+                roue.planifier(pizza, maintenant + dureeDeVie);
+            } finally {
+                verrou.unlock();
+            }
+        });
+    }
+
+    @Override
+    public void onComplete() {
+        // Le flux d'un gestionnaire ne se termine pas
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.pizza;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Export en flux du carnet de commandes, pour la comptabilité.
+ * Les commandes sont lues par {@link CommandeManager#parcourirCommandes} sans
+ * copie de la table, et écrites au travers d'un unique tampon direct réutilisé
+ * vers un {@link FileChannel}. La mémoire utilisée reste constante quelle que
+ * soit la taille du carnet, et l'export peut s'exécuter pendant la prise de
+ * commandes. Les garnitures sont lues dans la recette partagée de chaque
+ * pizza, sans la copie défensive de {@link Pizza#getGarnitures()}.
+ * <p>
+ * Format CSV (UTF-8), une ligne par commande :
+ * {@code id,type,etat,pate,sauce,fromage,legumes,garniture1|garniture2}.
+ * <p>
+ * Format binaire, big-endian, un enregistrement par commande : id (long), type
+ * (octet : 0 fromage, 1 végétarienne, 2 personnalisée), état (octet, ordinal de
+ * {@link EtatCommande}), clé de recette (long). Lorsque la clé vaut
+ * {@link RecettePizza#CLE_NON_ENCODABLE}, la recette suit en clair : pâte et
+ * sauce (chaînes), indicateurs (octet : bit 0 fromage, bit 1 légumes), nombre de
+ * garnitures (int) puis chaque garniture. Une chaîne est un int de longueur
+ * (-1 pour null) suivi de ses octets UTF-8.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class ExportCommandes {
+    /**
+     * Taille du tampon d'écriture.
+     */
+    public static final int TAILLE_TAMPON = 64 * 1024;
+
+    private static final String ENTETE_CSV = "id,type,etat,pate,sauce,fromage,legumes,garnitures\n";
+
+    private final CommandeManager manager;
+    private final ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON);
+    private FileChannel canal;
+
+    /**
+     * Crée un exporteur pour un gestionnaire de commandes.
+     * Un exporteur réutilise son tampon d'un export à l'autre et ne doit pas
+     * être utilisé par plusieurs threads à la fois.
+     *
+     * @param manager Le gestionnaire à exporter
+     */
+    public ExportCommandes(CommandeManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Exporte les commandes au format CSV.
+     *
+     * @param fichier Le fichier de destination, remplacé s'il existe
+     * @return Le nombre de commandes exportées
+     * @throws IOException si l'écriture échoue
+     */
+    public long exporterCsv(Path fichier) throws IOException {
+        return exporter(fichier, true);
+    }
+
+    /**
+     * Exporte les commandes au format binaire.
+     *
+     * @param fichier Le fichier de destination, remplacé s'il existe
+     * @return Le nombre de commandes exportées
+     * @throws IOException si l'écriture échoue
+     */
+    public long exporterBinaire(Path fichier) throws IOException {
+        return exporter(fichier, false);
+    }
+
+    private long exporter(Path fichier, boolean csv) throws IOException {
+        try (FileChannel sortie = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            canal = sortie;
+            tampon.clear();
+            if (csv) {
+                ecrireTexte(ENTETE_CSV);
+            }
+            long total = manager.parcourirCommandes(csv ? this::ecrireCsv : this::ecrireBinaire);
+            vider();
+            return total;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            canal = null;
+        }
+    }
+
+    private void ecrireCsv(Pizza pizza) {
+        RecettePizza recette = pizza.getRecette();
+        ecrireNombre(pizza.getId());
+        ecrireOctet(',');
+        ecrireTexte(PizzaFactory.typeDe(pizza));
+        ecrireOctet(',');
+        ecrireTexte(pizza.getEtat().name());
+        ecrireOctet(',');
+        ecrireTexteCsv(recette.getTypePate());
+        ecrireOctet(',');
+        ecrireTexteCsv(recette.getTypeSauce());
+        ecrireOctet(',');
+        ecrireTexte(recette.isContientFromage() ? "true" : "false");
+        ecrireOctet(',');
+        ecrireTexte(recette.isContientLegumes() ? "true" : "false");
+        ecrireOctet(',');
+        List<String> garnitures = recette.getGarnitures();
+        for (int i = 0; i < garnitures.size(); i++) {
+            if (i > 0) {
+                ecrireOctet('|');
+            }
+            ecrireTexteCsv(garnitures.get(i));
+        }
+        ecrireOctet('\n');
+    }
+
+    private void ecrireBinaire(Pizza pizza) {
+        RecettePizza recette = pizza.getRecette();
+        reserver(Long.BYTES * 2 + 2);
+        tampon.putLong(pizza.getId());
+        tampon.put(codeType(pizza));
+        tampon.put((byte) pizza.getEtat().ordinal());
+        tampon.putLong(recette.getCle());
+        if (recette.getCle() == RecettePizza.CLE_NON_ENCODABLE) {
+            ecrireChaine(recette.getTypePate());
+            ecrireChaine(recette.getTypeSauce());
+            reserver(1 + Integer.BYTES);
+            tampon.put((byte) ((recette.isContientFromage() ? 1 : 0) | (recette.isContientLegumes() ? 2 : 0)));
+            List<String> garnitures = recette.getGarnitures();
+            tampon.putInt(garnitures.size());
+            for (String garniture : garnitures) {
+                ecrireChaine(garniture);
+            }
+        }
+    }
+
+    static byte codeType(Pizza pizza) {
+        return switch (PizzaFactory.typeDe(pizza)) {
+            case "fromage" -> 0;
+            case "vegetarienne" -> 1;
+            default -> 2;
+        };
+    }
+
+    private void ecrireChaine(String texte) {
+        reserver(Integer.BYTES);
+        if (texte == null) {
+            tampon.putInt(-1);
+            return;
+        }
+        tampon.putInt(longueurUtf8(texte));
+        ecrireTexte(texte);
+    }
+
+    private void ecrireTexteCsv(String texte) {
+        if (texte == null) {
+            return;
+        }
+        if (texte.indexOf(',') < 0 && texte.indexOf('"') < 0 && texte.indexOf('|') < 0
+                && texte.indexOf('\n') < 0) {
+            ecrireTexte(texte);
+            return;
+        }
+        ecrireOctet('"');
+        ecrireTexte(texte.replace("\"", "\"\""));
+        ecrireOctet('"');
+    }
+
+    private void ecrireNombre(long valeur) {
+        reserver(20);
+        if (valeur == 0) {
+            tampon.put((byte) '0');
+            return;
+        }
+        if (valeur < 0) {
+            tampon.put((byte) '-');
+            valeur = -valeur;
+        }
+        int debut = tampon.position();
+        while (valeur > 0) {
+            tampon.put((byte) ('0' + valeur % 10));
+            valeur /= 10;
+        }
+        // Les chiffres ont été écrits du moins significatif au plus significatif
+        for (int i = debut, j = tampon.position() - 1; i < j; i++, j--) {
+            byte t = tampon.get(i);
+            tampon.put(i, tampon.get(j));
+            tampon.put(j, t);
+        }
+    }
+
+    private void ecrireOctet(char c) {
+        reserver(1);
+        tampon.put((byte) c);
+    }
+
+    /**
+     * Encode une chaîne en UTF-8 directement dans le tampon, sans tableau
+     * intermédiaire.
+     */
+    private void ecrireTexte(String texte) {
+        for (int i = 0; i < texte.length(); i++) {
+            int c = texte.codePointAt(i);
+            if (Character.isSupplementaryCodePoint(c)) {
+                i++;
+            }
+            reserver(4);
+            if (c < 0x80) {
+                tampon.put((byte) c);
+            } else if (c < 0x800) {
+                tampon.put((byte) (0xC0 | (c >> 6)));
+                tampon.put((byte) (0x80 | (c & 0x3F)));
+            } else if (c < 0x10000) {
+                tampon.put((byte) (0xE0 | (c >> 12)));
+                tampon.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                tampon.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                tampon.put((byte) (0xF0 | (c >> 18)));
+                tampon.put((byte) (0x80 | ((c >> 12) & 0x3F)));
+                tampon.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                tampon.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static int longueurUtf8(String texte) {
+        int longueur = 0;
+        for (int i = 0; i < texte.length(); i++) {
+            int c = texte.codePointAt(i);
+            if (Character.isSupplementaryCodePoint(c)) {
+                i++;
+            }
+            longueur += c < 0x80 ? 1 : c < 0x800 ? 2 : c < 0x10000 ? 3 : 4;
+        }
+        return longueur;
+    }
+
+    private void reserver(int octets) {
+        if (tampon.remaining() < octets) {
+            vider();
+        }
+    }
+
+    private void vider() {
+        tampon.flip();
+        try {
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        tampon.clear();
+    }
+}
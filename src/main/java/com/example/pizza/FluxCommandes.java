@@ -0,0 +1,255 @@
+package com.example.pizza;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flux des modifications d'un carnet de commandes (capture de changements).
+ * Les abonnés reçoivent des lots d'{@link EvenementCommande} : chaque unité de
+ * demande ({@link Flow.Subscription#request(long)}) est servie par un lot
+ * contenant au plus {@link #getTailleLot()} événements. Le travail d'un abonné
+ * est ainsi proportionnel au nombre de modifications, et non à la taille du
+ * carnet.
+ * <p>
+ * Chaque abonné dispose de sa propre file bornée : un abonné lent ne ralentit
+ * ni le gestionnaire ni les autres abonnés. S'il laisse sa file déborder, son
+ * abonnement est résilié par un {@code onError}. La livraison est faite sur un
+ * {@link Executor}, jamais sur le thread qui modifie le carnet : sous le lock,
+ * {@link #publier} ne fait que mettre les événements en file, et la boucle de
+ * livraison n'est planifiée que par {@link #signaler()}, une fois le lock
+ * relâché, et seulement pour les abonnés qui ont de la demande.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class FluxCommandes implements Flow.Publisher<List<EvenementCommande>> {
+    /**
+     * Nombre maximal d'événements en attente par abonné.
+     */
+    public static final int CAPACITE_PAR_DEFAUT = 65_536;
+
+    /**
+     * Nombre maximal d'événements par lot livré.
+     */
+    public static final int TAILLE_LOT_PAR_DEFAUT = 256;
+
+    private final Executor executeur;
+    private final int capacite;
+    private final int tailleLot;
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Abonnement> abonnements = new CopyOnWriteArrayList<>();
+    // Abonnements résiliés pour débordement, dont l'erreur reste à livrer
+    private final Queue<Abonnement> debordes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Crée un flux livrant sur le pool commun, avec les paramètres par défaut.
+     */
+    public FluxCommandes() {
+        this(ForkJoinPool.commonPool(), CAPACITE_PAR_DEFAUT, TAILLE_LOT_PAR_DEFAUT);
+    }
+
+    /**
+     * Crée un flux.
+     *
+     * @param executeur L'exécuteur des livraisons
+     * @param capacite  Le nombre maximal d'événements en attente par abonné
+     * @param tailleLot Le nombre maximal d'événements par lot
+     * @throws IllegalArgumentException si la capacité ou la taille de lot n'est
+     *                                  pas positive
+     */
+    public FluxCommandes(Executor executeur, int capacite, int tailleLot) {
+        if (capacite <= 0 || tailleLot <= 0) {
+            throw new IllegalArgumentException("La capacité et la taille de lot doivent être positives");
+        }
+        this.executeur = executeur;
+        this.capacite = capacite;
+        this.tailleLot = tailleLot;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<EvenementCommande>> abonne) {
+        if (abonne == null) {
+            throw new NullPointerException("L'abonné ne peut pas être null");
+        }
+        Abonnement abonnement = new Abonnement(abonne);
+        abonnements.add(abonnement);
+        abonne.onSubscribe(abonnement);
+    }
+
+    /**
+     * Indique si le flux a au moins un abonné. Permet au gestionnaire de ne
+     * rien construire lorsque personne n'écoute.
+     *
+     * @return true si au moins un abonnement est actif
+     */
+    public boolean aDesAbonnes() {
+        return !abonnements.isEmpty();
+    }
+
+    /**
+     * Retourne la taille maximale des lots livrés.
+     *
+     * @return Le nombre maximal d'événements par lot
+     */
+    public int getTailleLot() {
+        return tailleLot;
+    }
+
+    /**
+     * Retourne le numéro de séquence du dernier événement publié. Les
+     * modifications de numéro inférieur ou égal sont déjà visibles dans le
+     * carnet, qui les fait avant de les publier.
+     *
+     * @return Le numéro de séquence, ou 0 avant le premier événement
+     */
+    long getSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Met un événement en file pour tous les abonnés, sans planifier de
+     * livraison. Doit être appelé sous le lock du gestionnaire afin que
+     * l'ordre des numéros de séquence soit celui des modifications, puis
+     * suivi d'un appel à {@link #signaler()} une fois le lock relâché.
+     *
+     * @param type  La nature de la modification
+     * @param pizza La commande concernée, ou null pour un vidage
+     */
+    void publier(EvenementCommande.Type type, Pizza pizza) {
+        if (abonnements.isEmpty()) {
+            return;
+        }
+        EvenementCommande evenement = new EvenementCommande(type, pizza, sequence.incrementAndGet());
+        for (Abonnement abonnement : abonnements) {
+            abonnement.offrir(evenement);
+        }
+    }
+
+    /**
+     * Planifie la livraison des événements en file aux abonnés qui en ont
+     * demandé, et celle des erreurs de débordement. À appeler hors du lock du
+     * gestionnaire, après {@link #publier}.
+     */
+    void signaler() {
+        Abonnement deborde;
+        while ((deborde = debordes.poll()) != null) {
+            deborde.planifier();
+        }
+        if (abonnements.isEmpty()) {
+            return;
+        }
+        for (Abonnement abonnement : abonnements) {
+            if (abonnement.demande.get() > 0 && !abonnement.file.isEmpty()) {
+                abonnement.planifier();
+            }
+        }
+    }
+
+    /**
+     * Abonnement d'un abonné : file d'attente, demande et boucle de livraison.
+     */
+    private final class Abonnement implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super List<EvenementCommande>> abonne;
+        private final Queue<EvenementCommande> file = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger enAttente = new AtomicInteger();
+        private final AtomicLong demande = new AtomicLong();
+        private final AtomicInteger travail = new AtomicInteger();
+        private volatile boolean termine;
+        private volatile Throwable erreur;
+
+        private Abonnement(Flow.Subscriber<? super List<EvenementCommande>> abonne) {
+            this.abonne = abonne;
+        }
+
+        private void offrir(EvenementCommande evenement) {
+            if (termine) {
+                return;
+            }
+            if (enAttente.incrementAndGet() > capacite) {
+                erreur = new IllegalStateException("Abonné trop lent : plus de " + capacite + " événements en attente");
+                terminer();
+                debordes.offer(this);
+            } else {
+                file.offer(evenement);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                erreur = new IllegalArgumentException("La demande doit être positive: " + n);
+                terminer();
+            } else {
+                demande.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            }
+            planifier();
+        }
+
+        @Override
+        public void cancel() {
+            terminer();
+        }
+
+        private void terminer() {
+            termine = true;
+            abonnements.remove(this);
+        }
+
+        private void planifier() {
+            if (travail.getAndIncrement() == 0) {
+                executeur.execute(this);
+            }
+        }
+
+        /**
+         * Boucle de livraison : une seule instance s'exécute à la fois pour un
+         * abonnement, ce qui garantit des appels séquentiels à l'abonné.
+         */
+        @Override
+        public void run() {
+            int manques = 1;
+            do {
+                if (!termine) {
+                    livrer();
+                }
+                if (termine) {
+                    file.clear();
+                    Throwable e = erreur;
+                    if (e != null) {
+                        erreur = null;
+                        abonne.onError(e);
+                    }
+                }
+                manques = travail.addAndGet(-manques);
+            } while (manques != 0);
+        }
+
+        private void livrer() {
+            while (demande.get() > 0 && !file.isEmpty() && !termine) {
+                List<EvenementCommande> lot = new ArrayList<>(Math.min(tailleLot, enAttente.get()));
+                EvenementCommande evenement;
+                while (lot.size() < tailleLot && (evenement = file.poll()) != null) {
+                    lot.add(evenement);
+                }
+                enAttente.addAndGet(-lot.size());
+                if (demande.get() != Long.MAX_VALUE) {
+                    demande.decrementAndGet();
+                }
+                try {
+                    abonne.onNext(lot);
+                } catch (RuntimeException e) {
+                    erreur = e;
+                    terminer();
+                }
+            }
+        }
+    }
+}
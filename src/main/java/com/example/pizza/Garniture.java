@@ -0,0 +1,75 @@
+package com.example.pizza;
+
+/**
+ * Garnitures proposées par le {@link Pizza.PizzaBuilder}.
+ * Chaque garniture possède un libellé (celui exposé par
+ * {@link Pizza#getGarnitures()}) et un code compact utilisé pour la clé
+ * canonique des recettes.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public enum Garniture {
+    MOZZARELLA("Mozzarella"),
+    EMMENTAL("Emmental"),
+    JAMBON("Jambon"),
+    CHAMPIGNONS("Champignons"),
+    POIVRONS("Poivrons"),
+    OIGNONS("Oignons"),
+    OLIVES("Olives");
+
+    private static final Garniture[] VALEURS = values();
+
+    private final String libelle;
+
+    Garniture(String libelle) {
+        this.libelle = libelle;
+    }
+
+    /**
+     * Retourne le libellé de la garniture.
+     *
+     * @return Le libellé affiché
+     */
+    public String getLibelle() {
+        return libelle;
+    }
+
+    /**
+     * Retourne le code compact de la garniture (toujours strictement positif).
+     *
+     * @return Le code de la garniture
+     */
+    public int getCode() {
+        return ordinal() + 1;
+    }
+
+    /**
+     * Retrouve une garniture à partir de son code compact.
+     *
+     * @param code Le code de la garniture
+     * @return La garniture correspondante
+     * @throws IllegalArgumentException si le code est inconnu
+     */
+    public static Garniture depuisCode(int code) {
+        if (code < 1 || code > VALEURS.length) {
+            throw new IllegalArgumentException("Code de garniture inconnu: " + code);
+        }
+        return VALEURS[code - 1];
+    }
+
+    /**
+     * Retrouve une garniture à partir de son libellé.
+     *
+     * @param libelle Le libellé de la garniture
+     * @return La garniture correspondante, ou null si le libellé est inconnu
+     */
+    public static Garniture depuisLibelle(String libelle) {
+        for (Garniture garniture : VALEURS) {
+            if (garniture.libelle.equals(libelle)) {
+                return garniture;
+            }
+        }
+        return null;
+    }
+}
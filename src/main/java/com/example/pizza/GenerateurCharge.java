@@ -0,0 +1,281 @@
+package com.example.pizza;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Générateur de charge en boucle ouverte pour le système de commandes.
+ * Les commandes arrivent à un débit fixé à l'avance, indépendamment du temps
+ * de traitement : la commande n° i est prévue à l'instant
+ * {@code debut + i / debit}. Sa latence est mesurée depuis cet instant prévu
+ * et non depuis son démarrage effectif, ce qui corrige l'omission coordonnée
+ * (un système saturé voit ses latences croître au lieu de ralentir
+ * silencieusement le générateur).
+ * <p>
+ * Chaque commande crée une pizza via la {@link PizzaFactory} selon un mélange
+ * de types pondéré et déterministe, puis l'ajoute au {@link CommandeManager}.
+ * Pour les essais d'endurance, chaque thread retire ses commandes les plus
+ * anciennes au-delà d'une fenêtre de rétention.
+ * <p>
+ * Utilisation : {@code mvn -Pcharge compile exec:java -Dcharge.args="--debit=20000 --duree=30"}.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class GenerateurCharge {
+
+    private final Configuration configuration;
+    private final PizzaFactory factory;
+    private final CommandeManager manager;
+    private final String[] types;
+    private final int[] poidsCumules;
+
+    /**
+     * Paramètres d'une campagne de charge.
+     *
+     * @param debitParSeconde Nombre de commandes prévues par seconde
+     * @param dureeSecondes   Durée de la campagne en secondes
+     * @param threads         Nombre de threads émetteurs
+     * @param melange         Poids relatif de chaque type de pizza
+     * @param graine          Graine du tirage des types, pour la reproductibilité
+     * @param retention       Nombre maximal de commandes conservées par thread
+     */
+    public record Configuration(long debitParSeconde, long dureeSecondes, int threads,
+            Map<String, Integer> melange, long graine, int retention) {
+
+        /**
+         * Valide les paramètres.
+         */
+        public Configuration {
+            if (debitParSeconde <= 0 || dureeSecondes <= 0 || threads <= 0 || retention <= 0) {
+                throw new IllegalArgumentException("Les paramètres de charge doivent être positifs");
+            }
+            if (melange == null || melange.isEmpty()) {
+                throw new IllegalArgumentException("Le mélange de pizzas ne peut pas être vide");
+            }
+            melange = new LinkedHashMap<>(melange);
+        }
+
+        /**
+         * Construit une configuration à partir d'arguments de ligne de commande
+         * de la forme {@code --cle=valeur}.
+         *
+         * @param args Les arguments (debit, duree, threads, melange, graine, retention)
+         * @return La configuration correspondante
+         * @throws IllegalArgumentException si un argument est inconnu ou invalide
+         */
+        public static Configuration depuisArguments(String[] args) {
+            long debit = 10_000;
+            long duree = 10;
+            int threads = Runtime.getRuntime().availableProcessors();
+            Map<String, Integer> melange = new LinkedHashMap<>(Map.of("fromage", 1, "vegetarienne", 1));
+            long graine = 42;
+            int retention = 1_000;
+            for (String arg : args) {
+                int egal = arg.indexOf('=');
+                if (!arg.startsWith("--") || egal < 0) {
+                    throw new IllegalArgumentException("Argument invalide: " + arg);
+                }
+                String valeur = arg.substring(egal + 1);
+                switch (arg.substring(2, egal)) {
+                    case "debit" -> debit = Long.parseLong(valeur);
+                    case "duree" -> duree = Long.parseLong(valeur);
+                    case "threads" -> threads = Integer.parseInt(valeur);
+                    case "melange" -> melange = lireMelange(valeur);
+                    case "graine" -> graine = Long.parseLong(valeur);
+                    case "retention" -> retention = Integer.parseInt(valeur);
+                    default -> throw new IllegalArgumentException("Argument inconnu: " + arg);
+                }
+            }
+            return new Configuration(debit, duree, threads, melange, graine, retention);
+        }
+
+        private static Map<String, Integer> lireMelange(String valeur) {
+            Map<String, Integer> melange = new LinkedHashMap<>();
+            for (String element : valeur.split(",")) {
+                String[] parties = element.split(":");
+                melange.put(parties[0].trim(), parties.length > 1 ? Integer.parseInt(parties[1].trim()) : 1);
+            }
+            return melange;
+        }
+    }
+
+    /**
+     * Résultat d'une campagne de charge.
+     *
+     * @param prevues    Nombre de commandes prévues
+     * @param traitees   Nombre de commandes traitées avec succès
+     * @param erreurs    Nombre de commandes en erreur
+     * @param dureeNanos Durée effective de la campagne
+     * @param latence    Latences depuis l'instant prévu (corrigées)
+     * @param service    Temps de service depuis le démarrage effectif
+     */
+    public record Rapport(long prevues, long traitees, long erreurs, long dureeNanos,
+            HistogrammeLatence latence, HistogrammeLatence service) {
+
+        /**
+         * Retourne le débit soutenu, en commandes traitées par seconde.
+         *
+         * @return Le débit soutenu
+         */
+        public double debitSoutenu() {
+            return dureeNanos == 0 ? 0 : traitees * 1e9 / dureeNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "Commandes prévues : %d, traitées : %d, erreurs : %d%n",
+                    prevues, traitees, erreurs));
+            sb.append(String.format(Locale.ROOT, "Débit soutenu : %.0f commandes/s%n", debitSoutenu()));
+            ajouterLigne(sb, "Latence (corrigée)", latence);
+            ajouterLigne(sb, "Temps de service", service);
+            return sb.toString();
+        }
+
+        private static void ajouterLigne(StringBuilder sb, String libelle, HistogrammeLatence h) {
+            sb.append(String.format(Locale.ROOT,
+                    "%-19s : moy %.1f µs, p50 %.1f µs, p90 %.1f µs, p99 %.1f µs, p99.9 %.1f µs, max %.1f µs%n",
+                    libelle, h.getMoyenne() / 1e3, h.percentile(50) / 1e3, h.percentile(90) / 1e3,
+                    h.percentile(99) / 1e3, h.percentile(99.9) / 1e3, h.getMax() / 1e3));
+        }
+    }
+
+    /**
+     * Crée un générateur de charge.
+     *
+     * @param configuration Les paramètres de la campagne
+     * @param factory       La factory utilisée pour créer les pizzas
+     * @param manager       Le gestionnaire recevant les commandes
+     */
+    public GenerateurCharge(Configuration configuration, PizzaFactory factory, CommandeManager manager) {
+        this.configuration = configuration;
+        this.factory = factory;
+        this.manager = manager;
+        this.types = configuration.melange().keySet().toArray(new String[0]);
+        this.poidsCumules = new int[types.length];
+        int cumul = 0;
+        for (int i = 0; i < types.length; i++) {
+            cumul += configuration.melange().get(types[i]);
+            poidsCumules[i] = cumul;
+        }
+        if (cumul <= 0) {
+            throw new IllegalArgumentException("Le mélange de pizzas doit avoir un poids total positif");
+        }
+    }
+
+    /**
+     * Exécute la campagne et attend sa fin.
+     *
+     * @return Le rapport de la campagne
+     * @throws InterruptedException si le thread appelant est interrompu
+     */
+    public Rapport executer() throws InterruptedException {
+        long debit = configuration.debitParSeconde();
+        long prevues = debit * configuration.dureeSecondes();
+        HistogrammeLatence latence = new HistogrammeLatence();
+        HistogrammeLatence service = new HistogrammeLatence();
+        LongAdder erreurs = new LongAdder();
+        AtomicLong prochaine = new AtomicLong();
+        long debut = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+
+        List<Thread> emetteurs = new ArrayList<>();
+        for (int t = 0; t < configuration.threads(); t++) {
+            Thread emetteur = new Thread(() -> {
+                ArrayDeque<Pizza> retenues = new ArrayDeque<>();
+                long i;
+                while ((i = prochaine.getAndIncrement()) < prevues) {
+                    // Calculé à partir du rang pour ne pas cumuler l'arrondi de l'intervalle
+                    long prevu = debut + i * TimeUnit.SECONDS.toNanos(1) / debit;
+                    attendreJusqua(prevu);
+                    long demarrage = System.nanoTime();
+                    try {
+                        traiter(i, retenues);
+                    } catch (RuntimeException e) {
+                        erreurs.increment();
+                    }
+                    long finTraitement = System.nanoTime();
+                    latence.enregistrer(finTraitement - prevu);
+                    service.enregistrer(finTraitement - demarrage);
+                }
+                for (Pizza pizza : retenues) {
+                    manager.supprimerCommande(pizza);
+                }
+            }, "generateur-charge-" + t);
+            emetteurs.add(emetteur);
+            emetteur.start();
+        }
+        for (Thread emetteur : emetteurs) {
+            emetteur.join();
+        }
+        long duree = System.nanoTime() - debut;
+        return new Rapport(prevues, latence.getNombre() - erreurs.sum(), erreurs.sum(), duree, latence, service);
+    }
+
+    private void traiter(long numero, ArrayDeque<Pizza> retenues) {
+        Pizza pizza = factory.createPizza(choisirType(numero));
+        manager.ajouterCommande(pizza);
+        retenues.addLast(pizza);
+        if (retenues.size() > configuration.retention()) {
+            manager.supprimerCommande(retenues.removeFirst());
+        }
+    }
+
+    /**
+     * Choisit le type de la commande n° numero selon le mélange configuré.
+     * Le tirage ne dépend que de la graine et du numéro : deux campagnes de
+     * même configuration émettent exactement la même séquence de types.
+     *
+     * @param numero Le numéro de la commande
+     * @return Le type de pizza
+     */
+    String choisirType(long numero) {
+        int tirage = (int) Math.floorMod(melanger(configuration.graine() + numero),
+                (long) poidsCumules[poidsCumules.length - 1]);
+        for (int i = 0; i < poidsCumules.length; i++) {
+            if (tirage < poidsCumules[i]) {
+                return types[i];
+            }
+        }
+        return types[types.length - 1];
+    }
+
+    private static long melanger(long z) {
+        // Fonction de mélange de SplitMix64
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void attendreJusqua(long instant) {
+        long restant;
+        while ((restant = instant - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restant);
+        }
+    }
+
+    /**
+     * Point d'entrée du générateur de charge.
+     *
+     * @param args Arguments {@code --cle=valeur} : debit, duree, threads,
+     *             melange (ex. {@code fromage:70,vegetarienne:30}), graine,
+     *             retention
+     * @throws InterruptedException si l'exécution est interrompue
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Configuration configuration = Configuration.depuisArguments(args);
+        System.out.println("=== Générateur de charge ===");
+        System.out.println(configuration);
+        Rapport rapport = new GenerateurCharge(configuration, new PizzaFactory(), CommandeManager.getInstance())
+                .executer();
+        System.out.print(rapport);
+    }
+}
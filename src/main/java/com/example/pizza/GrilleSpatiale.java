@@ -0,0 +1,185 @@
+package com.example.pizza;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index spatial en grille uniforme.
+ * Le plan est découpé en cellules carrées de côté fixe ; chaque élément est
+ * rangé dans la cellule de son point, et seules les cellules non vides
+ * existent. L'ajout et le retrait d'un élément se font en temps constant
+ * (retrait par échange avec le dernier élément de la cellule), et une
+ * recherche dans un rayon ne visite que les cellules qui recoupent le carré
+ * englobant le cercle : avec un côté de cellule voisin du rayon recherché,
+ * neuf cellules au plus.
+ * <p>
+ * La grille n'est pas thread-safe : l'appelant sérialise les accès.
+ *
+ * @param <T> Le type des éléments indexés
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class GrilleSpatiale<T> {
+    private final double cote;
+    private final Map<Long, List<Entree<T>>> cellules = new HashMap<>();
+    private final Map<T, Entree<T>> entrees = new HashMap<>();
+
+    /**
+     * Élément indexé, avec sa cellule et sa position dans celle-ci.
+     */
+    private static final class Entree<T> {
+        private final T element;
+        private final PointLivraison point;
+        private final long cellule;
+        private int indice;
+
+        private Entree(T element, PointLivraison point, long cellule) {
+            this.element = element;
+            this.point = point;
+            this.cellule = cellule;
+        }
+    }
+
+    /**
+     * Crée une grille.
+     *
+     * @param cote Le côté des cellules, en mètres
+     * @throws IllegalArgumentException si le côté n'est pas positif
+     */
+    public GrilleSpatiale(double cote) {
+        if (!(cote > 0) || Double.isInfinite(cote)) {
+            throw new IllegalArgumentException("Le côté des cellules doit être positif");
+        }
+        this.cote = cote;
+    }
+
+    private long cellule(long cx, long cy) {
+        return (cx << 32) ^ (cy & 0xFFFFFFFFL);
+    }
+
+    private long colonne(double coordonnee) {
+        return (long) Math.floor(coordonnee / cote);
+    }
+
+    /**
+     * Ajoute un élément à la grille.
+     *
+     * @param element L'élément
+     * @param point   Sa position
+     * @return false si l'élément était déjà indexé (il n'est pas déplacé)
+     */
+    public boolean ajouter(T element, PointLivraison point) {
+        if (entrees.containsKey(element)) {
+            return false;
+        }
+        Entree<T> entree = new Entree<>(element, point, cellule(colonne(point.x()), colonne(point.y())));
+        List<Entree<T>> contenu = cellules.get(entree.cellule);
+        if (contenu == null) {
+            contenu = new ArrayList<>(4);
+            cellules.put(entree.cellule, contenu);
+        }
+        entree.indice = contenu.size();
+        contenu.add(entree);
+        entrees.put(element, entree);
+        return true;
+    }
+
+    /**
+     * Retire un élément de la grille.
+     *
+     * @param element L'élément
+     * @return true si l'élément était indexé
+     */
+    public boolean retirer(T element) {
+        Entree<T> entree = entrees.remove(element);
+        if (entree == null) {
+            return false;
+        }
+        List<Entree<T>> contenu = cellules.get(entree.cellule);
+        Entree<T> derniere = contenu.remove(contenu.size() - 1);
+        if (derniere != entree) {
+            derniere.indice = entree.indice;
+            contenu.set(entree.indice, derniere);
+        }
+        if (contenu.isEmpty()) {
+            cellules.remove(entree.cellule);
+        }
+        return true;
+    }
+
+    /**
+     * Indique si un élément est indexé.
+     *
+     * @param element L'élément
+     * @return true s'il est dans la grille
+     */
+    public boolean contient(T element) {
+        return entrees.containsKey(element);
+    }
+
+    /**
+     * Retourne la position d'un élément indexé.
+     *
+     * @param element L'élément
+     * @return Sa position, ou null s'il n'est pas dans la grille
+     */
+    public PointLivraison position(T element) {
+        Entree<T> entree = entrees.get(element);
+        return entree == null ? null : entree.point;
+    }
+
+    /**
+     * Retourne les éléments les plus proches d'un point, dans un rayon donné.
+     *
+     * @param centre   Le centre de la recherche
+     * @param rayon    La distance maximale, en mètres
+     * @param maximum  Le nombre maximal d'éléments retournés
+     * @return Les éléments trouvés, du plus proche au plus éloigné
+     */
+    public List<T> voisins(PointLivraison centre, double rayon, int maximum) {
+        List<Entree<T>> candidats = new ArrayList<>();
+        long xMin = colonne(centre.x() - rayon);
+        long xMax = colonne(centre.x() + rayon);
+        long yMin = colonne(centre.y() - rayon);
+        long yMax = colonne(centre.y() + rayon);
+        for (long cx = xMin; cx <= xMax; cx++) {
+            for (long cy = yMin; cy <= yMax; cy++) {
+                List<Entree<T>> contenu = cellules.get(cellule(cx, cy));
+                if (contenu == null) {
+                    continue;
+                }
+                for (Entree<T> entree : contenu) {
+                    if (entree.point.distance(centre) <= rayon) {
+                        candidats.add(entree);
+                    }
+                }
+            }
+        }
+        candidats.sort((a, b) -> Double.compare(a.point.distance(centre), b.point.distance(centre)));
+        int taille = Math.min(maximum, candidats.size());
+        List<T> resultat = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            resultat.add(candidats.get(i).element);
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne le nombre d'éléments indexés.
+     *
+     * @return La taille de la grille
+     */
+    public int getTaille() {
+        return entrees.size();
+    }
+
+    /**
+     * Retire tous les éléments.
+     */
+    public void vider() {
+        cellules.clear();
+        entrees.clear();
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.pizza;
+
+/**
+ * Grille de prix immuable d'un menu, exprimée en centimes.
+ * Les prix sont rangés dans des tableaux indexés par les codes de la
+ * {@link RecettePizza} (code de pâte, code de sauce, ordinal de
+ * {@link Garniture}) : le prix d'une pizza se calcule par quelques lectures de
+ * tableau, sans parcourir ni comparer les libellés de ses garnitures.
+ * <p>
+ * Une grille se modifie par copie ({@link #avecPrixPate(String, long)}, ...),
+ * ce qui permet de la partager entre threads sans synchronisation.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public final class GrilleTarifaire {
+    private static final Garniture[] GARNITURES = Garniture.values();
+
+    /**
+     * Grille dont tous les prix sont nuls.
+     */
+    public static final GrilleTarifaire VIDE = new GrilleTarifaire(0, new long[RecettePizza.nombreCodesPate()],
+            new long[RecettePizza.nombreCodesSauce()], 0, 0, new long[GARNITURES.length]);
+
+    /**
+     * Grille standard de la pizzeria.
+     */
+    public static final GrilleTarifaire STANDARD = VIDE
+            .avecPrixPate("Fine", 600)
+            .avecPrixPate("Epaisse", 700)
+            .avecPrixSauce("Tomate", 100)
+            .avecPrixSauce("Crème", 150)
+            .avecPrixSauce("BBQ", 150)
+            .avecPrixFromage(100)
+            .avecPrixLegumes(100)
+            .avecPrixGarniture(Garniture.MOZZARELLA, 150)
+            .avecPrixGarniture(Garniture.EMMENTAL, 150)
+            .avecPrixGarniture(Garniture.JAMBON, 200)
+            .avecPrixGarniture(Garniture.CHAMPIGNONS, 100)
+            .avecPrixGarniture(Garniture.POIVRONS, 100)
+            .avecPrixGarniture(Garniture.OIGNONS, 80)
+            .avecPrixGarniture(Garniture.OLIVES, 120);
+
+    private final long prixBase;
+    private final long[] prixPates;
+    private final long[] prixSauces;
+    private final long prixFromage;
+    private final long prixLegumes;
+    private final long[] prixGarnitures;
+
+    private GrilleTarifaire(long prixBase, long[] prixPates, long[] prixSauces, long prixFromage,
+            long prixLegumes, long[] prixGarnitures) {
+        this.prixBase = prixBase;
+        this.prixPates = prixPates;
+        this.prixSauces = prixSauces;
+        this.prixFromage = prixFromage;
+        this.prixLegumes = prixLegumes;
+        this.prixGarnitures = prixGarnitures;
+    }
+
+    /**
+     * Calcule le prix d'une pizza.
+     *
+     * @param pizza La pizza à chiffrer
+     * @return Le prix en centimes
+     */
+    public long prix(Pizza pizza) {
+        return prix(pizza.getRecette());
+    }
+
+    /**
+     * Calcule le prix d'une recette.
+     * Une pâte, une sauce ou une garniture à libellé libre n'est pas facturée.
+     *
+     * @param recette La recette à chiffrer
+     * @return Le prix en centimes
+     */
+    public long prix(RecettePizza recette) {
+        long total = prixBase;
+        int codePate = recette.getCodePate();
+        if (codePate >= 0) {
+            total += prixPates[codePate];
+        }
+        int codeSauce = recette.getCodeSauce();
+        if (codeSauce >= 0) {
+            total += prixSauces[codeSauce];
+        }
+        if (recette.isContientFromage()) {
+            total += prixFromage;
+        }
+        if (recette.isContientLegumes()) {
+            total += prixLegumes;
+        }
+        for (int i = 0; i < prixGarnitures.length; i++) {
+            total += recette.quantite(GARNITURES[i]) * prixGarnitures[i];
+        }
+        return total;
+    }
+
+    /**
+     * Retourne une copie de la grille avec un nouveau prix de base.
+     *
+     * @param centimes Le prix facturé pour toute pizza
+     * @return La nouvelle grille
+     * @throws IllegalArgumentException si le prix est négatif
+     */
+    public GrilleTarifaire avecPrixBase(long centimes) {
+        verifier(centimes);
+        return new GrilleTarifaire(centimes, prixPates, prixSauces, prixFromage, prixLegumes, prixGarnitures);
+    }
+
+    /**
+     * Retourne une copie de la grille avec un nouveau prix pour une pâte.
+     *
+     * @param typePate Le type de pâte
+     * @param centimes Le prix de la pâte
+     * @return La nouvelle grille
+     * @throws IllegalArgumentException si la pâte est inconnue ou le prix
+     *                                  négatif
+     */
+    public GrilleTarifaire avecPrixPate(String typePate, long centimes) {
+        verifier(centimes);
+        int code = RecettePizza.codePate(typePate);
+        if (code <= 0) {
+            throw new IllegalArgumentException("Type de pâte inconnu: " + typePate);
+        }
+        long[] pates = prixPates.clone();
+        pates[code] = centimes;
+        return new GrilleTarifaire(prixBase, pates, prixSauces, prixFromage, prixLegumes, prixGarnitures);
+    }
+
+    /**
+     * Retourne une copie de la grille avec un nouveau prix pour une sauce.
+     *
+     * @param typeSauce Le type de sauce
+     * @param centimes  Le prix de la sauce
+     * @return La nouvelle grille
+     * @throws IllegalArgumentException si la sauce est inconnue ou le prix
+     *                                  négatif
+     */
+    public GrilleTarifaire avecPrixSauce(String typeSauce, long centimes) {
+        verifier(centimes);
+        int code = RecettePizza.codeSauce(typeSauce);
+        if (code <= 0) {
+            throw new IllegalArgumentException("Type de sauce inconnu: " + typeSauce);
+        }
+        long[] sauces = prixSauces.clone();
+        sauces[code] = centimes;
+        return new GrilleTarifaire(prixBase, prixPates, sauces, prixFromage, prixLegumes, prixGarnitures);
+    }
+
+    /**
+     * Retourne une copie de la grille avec un nouveau supplément fromage.
+     *
+     * @param centimes Le supplément facturé aux pizzas avec fromage
+     * @return La nouvelle grille
+     * @throws IllegalArgumentException si le prix est négatif
+     */
+    public GrilleTarifaire avecPrixFromage(long centimes) {
+        verifier(centimes);
+        return new GrilleTarifaire(prixBase, prixPates, prixSauces, centimes, prixLegumes, prixGarnitures);
+    }
+
+    /**
+     * Retourne une copie de la grille avec un nouveau supplément légumes.
+     *
+     * @param centimes Le supplément facturé aux pizzas avec légumes
+     * @return La nouvelle grille
+     * @throws IllegalArgumentException si le prix est négatif
+     */
+    public GrilleTarifaire avecPrixLegumes(long centimes) {
+        verifier(centimes);
+        return new GrilleTarifaire(prixBase, prixPates, prixSauces, prixFromage, centimes, prixGarnitures);
+    }
+
+    /**
+     * Retourne une copie de la grille avec un nouveau prix pour une garniture.
+     *
+     * @param garniture La garniture
+     * @param centimes  Le prix de chaque occurrence de la garniture
+     * @return La nouvelle grille
+     * @throws IllegalArgumentException si le prix est négatif
+     */
+    public GrilleTarifaire avecPrixGarniture(Garniture garniture, long centimes) {
+        verifier(centimes);
+        long[] garnitures = prixGarnitures.clone();
+        garnitures[garniture.ordinal()] = centimes;
+        return new GrilleTarifaire(prixBase, prixPates, prixSauces, prixFromage, prixLegumes, garnitures);
+    }
+
+    private static void verifier(long centimes) {
+        if (centimes < 0) {
+            throw new IllegalArgumentException("Le prix ne peut pas être négatif: " + centimes);
+        }
+    }
+}
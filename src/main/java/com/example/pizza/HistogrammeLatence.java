@@ -0,0 +1,131 @@
+package com.example.pizza;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences thread-safe à précision relative bornée.
+ * Les valeurs sont rangées dans des intervalles log-linéaires : chaque
+ * puissance de deux est découpée en 16 sous-intervalles, soit une erreur
+ * relative inférieure à 6,25 % sur les percentiles, pour une empreinte fixe de
+ * moins de mille compteurs quelle que soit la plage des valeurs.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class HistogrammeLatence {
+    private static final int SOUS_INTERVALLES = 16;
+    private static final int BITS_SOUS_INTERVALLES = 4;
+    private static final int NOMBRE_INTERVALLES = (64 - BITS_SOUS_INTERVALLES) * SOUS_INTERVALLES;
+
+    private final AtomicLongArray compteurs = new AtomicLongArray(NOMBRE_INTERVALLES);
+    private final LongAdder nombre = new LongAdder();
+    private final LongAdder somme = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Enregistre une valeur (typiquement une latence en nanosecondes).
+     * Les valeurs négatives sont ramenées à zéro.
+     *
+     * @param valeur La valeur à enregistrer
+     */
+    public void enregistrer(long valeur) {
+        long v = Math.max(0, valeur);
+        compteurs.incrementAndGet(indice(v));
+        nombre.increment();
+        somme.add(v);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    /**
+     * Retourne la valeur en dessous de laquelle se trouve le pourcentage donné
+     * des valeurs enregistrées.
+     *
+     * @param pourcentage Le percentile recherché, entre 0 et 100
+     * @return La borne supérieure de l'intervalle contenant le percentile, ou 0
+     *         si l'histogramme est vide
+     * @throws IllegalArgumentException si le pourcentage est hors de [0, 100]
+     */
+    public long percentile(double pourcentage) {
+        if (pourcentage < 0 || pourcentage > 100) {
+            throw new IllegalArgumentException("Le percentile doit être compris entre 0 et 100");
+        }
+        long total = 0;
+        long[] instantane = new long[NOMBRE_INTERVALLES];
+        for (int i = 0; i < NOMBRE_INTERVALLES; i++) {
+            instantane[i] = compteurs.get(i);
+            total += instantane[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(pourcentage / 100.0 * total));
+        long cumul = 0;
+        for (int i = 0; i < NOMBRE_INTERVALLES; i++) {
+            cumul += instantane[i];
+            if (cumul >= rang) {
+                return Math.min(borneSuperieure(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Retourne le nombre de valeurs enregistrées.
+     *
+     * @return Le nombre de valeurs
+     */
+    public long getNombre() {
+        return nombre.sum();
+    }
+
+    /**
+     * Retourne la moyenne exacte des valeurs enregistrées.
+     *
+     * @return La moyenne, ou 0 si l'histogramme est vide
+     */
+    public double getMoyenne() {
+        long n = nombre.sum();
+        return n == 0 ? 0 : (double) somme.sum() / n;
+    }
+
+    /**
+     * Retourne la plus grande valeur enregistrée.
+     *
+     * @return Le maximum, ou 0 si l'histogramme est vide
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Remet l'histogramme à zéro.
+     */
+    public void reinitialiser() {
+        for (int i = 0; i < NOMBRE_INTERVALLES; i++) {
+            compteurs.set(i, 0);
+        }
+        nombre.reset();
+        somme.reset();
+        max.set(0);
+    }
+
+    static int indice(long valeur) {
+        if (valeur < SOUS_INTERVALLES) {
+            return (int) valeur;
+        }
+        int exposant = 63 - Long.numberOfLeadingZeros(valeur);
+        int decalage = exposant - BITS_SOUS_INTERVALLES;
+        return (decalage + 1) * SOUS_INTERVALLES + (int) ((valeur >>> decalage) & (SOUS_INTERVALLES - 1));
+    }
+
+    static long borneSuperieure(int indice) {
+        if (indice < SOUS_INTERVALLES) {
+            return indice;
+        }
+        int decalage = indice / SOUS_INTERVALLES - 1;
+        long sousIntervalle = indice % SOUS_INTERVALLES;
+        return ((SOUS_INTERVALLES + sousIntervalle + 1) << decalage) - 1;
+    }
+}
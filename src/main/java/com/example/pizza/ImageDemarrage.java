@@ -0,0 +1,384 @@
+package com.example.pizza;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Image binaire du catalogue et du carnet de commandes, pour un démarrage à
+ * froid rapide.
+ * L'image est écrite à l'arrêt ({@link #ecrire(CommandeManager, Path)}) puis
+ * projetée en mémoire au démarrage suivant ({@link #ouvrir(Path)}) : rien
+ * n'est lu ni décodé avant d'être demandé. Les recettes ne sont décodées qu'à
+ * leur première utilisation, une fois par configuration : celles du menu par
+ * {@link #recetteMenu(String)}, celles des commandes au travers du
+ * {@link CacheRecettes} partagé pendant {@link #charger(CommandeManager)}. Le
+ * menu alimente la {@link PizzaFactory} du serveur
+ * ({@link PizzaFactory#PizzaFactory(ImageDemarrage)}). Les commandes sont
+ * recréées sans repasser par le builder, avec leur identifiant, leur classe,
+ * leur recette, leur état et leur adresse de livraison ; leur état est
+ * restauré sans rejouer de transition, si bien que les écouteurs
+ * (statistiques, expiration, admission, regroupement des livraisons) ne
+ * voient pas le rechargement. Une image ouverte peut être lue par plusieurs threads : les
+ * recettes étant immuables, deux décodages concurrents d'une même recette
+ * sont sans conséquence.
+ * <p>
+ * Format, big-endian :
+ * <ul>
+ * <li>en-tête de 32 octets : magique (int), version (int), nombre d'entrées du
+ * menu (int), nombre de recettes en clair (int), nombre de commandes (long),
+ * position des commandes (long) ;</li>
+ * <li>menu : pour chaque entrée, le type (chaîne), la clé de sa recette (long)
+ * et son prix dans la {@link GrilleTarifaire#STANDARD} (long, centimes) ;</li>
+ * <li>recettes non encodables, dans le format de {@link ExportCommandes} ;</li>
+ * <li>commandes, alignées sur 8 octets, en enregistrements de 40 octets :
+ * id (long), recette (long : clé canonique, ou -2 - i pour la i-ème recette en
+ * clair), type et état (octets, comme {@link ExportCommandes}), présence d'une
+ * adresse (octet), 5 octets de bourrage, puis x et y (doubles).</li>
+ * </ul>
+ * Une chaîne est un int de longueur (-1 pour null) suivi de ses octets UTF-8.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public final class ImageDemarrage {
+    static final int MAGIQUE = 0x505A494D;
+    static final int VERSION = 1;
+    static final int TAILLE_ENTETE = 32;
+    static final int TAILLE_COMMANDE = 40;
+
+    private static final String[] TYPES_MENU = { "fromage", "vegetarienne" };
+
+    private final ByteBuffer image;
+    private final String[] typesMenu;
+    private final long[] clesMenu;
+    private final long[] prixMenu;
+    private final RecettePizza[] recettesMenu;
+    private final int[] positionsRecettes;
+    private final RecettePizza[] recettesEnClair;
+    private final long nombreCommandes;
+    private final int positionCommandes;
+
+    private ImageDemarrage(ByteBuffer image) throws IOException {
+        this.image = image;
+        try {
+            if (image.getInt(0) != MAGIQUE || image.getInt(4) != VERSION) {
+                throw new IOException("Image de démarrage invalide ou d'une autre version");
+            }
+            int nombreMenu = image.getInt(8);
+            int nombreRecettes = image.getInt(12);
+            this.nombreCommandes = image.getLong(16);
+            long position = image.getLong(24);
+            if (nombreMenu < 0 || nombreRecettes < 0 || nombreCommandes < 0 || position < TAILLE_ENTETE
+                    || position + nombreCommandes * TAILLE_COMMANDE != image.capacity()) {
+                throw new IOException("Image de démarrage tronquée ou corrompue");
+            }
+            this.positionCommandes = (int) position;
+            ByteBuffer lecture = image.duplicate().position(TAILLE_ENTETE);
+            this.typesMenu = new String[nombreMenu];
+            this.clesMenu = new long[nombreMenu];
+            this.prixMenu = new long[nombreMenu];
+            for (int i = 0; i < nombreMenu; i++) {
+                typesMenu[i] = lireChaine(lecture);
+                clesMenu[i] = lecture.getLong();
+                prixMenu[i] = lecture.getLong();
+            }
+            this.recettesMenu = new RecettePizza[nombreMenu];
+            // Les recettes en clair sont seulement repérées ; elles seront décodées à la demande
+            this.positionsRecettes = new int[nombreRecettes];
+            for (int i = 0; i < nombreRecettes; i++) {
+                positionsRecettes[i] = lecture.position();
+                lireRecette(lecture);
+            }
+            this.recettesEnClair = new RecettePizza[nombreRecettes];
+            if (lecture.position() > positionCommandes) {
+                throw new IOException("Image de démarrage tronquée ou corrompue");
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Image de démarrage tronquée ou corrompue", e);
+        }
+    }
+
+    /**
+     * Projette une image en mémoire, en lecture seule. Seuls l'en-tête et le
+     * menu sont lus ; les commandes le seront par
+     * {@link #charger(CommandeManager)}.
+     *
+     * @param fichier Le fichier de l'image
+     * @return L'image ouverte
+     * @throws IOException si le fichier est illisible, invalide ou trop
+     *                     volumineux pour être projeté d'un bloc
+     */
+    public static ImageDemarrage ouvrir(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long taille = canal.size();
+            if (taille > Integer.MAX_VALUE) {
+                throw new IOException("Image de démarrage trop volumineuse: " + taille + " octets");
+            }
+            // La projection reste valide après la fermeture du canal
+            MappedByteBuffer image = canal.map(FileChannel.MapMode.READ_ONLY, 0, taille);
+            return new ImageDemarrage(image);
+        }
+    }
+
+    /**
+     * Écrit l'image du menu et du carnet d'un gestionnaire. L'image est
+     * écrite dans un fichier temporaire puis renommée, si bien qu'une image
+     * existante n'est jamais remplacée par une image incomplète.
+     *
+     * @param manager Le gestionnaire
+     * @param fichier Le fichier de l'image, remplacé s'il existe
+     * @return Le nombre de commandes écrites
+     * @throws IOException si l'écriture échoue
+     */
+    public static long ecrire(CommandeManager manager, Path fichier) throws IOException {
+        List<Pizza> commandes = manager.getCommandes();
+        Map<RecettePizza, Integer> enClair = new IdentityHashMap<>();
+        ByteArrayOutputStream debut = new ByteArrayOutputStream();
+        DataOutputStream sortie = new DataOutputStream(debut);
+        sortie.writeInt(MAGIQUE);
+        sortie.writeInt(VERSION);
+        sortie.writeInt(TYPES_MENU.length);
+        sortie.writeInt(0);
+        sortie.writeLong(commandes.size());
+        sortie.writeLong(0);
+        PizzaFactory factory = new PizzaFactory();
+        for (String type : TYPES_MENU) {
+            RecettePizza recette = factory.createPizza(type).getRecette();
+            ecrireChaine(sortie, type);
+            sortie.writeLong(recette.getCle());
+            sortie.writeLong(GrilleTarifaire.STANDARD.prix(recette));
+        }
+        for (Pizza pizza : commandes) {
+            RecettePizza recette = pizza.getRecette();
+            if (recette.getCle() == RecettePizza.CLE_NON_ENCODABLE && !enClair.containsKey(recette)) {
+                enClair.put(recette, enClair.size());
+                ecrireRecette(sortie, recette);
+            }
+        }
+        while (debut.size() % Long.BYTES != 0) {
+            sortie.writeByte(0);
+        }
+        ByteBuffer entete = ByteBuffer.wrap(debut.toByteArray());
+        entete.putInt(12, enClair.size());
+        entete.putLong(24, entete.capacity());
+
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (entete.hasRemaining()) {
+                canal.write(entete);
+            }
+            ByteBuffer tampon = ByteBuffer.allocateDirect(ExportCommandes.TAILLE_TAMPON);
+            for (Pizza pizza : commandes) {
+                if (tampon.remaining() < TAILLE_COMMANDE) {
+                    ecrireTampon(canal, tampon);
+                }
+                ecrireCommande(tampon, pizza, enClair);
+            }
+            ecrireTampon(canal, tampon);
+            canal.force(false);
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return commandes.size();
+    }
+
+    private static void ecrireCommande(ByteBuffer tampon, Pizza pizza, Map<RecettePizza, Integer> enClair) {
+        RecettePizza recette = pizza.getRecette();
+        long cle = recette.getCle();
+        PointLivraison point = pizza.getPointLivraison();
+        tampon.putLong(pizza.getId());
+        tampon.putLong(cle == RecettePizza.CLE_NON_ENCODABLE ? -2 - enClair.get(recette) : cle);
+        tampon.put(ExportCommandes.codeType(pizza));
+        tampon.put((byte) pizza.getEtat().ordinal());
+        tampon.put((byte) (point == null ? 0 : 1));
+        tampon.put(new byte[5]);
+        tampon.putDouble(point == null ? 0 : point.x());
+        tampon.putDouble(point == null ? 0 : point.y());
+    }
+
+    private static void ecrireTampon(FileChannel canal, ByteBuffer tampon) throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+        tampon.clear();
+    }
+
+    /**
+     * Recrée les commandes de l'image et les ajoute au gestionnaire, par lots.
+     *
+     * @param manager Le gestionnaire à remplir
+     * @return Le nombre de commandes chargées
+     * @throws IOException si une commande de l'image est invalide
+     */
+    public long charger(CommandeManager manager) throws IOException {
+        List<Pizza> lot = new ArrayList<>((int) Math.min(nombreCommandes, ImportCommandes.TAILLE_LOT));
+        CacheRecettes cache = CacheRecettes.getInstance();
+        int position = positionCommandes;
+        for (long i = 0; i < nombreCommandes; i++, position += TAILLE_COMMANDE) {
+            long id = image.getLong(position);
+            long cle = image.getLong(position + 8);
+            RecettePizza recette;
+            try {
+                recette = cle >= 0 ? cache.obtenir(cle) : recetteEnClair((int) (-2 - cle));
+            } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+                throw new IOException("Recette invalide pour la commande " + id, e);
+            }
+            Pizza pizza = ProtocoleReplication.recreer(id, image.get(position + 16), image.get(position + 17),
+                    recette);
+            if (image.get(position + 18) != 0) {
+                pizza.setPointLivraison(
+                        new PointLivraison(image.getDouble(position + 24), image.getDouble(position + 32)));
+            }
+            lot.add(pizza);
+            if (lot.size() == ImportCommandes.TAILLE_LOT) {
+                manager.ajouterCommandes(lot);
+                lot.clear();
+            }
+        }
+        if (!lot.isEmpty()) {
+            manager.ajouterCommandes(lot);
+        }
+        return nombreCommandes;
+    }
+
+    private RecettePizza recetteEnClair(int indice) {
+        RecettePizza recette = recettesEnClair[indice];
+        if (recette == null) {
+            recette = lireRecette(image.duplicate().position(positionsRecettes[indice]));
+            recettesEnClair[indice] = recette;
+        }
+        return recette;
+    }
+
+    /**
+     * Retourne les types de pizza du menu de l'image.
+     *
+     * @return Les types, tels qu'acceptés par {@link PizzaFactory#createPizza}
+     */
+    public List<String> getTypesMenu() {
+        return List.of(typesMenu);
+    }
+
+    /**
+     * Retourne la recette d'un type du menu, décodée à la première demande.
+     *
+     * @param type Le type de pizza
+     * @return La recette partagée
+     * @throws IllegalArgumentException si le type n'est pas au menu
+     */
+    public RecettePizza recetteMenu(String type) {
+        RecettePizza recette = trouverRecetteMenu(type);
+        if (recette == null) {
+            throw new IllegalArgumentException("Type absent du menu: " + type);
+        }
+        return recette;
+    }
+
+    /**
+     * Retourne la recette d'un type du menu, ou null s'il n'est pas au menu.
+     * Utilisé par {@link PizzaFactory#PizzaFactory(ImageDemarrage)}.
+     */
+    RecettePizza trouverRecetteMenu(String type) {
+        for (int i = 0; i < typesMenu.length; i++) {
+            if (typesMenu[i].equals(type)) {
+                RecettePizza recette = recettesMenu[i];
+                if (recette == null) {
+                    recette = CacheRecettes.getInstance().obtenir(clesMenu[i]);
+                    recettesMenu[i] = recette;
+                }
+                return recette;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retourne le prix d'un type du menu, calculé à l'écriture de l'image.
+     *
+     * @param type Le type de pizza
+     * @return Le prix en centimes
+     * @throws IllegalArgumentException si le type n'est pas au menu
+     */
+    public long prixMenu(String type) {
+        return prixMenu[indiceMenu(type)];
+    }
+
+    private int indiceMenu(String type) {
+        for (int i = 0; i < typesMenu.length; i++) {
+            if (typesMenu[i].equals(type)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Type absent du menu: " + type);
+    }
+
+    /**
+     * Retourne le nombre de commandes de l'image.
+     *
+     * @return Le nombre de commandes
+     */
+    public long getNombreCommandes() {
+        return nombreCommandes;
+    }
+
+    private static void ecrireRecette(DataOutputStream sortie, RecettePizza recette) throws IOException {
+        ecrireChaine(sortie, recette.getTypePate());
+        ecrireChaine(sortie, recette.getTypeSauce());
+        sortie.writeByte((recette.isContientFromage() ? 1 : 0) | (recette.isContientLegumes() ? 2 : 0));
+        List<String> garnitures = recette.getGarnitures();
+        sortie.writeInt(garnitures.size());
+        for (int i = 0; i < garnitures.size(); i++) {
+            ecrireChaine(sortie, garnitures.get(i));
+        }
+    }
+
+    private static RecettePizza lireRecette(ByteBuffer lecture) {
+        String pate = lireChaine(lecture);
+        String sauce = lireChaine(lecture);
+        int indicateurs = lecture.get();
+        int nombre = lecture.getInt();
+        if (nombre < 0) {
+            throw new IllegalArgumentException("Nombre de garnitures invalide: " + nombre);
+        }
+        List<String> garnitures = new ArrayList<>(Math.min(nombre, RecettePizza.MAX_GARNITURES_ENCODABLES));
+        for (int i = 0; i < nombre; i++) {
+            garnitures.add(lireChaine(lecture));
+        }
+        return RecettePizza.creer(pate, sauce, (indicateurs & 1) != 0, (indicateurs & 2) != 0, garnitures);
+    }
+
+    private static void ecrireChaine(DataOutputStream sortie, String texte) throws IOException {
+        if (texte == null) {
+            sortie.writeInt(-1);
+            return;
+        }
+        byte[] octets = texte.getBytes(StandardCharsets.UTF_8);
+        sortie.writeInt(octets.length);
+        sortie.write(octets);
+    }
+
+    private static String lireChaine(ByteBuffer lecture) {
+        int longueur = lecture.getInt();
+        if (longueur < 0) {
+            return null;
+        }
+        byte[] octets = new byte[longueur];
+        lecture.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+}
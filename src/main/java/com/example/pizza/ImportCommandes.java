@@ -0,0 +1,272 @@
+package com.example.pizza;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Import en masse de pré-commandes depuis un fichier CSV ou NDJSON.
+ * Le fichier est découpé en segments alignés sur les fins de ligne, chaque
+ * segment est projeté en mémoire ({@link MappedByteBuffer}) et analysé en
+ * parallèle. Le type de pizza est reconnu directement dans les octets du
+ * tampon, sans construire de {@link String} intermédiaire, puis les pizzas
+ * sont ajoutées au {@link CommandeManager} par lots via
+ * {@link CommandeManager#ajouterCommandes(java.util.Collection)}.
+ * <p>
+ * Formats reconnus, ligne par ligne (le format est détecté pour chaque
+ * ligne) :
+ * <ul>
+ * <li>CSV : le type est le premier champ, éventuellement entre guillemets ; une
+ * ligne d'en-tête commençant par {@code type} est ignorée</li>
+ * <li>NDJSON : le type est la valeur de la clé {@code "type"}</li>
+ * </ul>
+ * Les lignes vides sont ignorées ; les lignes dont le type est inconnu sont
+ * comptées comme rejetées.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class ImportCommandes {
+    /**
+     * Taille par défaut d'un segment analysé par une tâche.
+     */
+    public static final int TAILLE_SEGMENT_PAR_DEFAUT = 64 * 1024 * 1024;
+
+    /**
+     * Nombre de pizzas ajoutées au gestionnaire en une fois.
+     */
+    public static final int TAILLE_LOT = 4096;
+
+    private static final String[] TYPES = { "fromage", "vegetarienne" };
+    private static final byte[][] TYPES_OCTETS = {
+            TYPES[0].getBytes(StandardCharsets.US_ASCII),
+            TYPES[1].getBytes(StandardCharsets.US_ASCII) };
+    private static final byte[] ENTETE = "type".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLE_JSON = "\"type\"".getBytes(StandardCharsets.US_ASCII);
+    private static final int TYPE_INCONNU = -1;
+    private static final int LIGNE_IGNOREE = -2;
+
+    private final CommandeManager manager;
+    private final PizzaFactory factory;
+    private final int tailleSegment;
+
+    /**
+     * Résultat d'un import.
+     *
+     * @param importees Nombre de commandes ajoutées
+     * @param rejetees  Nombre de lignes dont le type est inconnu
+     */
+    public record Resultat(long importees, long rejetees) {
+    }
+
+    /**
+     * Crée un importeur avec la taille de segment par défaut.
+     *
+     * @param manager Le gestionnaire recevant les commandes
+     * @param factory La factory utilisée pour créer les pizzas
+     */
+    public ImportCommandes(CommandeManager manager, PizzaFactory factory) {
+        this(manager, factory, TAILLE_SEGMENT_PAR_DEFAUT);
+    }
+
+    /**
+     * Crée un importeur.
+     *
+     * @param manager       Le gestionnaire recevant les commandes
+     * @param factory       La factory utilisée pour créer les pizzas
+     * @param tailleSegment La taille visée d'un segment, en octets
+     * @throws IllegalArgumentException si la taille n'est pas positive
+     */
+    public ImportCommandes(CommandeManager manager, PizzaFactory factory, int tailleSegment) {
+        if (tailleSegment <= 0) {
+            throw new IllegalArgumentException("La taille de segment doit être positive");
+        }
+        this.manager = manager;
+        this.factory = factory;
+        this.tailleSegment = tailleSegment;
+    }
+
+    /**
+     * Importe toutes les commandes d'un fichier.
+     *
+     * @param fichier Le fichier CSV ou NDJSON
+     * @return Le nombre de commandes importées et de lignes rejetées
+     * @throws IOException si le fichier ne peut pas être lu
+     */
+    public Resultat importer(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            List<long[]> segments = decouper(canal);
+            LongAdder importees = new LongAdder();
+            LongAdder rejetees = new LongAdder();
+            segments.parallelStream().forEach(segment -> {
+                try {
+                    MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, segment[0],
+                            segment[1] - segment[0]);
+                    analyser(tampon, importees, rejetees);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Lecture impossible de " + fichier, e);
+                }
+            });
+            return new Resultat(importees.sum(), rejetees.sum());
+        }
+    }
+
+    /**
+     * Découpe le fichier en segments [début, fin[ dont chaque fin suit un saut
+     * de ligne (ou est la fin du fichier).
+     */
+    private List<long[]> decouper(FileChannel canal) throws IOException {
+        long taille = canal.size();
+        List<long[]> segments = new ArrayList<>();
+        ByteBuffer lecture = ByteBuffer.allocate(4096);
+        long debut = 0;
+        while (debut < taille) {
+            long fin = Math.min(taille, debut + tailleSegment);
+            while (fin < taille) {
+                lecture.clear();
+                int lus = canal.read(lecture, fin);
+                int saut = -1;
+                for (int i = 0; i < lus && saut < 0; i++) {
+                    if (lecture.get(i) == '\n') {
+                        saut = i;
+                    }
+                }
+                if (saut >= 0) {
+                    fin += saut + 1;
+                    break;
+                }
+                fin += Math.max(lus, 0);
+            }
+            fin = Math.min(fin, taille);
+            segments.add(new long[] { debut, fin });
+            debut = fin;
+        }
+        return segments;
+    }
+
+    private void analyser(ByteBuffer tampon, LongAdder importees, LongAdder rejetees) {
+        List<Pizza> lot = new ArrayList<>(TAILLE_LOT);
+        int limite = tampon.limit();
+        int debutLigne = 0;
+        while (debutLigne < limite) {
+            int finLigne = debutLigne;
+            while (finLigne < limite && tampon.get(finLigne) != '\n') {
+                finLigne++;
+            }
+            int type = reconnaitreType(tampon, debutLigne, finLigne);
+            if (type >= 0) {
+                lot.add(factory.createPizza(TYPES[type]));
+                if (lot.size() == TAILLE_LOT) {
+                    manager.ajouterCommandes(lot);
+                    importees.add(lot.size());
+                    lot.clear();
+                }
+            } else if (type == TYPE_INCONNU) {
+                rejetees.increment();
+            }
+            debutLigne = finLigne + 1;
+        }
+        if (!lot.isEmpty()) {
+            manager.ajouterCommandes(lot);
+            importees.add(lot.size());
+        }
+    }
+
+    /**
+     * Reconnaît le type de pizza d'une ligne [debut, fin[.
+     *
+     * @return L'indice du type dans {@link #TYPES}, {@link #LIGNE_IGNOREE} pour
+     *         une ligne vide ou d'en-tête, {@link #TYPE_INCONNU} sinon
+     */
+    static int reconnaitreType(ByteBuffer tampon, int debut, int fin) {
+        while (fin > debut && estEspace(tampon.get(fin - 1))) {
+            fin--;
+        }
+        while (debut < fin && estEspace(tampon.get(debut))) {
+            debut++;
+        }
+        if (debut == fin) {
+            return LIGNE_IGNOREE;
+        }
+        int debutValeur;
+        int finValeur;
+        if (tampon.get(debut) == '{') {
+            int cle = chercher(tampon, debut, fin, CLE_JSON);
+            if (cle < 0) {
+                return TYPE_INCONNU;
+            }
+            int i = cle + CLE_JSON.length;
+            while (i < fin && (estEspace(tampon.get(i)) || tampon.get(i) == ':')) {
+                i++;
+            }
+            if (i >= fin || tampon.get(i) != '"') {
+                return TYPE_INCONNU;
+            }
+            debutValeur = i + 1;
+            finValeur = debutValeur;
+            while (finValeur < fin && tampon.get(finValeur) != '"') {
+                finValeur++;
+            }
+        } else {
+            finValeur = debut;
+            while (finValeur < fin && tampon.get(finValeur) != ',') {
+                finValeur++;
+            }
+            debutValeur = debut;
+            while (finValeur > debutValeur && estEspace(tampon.get(finValeur - 1))) {
+                finValeur--;
+            }
+            if (finValeur - debutValeur >= 2 && tampon.get(debutValeur) == '"'
+                    && tampon.get(finValeur - 1) == '"') {
+                debutValeur++;
+                finValeur--;
+            }
+            if (egalSansCasse(tampon, debutValeur, finValeur, ENTETE)) {
+                return LIGNE_IGNOREE;
+            }
+        }
+        for (int t = 0; t < TYPES_OCTETS.length; t++) {
+            if (egalSansCasse(tampon, debutValeur, finValeur, TYPES_OCTETS[t])) {
+                return t;
+            }
+        }
+        return TYPE_INCONNU;
+    }
+
+    private static int chercher(ByteBuffer tampon, int debut, int fin, byte[] motif) {
+        for (int i = debut; i <= fin - motif.length; i++) {
+            int j = 0;
+            while (j < motif.length && tampon.get(i + j) == motif[j]) {
+                j++;
+            }
+            if (j == motif.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean egalSansCasse(ByteBuffer tampon, int debut, int fin, byte[] attendu) {
+        if (fin - debut != attendu.length) {
+            return false;
+        }
+        for (int i = 0; i < attendu.length; i++) {
+            // Les types attendus sont en ASCII minuscule
+            if ((tampon.get(debut + i) | 0x20) != attendu[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean estEspace(byte octet) {
+        return octet == ' ' || octet == '\t' || octet == '\r';
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.pizza;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Stock des garnitures, avec réservation atomique par commande.
+ * Chaque garniture a son propre compteur atomique ; une réservation décrémente
+ * les compteurs concernés un par un par CAS et, si l'un d'eux est insuffisant,
+ * restitue ce qui a déjà été pris. Aucune réservation ne prend de verrou
+ * global : deux commandes sans garniture commune ne se gênent jamais.
+ * <p>
+ * Une réservation partiellement effectuée peut être momentanément visible par
+ * une réservation concurrente, qui échouera alors à tort pour une garniture
+ * presque épuisée ; le stock n'est en revanche jamais négatif.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class Inventaire {
+    // Les compteurs sont espacés d'une ligne de cache (16 int = 64 octets) pour
+    // éviter le faux partage entre garnitures voisines
+    private static final int ESPACEMENT = 16;
+    private static final Garniture[] GARNITURES = Garniture.values();
+
+    private final AtomicIntegerArray stocks = new AtomicIntegerArray(GARNITURES.length * ESPACEMENT);
+
+    /**
+     * Ajoute des unités au stock d'une garniture.
+     *
+     * @param garniture La garniture réapprovisionnée
+     * @param quantite  Le nombre d'unités ajoutées
+     * @throws IllegalArgumentException si la quantité est négative
+     */
+    public void reapprovisionner(Garniture garniture, int quantite) {
+        if (quantite < 0) {
+            throw new IllegalArgumentException("La quantité ne peut pas être négative");
+        }
+        stocks.addAndGet(garniture.ordinal() * ESPACEMENT, quantite);
+    }
+
+    /**
+     * Retourne le stock disponible d'une garniture.
+     *
+     * @param garniture La garniture
+     * @return Le nombre d'unités disponibles
+     */
+    public int getStock(Garniture garniture) {
+        return stocks.get(garniture.ordinal() * ESPACEMENT);
+    }
+
+    /**
+     * Réserve toutes les garnitures d'une pizza, ou aucune.
+     *
+     * @param pizza La pizza à réserver
+     * @return true si toutes les garnitures ont été réservées, false si l'une
+     *         d'elles est en rupture (rien n'est alors réservé)
+     */
+    public boolean reserver(Pizza pizza) {
+        RecettePizza recette = pizza.getRecette();
+        for (int i = 0; i < GARNITURES.length; i++) {
+            int besoin = recette.quantite(GARNITURES[i]);
+            if (besoin > 0 && !prendre(i * ESPACEMENT, besoin)) {
+                for (int j = 0; j < i; j++) {
+                    stocks.addAndGet(j * ESPACEMENT, recette.quantite(GARNITURES[j]));
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Restitue au stock les garnitures d'une pizza précédemment réservée.
+     *
+     * @param pizza La pizza dont la réservation est libérée
+     */
+    public void liberer(Pizza pizza) {
+        RecettePizza recette = pizza.getRecette();
+        for (int i = 0; i < GARNITURES.length; i++) {
+            int quantite = recette.quantite(GARNITURES[i]);
+            if (quantite > 0) {
+                stocks.addAndGet(i * ESPACEMENT, quantite);
+            }
+        }
+    }
+
+    private boolean prendre(int indice, int besoin) {
+        int stock;
+        do {
+            stock = stocks.get(indice);
+            if (stock < besoin) {
+                return false;
+            }
+        } while (!stocks.compareAndSet(indice, stock, stock - besoin));
+        return true;
+    }
+}
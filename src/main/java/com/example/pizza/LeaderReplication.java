@@ -0,0 +1,352 @@
+package com.example.pizza;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leader de la réplication d'un carnet de commandes vers d'autres processus.
+ * Le leader écoute en TCP local ; à chaque suiveur connecté, il s'abonne au
+ * flux du gestionnaire ({@link CommandeManager#getFlux()}), envoie un
+ * instantané du carnet puis les ajouts, suppressions et vidages dans l'ordre
+ * où ils ont eu lieu. L'abonnement précède l'instantané : une modification
+ * concurrente à l'instantané est renvoyée ensuite et appliquée de façon
+ * idempotente par le suiveur.
+ * <p>
+ * Chaque suiveur est servi par un thread d'envoi qui regroupe en une trame
+ * tous les lots d'événements en attente (au plus {@value #OPERATIONS_PAR_TRAME}
+ * opérations), et reçoit un seul acquittement par trame. Sans modification, une
+ * trame vide sert de battement de cœur toutes les {@link #BATTEMENT}. Un
+ * suiveur trop lent pour suivre le flux est déconnecté ; il se reconnecte et
+ * reçoit un nouvel instantané. Le format est décrit par
+ * {@link ProtocoleReplication}.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class LeaderReplication {
+    /**
+     * Intervalle des battements de cœur envoyés à un suiveur inactif.
+     */
+    public static final Duration BATTEMENT = Duration.ofMillis(200);
+
+    /**
+     * Nombre maximal d'opérations par trame.
+     */
+    public static final int OPERATIONS_PAR_TRAME = 1024;
+
+    // Lots d'événements en attente d'envoi par suiveur, au-delà desquels le
+    // suiveur est déconnecté
+    private static final int LOTS_EN_ATTENTE = 1024;
+
+    private final CommandeManager manager;
+    private final ServerSocket serveur;
+    private final List<Suiveur> suiveurs = new CopyOnWriteArrayList<>();
+    private volatile boolean actif;
+
+    /**
+     * Connexion d'un suiveur : abonnement au flux, thread d'envoi et thread de
+     * lecture des acquittements.
+     */
+    private final class Suiveur implements Flow.Subscriber<List<EvenementCommande>> {
+        private final Socket socket;
+        private final BlockingQueue<List<EvenementCommande>> file = new ArrayBlockingQueue<>(LOTS_EN_ATTENTE);
+        private final ByteArrayOutputStream corps = new ByteArrayOutputStream(64 * 1024);
+        private final DataOutputStream trame = new DataOutputStream(corps);
+        private int operations;
+        private volatile Flow.Subscription abonnement;
+        private volatile long sequenceAcquittee;
+        private volatile boolean ferme;
+
+        private Suiveur(Socket socket) {
+            this.socket = socket;
+        }
+
+        private void servir() {
+            try (Socket connexion = socket) {
+                connexion.setTcpNoDelay(true);
+                DataOutputStream sortie = new DataOutputStream(
+                        new BufferedOutputStream(connexion.getOutputStream(), 64 * 1024));
+                sortie.writeInt(ProtocoleReplication.MAGIQUE);
+                manager.getFlux().subscribe(this);
+                envoyerInstantane(sortie);
+                Thread lecteur = new Thread(this::lireAcquittements, "replication-acquittements");
+                lecteur.setDaemon(true);
+                lecteur.start();
+                while (!ferme) {
+                    List<EvenementCommande> lot = file.poll(BATTEMENT.toNanos(), TimeUnit.NANOSECONDS);
+                    while (lot != null) {
+                        for (EvenementCommande evenement : lot) {
+                            ajouter(evenement);
+                        }
+                        lot = operations < OPERATIONS_PAR_TRAME ? file.poll() : null;
+                    }
+                    emettre(sortie);
+                }
+            } catch (IOException | UncheckedIOException e) {
+                // Suiveur perdu : il se reconnectera et recevra un instantané
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                fermer();
+            }
+        }
+
+        private void envoyerInstantane(DataOutputStream sortie) throws IOException {
+            // Lu avant le parcours : l'instantané reflète au moins ces modifications
+            long sequence = manager.getSequenceFlux();
+            try {
+                manager.parcourirCommandes(pizza -> {
+                    try {
+                        ProtocoleReplication.ecrireCommande(trame, ProtocoleReplication.INSTANTANE, 0, pizza);
+                        if (++operations == OPERATIONS_PAR_TRAME) {
+                            emettre(sortie);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            ProtocoleReplication.ecrireMarque(trame, ProtocoleReplication.FIN_INSTANTANE, sequence);
+            operations++;
+            emettre(sortie);
+        }
+
+        private void ajouter(EvenementCommande evenement) throws IOException {
+            switch (evenement.type()) {
+                case AJOUT -> ProtocoleReplication.ecrireCommande(trame, ProtocoleReplication.AJOUT,
+                        evenement.sequence(), evenement.pizza());
+                case SUPPRESSION -> ProtocoleReplication.ecrireCommande(trame, ProtocoleReplication.SUPPRESSION,
+                        evenement.sequence(), evenement.pizza());
+                case VIDAGE -> ProtocoleReplication.ecrireMarque(trame, ProtocoleReplication.VIDAGE,
+                        evenement.sequence());
+            }
+            operations++;
+        }
+
+        /**
+         * Envoie la trame en cours (vide : battement de cœur).
+         */
+        private void emettre(DataOutputStream sortie) throws IOException {
+            sortie.writeInt(operations);
+            corps.writeTo(sortie);
+            sortie.flush();
+            corps.reset();
+            operations = 0;
+        }
+
+        private void lireAcquittements() {
+            try {
+                DataInputStream entree = new DataInputStream(socket.getInputStream());
+                while (!ferme) {
+                    sequenceAcquittee = entree.readLong();
+                }
+            } catch (IOException e) {
+                // Suiveur arrêté ou connexion fermée
+            } finally {
+                fermer();
+            }
+        }
+
+        private void fermer() {
+            if (ferme) {
+                return;
+            }
+            ferme = true;
+            suiveurs.remove(this);
+            Flow.Subscription courant = abonnement;
+            if (courant != null) {
+                courant.cancel();
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Déjà fermée
+            }
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            abonnement = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<EvenementCommande> evenements) {
+            if (!file.offer(evenements)) {
+                // Suiveur trop lent : il sera resynchronisé par un instantané
+                fermer();
+            }
+        }
+
+        @Override
+        public void onError(Throwable erreur) {
+            fermer();
+        }
+
+        @Override
+        public void onComplete() {
+            fermer();
+        }
+    }
+
+    /**
+     * Crée un leader sur l'adresse donnée, sans le démarrer.
+     *
+     * @param manager Le gestionnaire répliqué
+     * @param adresse L'adresse d'écoute (port 0 pour un port libre)
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public LeaderReplication(CommandeManager manager, InetSocketAddress adresse) throws IOException {
+        this.manager = manager;
+        this.serveur = new ServerSocket();
+        serveur.setReuseAddress(true);
+        serveur.bind(adresse);
+    }
+
+    /**
+     * Démarre l'acceptation des suiveurs.
+     */
+    public void demarrer() {
+        actif = true;
+        Thread accepteur = new Thread(this::accepter, "replication-leader-" + getPort());
+        accepteur.setDaemon(true);
+        accepteur.start();
+    }
+
+    /**
+     * Arrête le leader et ferme les connexions des suiveurs, qui basculent
+     * alors vers le leader suivant.
+     */
+    public void arreter() {
+        actif = false;
+        try {
+            serveur.close();
+        } catch (IOException e) {
+            // Déjà fermé
+        }
+        for (Suiveur suiveur : suiveurs) {
+            suiveur.fermer();
+        }
+    }
+
+    /**
+     * Retourne le port d'écoute du leader.
+     *
+     * @return Le port local
+     */
+    public int getPort() {
+        return serveur.getLocalPort();
+    }
+
+    /**
+     * Retourne le nombre de suiveurs connectés.
+     *
+     * @return Le nombre de suiveurs
+     */
+    public int getNombreSuiveurs() {
+        return suiveurs.size();
+    }
+
+    /**
+     * Retourne le plus petit numéro de séquence acquitté par les suiveurs
+     * connectés : toute modification de numéro inférieur ou égal a été
+     * appliquée par chacun d'eux.
+     *
+     * @return Le numéro de séquence, ou {@link Long#MAX_VALUE} sans suiveur
+     */
+    public long getSequenceAcquittee() {
+        long minimum = Long.MAX_VALUE;
+        for (Suiveur suiveur : suiveurs) {
+            minimum = Math.min(minimum, suiveur.sequenceAcquittee);
+        }
+        return minimum;
+    }
+
+    private void accepter() {
+        while (actif) {
+            try {
+                Socket socket = serveur.accept();
+                Suiveur suiveur = new Suiveur(socket);
+                suiveurs.add(suiveur);
+                if (!actif) {
+                    // Accepté pendant arreter(), qui a pu ne pas le voir
+                    suiveur.fermer();
+                    continue;
+                }
+                Thread envoi = new Thread(suiveur::servir, "replication-envoi-" + socket.getPort());
+                envoi.setDaemon(true);
+                envoi.start();
+            } catch (IOException e) {
+                // Serveur fermé par arreter()
+            }
+        }
+    }
+
+    /**
+     * Lance un leader sur le singleton {@link CommandeManager}, piloté par
+     * l'entrée standard, pour éprouver la réplication entre plusieurs JVM.
+     * Commandes reconnues, une par ligne : un type de pizza ({@code fromage},
+     * {@code vegetarienne}), {@code supprimer <id>}, {@code vider} et
+     * {@code commandes}. Chaque commande est confirmée sur la sortie standard.
+     *
+     * @param args Le port d'écoute (0 par défaut, pour un port libre)
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        CommandeManager manager = CommandeManager.getInstance();
+        LeaderReplication leader = new LeaderReplication(manager,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        leader.demarrer();
+        System.out.println("leader " + leader.getPort());
+        PizzaFactory factory = new PizzaFactory();
+        BufferedReader entree = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String ligne;
+        while ((ligne = entree.readLine()) != null) {
+            String[] mots = ligne.trim().split("\\s+");
+            try {
+                switch (mots[0]) {
+                    case "" -> {
+                        continue;
+                    }
+                    case "supprimer" -> manager.supprimerCommande(Long.parseLong(mots[1]));
+                    case "vider" -> manager.viderCommandes();
+                    case "commandes" -> {
+                        System.out.println(manager.getNombreCommandes());
+                        continue;
+                    }
+                    default -> {
+                        Pizza pizza = factory.createPizza(mots[0]);
+                        manager.ajouterCommande(pizza);
+                        System.out.println(pizza.getId());
+                        continue;
+                    }
+                }
+                System.out.println("ok");
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                System.out.println("erreur " + e.getMessage());
+            }
+        }
+        leader.arreter();
+    }
+}
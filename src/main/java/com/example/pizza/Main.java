@@ -51,6 +51,7 @@ public class Main {
         pizzaFromage.preparer();
         pizzaFromage.cuire();
         pizzaFromage.emballer();
+        System.out.println("État de la commande : " + pizzaFromage.getEtat());
     }
 
     /**
@@ -62,16 +63,19 @@ public class Main {
         Pizza pizzaCustom = new Pizza() {
             @Override
             public void preparer() {
+                avancerVers(EtatCommande.EN_PREPARATION);
                 System.out.println("Préparation de la pizza personnalisée");
             }
 
             @Override
             public void cuire() {
+                avancerVers(EtatCommande.EN_CUISSON);
                 System.out.println("Cuisson de la pizza personnalisée");
             }
 
             @Override
             public void emballer() {
+                avancerVers(EtatCommande.EMBALLEE);
                 System.out.println("Emballage de la pizza personnalisée");
             }
         };
@@ -94,16 +98,13 @@ public class Main {
      */
     private static void afficherCommandes(CommandeManager manager) {
         System.out.println("\nCommandes actuelles :");
-        manager.getCommandes().forEach(pizza -> {
-            StringBuilder description = new StringBuilder("- Pizza avec ");
-            if (pizza.isContientFromage()) {
-                description.append("fromage ");
-            }
-            if (pizza.isContientLegumes()) {
-                description.append("légumes ");
-            }
-            description.append("et garnitures : ").append(pizza.getGarnitures());
-            System.out.println(description.toString());
-        });
+        // Les descriptions sont rendues une fois par recette ; System.out les
+        // encode avec le jeu de caractères de la console
+        StringBuilder tableau = new StringBuilder();
+        for (Pizza pizza : manager.getCommandes()) {
+            tableau.append(pizza.getRecette().getDescription()).append(System.lineSeparator());
+        }
+        System.out.print(tableau);
+        System.out.flush();
     }
 }
\ No newline at end of file
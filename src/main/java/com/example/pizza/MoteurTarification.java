@@ -0,0 +1,128 @@
+package com.example.pizza;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Moteur de tarification des commandes.
+ * Le moteur applique la {@link GrilleTarifaire} courante ; un changement de
+ * menu remplace la grille d'un bloc (écriture volatile), et toutes les
+ * commandes d'un {@link CommandeManager} peuvent alors être re-chiffrées en
+ * parallèle sur le pool fork-join commun.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class MoteurTarification {
+    private volatile GrilleTarifaire grille;
+
+    /**
+     * Résultat du chiffrage d'un carnet de commandes.
+     *
+     * @param identifiants Les identifiants des commandes, dans l'ordre du carnet
+     * @param prix         Le prix en centimes de chaque commande, au même indice
+     * @param total        La somme des prix
+     * @author Hilal Nawfel
+     * @version 1.0
+     */
+    public record Chiffrage(long[] identifiants, long[] prix, long total) {
+
+        /**
+         * Retourne le nombre de commandes chiffrées.
+         *
+         * @return Le nombre de commandes
+         */
+        public int getNombre() {
+            return prix.length;
+        }
+    }
+
+    /**
+     * Crée un moteur appliquant la grille standard.
+     */
+    public MoteurTarification() {
+        this(GrilleTarifaire.STANDARD);
+    }
+
+    /**
+     * Crée un moteur appliquant une grille donnée.
+     *
+     * @param grille La grille initiale
+     * @throws IllegalArgumentException si la grille est null
+     */
+    public MoteurTarification(GrilleTarifaire grille) {
+        setGrille(grille);
+    }
+
+    /**
+     * Retourne la grille courante.
+     *
+     * @return La grille appliquée
+     */
+    public GrilleTarifaire getGrille() {
+        return grille;
+    }
+
+    /**
+     * Remplace la grille courante. Les chiffrages en cours terminent avec la
+     * grille qu'ils ont lue au départ.
+     *
+     * @param grille La nouvelle grille
+     * @throws IllegalArgumentException si la grille est null
+     */
+    public void setGrille(GrilleTarifaire grille) {
+        if (grille == null) {
+            throw new IllegalArgumentException("La grille ne peut pas être null");
+        }
+        this.grille = grille;
+    }
+
+    /**
+     * Calcule le prix d'une pizza avec la grille courante.
+     *
+     * @param pizza La pizza à chiffrer
+     * @return Le prix en centimes
+     */
+    public long prix(Pizza pizza) {
+        return grille.prix(pizza);
+    }
+
+    /**
+     * Chiffre en parallèle toutes les commandes d'un gestionnaire.
+     * Le carnet est copié une fois, puis chaque commande est chiffrée avec une
+     * même grille, lue au début du chiffrage.
+     *
+     * @param manager Le gestionnaire dont les commandes sont chiffrées
+     * @return Le chiffrage du carnet
+     */
+    public Chiffrage chiffrer(CommandeManager manager) {
+        GrilleTarifaire courante = grille;
+        List<Pizza> commandes = manager.getCommandes();
+        int nombre = commandes.size();
+        long[] identifiants = new long[nombre];
+        long[] prix = new long[nombre];
+        IntStream.range(0, nombre).parallel().forEach(i -> {
+            Pizza pizza = commandes.get(i);
+            identifiants[i] = pizza.getId();
+            prix[i] = courante.prix(pizza);
+        });
+        long total = 0;
+        for (long p : prix) {
+            total += p;
+        }
+        return new Chiffrage(identifiants, prix, total);
+    }
+
+    /**
+     * Change de menu et re-chiffre tout le carnet avec la nouvelle grille.
+     *
+     * @param nouvelle La nouvelle grille
+     * @param manager  Le gestionnaire dont les commandes sont re-chiffrées
+     * @return Le chiffrage du carnet avec la nouvelle grille
+     * @throws IllegalArgumentException si la grille est null
+     */
+    public Chiffrage changerMenu(GrilleTarifaire nouvelle, CommandeManager manager) {
+        setGrille(nouvelle);
+        return chiffrer(manager);
+    }
+}
@@ -2,6 +2,9 @@ package com.example.pizza;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Classe abstraite représentant une pizza.
@@ -16,63 +19,383 @@ import java.util.List;
  */
 public abstract class Pizza {
     /**
-     * Type de pâte de la pizza (fine, épaisse, etc.)
+     * Générateur des identifiants de commande, croissants dans l'ordre de
+     * création des pizzas.
      */
-    private String typePate;
+    private static final AtomicLong sequenceIds = new AtomicLong();
 
     /**
-     * Type de sauce de la pizza (tomate, crème, BBQ, etc.)
+     * Identifiant unique de la commande.
      */
-    private String typeSauce;
+    private final long id;
 
     /**
-     * Liste des garnitures de la pizza
+     * Configuration immuable de la pizza (pâte, sauce, indicateurs et
+     * garnitures), partagée entre les pizzas de même configuration.
      */
-    private List<String> garnitures;
+    private RecettePizza recette;
 
     /**
-     * Indique si la pizza contient du fromage
+     * État de la commande dans son cycle de vie, modifié uniquement par CAS.
      */
-    private boolean contientFromage;
+    private volatile EtatCommande etat;
 
     /**
-     * Indique si la pizza contient des légumes
+     * Accès atomique au champ {@link #etat}, sans objet supplémentaire par
+     * pizza.
      */
-    private boolean contientLegumes;
+    private static final AtomicReferenceFieldUpdater<Pizza, EtatCommande> majEtat = AtomicReferenceFieldUpdater
+            .newUpdater(Pizza.class, EtatCommande.class, "etat");
+
+    /**
+     * Indique si la préparation a commencé (transition RECUE →
+     * EN_PREPARATION), ce qui reste vrai après une annulation : les
+     * garnitures sont alors consommées.
+     */
+    private volatile boolean preparationCommencee;
+
+    /**
+     * Carnet qui contient la commande et tient l'effectif de son état, ou
+     * null. Une pizza n'est comptée que par un carnet à la fois.
+     */
+    private volatile CommandeManager carnet;
+
+    /**
+     * Accès atomique au champ {@link #carnet}.
+     */
+    private static final AtomicReferenceFieldUpdater<Pizza, CommandeManager> majCarnet = AtomicReferenceFieldUpdater
+            .newUpdater(Pizza.class, CommandeManager.class, "carnet");
+
+    /**
+     * État dans lequel la commande est comptée par son carnet, ou null ;
+     * protégé par le carnet.
+     */
+    private EtatCommande etatCompte;
+
+    /**
+     * Écouteurs notifiés de chaque transition d'état réussie, toutes pizzas
+     * confondues.
+     */
+    private static final List<EcouteurTransitions> ecouteurs = new CopyOnWriteArrayList<>();
+
+    /**
+     * Instant d'ajout de la commande au carnet (horloge des statistiques), ou
+     * 0 si elle n'a pas été horodatée.
+     */
+    private volatile long instantAjout;
+
+    /**
+     * Instant de la dernière activité de la commande (ajout ou transition),
+     * relevé par l'expiration des commandes inactives, ou 0.
+     */
+    private volatile long instantActivite;
+
+    /**
+     * Adresse de livraison de la commande, ou null pour une commande à
+     * emporter.
+     */
+    private volatile PointLivraison pointLivraison;
 
     /**
      * Constructeur de base pour une pizza.
-     * Initialise la liste des garnitures.
+     * Attribue un identifiant unique et initialise la pizza avec une recette
+     * vide, dans l'état {@link EtatCommande#RECUE}.
      */
     public Pizza() {
-        this.garnitures = new ArrayList<>();
+        this.id = sequenceIds.incrementAndGet();
+        this.recette = RecettePizza.VIDE;
+        this.etat = EtatCommande.RECUE;
+    }
+
+    /**
+     * Constructeur d'une pizza recréée avec un identifiant attribué ailleurs,
+     * par exemple par le leader d'une réplication. Le générateur d'identifiants
+     * est avancé au-delà de cet identifiant : les pizzas créées ensuite dans
+     * cette JVM ne peuvent pas le réutiliser.
+     *
+     * @param id L'identifiant de la commande
+     */
+    protected Pizza(long id) {
+        long courant = sequenceIds.get();
+        while (courant < id && !sequenceIds.compareAndSet(courant, id)) {
+            courant = sequenceIds.get();
+        }
+        this.id = id;
+        this.recette = RecettePizza.VIDE;
+        this.etat = EtatCommande.RECUE;
     }
 
     /**
      * Prépare la pizza.
      * Cette méthode doit être implémentée par les classes concrètes.
+     * Les implémentations font passer la commande à l'état
+     * {@link EtatCommande#EN_PREPARATION} via {@link #avancerVers(EtatCommande)}.
      */
     public abstract void preparer();
 
     /**
      * Cuit la pizza.
      * Cette méthode doit être implémentée par les classes concrètes.
+     * Les implémentations font passer la commande à l'état
+     * {@link EtatCommande#EN_CUISSON} via {@link #avancerVers(EtatCommande)}.
      */
     public abstract void cuire();
 
     /**
      * Emballe la pizza.
      * Cette méthode doit être implémentée par les classes concrètes.
+     * Les implémentations font passer la commande à l'état
+     * {@link EtatCommande#EMBALLEE} via {@link #avancerVers(EtatCommande)}.
      */
     public abstract void emballer();
 
+    /**
+     * Retourne l'identifiant unique de la commande.
+     * 
+     * @return L'identifiant de la commande
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Retourne l'état courant de la commande.
+     * 
+     * @return L'état de la commande
+     */
+    public EtatCommande getEtat() {
+        return etat;
+    }
+
+    /**
+     * Indique si la préparation de la commande a commencé, même si elle a été
+     * annulée depuis.
+     * 
+     * @return true si la commande est passée par l'état
+     *         {@link EtatCommande#EN_PREPARATION}
+     */
+    public boolean isPreparationCommencee() {
+        return preparationCommencee;
+    }
+
+    /**
+     * Fait passer la commande de l'état attendu à l'état cible par CAS.
+     * 
+     * @param attendu L'état supposé courant
+     * @param cible   L'état cible
+     * @return true si la transition a eu lieu, false si l'état courant n'était
+     *         plus l'état attendu
+     * @throws IllegalStateException si la transition est interdite
+     */
+    public boolean transitionner(EtatCommande attendu, EtatCommande cible) {
+        if (!attendu.peutPasserA(cible)) {
+            throw new IllegalStateException("Transition interdite: " + attendu + " -> " + cible);
+        }
+        if (!majEtat.compareAndSet(this, attendu, cible)) {
+            return false;
+        }
+        if (cible == EtatCommande.EN_PREPARATION) {
+            preparationCommencee = true;
+        }
+        // Lu après le CAS : un carnet qui rattache la pizza en même temps lit
+        // soit le nouvel état, soit est vu ici et la recompte
+        CommandeManager proprietaire = carnet;
+        if (proprietaire != null) {
+            proprietaire.recompter(this);
+        }
+        for (EcouteurTransitions ecouteur : ecouteurs) {
+            ecouteur.transition(this, attendu, cible);
+        }
+        return true;
+    }
+
+    /**
+     * Place une pizza recréée ailleurs (réplique, image de démarrage)
+     * directement dans l'état qu'elle avait à sa source, sans transition : les
+     * écouteurs ne voient pas ces changements, déjà notifiés là où ils ont eu
+     * lieu. Seul l'effectif du carnet qui la contient éventuellement est mis
+     * à jour.
+     * 
+     * @param etat L'état de la commande à sa source
+     */
+    protected void restaurerEtat(EtatCommande etat) {
+        // Une commande annulée est supposée annulée avant sa préparation
+        if (etat != EtatCommande.RECUE && etat != EtatCommande.ANNULEE) {
+            preparationCommencee = true;
+        }
+        this.etat = etat;
+        CommandeManager proprietaire = carnet;
+        if (proprietaire != null) {
+            proprietaire.recompter(this);
+        }
+    }
+
+    /**
+     * Rattache la commande au carnet qui la compte, si elle n'est rattachée
+     * à aucun autre.
+     * 
+     * @param carnet Le carnet qui ajoute la commande
+     * @return true si la commande est désormais comptée par ce carnet
+     */
+    protected boolean rattacher(CommandeManager carnet) {
+        return majCarnet.compareAndSet(this, null, carnet);
+    }
+
+    /**
+     * Détache la commande du carnet qui la comptait.
+     * 
+     * @param carnet Le carnet qui retire la commande
+     * @return true si la commande était comptée par ce carnet
+     */
+    protected boolean detacher(CommandeManager carnet) {
+        return majCarnet.compareAndSet(this, carnet, null);
+    }
+
+    /**
+     * Retourne le carnet qui compte la commande.
+     * 
+     * @return Le carnet, ou null
+     */
+    protected CommandeManager getCarnet() {
+        return carnet;
+    }
+
+    /**
+     * Retourne l'état dans lequel la commande est comptée par son carnet.
+     * 
+     * @return L'état compté, ou null
+     */
+    protected EtatCommande getEtatCompte() {
+        return etatCompte;
+    }
+
+    /**
+     * Définit l'état dans lequel la commande est comptée par son carnet.
+     * Appelé sous le verrou des effectifs du carnet.
+     * 
+     * @param etatCompte L'état compté, ou null
+     */
+    protected void setEtatCompte(EtatCommande etatCompte) {
+        this.etatCompte = etatCompte;
+    }
+
+    /**
+     * Abonne un écouteur aux transitions d'état de toutes les pizzas.
+     * L'écouteur est appelé sur le thread qui effectue la transition et doit
+     * donc rester bref.
+     * 
+     * @param ecouteur L'écouteur à abonner
+     */
+    public static void ajouterEcouteur(EcouteurTransitions ecouteur) {
+        ecouteurs.add(ecouteur);
+    }
+
+    /**
+     * Désabonne un écouteur des transitions d'état.
+     * 
+     * @param ecouteur L'écouteur à désabonner
+     */
+    public static void retirerEcouteur(EcouteurTransitions ecouteur) {
+        ecouteurs.remove(ecouteur);
+    }
+
+    /**
+     * Retourne l'instant d'ajout de la commande au carnet.
+     * 
+     * @return L'instant en nanosecondes, ou 0 si la commande n'a pas été
+     *         horodatée
+     */
+    public long getInstantAjout() {
+        return instantAjout;
+    }
+
+    /**
+     * Retourne l'instant de la dernière activité de la commande.
+     * 
+     * @return L'instant en nanosecondes, ou 0 si l'activité n'est pas suivie
+     */
+    public long getInstantActivite() {
+        return instantActivite;
+    }
+
+    /**
+     * Enregistre une activité de la commande.
+     * 
+     * @param instantActivite L'instant en nanosecondes
+     */
+    protected void setInstantActivite(long instantActivite) {
+        this.instantActivite = instantActivite;
+    }
+
+    /**
+     * Retourne l'adresse de livraison de la commande.
+     * 
+     * @return Le point de livraison, ou null pour une commande à emporter
+     */
+    public PointLivraison getPointLivraison() {
+        return pointLivraison;
+    }
+
+    /**
+     * Définit l'adresse de livraison de la commande, avant son emballage :
+     * c'est à l'emballage qu'elle est confiée au
+     * {@link RegroupeurLivraisons}.
+     * 
+     * @param pointLivraison Le point de livraison, ou null pour une commande à
+     *                       emporter
+     */
+    public void setPointLivraison(PointLivraison pointLivraison) {
+        this.pointLivraison = pointLivraison;
+    }
+
+    /**
+     * Horodate l'ajout de la commande au carnet.
+     * 
+     * @param instantAjout L'instant en nanosecondes
+     */
+    protected void setInstantAjout(long instantAjout) {
+        this.instantAjout = instantAjout;
+    }
+
+    /**
+     * Fait passer la commande de son état courant à l'état cible.
+     * En cas de modification concurrente, la transition est retentée à partir
+     * du nouvel état courant.
+     * 
+     * @param cible L'état cible
+     * @throws IllegalStateException si la transition depuis l'état courant est
+     *                               interdite
+     */
+    public void avancerVers(EtatCommande cible) {
+        EtatCommande courant;
+        do {
+            courant = etat;
+        } while (!transitionner(courant, cible));
+    }
+
+    /**
+     * Annule la commande si elle n'est pas déjà livrée ou annulée.
+     * 
+     * @return true si la commande a été annulée par cet appel
+     */
+    public boolean annuler() {
+        EtatCommande courant;
+        do {
+            courant = etat;
+            if (courant.isTerminal()) {
+                return false;
+            }
+        } while (!transitionner(courant, EtatCommande.ANNULEE));
+        return true;
+    }
+
     /**
      * Retourne le type de pâte de la pizza.
      * 
      * @return Le type de pâte
      */
     public String getTypePate() {
-        return typePate;
+        return recette.getTypePate();
     }
 
     /**
@@ -81,7 +404,7 @@ public abstract class Pizza {
      * @return Le type de sauce
      */
     public String getTypeSauce() {
-        return typeSauce;
+        return recette.getTypeSauce();
     }
 
     /**
@@ -90,7 +413,12 @@ public abstract class Pizza {
      * @return Une nouvelle liste contenant les garnitures
      */
     public List<String> getGarnitures() {
-        return new ArrayList<>(garnitures);
+        List<String> garnitures = recette.getGarnitures();
+        List<String> copie = new ArrayList<>(garnitures.size());
+        for (int i = 0; i < garnitures.size(); i++) {
+            copie.add(garnitures.get(i));
+        }
+        return copie;
     }
 
     /**
@@ -99,7 +427,7 @@ public abstract class Pizza {
      * @return true si la pizza contient du fromage, false sinon
      */
     public boolean isContientFromage() {
-        return contientFromage;
+        return recette.isContientFromage();
     }
 
     /**
@@ -108,7 +436,7 @@ public abstract class Pizza {
      * @return true si la pizza contient des légumes, false sinon
      */
     public boolean isContientLegumes() {
-        return contientLegumes;
+        return recette.isContientLegumes();
     }
 
     /**
@@ -117,7 +445,7 @@ public abstract class Pizza {
      * @param typePate Le type de pâte à définir
      */
     protected void setTypePate(String typePate) {
-        this.typePate = typePate;
+        this.recette = recette.avecPate(typePate);
     }
 
     /**
@@ -126,7 +454,7 @@ public abstract class Pizza {
      * @param typeSauce Le type de sauce à définir
      */
     protected void setTypeSauce(String typeSauce) {
-        this.typeSauce = typeSauce;
+        this.recette = recette.avecSauce(typeSauce);
     }
 
     /**
@@ -135,7 +463,7 @@ public abstract class Pizza {
      * @param contientFromage true si la pizza contient du fromage, false sinon
      */
     protected void setContientFromage(boolean contientFromage) {
-        this.contientFromage = contientFromage;
+        this.recette = recette.avecFromage(contientFromage);
     }
 
     /**
@@ -144,7 +472,7 @@ public abstract class Pizza {
      * @param contientLegumes true si la pizza contient des légumes, false sinon
      */
     protected void setContientLegumes(boolean contientLegumes) {
-        this.contientLegumes = contientLegumes;
+        this.recette = recette.avecLegumes(contientLegumes);
     }
 
     /**
@@ -153,23 +481,101 @@ public abstract class Pizza {
      * @param garniture La garniture à ajouter
      */
     protected void addGarniture(String garniture) {
-        this.garnitures.add(garniture);
+        this.recette = recette.avecGarniture(garniture);
+    }
+
+    /**
+     * Retourne la recette immuable de la pizza.
+     * 
+     * @return La recette de la pizza
+     */
+    public RecettePizza getRecette() {
+        return recette;
+    }
+
+    /**
+     * Remplace la recette de la pizza.
+     * 
+     * @param recette La nouvelle recette
+     */
+    protected void setRecette(RecettePizza recette) {
+        this.recette = recette;
     }
 
     /**
      * Builder pour la construction de pizzas.
      * Permet une construction fluide et flexible des pizzas.
+     * La configuration est accumulée dans le builder sous forme de clé
+     * canonique, puis appliquée à la pizza par {@link #build()} : une
+     * configuration déjà rencontrée est résolue par le {@link CacheRecettes}
+     * sans nouvelle validation ni allocation.
      */
     public static class PizzaBuilder {
         private final Pizza pizza;
+        private String typePate;
+        private String typeSauce;
+        private boolean contientFromage;
+        private boolean contientLegumes;
+        private long cle;
+        // Garnitures, uniquement lorsque la configuration n'est pas encodable
+        private List<String> garnitures;
 
         /**
          * Constructeur du builder.
+         * La configuration initiale est celle de la pizza fournie.
          * 
          * @param pizza L'instance de pizza à construire
          */
         public PizzaBuilder(Pizza pizza) {
             this.pizza = pizza;
+            RecettePizza initiale = pizza.recette;
+            this.typePate = initiale.getTypePate();
+            this.typeSauce = initiale.getTypeSauce();
+            this.contientFromage = initiale.isContientFromage();
+            this.contientLegumes = initiale.isContientLegumes();
+            this.cle = initiale.getCle();
+            if (cle == RecettePizza.CLE_NON_ENCODABLE) {
+                this.garnitures = new ArrayList<>(initiale.getGarnitures());
+            }
+        }
+
+        private PizzaBuilder pate(String pate) {
+            typePate = pate;
+            cle = RecettePizza.avecPate(cle, pate);
+            return this;
+        }
+
+        private PizzaBuilder sauce(String sauce) {
+            typeSauce = sauce;
+            cle = RecettePizza.avecSauce(cle, sauce);
+            return this;
+        }
+
+        private PizzaBuilder fromage(boolean fromage) {
+            contientFromage = fromage;
+            cle = RecettePizza.avecFromage(cle, fromage);
+            return this;
+        }
+
+        private PizzaBuilder legumes(boolean legumes) {
+            contientLegumes = legumes;
+            cle = RecettePizza.avecLegumes(cle, legumes);
+            return this;
+        }
+
+        private PizzaBuilder garniture(Garniture garniture) {
+            if (garnitures == null) {
+                long suivante = RecettePizza.avecGarniture(cle, garniture);
+                if (suivante != RecettePizza.CLE_NON_ENCODABLE) {
+                    cle = suivante;
+                    return this;
+                }
+                // Trop de garnitures pour la clé : bascule sur une liste explicite
+                garnitures = new ArrayList<>(RecettePizza.decoderGarnitures(cle));
+                cle = RecettePizza.CLE_NON_ENCODABLE;
+            }
+            garnitures.add(garniture.getLibelle());
+            return this;
         }
 
         /**
@@ -178,8 +584,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder pateFine() {
-            pizza.setTypePate("Fine");
-            return this;
+            return pate("Fine");
         }
 
         /**
@@ -188,8 +593,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder pateEpaisse() {
-            pizza.setTypePate("Epaisse");
-            return this;
+            return pate("Epaisse");
         }
 
         /**
@@ -198,8 +602,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder sauceTomate() {
-            pizza.setTypeSauce("Tomate");
-            return this;
+            return sauce("Tomate");
         }
 
         /**
@@ -208,8 +611,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder sauceCreme() {
-            pizza.setTypeSauce("Crème");
-            return this;
+            return sauce("Crème");
         }
 
         /**
@@ -218,8 +620,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder sauceBBQ() {
-            pizza.setTypeSauce("BBQ");
-            return this;
+            return sauce("BBQ");
         }
 
         /**
@@ -228,8 +629,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder avecFromage() {
-            pizza.setContientFromage(true);
-            return this;
+            return fromage(true);
         }
 
         /**
@@ -238,8 +638,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder sansFromage() {
-            pizza.setContientFromage(false);
-            return this;
+            return fromage(false);
         }
 
         /**
@@ -248,8 +647,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder avecLegumes() {
-            pizza.setContientLegumes(true);
-            return this;
+            return legumes(true);
         }
 
         /**
@@ -258,8 +656,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder sansLegumes() {
-            pizza.setContientLegumes(false);
-            return this;
+            return legumes(false);
         }
 
         /**
@@ -268,8 +665,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder ajouterMozzarella() {
-            pizza.addGarniture("Mozzarella");
-            return this;
+            return garniture(Garniture.MOZZARELLA);
         }
 
         /**
@@ -278,8 +674,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder ajouterEmmental() {
-            pizza.addGarniture("Emmental");
-            return this;
+            return garniture(Garniture.EMMENTAL);
         }
 
         /**
@@ -288,8 +683,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder ajouterJambon() {
-            pizza.addGarniture("Jambon");
-            return this;
+            return garniture(Garniture.JAMBON);
         }
 
         /**
@@ -298,8 +692,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder ajouterChampignons() {
-            pizza.addGarniture("Champignons");
-            return this;
+            return garniture(Garniture.CHAMPIGNONS);
         }
 
         /**
@@ -308,8 +701,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder ajouterPoivrons() {
-            pizza.addGarniture("Poivrons");
-            return this;
+            return garniture(Garniture.POIVRONS);
         }
 
         /**
@@ -318,8 +710,7 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder ajouterOignons() {
-            pizza.addGarniture("Oignons");
-            return this;
+            return garniture(Garniture.OIGNONS);
         }
 
         /**
@@ -328,33 +719,37 @@ public abstract class Pizza {
          * @return Le builder pour le chaînage des méthodes
          */
         public PizzaBuilder ajouterOlives() {
-            pizza.addGarniture("Olives");
-            return this;
+            return garniture(Garniture.OLIVES);
         }
 
         /**
          * Construit la pizza et vérifie sa validité.
+         * La pizza n'est modifiée que si la configuration est valide.
          * 
          * @return La pizza construite
          * @throws IllegalStateException si la pizza n'est pas valide
          */
         public Pizza build() {
-            validatePizza();
+            RecettePizza recette;
+            if (cle != RecettePizza.CLE_NON_ENCODABLE) {
+                // Recette partagée, déjà validée lors de sa mise en cache
+                recette = CacheRecettes.getInstance().obtenir(cle);
+            } else {
+                recette = RecettePizza.creer(typePate, typeSauce, contientFromage, contientLegumes, garnitures);
+                validatePizza(recette);
+            }
+            pizza.setRecette(recette);
             return pizza;
         }
 
         /**
          * Vérifie que la pizza est valide.
          * 
+         * @param recette La recette à vérifier
          * @throws IllegalStateException si la pizza n'est pas valide
          */
-        private void validatePizza() {
-            if (pizza.getTypePate() == null || pizza.getTypePate().trim().isEmpty()) {
-                throw new IllegalStateException("La pâte est requise");
-            }
-            if (pizza.getTypeSauce() == null || pizza.getTypeSauce().trim().isEmpty()) {
-                throw new IllegalStateException("La sauce est requise");
-            }
+        private void validatePizza(RecettePizza recette) {
+            recette.valider();
         }
     }
-}
\ No newline at end of file
+}
@@ -6,11 +6,32 @@ package com.example.pizza;
  * pizzas.
  * Elle permet de centraliser la logique de création des pizzas et de faciliter
  * l'ajout de nouveaux types de pizzas.
+ * Une factory construite sur une {@link ImageDemarrage} reprend les recettes
+ * du menu de l'image au lieu de les recomposer avec le builder.
  *
  * @author Hilal Nawfel
  * @version 1.0
  */
 public class PizzaFactory {
+    // Menu de l'image de démarrage, ou null pour composer les recettes
+    private final ImageDemarrage menu;
+
+    /**
+     * Crée une factory qui compose les recettes avec le builder.
+     */
+    public PizzaFactory() {
+        this(null);
+    }
+
+    /**
+     * Crée une factory qui reprend les recettes du menu d'une image de
+     * démarrage. Un type absent du menu est composé avec le builder.
+     *
+     * @param menu L'image dont le menu est repris, ou null
+     */
+    public PizzaFactory(ImageDemarrage menu) {
+        this.menu = menu;
+    }
 
     /**
      * Crée une pizza en fonction du type spécifié.
@@ -24,10 +45,30 @@ public class PizzaFactory {
             throw new IllegalArgumentException("Le type de pizza ne peut pas être null");
         }
 
-        return switch (type.toLowerCase()) {
-            case "fromage" -> new PizzaFromage();
-            case "vegetarienne" -> new PizzaVegetarienne();
+        String cle = type.toLowerCase();
+        RecettePizza recette = menu == null ? null : menu.trouverRecetteMenu(cle);
+        return switch (cle) {
+            case "fromage" -> recette == null ? new PizzaFromage() : new PizzaFromage(recette);
+            case "vegetarienne" -> recette == null ? new PizzaVegetarienne() : new PizzaVegetarienne(recette);
             default -> throw new IllegalArgumentException("Type de pizza non supporté: " + type);
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Retourne le type d'une pizza, tel qu'accepté par
+     * {@link #createPizza(String)}.
+     * 
+     * @param pizza La pizza
+     * @return "fromage", "vegetarienne", ou "personnalisee" pour toute autre
+     *         pizza
+     */
+    public static String typeDe(Pizza pizza) {
+        if (pizza instanceof PizzaFromage) {
+            return "fromage";
+        }
+        if (pizza instanceof PizzaVegetarienne) {
+            return "vegetarienne";
+        }
+        return "personnalisee";
+    }
+}
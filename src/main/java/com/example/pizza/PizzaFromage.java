@@ -15,6 +15,36 @@ public class PizzaFromage extends Pizza {
      */
     public PizzaFromage() {
         super();
+        composer();
+    }
+
+    /**
+     * Constructeur d'une pizza au fromage dont la recette a déjà été
+     * composée, par exemple lue dans le menu d'une image de démarrage. La
+     * recette est reprise telle quelle, sans repasser par le builder.
+     *
+     * @param recette La recette de la pizza
+     */
+    PizzaFromage(RecettePizza recette) {
+        super();
+        setRecette(recette);
+    }
+
+    /**
+     * Constructeur d'une pizza au fromage recréée avec un identifiant et
+     * une recette attribués ailleurs (réplication du carnet de commandes,
+     * image de démarrage). La recette est reprise telle quelle, sans repasser
+     * par le builder.
+     *
+     * @param id      L'identifiant de la commande
+     * @param recette La recette de la pizza
+     */
+    PizzaFromage(long id, RecettePizza recette) {
+        super(id);
+        setRecette(recette);
+    }
+
+    private void composer() {
         PizzaBuilder builder = new PizzaBuilder(this);
         builder.pateFine()
                 .sauceTomate()
@@ -27,27 +57,33 @@ public class PizzaFromage extends Pizza {
     /**
      * Prépare la pizza au fromage.
      * Cette méthode est appelée lors de la préparation de la commande.
+     * La commande passe à l'état {@link EtatCommande#EN_PREPARATION}.
      */
     @Override
     public void preparer() {
+        avancerVers(EtatCommande.EN_PREPARATION);
         System.out.println("Préparation de la pizza fromage");
     }
 
     /**
      * Cuit la pizza au fromage.
      * Cette méthode est appelée après la préparation.
+     * La commande passe à l'état {@link EtatCommande#EN_CUISSON}.
      */
     @Override
     public void cuire() {
+        avancerVers(EtatCommande.EN_CUISSON);
         System.out.println("Cuisson de la pizza fromage");
     }
 
     /**
      * Emballe la pizza au fromage.
      * Cette méthode est appelée après la cuisson.
+     * La commande passe à l'état {@link EtatCommande#EMBALLEE}.
      */
     @Override
     public void emballer() {
+        avancerVers(EtatCommande.EMBALLEE);
         System.out.println("Emballage de la pizza fromage");
     }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.example.pizza;
+
+/**
+ * Classe représentant une pizza composée librement à partir d'une recette.
+ * Elle sert notamment à recréer, sur un suiveur de réplication, les pizzas
+ * qui ne sont ni au fromage ni végétariennes.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class PizzaPersonnalisee extends Pizza {
+    /**
+     * Constructeur d'une pizza personnalisée.
+     *
+     * @param recette La recette de la pizza
+     * @throws IllegalArgumentException si la recette est null
+     */
+    public PizzaPersonnalisee(RecettePizza recette) {
+        super();
+        composer(recette);
+    }
+
+    /**
+     * Constructeur d'une pizza personnalisée recréée avec un identifiant
+     * attribué ailleurs (réplication du carnet de commandes).
+     *
+     * @param id      L'identifiant de la commande
+     * @param recette La recette de la pizza
+     * @throws IllegalArgumentException si la recette est null
+     */
+    PizzaPersonnalisee(long id, RecettePizza recette) {
+        super(id);
+        composer(recette);
+    }
+
+    private void composer(RecettePizza recette) {
+        if (recette == null) {
+            throw new IllegalArgumentException("La recette ne peut pas être null");
+        }
+        setRecette(recette);
+    }
+
+    /**
+     * Prépare la pizza personnalisée.
+     * La commande passe à l'état {@link EtatCommande#EN_PREPARATION}.
+     */
+    @Override
+    public void preparer() {
+        avancerVers(EtatCommande.EN_PREPARATION);
+        System.out.println("Préparation de la pizza personnalisée");
+    }
+
+    /**
+     * Cuit la pizza personnalisée.
+     * La commande passe à l'état {@link EtatCommande#EN_CUISSON}.
+     */
+    @Override
+    public void cuire() {
+        avancerVers(EtatCommande.EN_CUISSON);
+        System.out.println("Cuisson de la pizza personnalisée");
+    }
+
+    /**
+     * Emballe la pizza personnalisée.
+     * La commande passe à l'état {@link EtatCommande#EMBALLEE}.
+     */
+    @Override
+    public void emballer() {
+        avancerVers(EtatCommande.EMBALLEE);
+        System.out.println("Emballage de la pizza personnalisée");
+    }
+}
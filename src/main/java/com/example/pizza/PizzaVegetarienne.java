@@ -16,6 +16,36 @@ public class PizzaVegetarienne extends Pizza {
      */
     public PizzaVegetarienne() {
         super();
+        composer();
+    }
+
+    /**
+     * Constructeur d'une pizza végétarienne dont la recette a déjà été
+     * composée, par exemple lue dans le menu d'une image de démarrage. La
+     * recette est reprise telle quelle, sans repasser par le builder.
+     *
+     * @param recette La recette de la pizza
+     */
+    PizzaVegetarienne(RecettePizza recette) {
+        super();
+        setRecette(recette);
+    }
+
+    /**
+     * Constructeur d'une pizza végétarienne recréée avec un identifiant et
+     * une recette attribués ailleurs (réplication du carnet de commandes,
+     * image de démarrage). La recette est reprise telle quelle, sans repasser
+     * par le builder.
+     *
+     * @param id      L'identifiant de la commande
+     * @param recette La recette de la pizza
+     */
+    PizzaVegetarienne(long id, RecettePizza recette) {
+        super(id);
+        setRecette(recette);
+    }
+
+    private void composer() {
         PizzaBuilder builder = new PizzaBuilder(this);
         builder.pateFine()
                 .sauceTomate()
@@ -29,27 +59,33 @@ public class PizzaVegetarienne extends Pizza {
     /**
      * Prépare la pizza végétarienne.
      * Cette méthode est appelée lors de la préparation de la commande.
+     * La commande passe à l'état {@link EtatCommande#EN_PREPARATION}.
      */
     @Override
     public void preparer() {
+        avancerVers(EtatCommande.EN_PREPARATION);
         System.out.println("Préparation de la pizza végétarienne");
     }
 
     /**
      * Cuit la pizza végétarienne.
      * Cette méthode est appelée après la préparation.
+     * La commande passe à l'état {@link EtatCommande#EN_CUISSON}.
      */
     @Override
     public void cuire() {
+        avancerVers(EtatCommande.EN_CUISSON);
         System.out.println("Cuisson de la pizza végétarienne");
     }
 
     /**
      * Emballe la pizza végétarienne.
      * Cette méthode est appelée après la cuisson.
+     * La commande passe à l'état {@link EtatCommande#EMBALLEE}.
      */
     @Override
     public void emballer() {
+        avancerVers(EtatCommande.EMBALLEE);
         System.out.println("Emballage de la pizza végétarienne");
     }
 }
\ No newline at end of file
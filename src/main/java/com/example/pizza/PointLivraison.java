@@ -0,0 +1,36 @@
+package com.example.pizza;
+
+/**
+ * Adresse de livraison d'une commande, en coordonnées planes.
+ * Les coordonnées sont exprimées en mètres dans un repère local dont
+ * l'origine est la pizzeria ; à l'échelle d'une zone de livraison, la
+ * distance euclidienne suffit.
+ *
+ * @param x La position est-ouest, en mètres
+ * @param y La position nord-sud, en mètres
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public record PointLivraison(double x, double y) {
+
+    /**
+     * Crée un point de livraison.
+     *
+     * @throws IllegalArgumentException si une coordonnée n'est pas finie
+     */
+    public PointLivraison {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            throw new IllegalArgumentException("Coordonnées de livraison invalides: " + x + ", " + y);
+        }
+    }
+
+    /**
+     * Retourne la distance à un autre point.
+     *
+     * @param autre L'autre point
+     * @return La distance en mètres
+     */
+    public double distance(PointLivraison autre) {
+        return Math.hypot(x - autre.x, y - autre.y);
+    }
+}
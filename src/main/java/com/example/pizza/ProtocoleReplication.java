@@ -0,0 +1,190 @@
+package com.example.pizza;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Format binaire de la réplication du carnet de commandes, big-endian, sur
+ * une connexion TCP entre un {@link LeaderReplication} et un
+ * {@link SuiveurReplication}.
+ * <p>
+ * À l'ouverture, le leader envoie un entier magique. Il envoie ensuite des
+ * trames : un int donnant le nombre d'opérations (0 pour un battement de cœur)
+ * suivi des opérations. Une opération commence par son type (octet) et son
+ * numéro de séquence (long), puis :
+ * <ul>
+ * <li>{@link #AJOUT} et {@link #INSTANTANE} : l'enregistrement de la commande
+ * au format binaire d'{@link ExportCommandes} (id, type, état, clé de recette
+ * et, si la clé n'est pas encodable, la recette en clair)</li>
+ * <li>{@link #SUPPRESSION} : l'id (long)</li>
+ * <li>{@link #VIDAGE} et {@link #FIN_INSTANTANE} : rien</li>
+ * </ul>
+ * Les opérations de l'instantané ont le numéro 0 ; {@link #FIN_INSTANTANE}
+ * porte celui de la dernière modification que l'instantané reflète.
+ * Le suiveur répond à chaque trame reçue par un seul acquittement : le plus
+ * grand numéro de séquence appliqué (long).
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+final class ProtocoleReplication {
+    /**
+     * Entier envoyé par le leader à l'ouverture de la connexion ("PZR1").
+     */
+    static final int MAGIQUE = 0x505A5231;
+
+    /** Ajout d'une commande. */
+    static final byte AJOUT = 0;
+    /** Suppression d'une commande. */
+    static final byte SUPPRESSION = 1;
+    /** Vidage du carnet. */
+    static final byte VIDAGE = 2;
+    /** Commande présente chez le leader lors de la connexion du suiveur. */
+    static final byte INSTANTANE = 3;
+    /** Fin de l'instantané : le suiveur retire les commandes qui n'y figuraient pas. */
+    static final byte FIN_INSTANTANE = 4;
+
+    private ProtocoleReplication() {
+    }
+
+    /**
+     * Opération décodée d'une trame.
+     *
+     * @param type     Le type d'opération
+     * @param sequence Le numéro de séquence chez le leader (0 pour l'instantané)
+     * @param id       L'identifiant de la commande concernée, ou 0
+     * @param pizza    La commande recréée pour un ajout, sinon null
+     */
+    record Operation(byte type, long sequence, long id, Pizza pizza) {
+    }
+
+    /**
+     * Écrit une opération portant sur une commande.
+     */
+    static void ecrireCommande(DataOutputStream sortie, byte type, long sequence, Pizza pizza) throws IOException {
+        sortie.writeByte(type);
+        sortie.writeLong(sequence);
+        sortie.writeLong(pizza.getId());
+        if (type == SUPPRESSION) {
+            return;
+        }
+        RecettePizza recette = pizza.getRecette();
+        sortie.writeByte(ExportCommandes.codeType(pizza));
+        sortie.writeByte(pizza.getEtat().ordinal());
+        sortie.writeLong(recette.getCle());
+        if (recette.getCle() == RecettePizza.CLE_NON_ENCODABLE) {
+            ecrireChaine(sortie, recette.getTypePate());
+            ecrireChaine(sortie, recette.getTypeSauce());
+            sortie.writeByte((recette.isContientFromage() ? 1 : 0) | (recette.isContientLegumes() ? 2 : 0));
+            List<String> garnitures = recette.getGarnitures();
+            sortie.writeInt(garnitures.size());
+            for (int i = 0; i < garnitures.size(); i++) {
+                ecrireChaine(sortie, garnitures.get(i));
+            }
+        }
+    }
+
+    /**
+     * Écrit une opération sans commande ({@link #VIDAGE},
+     * {@link #FIN_INSTANTANE}).
+     */
+    static void ecrireMarque(DataOutputStream sortie, byte type, long sequence) throws IOException {
+        sortie.writeByte(type);
+        sortie.writeLong(sequence);
+    }
+
+    /**
+     * Lit une opération. Une commande ajoutée est recréée avec l'identifiant,
+     * la classe, la recette et l'état qu'elle avait chez le leader.
+     *
+     * @throws IOException si la connexion échoue ou si l'opération est invalide
+     */
+    static Operation lire(DataInputStream entree) throws IOException {
+        byte type = entree.readByte();
+        long sequence = entree.readLong();
+        switch (type) {
+            case VIDAGE:
+            case FIN_INSTANTANE:
+                return new Operation(type, sequence, 0, null);
+            case SUPPRESSION:
+                return new Operation(type, sequence, entree.readLong(), null);
+            case AJOUT:
+            case INSTANTANE:
+                long id = entree.readLong();
+                return new Operation(type, sequence, id, lirePizza(entree, id));
+            default:
+                throw new IOException("Opération de réplication inconnue: " + type);
+        }
+    }
+
+    private static Pizza lirePizza(DataInputStream entree, long id) throws IOException {
+        byte codeType = entree.readByte();
+        int ordinal = entree.readByte();
+        long cle = entree.readLong();
+        RecettePizza recette;
+        if (cle == RecettePizza.CLE_NON_ENCODABLE) {
+            String pate = lireChaine(entree);
+            String sauce = lireChaine(entree);
+            int indicateurs = entree.readByte();
+            int nombre = entree.readInt();
+            List<String> garnitures = new ArrayList<>(nombre);
+            for (int i = 0; i < nombre; i++) {
+                garnitures.add(lireChaine(entree));
+            }
+            recette = RecettePizza.creer(pate, sauce, (indicateurs & 1) != 0, (indicateurs & 2) != 0, garnitures);
+        } else {
+            recette = CacheRecettes.getInstance().obtenir(cle);
+        }
+        return recreer(id, codeType, ordinal, recette);
+    }
+
+    /**
+     * Recrée une commande avec l'identifiant, la classe, la recette et l'état
+     * qu'elle avait à sa source (leader de réplication, image de démarrage).
+     * L'état est restauré directement, sans transition ni notification.
+     *
+     * @throws IOException si l'état est invalide
+     */
+    static Pizza recreer(long id, byte codeType, int ordinal, RecettePizza recette) throws IOException {
+        EtatCommande[] etats = EtatCommande.values();
+        if (ordinal < 0 || ordinal >= etats.length) {
+            throw new IOException("État de commande invalide: " + ordinal);
+        }
+        Pizza pizza;
+        if (codeType == 0) {
+            pizza = new PizzaFromage(id, recette);
+        } else if (codeType == 1) {
+            pizza = new PizzaVegetarienne(id, recette);
+        } else {
+            pizza = new PizzaPersonnalisee(id, recette);
+        }
+        // Sans rejouer les transitions : les écouteurs de cette JVM
+        // (statistiques, livraisons, admission) ne doivent pas les compter
+        pizza.restaurerEtat(etats[ordinal]);
+        return pizza;
+    }
+
+    private static void ecrireChaine(DataOutputStream sortie, String texte) throws IOException {
+        if (texte == null) {
+            sortie.writeInt(-1);
+            return;
+        }
+        byte[] octets = texte.getBytes(StandardCharsets.UTF_8);
+        sortie.writeInt(octets.length);
+        sortie.write(octets);
+    }
+
+    private static String lireChaine(DataInputStream entree) throws IOException {
+        int longueur = entree.readInt();
+        if (longueur < 0) {
+            return null;
+        }
+        byte[] octets = new byte[longueur];
+        entree.readFully(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,394 @@
+package com.example.pizza;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Configuration immuable d'une pizza (pâte, sauce, indicateurs et garnitures).
+ * Les recettes produites par le {@link Pizza.PizzaBuilder} sont validées une
+ * seule fois puis partagées entre toutes les pizzas de même configuration via
+ * le {@link CacheRecettes}.
+ * <p>
+ * Lorsque la configuration ne contient que des valeurs connues du builder, elle
+ * est résumée par une clé canonique sur 63 bits :
+ * <ul>
+ * <li>bits 0-1 : pâte (0 = aucune, 1 = Fine, 2 = Epaisse)</li>
+ * <li>bits 2-3 : sauce (0 = aucune, 1 = Tomate, 2 = Crème, 3 = BBQ)</li>
+ * <li>bit 4 : fromage, bit 5 : légumes</li>
+ * <li>bits 6-10 : nombre de garnitures</li>
+ * <li>bits 11 et suivants : codes des garnitures, 3 bits chacun, dans l'ordre
+ * d'ajout</li>
+ * </ul>
+ * Une configuration non représentable (libellé libre, trop de garnitures) a
+ * la clé {@link #CLE_NON_ENCODABLE} et n'est pas mise en cache.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public final class RecettePizza {
+    /**
+     * Clé des configurations qui ne peuvent pas être mises en cache.
+     */
+    public static final long CLE_NON_ENCODABLE = -1L;
+
+    /**
+     * Nombre maximal de garnitures représentables dans une clé.
+     */
+    public static final int MAX_GARNITURES_ENCODABLES = 17;
+
+    /**
+     * Recette vide, point de départ de toute pizza.
+     */
+    public static final RecettePizza VIDE = new RecettePizza(null, null, false, false, List.of());
+
+    private static final String[] PATES = { null, "Fine", "Epaisse" };
+    private static final String[] SAUCES = { null, "Tomate", "Crème", "BBQ" };
+
+    private static final int DECALAGE_SAUCE = 2;
+    private static final long BIT_FROMAGE = 1L << 4;
+    private static final long BIT_LEGUMES = 1L << 5;
+    private static final int DECALAGE_NOMBRE = 6;
+    private static final int DECALAGE_GARNITURES = 11;
+    private static final int BITS_PAR_GARNITURE = 3;
+
+    private final String typePate;
+    private final String typeSauce;
+    private final boolean contientFromage;
+    private final boolean contientLegumes;
+    private final List<String> garnitures;
+    private final long cle;
+    // Quantité de chaque garniture connue, indexée par ordinal de Garniture
+    private final int[] quantites;
+    // Codes de la pâte et de la sauce (-1 pour un libellé libre)
+    private final int codePate;
+    private final int codeSauce;
+    // Description affichée, rendue à la première demande
+    private String description;
+
+    private RecettePizza(String typePate, String typeSauce, boolean contientFromage,
+            boolean contientLegumes, List<String> garnitures) {
+        this.typePate = typePate;
+        this.typeSauce = typeSauce;
+        this.contientFromage = contientFromage;
+        this.contientLegumes = contientLegumes;
+        this.garnitures = garnitures;
+        this.cle = encoder(typePate, typeSauce, contientFromage, contientLegumes, garnitures);
+        this.quantites = compter(garnitures);
+        this.codePate = indexDe(PATES, typePate);
+        this.codeSauce = indexDe(SAUCES, typeSauce);
+    }
+
+    private static int[] compter(List<String> garnitures) {
+        int[] quantites = new int[Garniture.values().length];
+        for (String libelle : garnitures) {
+            Garniture garniture = Garniture.depuisLibelle(libelle);
+            if (garniture != null) {
+                quantites[garniture.ordinal()]++;
+            }
+        }
+        return quantites;
+    }
+
+    /**
+     * Crée une recette à partir de ses composants, sans la valider.
+     *
+     * @param typePate        Le type de pâte
+     * @param typeSauce       Le type de sauce
+     * @param contientFromage true si la pizza contient du fromage
+     * @param contientLegumes true si la pizza contient des légumes
+     * @param garnitures      Les garnitures, dans l'ordre d'ajout
+     * @return La recette correspondante
+     */
+    public static RecettePizza creer(String typePate, String typeSauce, boolean contientFromage,
+            boolean contientLegumes, List<String> garnitures) {
+        return new RecettePizza(typePate, typeSauce, contientFromage, contientLegumes,
+                Collections.unmodifiableList(new ArrayList<>(garnitures)));
+    }
+
+    /**
+     * Reconstruit la recette correspondant à une clé canonique.
+     *
+     * @param cle La clé canonique
+     * @return La recette décodée
+     * @throws IllegalArgumentException si la clé n'est pas valide
+     */
+    public static RecettePizza decoder(long cle) {
+        if (cle < 0) {
+            throw new IllegalArgumentException("Clé de recette invalide: " + cle);
+        }
+        int codePate = (int) (cle & 0b11);
+        if (codePate >= PATES.length) {
+            throw new IllegalArgumentException("Clé de recette invalide: " + cle);
+        }
+        return new RecettePizza(PATES[codePate], SAUCES[(int) ((cle >>> DECALAGE_SAUCE) & 0b11)],
+                (cle & BIT_FROMAGE) != 0, (cle & BIT_LEGUMES) != 0, decoderGarnitures(cle));
+    }
+
+    /**
+     * Décode la liste des libellés de garnitures contenue dans une clé.
+     *
+     * @param cle La clé canonique
+     * @return La liste non modifiable des libellés
+     */
+    static List<String> decoderGarnitures(long cle) {
+        int nombre = nombreGarnitures(cle);
+        String[] libelles = new String[nombre];
+        for (int i = 0; i < nombre; i++) {
+            int code = (int) ((cle >>> (DECALAGE_GARNITURES + i * BITS_PAR_GARNITURE)) & 0b111);
+            libelles[i] = Garniture.depuisCode(code).getLibelle();
+        }
+        return List.of(libelles);
+    }
+
+    /**
+     * Vérifie que la recette est valide.
+     *
+     * @throws IllegalStateException si la pâte ou la sauce est manquante
+     */
+    public void valider() {
+        if (typePate == null || typePate.trim().isEmpty()) {
+            throw new IllegalStateException("La pâte est requise");
+        }
+        if (typeSauce == null || typeSauce.trim().isEmpty()) {
+            throw new IllegalStateException("La sauce est requise");
+        }
+    }
+
+    // --- Manipulation incrémentale des clés (utilisée par le builder) ---
+
+    static long avecPate(long cle, String typePate) {
+        int code = indexDe(PATES, typePate);
+        return cle < 0 || code < 0 ? CLE_NON_ENCODABLE : (cle & ~0b11L) | code;
+    }
+
+    static long avecSauce(long cle, String typeSauce) {
+        int code = indexDe(SAUCES, typeSauce);
+        return cle < 0 || code < 0 ? CLE_NON_ENCODABLE
+                : (cle & ~(0b11L << DECALAGE_SAUCE)) | ((long) code << DECALAGE_SAUCE);
+    }
+
+    static long avecFromage(long cle, boolean fromage) {
+        return cle < 0 ? cle : fromage ? cle | BIT_FROMAGE : cle & ~BIT_FROMAGE;
+    }
+
+    static long avecLegumes(long cle, boolean legumes) {
+        return cle < 0 ? cle : legumes ? cle | BIT_LEGUMES : cle & ~BIT_LEGUMES;
+    }
+
+    static long avecGarniture(long cle, Garniture garniture) {
+        if (cle < 0) {
+            return cle;
+        }
+        int nombre = nombreGarnitures(cle);
+        if (nombre >= MAX_GARNITURES_ENCODABLES) {
+            return CLE_NON_ENCODABLE;
+        }
+        long avecCode = cle | ((long) garniture.getCode() << (DECALAGE_GARNITURES + nombre * BITS_PAR_GARNITURE));
+        return (avecCode & ~(0b11111L << DECALAGE_NOMBRE)) | ((long) (nombre + 1) << DECALAGE_NOMBRE);
+    }
+
+    private static int nombreGarnitures(long cle) {
+        return (int) ((cle >>> DECALAGE_NOMBRE) & 0b11111);
+    }
+
+    private static long encoder(String typePate, String typeSauce, boolean fromage, boolean legumes,
+            List<String> garnitures) {
+        if (garnitures.size() > MAX_GARNITURES_ENCODABLES) {
+            return CLE_NON_ENCODABLE;
+        }
+        long cle = avecLegumes(avecFromage(avecSauce(avecPate(0L, typePate), typeSauce), fromage), legumes);
+        for (String libelle : garnitures) {
+            Garniture garniture = Garniture.depuisLibelle(libelle);
+            if (garniture == null) {
+                return CLE_NON_ENCODABLE;
+            }
+            cle = avecGarniture(cle, garniture);
+        }
+        return cle;
+    }
+
+    /**
+     * Retourne le code d'un type de pâte (0 pour aucune pâte).
+     *
+     * @param typePate Le type de pâte
+     * @return Le code, ou -1 si la pâte n'est pas connue
+     */
+    static int codePate(String typePate) {
+        return indexDe(PATES, typePate);
+    }
+
+    /**
+     * Retourne le code d'un type de sauce (0 pour aucune sauce).
+     *
+     * @param typeSauce Le type de sauce
+     * @return Le code, ou -1 si la sauce n'est pas connue
+     */
+    static int codeSauce(String typeSauce) {
+        return indexDe(SAUCES, typeSauce);
+    }
+
+    /**
+     * Retourne le nombre de codes de pâte, aucune pâte comprise.
+     *
+     * @return Le nombre de codes de pâte
+     */
+    static int nombreCodesPate() {
+        return PATES.length;
+    }
+
+    /**
+     * Retourne le nombre de codes de sauce, aucune sauce comprise.
+     *
+     * @return Le nombre de codes de sauce
+     */
+    static int nombreCodesSauce() {
+        return SAUCES.length;
+    }
+
+    private static int indexDe(String[] valeurs, String valeur) {
+        if (valeur == null) {
+            return 0;
+        }
+        for (int i = 1; i < valeurs.length; i++) {
+            if (valeurs[i].equals(valeur)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // --- Copies modifiées (utilisées par les setters protégés de Pizza) ---
+
+    RecettePizza avecPate(String nouvellePate) {
+        return new RecettePizza(nouvellePate, typeSauce, contientFromage, contientLegumes, garnitures);
+    }
+
+    RecettePizza avecSauce(String nouvelleSauce) {
+        return new RecettePizza(typePate, nouvelleSauce, contientFromage, contientLegumes, garnitures);
+    }
+
+    RecettePizza avecFromage(boolean fromage) {
+        return new RecettePizza(typePate, typeSauce, fromage, contientLegumes, garnitures);
+    }
+
+    RecettePizza avecLegumes(boolean legumes) {
+        return new RecettePizza(typePate, typeSauce, contientFromage, legumes, garnitures);
+    }
+
+    RecettePizza avecGarniture(String garniture) {
+        List<String> nouvelles = new ArrayList<>(garnitures.size() + 1);
+        nouvelles.addAll(garnitures);
+        nouvelles.add(garniture);
+        return new RecettePizza(typePate, typeSauce, contientFromage, contientLegumes,
+                Collections.unmodifiableList(nouvelles));
+    }
+
+    /**
+     * Retourne le type de pâte.
+     *
+     * @return Le type de pâte, ou null
+     */
+    public String getTypePate() {
+        return typePate;
+    }
+
+    /**
+     * Retourne le type de sauce.
+     *
+     * @return Le type de sauce, ou null
+     */
+    public String getTypeSauce() {
+        return typeSauce;
+    }
+
+    /**
+     * Indique si la recette contient du fromage.
+     *
+     * @return true si la recette contient du fromage
+     */
+    public boolean isContientFromage() {
+        return contientFromage;
+    }
+
+    /**
+     * Indique si la recette contient des légumes.
+     *
+     * @return true si la recette contient des légumes
+     */
+    public boolean isContientLegumes() {
+        return contientLegumes;
+    }
+
+    /**
+     * Retourne la liste non modifiable des garnitures.
+     *
+     * @return Les garnitures, dans l'ordre d'ajout
+     */
+    public List<String> getGarnitures() {
+        return garnitures;
+    }
+
+    /**
+     * Retourne la description de la recette, telle qu'affichée dans la liste
+     * des commandes. Elle n'est rendue qu'une fois par recette, et donc une
+     * fois pour toutes les pizzas qui partagent la recette canonique.
+     *
+     * @return Le texte de la description
+     */
+    public String getDescription() {
+        // Course bénigne, comme pour String.hashCode : une chaîne immuable
+        // est publiée sûrement, et au pire la description est rendue deux fois
+        String texte = description;
+        if (texte == null) {
+            StringBuilder rendu = new StringBuilder("- Pizza avec ");
+            if (contientFromage) {
+                rendu.append("fromage ");
+            }
+            if (contientLegumes) {
+                rendu.append("légumes ");
+            }
+            texte = rendu.append("et garnitures : ").append(garnitures).toString();
+            description = texte;
+        }
+        return texte;
+    }
+
+    /**
+     * Retourne la quantité d'une garniture dans la recette.
+     * Les garnitures à libellé libre ne sont pas comptées.
+     *
+     * @param garniture La garniture
+     * @return Le nombre d'occurrences de la garniture
+     */
+    public int quantite(Garniture garniture) {
+        return quantites[garniture.ordinal()];
+    }
+
+    /**
+     * Retourne le code de la pâte de la recette.
+     *
+     * @return Le code, ou -1 pour une pâte à libellé libre
+     */
+    int getCodePate() {
+        return codePate;
+    }
+
+    /**
+     * Retourne le code de la sauce de la recette.
+     *
+     * @return Le code, ou -1 pour une sauce à libellé libre
+     */
+    int getCodeSauce() {
+        return codeSauce;
+    }
+
+    /**
+     * Retourne la clé canonique de la recette.
+     *
+     * @return La clé, ou {@link #CLE_NON_ENCODABLE}
+     */
+    public long getCle() {
+        return cle;
+    }
+}
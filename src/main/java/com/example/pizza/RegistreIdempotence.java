@@ -0,0 +1,326 @@
+package com.example.pizza;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Registre des clés d'idempotence des commandes soumises.
+ * Une clé est retenue pendant une durée bornée : au-delà, elle peut être
+ * réutilisée. La rétention est découpée en {@value #GENERATIONS} générations ;
+ * chaque génération associe un filtre de Bloom à une table exacte
+ * clé → commande, et la plus ancienne est abandonnée d'un bloc à chaque
+ * rotation, sans parcours.
+ * <p>
+ * Une soumission consulte d'abord les filtres de Bloom des générations
+ * précédentes (quelques lectures de bits) et n'interroge leur table qu'en cas
+ * de réponse positive ; la génération courante est consultée et alimentée par
+ * un seul {@code putIfAbsent}, qui départage aussi deux soumissions
+ * simultanées de la même clé. La consultation et l'insertion se font sous le
+ * verrou de lecture d'un {@link StampedLock}, dont la rotation prend le verrou
+ * d'écriture : deux soumissions de la même clé voient toujours les mêmes
+ * générations, et ne peuvent pas l'insérer chacune dans une génération
+ * différente.
+ * <p>
+ * Une clé soumise par {@link #soumettre(String, Pizza)} reste en attente
+ * jusqu'à ce que l'ajout de sa commande soit confirmé ou échoue : une
+ * soumission répétée entre-temps attend cette issue, et échoue à son tour si
+ * l'ajout d'origine a échoué, au lieu de confirmer une commande qui n'existera
+ * jamais.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class RegistreIdempotence {
+    /**
+     * Nombre de générations couvrant la durée de rétention.
+     */
+    public static final int GENERATIONS = 4;
+
+    /**
+     * Durée de rétention par défaut des clés.
+     */
+    public static final Duration RETENTION_PAR_DEFAUT = Duration.ofMinutes(10);
+
+    /**
+     * Nombre de clés par génération pour lequel les filtres sont dimensionnés.
+     */
+    public static final int CAPACITE_PAR_DEFAUT = 1 << 16;
+
+    // 10 bits et 7 fonctions de hachage par clé : environ 1 % de faux positifs
+    private static final int BITS_PAR_CLE = 10;
+    private static final int HACHAGES = 7;
+
+    private final long dureeGeneration;
+    private final int bitsParFiltre;
+    private final LongSupplier horloge;
+    // Générations, de la plus récente à la plus ancienne, remplacées sous le
+    // verrou d'écriture de rotations
+    private volatile Generation[] generations;
+    private final StampedLock rotations = new StampedLock();
+
+    /**
+     * Génération de clés : filtre de Bloom et table exacte.
+     */
+    private final class Generation {
+        private final long debut;
+        private final AtomicLongArray bits = new AtomicLongArray(bitsParFiltre >>> 6);
+        private final ConcurrentHashMap<String, Entree> commandes = new ConcurrentHashMap<>();
+
+        private Generation(long debut) {
+            this.debut = debut;
+        }
+
+        private boolean peutContenir(long hachage) {
+            long h2 = (hachage >>> 32) | 1;
+            for (int i = 0; i < HACHAGES; i++) {
+                int bit = (int) ((hachage + i * h2) & (bitsParFiltre - 1));
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void marquer(long hachage) {
+            long h2 = (hachage >>> 32) | 1;
+            for (int i = 0; i < HACHAGES; i++) {
+                int bit = (int) ((hachage + i * h2) & (bitsParFiltre - 1));
+                long masque = 1L << bit;
+                if ((bits.get(bit >>> 6) & masque) == 0) {
+                    bits.getAndAccumulate(bit >>> 6, masque, (a, b) -> a | b);
+                }
+            }
+        }
+    }
+
+    /**
+     * Association d'une clé à une commande, et issue de l'ajout de cette
+     * commande au carnet.
+     */
+    private static final class Entree {
+        private final Pizza pizza;
+        private final CompletableFuture<Pizza> ajout = new CompletableFuture<>();
+
+        private Entree(Pizza pizza) {
+            this.pizza = pizza;
+        }
+
+        private boolean isConfirmee() {
+            return ajout.isDone() && !ajout.isCompletedExceptionally();
+        }
+    }
+
+    /**
+     * Crée un registre avec la rétention et la capacité par défaut.
+     */
+    public RegistreIdempotence() {
+        this(RETENTION_PAR_DEFAUT, CAPACITE_PAR_DEFAUT, System::nanoTime);
+    }
+
+    /**
+     * Crée un registre.
+     *
+     * @param retention Durée minimale pendant laquelle une clé est retenue
+     * @param capacite  Nombre de clés attendu par génération
+     * @param horloge   L'horloge, en nanosecondes
+     * @throws IllegalArgumentException si la rétention ou la capacité n'est pas
+     *                                  positive
+     */
+    public RegistreIdempotence(Duration retention, int capacite, LongSupplier horloge) {
+        if (retention.isNegative() || retention.isZero() || capacite <= 0) {
+            throw new IllegalArgumentException("La rétention et la capacité doivent être positives");
+        }
+        // Les générations précédentes couvrent à elles seules la rétention
+        this.dureeGeneration = Math.max(1, retention.toNanos() / (GENERATIONS - 1));
+        this.bitsParFiltre = Math.max(64, Integer.highestOneBit(capacite * BITS_PAR_CLE - 1) << 1);
+        this.horloge = horloge;
+        Generation[] initiales = new Generation[GENERATIONS];
+        initiales[0] = new Generation(horloge.getAsLong());
+        this.generations = initiales;
+    }
+
+    /**
+     * Enregistre une clé pour une commande déjà ajoutée, si elle n'est pas
+     * déjà retenue.
+     *
+     * @param cle   La clé d'idempotence
+     * @param pizza La commande soumise avec cette clé
+     * @return La commande déjà associée à la clé, ou null si la clé est
+     *         nouvelle et désormais associée à {@code pizza}
+     * @throws IllegalArgumentException si la clé est null
+     * @throws IllegalStateException    si la clé attendait l'ajout d'une
+     *                                  commande et que cet ajout a échoué
+     */
+    public Pizza enregistrer(String cle, Pizza pizza) {
+        Entree entree = new Entree(pizza);
+        entree.ajout.complete(pizza);
+        return attendre(inserer(cle, entree));
+    }
+
+    /**
+     * Soumet une clé pour une commande en cours d'ajout. Si la clé est
+     * nouvelle, elle reste en attente jusqu'à l'appel de
+     * {@link #confirmer(String, Pizza)} ou de
+     * {@link #retirer(String, Pizza, Throwable)}. Si la clé attend déjà l'ajout
+     * d'une autre commande, l'appel attend l'issue de cet ajout.
+     *
+     * @param cle   La clé d'idempotence
+     * @param pizza La commande soumise avec cette clé
+     * @return La commande d'origine une fois ajoutée, ou null si la clé est
+     *         nouvelle et désormais en attente pour {@code pizza}
+     * @throws IllegalArgumentException si la clé est null
+     * @throws IllegalStateException    si l'ajout de la commande d'origine a
+     *                                  échoué
+     */
+    public Pizza soumettre(String cle, Pizza pizza) {
+        return attendre(inserer(cle, new Entree(pizza)));
+    }
+
+    /**
+     * Insère une entrée pour une clé qui n'est pas déjà retenue.
+     *
+     * @return L'entrée déjà associée à la clé, ou null si l'entrée a été
+     *         insérée
+     */
+    private Entree inserer(String cle, Entree entree) {
+        if (cle == null) {
+            throw new IllegalArgumentException("La clé d'idempotence ne peut pas être null");
+        }
+        long hachage = hacher(cle);
+        courantes();
+        long lecture = rotations.readLock();
+        try {
+            // Aucune rotation ne peut avoir lieu avant la fin de l'insertion
+            Generation[] courantes = generations;
+            for (int i = 1; i < GENERATIONS; i++) {
+                Generation generation = courantes[i];
+                if (generation != null && generation.peutContenir(hachage)) {
+                    Entree existante = generation.commandes.get(cle);
+                    if (existante != null) {
+                        return existante;
+                    }
+                }
+            }
+            Generation courante = courantes[0];
+            courante.marquer(hachage);
+            return courante.commandes.putIfAbsent(cle, entree);
+        } finally {
+            rotations.unlockRead(lecture);
+        }
+    }
+
+    /**
+     * Attend, hors du verrou des rotations, l'issue de l'ajout de la commande
+     * d'une entrée existante.
+     */
+    private static Pizza attendre(Entree existante) {
+        if (existante == null) {
+            return null;
+        }
+        try {
+            return existante.ajout.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Confirme l'ajout de la commande soumise avec une clé : les soumissions
+     * répétées qui l'attendaient la reçoivent.
+     *
+     * @param cle   La clé d'idempotence
+     * @param pizza La commande ajoutée
+     */
+    public void confirmer(String cle, Pizza pizza) {
+        for (Generation generation : generations) {
+            Entree entree = generation == null ? null : generation.commandes.get(cle);
+            if (entree != null && entree.pizza == pizza) {
+                entree.ajout.complete(pizza);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Oublie l'association d'une clé à une commande dont l'ajout a échoué.
+     * Les soumissions répétées qui attendaient cet ajout échouent à leur
+     * tour.
+     *
+     * @param cle   La clé d'idempotence
+     * @param pizza La commande associée
+     * @param cause L'échec de l'ajout
+     */
+    public void retirer(String cle, Pizza pizza, Throwable cause) {
+        for (Generation generation : generations) {
+            Entree entree = generation == null ? null : generation.commandes.get(cle);
+            if (entree != null && entree.pizza == pizza && generation.commandes.remove(cle, entree)) {
+                entree.ajout.completeExceptionally(cause);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retrouve la commande associée à une clé.
+     *
+     * @param cle La clé d'idempotence
+     * @return La commande, ou null si la clé n'est pas retenue ou que l'ajout
+     *         de sa commande n'est pas encore confirmé
+     */
+    public Pizza trouver(String cle) {
+        long hachage = hacher(cle);
+        for (Generation generation : courantes()) {
+            if (generation != null && generation.peutContenir(hachage)) {
+                Entree entree = generation.commandes.get(cle);
+                if (entree != null && entree.isConfirmee()) {
+                    return entree.pizza;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retourne les générations, après rotation si la génération courante est
+     * terminée. La rotation attend la fin des insertions en cours.
+     */
+    private Generation[] courantes() {
+        Generation[] actuelles = generations;
+        long maintenant = horloge.getAsLong();
+        if (maintenant - actuelles[0].debut < dureeGeneration) {
+            return actuelles;
+        }
+        long ecriture = rotations.writeLock();
+        try {
+            actuelles = generations;
+            if (maintenant - actuelles[0].debut >= dureeGeneration) {
+                // Autant de générations abandonnées que de périodes écoulées
+                long ecoulees = Math.min(GENERATIONS, (maintenant - actuelles[0].debut) / dureeGeneration);
+                Generation[] suivantes = new Generation[GENERATIONS];
+                suivantes[0] = new Generation(maintenant);
+                System.arraycopy(actuelles, 0, suivantes, (int) ecoulees, GENERATIONS - (int) ecoulees);
+                generations = suivantes;
+                actuelles = suivantes;
+            }
+            return actuelles;
+        } finally {
+            rotations.unlockWrite(ecriture);
+        }
+    }
+
+    /**
+     * Hachage 64 bits d'une clé, dérivé du hachage mis en cache par
+     * {@link String}.
+     */
+    private static long hacher(String cle) {
+        long z = cle.hashCode() * 0x9E3779B97F4A7C15L + cle.length();
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.pizza;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Regroupement des commandes emballées en tournées de livraison.
+ * Une commande munie d'un {@link PointLivraison} est indexée dans une
+ * {@link GrilleSpatiale} dès son emballage, et en est retirée si elle est
+ * livrée ou annulée entre-temps : l'index est tenu à jour par les
+ * transitions, sans jamais parcourir le carnet.
+ * <p>
+ * Une tournée est formée autour d'une commande, avec les commandes en
+ * attente les plus proches dans le rayon de regroupement, dans la limite de
+ * la capacité d'un livreur :
+ * <ul>
+ * <li>dès qu'une commande emballée complète une tournée pleine autour
+ * d'elle ;</li>
+ * <li>sinon, lorsque la plus ancienne commande en attente atteint la fin de
+ * sa fenêtre de regroupement, avec les voisines disponibles à cet
+ * instant.</li>
+ * </ul>
+ * Aucune commande n'attend donc plus que la fenêtre (à la résolution de
+ * {@link #demarrer()} près). Les tournées sont remises au consommateur de
+ * répartition hors du lock, sur le thread de l'emballage ou du
+ * déclenchement ; leurs commandes y sont ordonnées de proche en proche à
+ * partir de la commande qui l'a ouverte.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class RegroupeurLivraisons implements EcouteurTransitions {
+    private static final int RESOLUTIONS_PAR_FENETRE = 16;
+    private static final long RESOLUTION_MINIMALE = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final long fenetre;
+    private final double rayon;
+    private final int capacite;
+    private final Consumer<Tournee> repartition;
+    private final LongSupplier horloge;
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final GrilleSpatiale<Pizza> grille;
+    // Commandes dans l'ordre d'emballage ; celles déjà parties en tournée ou
+    // retirées de la grille sont ignorées lorsqu'elles arrivent en tête
+    private final ArrayDeque<Attente> file = new ArrayDeque<>();
+    private ScheduledExecutorService tic;
+    private long nombreTournees;
+    private long nombreRegroupees;
+
+    /**
+     * Tournée de livraison confiée à un livreur.
+     *
+     * @param commandes Les commandes, dans l'ordre de livraison
+     * @param instant   L'instant de formation, en nanosecondes
+     */
+    public record Tournee(List<Pizza> commandes, long instant) {
+    }
+
+    /**
+     * Commande en attente et instant de son emballage.
+     */
+    private record Attente(Pizza pizza, long instant) {
+    }
+
+    /**
+     * Crée un regroupeur mesuré avec {@link System#nanoTime()}.
+     *
+     * @param fenetre     L'attente maximale d'une commande emballée
+     * @param rayon       La distance maximale, en mètres, entre la commande
+     *                    qui ouvre une tournée et les autres commandes de
+     *                    celle-ci
+     * @param capacite    Le nombre maximal de commandes par tournée
+     * @param repartition Le destinataire des tournées formées
+     */
+    public RegroupeurLivraisons(Duration fenetre, double rayon, int capacite, Consumer<Tournee> repartition) {
+        this(fenetre, rayon, capacite, repartition, System::nanoTime);
+    }
+
+    /**
+     * Crée un regroupeur.
+     *
+     * @param fenetre     L'attente maximale d'une commande emballée
+     * @param rayon       La distance maximale, en mètres, entre la commande
+     *                    qui ouvre une tournée et les autres commandes de
+     *                    celle-ci
+     * @param capacite    Le nombre maximal de commandes par tournée
+     * @param repartition Le destinataire des tournées formées
+     * @param horloge     L'horloge, en nanosecondes
+     * @throws IllegalArgumentException si la fenêtre, le rayon ou la capacité
+     *                                  n'est pas positif
+     */
+    public RegroupeurLivraisons(Duration fenetre, double rayon, int capacite, Consumer<Tournee> repartition,
+            LongSupplier horloge) {
+        if (fenetre.isNegative() || fenetre.isZero() || !(rayon > 0) || capacite <= 0) {
+            throw new IllegalArgumentException("La fenêtre, le rayon et la capacité doivent être positifs");
+        }
+        this.fenetre = fenetre.toNanos();
+        this.rayon = rayon;
+        this.capacite = capacite;
+        this.repartition = repartition;
+        this.horloge = horloge;
+        // Avec des cellules du côté du rayon, une recherche visite au plus 9 cellules
+        this.grille = new GrilleSpatiale<>(rayon);
+    }
+
+    /**
+     * Branche le regroupeur sur les transitions des pizzas. Seules les
+     * commandes emballées après le branchement sont regroupées.
+     */
+    public void brancher() {
+        Pizza.ajouterEcouteur(this);
+    }
+
+    /**
+     * Branche le regroupeur et lance un thread qui ferme les fenêtres
+     * échues, environ seize fois par fenêtre.
+     */
+    public void demarrer() {
+        brancher();
+        long resolution = Math.max(RESOLUTION_MINIMALE, fenetre / RESOLUTIONS_PAR_FENETRE);
+        tic = Executors.newSingleThreadScheduledExecutor(tache -> {
+            Thread thread = new Thread(tache, "regroupeur-livraisons");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tic.scheduleAtFixedRate(this::regrouper, resolution, resolution, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Arrête le thread de déclenchement, débranche le regroupeur et oublie
+     * les commandes en attente.
+     */
+    public void arreter() {
+        if (tic != null) {
+            tic.shutdownNow();
+            tic = null;
+        }
+        Pizza.retirerEcouteur(this);
+        verrou.lock();
+        try {
+            grille.vider();
+            file.clear();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Confie une commande emballée au regroupeur. Appelé par les transitions
+     * une fois branché ; une commande sans point de livraison est ignorée.
+     *
+     * @param pizza La commande
+     * @return true si la commande a été mise en attente
+     */
+    public boolean confier(Pizza pizza) {
+        PointLivraison point = pizza.getPointLivraison();
+        if (point == null) {
+            return false;
+        }
+        Tournee pleine = null;
+        verrou.lock();
+        try {
+            if (!grille.ajouter(pizza, point)) {
+                return false;
+            }
+            file.addLast(new Attente(pizza, horloge.getAsLong()));
+            List<Pizza> voisines = grille.voisins(point, rayon, capacite);
+            if (voisines.size() == capacite) {
+                pleine = former(pizza, voisines);
+            }
+        } finally {
+            verrou.unlock();
+        }
+        if (pleine != null) {
+            repartition.accept(pleine);
+        }
+        return true;
+    }
+
+    /**
+     * Retire une commande en attente, par exemple livrée directement.
+     *
+     * @param pizza La commande
+     * @return true si elle était en attente
+     */
+    public boolean retirer(Pizza pizza) {
+        verrou.lock();
+        try {
+            return grille.retirer(pizza);
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Forme les tournées des commandes dont la fenêtre est échue.
+     *
+     * @return Le nombre de tournées formées par cet appel
+     */
+    public int regrouper() {
+        long limite = horloge.getAsLong() - fenetre;
+        List<Tournee> formees = new ArrayList<>();
+        verrou.lock();
+        try {
+            Attente tete;
+            while ((tete = file.peekFirst()) != null && tete.instant() <= limite) {
+                file.pollFirst();
+                Pizza pizza = tete.pizza();
+                PointLivraison point = grille.position(pizza);
+                if (point != null) {
+                    formees.add(former(pizza, grille.voisins(point, rayon, capacite)));
+                }
+            }
+        } finally {
+            verrou.unlock();
+        }
+        for (Tournee tournee : formees) {
+            repartition.accept(tournee);
+        }
+        return formees.size();
+    }
+
+    /**
+     * Retire de la grille les commandes d'une tournée ouverte par une
+     * commande, et les ordonne de proche en proche. Appelé sous le lock.
+     */
+    private Tournee former(Pizza ouverture, List<Pizza> voisines) {
+        List<Pizza> restantes = new ArrayList<>(voisines);
+        List<PointLivraison> points = new ArrayList<>(restantes.size());
+        for (Pizza pizza : restantes) {
+            points.add(grille.position(pizza));
+            grille.retirer(pizza);
+        }
+        List<Pizza> ordre = new ArrayList<>(restantes.size());
+        int courant = restantes.indexOf(ouverture);
+        while (!restantes.isEmpty()) {
+            PointLivraison position = points.get(courant);
+            ordre.add(restantes.get(courant));
+            int dernier = restantes.size() - 1;
+            restantes.set(courant, restantes.get(dernier));
+            points.set(courant, points.get(dernier));
+            restantes.remove(dernier);
+            points.remove(dernier);
+            double plusProche = Double.MAX_VALUE;
+            for (int i = 0; i < restantes.size(); i++) {
+                double distance = points.get(i).distance(position);
+                if (distance < plusProche) {
+                    plusProche = distance;
+                    courant = i;
+                }
+            }
+        }
+        nombreTournees++;
+        nombreRegroupees += ordre.size();
+        return new Tournee(List.copyOf(ordre), horloge.getAsLong());
+    }
+
+    /**
+     * Retourne le nombre de commandes en attente d'une tournée.
+     *
+     * @return Le nombre de commandes indexées
+     */
+    public int getNombreEnAttente() {
+        verrou.lock();
+        try {
+            return grille.getTaille();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Retourne le nombre de tournées formées.
+     *
+     * @return Le nombre de tournées
+     */
+    public long getNombreTournees() {
+        verrou.lock();
+        try {
+            return nombreTournees;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Retourne le nombre de commandes parties en tournée.
+     *
+     * @return Le nombre de commandes regroupées
+     */
+    public long getNombreRegroupees() {
+        verrou.lock();
+        try {
+            return nombreRegroupees;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    @Override
+    public void transition(Pizza pizza, EtatCommande ancien, EtatCommande nouveau) {
+        if (nouveau == EtatCommande.EMBALLEE) {
+            confier(pizza);
+        } else if (ancien == EtatCommande.EMBALLEE) {
+            // Livrée directement ou annulée avant d'avoir été regroupée
+            retirer(pizza);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.pizza;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Roue temporelle hiérarchique : échéancier à coût constant amorti.
+ * Le temps avance par tops de durée fixe. Le niveau 0 compte 64 cases d'un
+ * top ; chaque niveau supérieur compte 64 cases couvrant chacune tout le
+ * niveau inférieur. Une échéance est rangée dans le niveau le plus bas qui
+ * la couvre, puis redescendue d'un niveau chaque fois que sa case est
+ * atteinte : chaque élément est déplacé au plus une fois par niveau, quel que
+ * soit le nombre d'éléments planifiés. Aucune opération ne parcourt tous les
+ * éléments.
+ * <p>
+ * Avec 4 niveaux, la roue couvre 64<sup>4</sup> tops (plus de 16 millions) ;
+ * une échéance plus lointaine est ramenée à cette limite. La roue n'est pas
+ * thread-safe : l'appelant sérialise les accès.
+ *
+ * @param <T> Le type des éléments planifiés
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class RoueTemporelle<T> {
+    private static final int BITS_PAR_NIVEAU = 6;
+    private static final int CASES = 1 << BITS_PAR_NIVEAU;
+    private static final int MASQUE = CASES - 1;
+    private static final int NIVEAUX = 4;
+    private static final long HORIZON = 1L << (BITS_PAR_NIVEAU * NIVEAUX);
+
+    private final long dureeTop;
+    private final long origine;
+    private final Object[][] cases = new Object[NIVEAUX][CASES];
+    private long topCourant;
+    private int taille;
+
+    /**
+     * Élément planifié, chaîné aux autres éléments de sa case.
+     */
+    private static final class Noeud {
+        private final Object element;
+        private final long top;
+        private Noeud suivant;
+
+        private Noeud(Object element, long top) {
+            this.element = element;
+            this.top = top;
+        }
+    }
+
+    /**
+     * Crée une roue.
+     *
+     * @param dureeTop La durée d'un top, en nanosecondes (résolution de la roue)
+     * @param origine  L'instant correspondant au top 0, en nanosecondes
+     * @throws IllegalArgumentException si la durée n'est pas positive
+     */
+    public RoueTemporelle(long dureeTop, long origine) {
+        if (dureeTop <= 0) {
+            throw new IllegalArgumentException("La durée d'un top doit être positive");
+        }
+        this.dureeTop = dureeTop;
+        this.origine = origine;
+    }
+
+    /**
+     * Planifie un élément. L'échéance est arrondie au top supérieur ; une
+     * échéance déjà passée est servie au prochain top.
+     *
+     * @param element  L'élément
+     * @param echeance L'instant d'échéance, en nanosecondes
+     */
+    public void planifier(T element, long echeance) {
+        long top = Math.max(topCourant + 1, -Math.floorDiv(origine - echeance, dureeTop));
+        ranger(new Noeud(element, Math.min(top, topCourant + HORIZON - 1)));
+        taille++;
+    }
+
+    /**
+     * Avance la roue jusqu'à l'instant donné et livre les éléments échus.
+     *
+     * @param maintenant L'instant courant, en nanosecondes
+     * @param echus      Le traitement de chaque élément échu
+     * @return Le nombre d'éléments échus
+     */
+    @SuppressWarnings("unchecked")
+    public int avancer(long maintenant, Consumer<? super T> echus) {
+        long cible = Math.floorDiv(maintenant - origine, dureeTop);
+        int livres = 0;
+        while (topCourant < cible) {
+            if (taille == 0) {
+                // Rien à descendre ni à livrer : saut direct au top cible
+                topCourant = cible;
+                break;
+            }
+            topCourant++;
+            for (int niveau = 1; niveau < NIVEAUX
+                    && (topCourant & ((1L << (BITS_PAR_NIVEAU * niveau)) - 1)) == 0; niveau++) {
+                int indice = (int) (topCourant >>> (BITS_PAR_NIVEAU * niveau)) & MASQUE;
+                Noeud noeud = (Noeud) cases[niveau][indice];
+                cases[niveau][indice] = null;
+                while (noeud != null) {
+                    Noeud suivant = noeud.suivant;
+                    ranger(noeud);
+                    noeud = suivant;
+                }
+            }
+            int indice = (int) topCourant & MASQUE;
+            Noeud noeud = (Noeud) cases[0][indice];
+            cases[0][indice] = null;
+            while (noeud != null) {
+                Noeud suivant = noeud.suivant;
+                taille--;
+                livres++;
+                echus.accept((T) noeud.element);
+                noeud = suivant;
+            }
+        }
+        return livres;
+    }
+
+    /**
+     * Retire tous les éléments planifiés.
+     */
+    public void vider() {
+        for (Object[] niveau : cases) {
+            Arrays.fill(niveau, null);
+        }
+        taille = 0;
+    }
+
+    /**
+     * Retourne le nombre d'éléments planifiés.
+     *
+     * @return Le nombre d'éléments en attente
+     */
+    public int getTaille() {
+        return taille;
+    }
+
+    /**
+     * Range un nœud dans le niveau le plus bas couvrant son échéance.
+     */
+    private void ranger(Noeud noeud) {
+        long delai = Math.max(0, noeud.top - topCourant);
+        int niveau = 0;
+        while (niveau < NIVEAUX - 1 && delai >= 1L << (BITS_PAR_NIVEAU * (niveau + 1))) {
+            niveau++;
+        }
+        long top = Math.max(noeud.top, topCourant);
+        int indice = (int) (top >>> (BITS_PAR_NIVEAU * niveau)) & MASQUE;
+        noeud.suivant = (Noeud) cases[niveau][indice];
+        cases[niveau][indice] = noeud;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.pizza;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Série temporelle glissante en anneau de seaux, sans verrou.
+ * Le temps est découpé en seaux de durée fixe ; l'anneau conserve les
+ * {@code nombreSeaux} derniers. Chaque seau compte les ajouts et les
+ * emballages de commandes, la somme de leurs latences et un histogramme
+ * log-linéaire de ces latences (erreur relative inférieure à 12,5 %).
+ * <p>
+ * Un seau est recyclé par le premier enregistrement qui tombe dans une
+ * nouvelle période : ce thread le réserve par CAS sur son époque, le remet à
+ * zéro puis publie la nouvelle époque. Aucun historique par commande n'est
+ * conservé, et une requête sur la fenêtre lit chaque seau une fois.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public final class SerieTemporelle {
+    // Seau jamais utilisé, et seau en cours de remise à zéro
+    private static final long EPOQUE_VIDE = Long.MIN_VALUE + 1;
+    private static final long EPOQUE_REINITIALISATION = Long.MIN_VALUE;
+
+    // Disposition d'un seau : compteurs, puis histogramme des latences. Les
+    // intervalles de HistogrammeLatence sont regroupés deux par deux.
+    private static final int AJOUTS = 0;
+    private static final int EMBALLAGES = 1;
+    private static final int SOMME_LATENCES = 2;
+    private static final int HISTOGRAMME = 3;
+    private static final int REGROUPEMENT = 2;
+    private static final int INTERVALLES = HistogrammeLatence.indice(Long.MAX_VALUE) / REGROUPEMENT + 1;
+    private static final int LARGEUR_SEAU = HISTOGRAMME + INTERVALLES;
+
+    private final int nombreSeaux;
+    private final long dureeSeau;
+    private final AtomicLongArray epoques;
+    private final AtomicLongArray valeurs;
+
+    /**
+     * Bilan d'une fenêtre.
+     *
+     * @param dureeNanos      La durée couverte par la fenêtre
+     * @param ajouts          Le nombre de commandes ajoutées
+     * @param emballages      Le nombre de commandes emballées
+     * @param latenceMoyenne  La latence moyenne ajout-emballage, en nanosecondes
+     * @param latenceP99      Le 99e percentile de cette latence, en nanosecondes
+     * @author Hilal Nawfel
+     * @version 1.0
+     */
+    public record Bilan(long dureeNanos, long ajouts, long emballages, double latenceMoyenne, long latenceP99) {
+
+        /**
+         * Retourne le débit moyen d'ajout de commandes sur la fenêtre.
+         *
+         * @return Le nombre de commandes ajoutées par minute
+         */
+        public double getCommandesParMinute() {
+            return ajouts * 60e9 / dureeNanos;
+        }
+    }
+
+    /**
+     * Crée une série.
+     *
+     * @param nombreSeaux Le nombre de seaux de l'anneau
+     * @param dureeSeau   La durée d'un seau, en nanosecondes
+     * @throws IllegalArgumentException si l'un des paramètres n'est pas positif
+     */
+    public SerieTemporelle(int nombreSeaux, long dureeSeau) {
+        if (nombreSeaux <= 0 || dureeSeau <= 0) {
+            throw new IllegalArgumentException("Le nombre et la durée des seaux doivent être positifs");
+        }
+        this.nombreSeaux = nombreSeaux;
+        this.dureeSeau = dureeSeau;
+        this.epoques = new AtomicLongArray(nombreSeaux);
+        this.valeurs = new AtomicLongArray(nombreSeaux * LARGEUR_SEAU);
+        for (int i = 0; i < nombreSeaux; i++) {
+            epoques.set(i, EPOQUE_VIDE);
+        }
+    }
+
+    /**
+     * Enregistre l'ajout d'une commande.
+     *
+     * @param instant L'instant de l'ajout, en nanosecondes
+     */
+    public void enregistrerAjout(long instant) {
+        int base = seau(instant);
+        if (base >= 0) {
+            valeurs.incrementAndGet(base + AJOUTS);
+        }
+    }
+
+    /**
+     * Enregistre l'emballage d'une commande et sa latence depuis l'ajout.
+     *
+     * @param instant L'instant de l'emballage, en nanosecondes
+     * @param latence La durée écoulée depuis l'ajout, en nanosecondes
+     */
+    public void enregistrerEmballage(long instant, long latence) {
+        int base = seau(instant);
+        if (base >= 0) {
+            long l = Math.max(0, latence);
+            valeurs.incrementAndGet(base + EMBALLAGES);
+            valeurs.addAndGet(base + SOMME_LATENCES, l);
+            valeurs.incrementAndGet(base + HISTOGRAMME + HistogrammeLatence.indice(l) / REGROUPEMENT);
+        }
+    }
+
+    /**
+     * Agrège les seaux de la fenêtre se terminant à l'instant donné.
+     *
+     * @param maintenant L'instant de fin de la fenêtre, en nanosecondes
+     * @return Le bilan de la fenêtre
+     */
+    public Bilan bilan(long maintenant) {
+        long courante = Math.floorDiv(maintenant, dureeSeau);
+        long ajouts = 0;
+        long emballages = 0;
+        long sommeLatences = 0;
+        long[] histogramme = new long[INTERVALLES];
+        for (int i = 0; i < nombreSeaux; i++) {
+            long epoque = epoques.get(i);
+            if (epoque <= courante - nombreSeaux || epoque > courante) {
+                continue;
+            }
+            int base = i * LARGEUR_SEAU;
+            ajouts += valeurs.get(base + AJOUTS);
+            emballages += valeurs.get(base + EMBALLAGES);
+            sommeLatences += valeurs.get(base + SOMME_LATENCES);
+            for (int j = 0; j < INTERVALLES; j++) {
+                histogramme[j] += valeurs.get(base + HISTOGRAMME + j);
+            }
+        }
+        double moyenne = emballages == 0 ? 0 : (double) sommeLatences / emballages;
+        return new Bilan(nombreSeaux * dureeSeau, ajouts, emballages, moyenne, percentile(histogramme, 99));
+    }
+
+    private static long percentile(long[] histogramme, double pourcentage) {
+        long total = 0;
+        for (long n : histogramme) {
+            total += n;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(pourcentage / 100.0 * total));
+        long cumul = 0;
+        for (int j = 0; j < histogramme.length; j++) {
+            cumul += histogramme[j];
+            if (cumul >= rang) {
+                return HistogrammeLatence.borneSuperieure(j * REGROUPEMENT + REGROUPEMENT - 1);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Retourne l'indice de début du seau de l'instant donné, en le recyclant
+     * s'il appartient encore à une période passée.
+     *
+     * @return L'indice, ou -1 si l'instant est antérieur à la période du seau
+     */
+    private int seau(long instant) {
+        long epoque = Math.floorDiv(instant, dureeSeau);
+        int indice = (int) Math.floorMod(epoque, (long) nombreSeaux);
+        int base = indice * LARGEUR_SEAU;
+        while (true) {
+            long actuelle = epoques.get(indice);
+            if (actuelle == epoque) {
+                return base;
+            }
+            if (actuelle == EPOQUE_REINITIALISATION) {
+                Thread.onSpinWait();
+            } else if (actuelle > epoque) {
+                return -1;
+            } else if (epoques.compareAndSet(indice, actuelle, EPOQUE_REINITIALISATION)) {
+                for (int j = 0; j < LARGEUR_SEAU; j++) {
+                    valeurs.set(base + j, 0);
+                }
+                epoques.set(indice, epoque);
+                return base;
+            }
+        }
+    }
+}
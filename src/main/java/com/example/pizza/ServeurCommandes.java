@@ -0,0 +1,274 @@
+package com.example.pizza;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * API HTTP locale de prise de commandes.
+ * Le serveur repose sur le {@link HttpServer} du JDK, dont la boucle
+ * d'acceptation est non bloquante (sélecteur NIO) ; les requêtes sont traitées
+ * par un pool de threads fixe. Les connexions HTTP/1.1 sont persistantes
+ * (keep-alive) et les requêtes envoyées à la suite sur une même connexion sont
+ * traitées dans l'ordre.
+ * <ul>
+ * <li>{@code POST /commandes?type=fromage} (ou le type dans le corps) : crée
+ * une commande, 201 ; avec un en-tête {@code Idempotency-Key} déjà reçu,
+ * renvoie la commande d'origine, 200 ; refusée par le contrôle d'admission,
+ * 503 avec un en-tête {@code Retry-After} ; stock insuffisant, 409</li>
+ * <li>{@code GET /commandes} : liste les commandes</li>
+ * <li>{@code GET /commandes/{id}} : détail d'une commande, 404 si absente</li>
+ * <li>{@code DELETE /commandes/{id}} : annule et retire une commande</li>
+ * </ul>
+ * Les réponses sont en JSON compact, par exemple
+ * {@code {"id":12,"type":"fromage","etat":"RECUE"}}. Une requête invalide
+ * reçoit une réponse 400, et une erreur inattendue une réponse 500.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class ServeurCommandes {
+    private static final String CHEMIN = "/commandes";
+
+    private final CommandeManager manager;
+    private final PizzaFactory factory;
+    private final HttpServer serveur;
+    private final ExecutorService executeur;
+    private volatile ControleAdmission admission;
+
+    /**
+     * Crée un serveur sur l'adresse donnée, sans le démarrer.
+     *
+     * @param manager Le gestionnaire de commandes exposé
+     * @param factory La factory utilisée pour créer les pizzas
+     * @param adresse L'adresse d'écoute (port 0 pour un port libre)
+     * @param threads Le nombre de threads de traitement
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public ServeurCommandes(CommandeManager manager, PizzaFactory factory, InetSocketAddress adresse, int threads)
+            throws IOException {
+        this.manager = manager;
+        this.factory = factory;
+        this.serveur = HttpServer.create(adresse, 1024);
+        this.executeur = Executors.newFixedThreadPool(threads);
+        serveur.setExecutor(executeur);
+        serveur.createContext(CHEMIN, this::traiter);
+    }
+
+    /**
+     * Place un contrôle d'admission devant la création des commandes : une
+     * commande refusée reçoit une réponse 503 avec un en-tête
+     * {@code Retry-After}.
+     *
+     * @param admission Le contrôle d'admission, ou null pour tout accepter
+     */
+    public void setAdmission(ControleAdmission admission) {
+        this.admission = admission;
+    }
+
+    /**
+     * Démarre le serveur.
+     */
+    public void demarrer() {
+        serveur.start();
+    }
+
+    /**
+     * Arrête le serveur et son pool de threads.
+     */
+    public void arreter() {
+        serveur.stop(0);
+        executeur.shutdownNow();
+    }
+
+    /**
+     * Retourne le port d'écoute effectif.
+     *
+     * @return Le port d'écoute
+     */
+    public int getPort() {
+        return serveur.getAddress().getPort();
+    }
+
+    private void traiter(HttpExchange echange) throws IOException {
+        try {
+            String chemin = echange.getRequestURI().getPath();
+            String methode = echange.getRequestMethod();
+            if (chemin.equals(CHEMIN) || chemin.equals(CHEMIN + "/")) {
+                switch (methode) {
+                    case "POST" -> creer(echange);
+                    case "GET" -> repondre(echange, 200, listeJson(manager.getCommandes()));
+                    default -> repondre(echange, 405, erreurJson("Méthode non supportée"));
+                }
+                return;
+            }
+            long id = Long.parseLong(chemin.substring(CHEMIN.length() + 1));
+            switch (methode) {
+                case "GET" -> {
+                    Pizza pizza = manager.trouverCommande(id);
+                    repondre(echange, pizza == null ? 404 : 200,
+                            pizza == null ? erreurJson("Commande introuvable") : commandeJson(pizza));
+                }
+                case "DELETE" -> annuler(echange, id);
+                default -> repondre(echange, 405, erreurJson("Méthode non supportée"));
+            }
+        } catch (IllegalArgumentException e) {
+            // Inclut NumberFormatException pour un identifiant mal formé
+            repondre(echange, 400, erreurJson(e.getMessage()));
+        } catch (IllegalStateException e) {
+            // Stock insuffisant : la commande entre en conflit avec l'inventaire
+            repondre(echange, 409, erreurJson(e.getMessage()));
+        } catch (RuntimeException e) {
+            repondre(echange, 500, erreurJson("Erreur interne"));
+        } finally {
+            echange.close();
+        }
+    }
+
+    private void creer(HttpExchange echange) throws IOException {
+        String type = parametre(echange.getRequestURI().getRawQuery(), "type");
+        if (type == null) {
+            try (InputStream corps = echange.getRequestBody()) {
+                type = new String(corps.readAllBytes(), StandardCharsets.UTF_8).trim();
+            }
+        }
+        Pizza pizza = factory.createPizza(type);
+        String cle = echange.getRequestHeaders().getFirst("Idempotency-Key");
+        ControleAdmission controle = admission;
+        if (controle != null) {
+            ControleAdmission.Decision decision = controle.admettre(cle, pizza);
+            if (!decision.isAdmise()) {
+                // Retry-After s'exprime en secondes entières
+                long secondes = (decision.reessayerApres().toMillis() + 999) / 1000;
+                echange.getResponseHeaders().set("Retry-After", String.valueOf(secondes));
+                repondre(echange, 503, erreurJson("Cuisine saturée, réessayer plus tard"));
+                return;
+            }
+            repondre(echange, decision.commande() == pizza ? 201 : 200, commandeJson(decision.commande()));
+            return;
+        }
+        if (cle == null) {
+            manager.ajouterCommande(pizza);
+            repondre(echange, 201, commandeJson(pizza));
+            return;
+        }
+        Pizza commande = manager.ajouterCommande(cle, pizza);
+        repondre(echange, commande == pizza ? 201 : 200, commandeJson(commande));
+    }
+
+    private void annuler(HttpExchange echange, long id) throws IOException {
+        Pizza pizza = manager.supprimerCommande(id);
+        if (pizza == null) {
+            repondre(echange, 404, erreurJson("Commande introuvable"));
+            return;
+        }
+        pizza.annuler();
+        repondre(echange, 200, commandeJson(pizza));
+    }
+
+    private static String parametre(String requete, String nom) {
+        if (requete == null) {
+            return null;
+        }
+        for (String paire : requete.split("&")) {
+            if (paire.startsWith(nom + "=")) {
+                return paire.substring(nom.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static void repondre(HttpExchange echange, int code, String json) throws IOException {
+        byte[] corps = json.getBytes(StandardCharsets.UTF_8);
+        echange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        echange.sendResponseHeaders(code, corps.length);
+        try (OutputStream sortie = echange.getResponseBody()) {
+            sortie.write(corps);
+        }
+    }
+
+    static String commandeJson(Pizza pizza) {
+        return ajouterCommandeJson(new StringBuilder(64), pizza).toString();
+    }
+
+    static String listeJson(List<Pizza> pizzas) {
+        StringBuilder json = new StringBuilder(pizzas.size() * 48 + 2).append('[');
+        for (int i = 0; i < pizzas.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            ajouterCommandeJson(json, pizzas.get(i));
+        }
+        return json.append(']').toString();
+    }
+
+    private static StringBuilder ajouterCommandeJson(StringBuilder json, Pizza pizza) {
+        return json.append("{\"id\":").append(pizza.getId())
+                .append(",\"type\":\"").append(PizzaFactory.typeDe(pizza))
+                .append("\",\"etat\":\"").append(pizza.getEtat()).append("\"}");
+    }
+
+    private static String erreurJson(String message) {
+        String echappe = message == null ? "" : message.replace("\\", "\\\\").replace("\"", "\\\"");
+        return "{\"erreur\":\"" + echappe + "\"}";
+    }
+
+    /**
+     * Point d'entrée du serveur.
+     * Avec un fichier d'image de démarrage, le carnet est rechargé depuis
+     * l'image si elle existe, les pizzas du menu sont créées avec les
+     * recettes de l'image, et l'image est réécrite à l'arrêt de la JVM.
+     * Active {@code sun.net.httpserver.nodelay} sauf si la propriété est
+     * déjà fixée sur la ligne de commande.
+     *
+     * @param args Port d'écoute (8080 par défaut), nombre de threads
+     *             (nombre de processeurs par défaut) et fichier d'image de
+     *             démarrage (aucun par défaut)
+     * @throws IOException si le port ne peut pas être ouvert ou si l'image
+     *                     est illisible
+     */
+    public static void main(String[] args) throws IOException {
+        // Sans TCP_NODELAY, l'en-tête et le corps des réponses partent en deux
+        // segments et l'algorithme de Nagle, combiné à l'acquittement différé du
+        // client, ajoute ~40 ms à chaque requête d'une connexion persistante.
+        // Le serveur du JDK ne lit la propriété qu'une fois, à son premier
+        // usage : elle doit être posée avant toute création de serveur.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        CommandeManager manager = CommandeManager.getInstance();
+        ImageDemarrage menu = null;
+        if (args.length > 2) {
+            Path image = Path.of(args[2]);
+            if (Files.exists(image)) {
+                long debut = System.nanoTime();
+                menu = ImageDemarrage.ouvrir(image);
+                long chargees = menu.charger(manager);
+                System.out.println(chargees + " commandes chargées depuis " + image + " en "
+                        + (System.nanoTime() - debut) / 1_000_000 + " ms");
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    ImageDemarrage.ecrire(manager, image);
+                } catch (IOException e) {
+                    System.err.println("Image de démarrage non écrite : " + e.getMessage());
+                }
+            }, "image-demarrage"));
+        }
+        ServeurCommandes serveur = new ServeurCommandes(manager, new PizzaFactory(menu),
+                new InetSocketAddress("localhost", port), threads);
+        serveur.demarrer();
+        System.out.println("Serveur de commandes à l'écoute sur http://localhost:" + serveur.getPort() + CHEMIN);
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.pizza;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Simulateur à événements discrets d'une cuisine, pour dimensionner un
+ * magasin avant son ouverture.
+ * Chaque commande traverse trois postes dans l'ordre (préparation, four,
+ * emballage), modélisés comme des files FIFO servies par un nombre donné de
+ * serveurs : préparateurs, fours et emballeurs. Les durées de chaque étape
+ * dépendent du type de pizza ({@link PizzaFactory#typeDe(Pizza)}).
+ * <p>
+ * Le temps est simulé, en millisecondes : une journée se rejoue en quelques
+ * millisecondes réelles. Plusieurs scénarios sont simulés en parallèle sur un
+ * {@link ForkJoinPool}, chacun sur son propre thread et sans état partagé.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class SimulateurCuisine {
+    private static final int PREPARATION = 0;
+    private static final int CUISSON = 1;
+    private static final int EMBALLAGE = 2;
+    private static final int NOMBRE_POSTES = 3;
+    private static final double MINUTE = 60_000.0;
+    private static final String[] NOMS_POSTES = { "préparation", "cuisson", "emballage" };
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Durées des étapes pour un type de pizza, en millisecondes.
+     *
+     * @param preparation La durée de préparation
+     * @param cuisson     La durée de cuisson
+     * @param emballage   La durée d'emballage
+     * @author Hilal Nawfel
+     * @version 1.0
+     */
+    public record DureesEtapes(long preparation, long cuisson, long emballage) {
+
+        /**
+         * Vérifie les durées.
+         *
+         * @throws IllegalArgumentException si une durée est négative
+         */
+        public DureesEtapes {
+            if (preparation < 0 || cuisson < 0 || emballage < 0) {
+                throw new IllegalArgumentException("Les durées ne peuvent pas être négatives");
+            }
+        }
+
+        private long duree(int poste) {
+            return switch (poste) {
+                case PREPARATION -> preparation;
+                case CUISSON -> cuisson;
+                default -> emballage;
+            };
+        }
+    }
+
+    /**
+     * Configuration d'une cuisine à simuler.
+     *
+     * @param nom            Le nom du scénario
+     * @param preparateurs   Le nombre de préparateurs
+     * @param fours          Le nombre de fours
+     * @param emballeurs     Le nombre d'emballeurs
+     * @param dureesParType  Les durées des étapes par type de pizza
+     * @author Hilal Nawfel
+     * @version 1.0
+     */
+    public record Scenario(String nom, int preparateurs, int fours, int emballeurs,
+            Map<String, DureesEtapes> dureesParType) {
+
+        /**
+         * Vérifie la configuration.
+         *
+         * @throws IllegalArgumentException si un poste n'a aucun serveur ou si
+         *                                  aucune durée n'est fournie
+         */
+        public Scenario {
+            if (preparateurs <= 0 || fours <= 0 || emballeurs <= 0) {
+                throw new IllegalArgumentException("Chaque poste doit avoir au moins un serveur");
+            }
+            if (dureesParType == null || dureesParType.isEmpty()) {
+                throw new IllegalArgumentException("Les durées par type sont requises");
+            }
+            dureesParType = Map.copyOf(dureesParType);
+        }
+
+        private int serveurs(int poste) {
+            return switch (poste) {
+                case PREPARATION -> preparateurs;
+                case CUISSON -> fours;
+                default -> emballeurs;
+            };
+        }
+
+        private DureesEtapes durees(String type) {
+            DureesEtapes durees = dureesParType.get(type);
+            if (durees == null) {
+                throw new IllegalArgumentException("Aucune durée pour le type de pizza: " + type);
+            }
+            return durees;
+        }
+    }
+
+    /**
+     * Commande du flux simulé.
+     *
+     * @param arrivee L'instant d'arrivée, en millisecondes
+     * @param type    Le type de pizza
+     * @author Hilal Nawfel
+     * @version 1.0
+     */
+    public record CommandeSimulee(long arrivee, String type) {
+    }
+
+    /**
+     * Résultat de la simulation d'un scénario.
+     *
+     * @param scenario       Le nom du scénario
+     * @param commandes      Le nombre de commandes traitées
+     * @param duree          L'instant de fin de la dernière commande, en ms
+     * @param latenceMoyenne La durée moyenne arrivée-emballage, en ms
+     * @param latenceP99     Le 99e percentile de cette durée, en ms
+     * @param utilisation    Le taux d'occupation de chaque poste (préparation,
+     *                       cuisson, emballage), entre 0 et 1
+     * @author Hilal Nawfel
+     * @version 1.0
+     */
+    public record Resultat(String scenario, int commandes, long duree, double latenceMoyenne,
+            long latenceP99, double[] utilisation) {
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%s : %d commandes en %.1f min, latence moyenne %.1f min, p99 %.1f min",
+                    scenario, commandes, duree / MINUTE, latenceMoyenne / MINUTE, latenceP99 / MINUTE));
+            for (int i = 0; i < NOMBRE_POSTES; i++) {
+                sb.append(String.format(", %s %.0f %%", NOMS_POSTES[i], utilisation[i] * 100));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Événement de la simulation : arrivée d'une commande, ou fin de son
+     * traitement à un poste.
+     */
+    private record Evenement(long instant, int commande, int poste, boolean fin) {
+    }
+
+    // À instant égal, les fins libèrent les serveurs avant les arrivées, les
+    // postes aval d'abord ; l'ordre des commandes départage le reste
+    private static final Comparator<Evenement> CHRONOLOGIE = Comparator.comparingLong(Evenement::instant)
+            .thenComparing(Evenement::fin, Comparator.reverseOrder())
+            .thenComparing(Evenement::poste, Comparator.reverseOrder())
+            .thenComparingInt(Evenement::commande);
+
+    /**
+     * Crée un simulateur utilisant le pool fork-join commun.
+     */
+    public SimulateurCuisine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crée un simulateur utilisant un pool donné.
+     *
+     * @param pool Le pool sur lequel les scénarios sont simulés
+     */
+    public SimulateurCuisine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Génère un flux synthétique de commandes, aux arrivées poissonniennes.
+     *
+     * @param nombre            Le nombre de commandes
+     * @param commandesParHeure Le débit moyen d'arrivée
+     * @param melange           Le poids relatif de chaque type de pizza
+     * @param graine            La graine du générateur pseudo-aléatoire
+     * @return Les commandes, par ordre d'arrivée
+     * @throws IllegalArgumentException si le débit n'est pas positif ou si le
+     *                                  mélange est vide
+     */
+    public static List<CommandeSimulee> genererFlux(int nombre, double commandesParHeure,
+            Map<String, Integer> melange, long graine) {
+        if (commandesParHeure <= 0 || melange == null || melange.isEmpty()) {
+            throw new IllegalArgumentException("Le débit doit être positif et le mélange non vide");
+        }
+        String[] types = melange.keySet().toArray(new String[0]);
+        int[] cumuls = new int[types.length];
+        int total = 0;
+        for (int i = 0; i < types.length; i++) {
+            total += melange.get(types[i]);
+            cumuls[i] = total;
+        }
+        SplittableRandom aleatoire = new SplittableRandom(graine);
+        double intervalleMoyen = 3_600_000.0 / commandesParHeure;
+        List<CommandeSimulee> flux = new ArrayList<>(nombre);
+        double instant = 0;
+        for (int n = 0; n < nombre; n++) {
+            instant += -intervalleMoyen * Math.log(1 - aleatoire.nextDouble());
+            int tirage = aleatoire.nextInt(total);
+            int i = 0;
+            while (cumuls[i] <= tirage) {
+                i++;
+            }
+            flux.add(new CommandeSimulee((long) instant, types[i]));
+        }
+        return flux;
+    }
+
+    /**
+     * Construit un flux à partir de commandes enregistrées. Les commandes
+     * horodatées par des {@link StatistiquesCommandes} sont rejouées à leurs
+     * instants relatifs ; les autres arrivent toutes à l'instant 0.
+     *
+     * @param pizzas Les commandes enregistrées
+     * @return Les commandes, par ordre d'arrivée
+     */
+    public static List<CommandeSimulee> depuisCommandes(List<? extends Pizza> pizzas) {
+        long origine = Long.MAX_VALUE;
+        for (Pizza pizza : pizzas) {
+            if (pizza.getInstantAjout() != 0) {
+                origine = Math.min(origine, pizza.getInstantAjout());
+            }
+        }
+        List<CommandeSimulee> flux = new ArrayList<>(pizzas.size());
+        for (Pizza pizza : pizzas) {
+            long ajout = pizza.getInstantAjout();
+            long arrivee = ajout == 0 ? 0 : (ajout - origine) / 1_000_000;
+            flux.add(new CommandeSimulee(arrivee, PizzaFactory.typeDe(pizza)));
+        }
+        flux.sort(Comparator.comparingLong(CommandeSimulee::arrivee));
+        return flux;
+    }
+
+    /**
+     * Simule plusieurs scénarios en parallèle sur le même flux.
+     *
+     * @param scenarios Les scénarios à comparer
+     * @param flux      Les commandes à rejouer
+     * @return Les résultats, dans l'ordre des scénarios
+     */
+    public List<Resultat> simuler(List<Scenario> scenarios, List<CommandeSimulee> flux) {
+        return pool.submit(() -> scenarios.parallelStream()
+                .map(scenario -> simuler(scenario, flux))
+                .toList()).join();
+    }
+
+    /**
+     * Simule un scénario.
+     *
+     * @param scenario Le scénario
+     * @param flux     Les commandes à rejouer
+     * @return Le résultat de la simulation
+     * @throws IllegalArgumentException si le scénario n'a pas de durée pour un
+     *                                  type du flux
+     */
+    public static Resultat simuler(Scenario scenario, List<CommandeSimulee> flux) {
+        int nombre = flux.size();
+        DureesEtapes[] durees = new DureesEtapes[nombre];
+        for (int i = 0; i < nombre; i++) {
+            durees[i] = scenario.durees(flux.get(i).type());
+        }
+        int[] libres = new int[NOMBRE_POSTES];
+        long[] occupation = new long[NOMBRE_POSTES];
+        List<ArrayDeque<Integer>> files = new ArrayList<>(NOMBRE_POSTES);
+        for (int poste = 0; poste < NOMBRE_POSTES; poste++) {
+            libres[poste] = scenario.serveurs(poste);
+            files.add(new ArrayDeque<>());
+        }
+        PriorityQueue<Evenement> echeancier = new PriorityQueue<>(Math.max(1, nombre), CHRONOLOGIE);
+        for (int i = 0; i < nombre; i++) {
+            echeancier.add(new Evenement(flux.get(i).arrivee(), i, PREPARATION, false));
+        }
+
+        HistogrammeLatence latences = new HistogrammeLatence();
+        long fin = 0;
+        while (!echeancier.isEmpty()) {
+            Evenement evenement = echeancier.poll();
+            long maintenant = evenement.instant();
+            int poste = evenement.poste();
+            if (evenement.fin()) {
+                libres[poste]++;
+                if (poste == EMBALLAGE) {
+                    latences.enregistrer(maintenant - flux.get(evenement.commande()).arrivee());
+                    fin = maintenant;
+                } else {
+                    files.get(poste + 1).add(evenement.commande());
+                    demarrer(poste + 1, maintenant, libres, files, durees, occupation, echeancier);
+                }
+            } else {
+                files.get(poste).add(evenement.commande());
+            }
+            demarrer(poste, maintenant, libres, files, durees, occupation, echeancier);
+        }
+
+        double[] utilisation = new double[NOMBRE_POSTES];
+        for (int poste = 0; poste < NOMBRE_POSTES; poste++) {
+            utilisation[poste] = fin == 0 ? 0 : (double) occupation[poste] / (fin * scenario.serveurs(poste));
+        }
+        return new Resultat(scenario.nom(), nombre, fin, latences.getMoyenne(), latences.percentile(99),
+                utilisation);
+    }
+
+    /**
+     * Affecte les serveurs libres d'un poste aux commandes en attente.
+     */
+    private static void demarrer(int poste, long maintenant, int[] libres, List<ArrayDeque<Integer>> files,
+            DureesEtapes[] durees, long[] occupation, PriorityQueue<Evenement> echeancier) {
+        ArrayDeque<Integer> file = files.get(poste);
+        while (libres[poste] > 0 && !file.isEmpty()) {
+            int commande = file.poll();
+            long duree = durees[commande].duree(poste);
+            libres[poste]--;
+            occupation[poste] += duree;
+            echeancier.add(new Evenement(maintenant + duree, commande, poste, true));
+        }
+    }
+
+    /**
+     * Compare des cuisines de 12 à 24 places de four sur un flux synthétique.
+     *
+     * @param args Nombre de commandes et débit horaire (optionnels)
+     */
+    public static void main(String[] args) {
+        int nombre = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        double debit = args.length > 1 ? Double.parseDouble(args[1]) : 120;
+        Map<String, DureesEtapes> durees = new LinkedHashMap<>();
+        durees.put("fromage", new DureesEtapes(120_000, 480_000, 30_000));
+        durees.put("vegetarienne", new DureesEtapes(180_000, 540_000, 30_000));
+        Map<String, Integer> melange = new LinkedHashMap<>();
+        melange.put("fromage", 2);
+        melange.put("vegetarienne", 1);
+        List<CommandeSimulee> flux = genererFlux(nombre, debit, melange, 42);
+        List<Scenario> scenarios = new ArrayList<>();
+        for (int fours = 12; fours <= 24; fours += 4) {
+            scenarios.add(new Scenario(fours + " fours", 6, fours, 2, durees));
+        }
+        long debut = System.nanoTime();
+        List<Resultat> resultats = new SimulateurCuisine().simuler(scenarios, flux);
+        long ecoule = (System.nanoTime() - debut) / 1_000_000;
+        for (Resultat resultat : resultats) {
+            System.out.println(resultat);
+        }
+        System.out.println(scenarios.size() + " scénarios de " + nombre + " commandes simulés en " + ecoule + " ms");
+    }
+}
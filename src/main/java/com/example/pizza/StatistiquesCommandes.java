@@ -0,0 +1,148 @@
+package com.example.pizza;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Statistiques glissantes de débit et de latence des commandes.
+ * Alimentées par {@link CommandeManager#ajouterCommande(Pizza)}, qui horodate
+ * chaque commande, et par la transition vers {@link EtatCommande#EMBALLEE}
+ * déclenchée par {@link Pizza#emballer()}. Chaque {@link Fenetre} est une
+ * {@link SerieTemporelle} : l'enregistrement et la lecture se font sans
+ * verrou, en un nombre d'opérations borné par le nombre de seaux.
+ * <p>
+ * Seules les commandes ajoutées à un gestionnaire branché sur ces statistiques
+ * sont horodatées, et seules celles qui sont encore au carnet d'un de ces
+ * gestionnaires sont comptées à l'emballage : l'écouteur des transitions est
+ * global, et l'horodatage d'une pizza emballée ailleurs, par un autre
+ * gestionnaire et avec une autre horloge, n'est pas mélangé à ces mesures.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class StatistiquesCommandes implements EcouteurTransitions {
+    private static final long SECONDE = 1_000_000_000L;
+
+    /**
+     * Fenêtres d'observation disponibles.
+     */
+    public enum Fenetre {
+        /** Les 5 dernières minutes, par seaux de 5 secondes. */
+        CINQ_MINUTES(60, 5 * SECONDE),
+        /** La dernière heure, par seaux d'une minute. */
+        HEURE(60, 60 * SECONDE),
+        /** Le dernier jour, par seaux de 15 minutes. */
+        JOUR(96, 15 * 60 * SECONDE);
+
+        private final int nombreSeaux;
+        private final long dureeSeau;
+
+        Fenetre(int nombreSeaux, long dureeSeau) {
+            this.nombreSeaux = nombreSeaux;
+            this.dureeSeau = dureeSeau;
+        }
+    }
+
+    private final LongSupplier horloge;
+    private final Map<Fenetre, SerieTemporelle> series = new EnumMap<>(Fenetre.class);
+    private final SerieTemporelle[] toutesSeries;
+    // Gestionnaires branchés sur ces statistiques
+    private final CopyOnWriteArrayList<CommandeManager> managers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Crée des statistiques mesurées avec {@link System#nanoTime()}.
+     */
+    public StatistiquesCommandes() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Crée des statistiques mesurées avec une horloge donnée.
+     *
+     * @param horloge L'horloge, en nanosecondes
+     */
+    public StatistiquesCommandes(LongSupplier horloge) {
+        this.horloge = horloge;
+        for (Fenetre fenetre : Fenetre.values()) {
+            series.put(fenetre, new SerieTemporelle(fenetre.nombreSeaux, fenetre.dureeSeau));
+        }
+        this.toutesSeries = series.values().toArray(new SerieTemporelle[0]);
+    }
+
+    /**
+     * Branche ces statistiques sur un gestionnaire : ses ajouts sont horodatés
+     * et les emballages de ses pizzas sont comptés.
+     *
+     * @param manager Le gestionnaire observé
+     */
+    public void brancher(CommandeManager manager) {
+        manager.setStatistiques(this);
+        managers.addIfAbsent(manager);
+        Pizza.retirerEcouteur(this);
+        Pizza.ajouterEcouteur(this);
+    }
+
+    /**
+     * Débranche ces statistiques d'un gestionnaire, et des transitions
+     * lorsqu'il était le dernier observé.
+     *
+     * @param manager Le gestionnaire observé
+     */
+    public void debrancher(CommandeManager manager) {
+        manager.setStatistiques(null);
+        managers.remove(manager);
+        if (managers.isEmpty()) {
+            Pizza.retirerEcouteur(this);
+        }
+    }
+
+    /**
+     * Horodate et compte l'ajout d'une commande.
+     *
+     * @param pizza La commande ajoutée
+     */
+    void enregistrerAjout(Pizza pizza) {
+        long instant = horloge.getAsLong();
+        pizza.setInstantAjout(instant);
+        for (SerieTemporelle serie : toutesSeries) {
+            serie.enregistrerAjout(instant);
+        }
+    }
+
+    @Override
+    public void transition(Pizza pizza, EtatCommande ancien, EtatCommande nouveau) {
+        long ajout = pizza.getInstantAjout();
+        if (nouveau != EtatCommande.EMBALLEE || ajout == 0 || !estObservee(pizza)) {
+            return;
+        }
+        long instant = horloge.getAsLong();
+        for (SerieTemporelle serie : toutesSeries) {
+            serie.enregistrerEmballage(instant, instant - ajout);
+        }
+    }
+
+    /**
+     * Indique si la pizza est au carnet d'un gestionnaire observé, et donc
+     * horodatée par ces statistiques.
+     */
+    private boolean estObservee(Pizza pizza) {
+        for (CommandeManager manager : managers) {
+            if (manager.trouverCommande(pizza.getId()) == pizza) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retourne le bilan d'une fenêtre se terminant maintenant.
+     *
+     * @param fenetre La fenêtre observée
+     * @return Le débit et les latences de la fenêtre
+     */
+    public SerieTemporelle.Bilan bilan(Fenetre fenetre) {
+        return series.get(fenetre).bilan(horloge.getAsLong());
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.pizza;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Suiveur de la réplication d'un carnet de commandes.
+ * Le suiveur tient un {@link CommandeManager} local, alimenté par le flux d'un
+ * {@link LeaderReplication}, qui sert les lectures ({@code getCommandes},
+ * {@code trouverCommande}...) sans solliciter le leader. Les commandes y sont
+ * recréées avec l'identifiant, la classe, la recette et l'état qu'elles
+ * avaient chez le leader lors de leur ajout ; les transitions d'état
+ * ultérieures ne sont pas répliquées.
+ * <p>
+ * Les membres de la grappe sont ordonnés : le rang 0 est le leader initial,
+ * les rangs suivants fixent l'ordre de succession. Lorsque la connexion au
+ * leader suivi est perdue (fermée, par exemple parce que le suiveur était trop
+ * lent, ou aucun battement de cœur pendant {@link #DELAI_SILENCE}), le suiveur
+ * se reconnecte d'abord à ce même leader, qui lui envoie un instantané complet
+ * pour le resynchroniser. Seul un leader injoignable pendant
+ * {@link #DELAI_BASCULE} est considéré comme perdu : le suiveur passe alors au
+ * rang suivant ; s'il s'agit de son propre rang, il devient leader sur son
+ * adresse, sinon il suit ce nouveau leader de la même façon. La bascule ne
+ * repose sur aucun consensus : elle suppose qu'un leader perdu est arrêté, et
+ * non simplement isolé.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public class SuiveurReplication {
+    /**
+     * Durée sans trame au-delà de laquelle le leader est considéré comme perdu.
+     */
+    public static final Duration DELAI_SILENCE = LeaderReplication.BATTEMENT.multipliedBy(5);
+
+    /**
+     * Durée pendant laquelle un leader injoignable est réessayé avant de
+     * passer au rang suivant.
+     */
+    public static final Duration DELAI_BASCULE = Duration.ofSeconds(3);
+
+    private static final long PAUSE_RECONNEXION_MS = 20;
+
+    private final List<InetSocketAddress> grappe;
+    private final int rang;
+    private final CommandeManager manager = new CommandeManager();
+    private volatile boolean actif;
+    private volatile int rangLeader;
+    private volatile long sequenceAppliquee;
+    private volatile LeaderReplication promotion;
+    private volatile Socket connexion;
+    // Perte d'une connexion établie avec le leader suivi, ou passage au rang
+    // courant : le leader est réessayé jusqu'à DELAI_BASCULE après cet instant.
+    // Un pair qui accepte la connexion sans se présenter ne le prolonge pas.
+    private long dernierContact;
+    private Thread thread;
+
+    /**
+     * Crée un suiveur, sans le démarrer.
+     *
+     * @param grappe Les adresses des membres, dans l'ordre de succession (le
+     *               premier est le leader initial)
+     * @param rang   Le rang de ce suiveur dans la grappe (au moins 1)
+     * @throws IllegalArgumentException si le rang n'est pas celui d'un suiveur
+     *                                  de la grappe
+     */
+    public SuiveurReplication(List<InetSocketAddress> grappe, int rang) {
+        if (rang < 1 || rang >= grappe.size()) {
+            throw new IllegalArgumentException("Rang de suiveur invalide: " + rang);
+        }
+        this.grappe = List.copyOf(grappe);
+        this.rang = rang;
+    }
+
+    /**
+     * Démarre le suivi du leader initial.
+     */
+    public void demarrer() {
+        actif = true;
+        thread = new Thread(this::suivre, "replication-suiveur-" + rang);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Arrête le suiveur, ou le leader qu'il est devenu.
+     */
+    public void arreter() {
+        actif = false;
+        fermerConnexion();
+        if (thread != null) {
+            thread.interrupt();
+        }
+        LeaderReplication leader = promotion;
+        if (leader != null) {
+            leader.arreter();
+        }
+    }
+
+    /**
+     * Retourne le gestionnaire local, répliqué depuis le leader.
+     *
+     * @return Le gestionnaire servant les lectures
+     */
+    public CommandeManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Indique si ce suiveur est devenu leader.
+     *
+     * @return true après une promotion
+     */
+    public boolean isLeader() {
+        return promotion != null;
+    }
+
+    /**
+     * Retourne le leader qu'est devenu ce suiveur.
+     *
+     * @return Le leader, ou null sans promotion
+     */
+    public LeaderReplication getLeader() {
+        return promotion;
+    }
+
+    /**
+     * Retourne le rang du leader suivi.
+     *
+     * @return Le rang dans la grappe
+     */
+    public int getRangLeader() {
+        return rangLeader;
+    }
+
+    /**
+     * Retourne le numéro de séquence de la dernière modification appliquée.
+     *
+     * @return Le numéro de séquence chez le leader suivi
+     */
+    public long getSequenceAppliquee() {
+        return sequenceAppliquee;
+    }
+
+    private void suivre() {
+        int cible = 0;
+        dernierContact = System.nanoTime();
+        while (actif) {
+            if (cible == rang) {
+                promouvoir();
+                return;
+            }
+            rangLeader = cible;
+            Socket socket = connecter(grappe.get(cible), dernierContact + DELAI_BASCULE.toNanos());
+            if (socket == null) {
+                // Leader injoignable pendant DELAI_BASCULE : rang suivant
+                cible++;
+                dernierContact = System.nanoTime();
+                continue;
+            }
+            long tentative = System.nanoTime();
+            try {
+                repliquer(socket);
+            } catch (IOException e) {
+                // Connexion perdue : le même leader est réessayé
+            } finally {
+                fermerConnexion();
+            }
+            if (dernierContact - tentative >= 0) {
+                // Le leader a répondu : le délai court à partir de la perte
+                dernierContact = System.nanoTime();
+            }
+        }
+    }
+
+    private Socket connecter(InetSocketAddress adresse, long limite) {
+        while (actif && System.nanoTime() - limite < 0) {
+            Socket socket = new Socket();
+            try {
+                socket.connect(adresse, (int) DELAI_SILENCE.toMillis());
+                connexion = socket;
+                return socket;
+            } catch (IOException e) {
+                fermer(socket);
+                try {
+                    Thread.sleep(PAUSE_RECONNEXION_MS);
+                } catch (InterruptedException interruption) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void repliquer(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout((int) DELAI_SILENCE.toMillis());
+        DataInputStream entree = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+        DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        if (entree.readInt() != ProtocoleReplication.MAGIQUE) {
+            throw new IOException("Le pair n'est pas un leader de réplication");
+        }
+        dernierContact = System.nanoTime();
+        // Numérotation propre au leader suivi, reprise par son instantané
+        sequenceAppliquee = 0;
+        Set<Long> instantane = new HashSet<>();
+        while (actif) {
+            int operations = entree.readInt();
+            for (int i = 0; i < operations; i++) {
+                appliquer(ProtocoleReplication.lire(entree), instantane);
+            }
+            sortie.writeLong(sequenceAppliquee);
+            sortie.flush();
+        }
+    }
+
+    private void appliquer(ProtocoleReplication.Operation operation, Set<Long> instantane) {
+        switch (operation.type()) {
+            case ProtocoleReplication.INSTANTANE -> {
+                instantane.add(operation.id());
+                if (manager.trouverCommande(operation.id()) == null) {
+                    manager.ajouterCommande(operation.pizza());
+                }
+            }
+            case ProtocoleReplication.FIN_INSTANTANE -> {
+                // Commandes retirées chez le leader pendant que ce suiveur ne le suivait pas
+                List<Long> absentes = new ArrayList<>();
+                manager.parcourirCommandes(pizza -> {
+                    if (!instantane.contains(pizza.getId())) {
+                        absentes.add(pizza.getId());
+                    }
+                });
+                for (Long id : absentes) {
+                    manager.supprimerCommande(id);
+                }
+                instantane.clear();
+            }
+            case ProtocoleReplication.AJOUT -> {
+                if (manager.trouverCommande(operation.id()) == null) {
+                    manager.ajouterCommande(operation.pizza());
+                }
+            }
+            case ProtocoleReplication.SUPPRESSION -> manager.supprimerCommande(operation.id());
+            default -> manager.viderCommandes();
+        }
+        // Une modification renvoyée après l'instantané qui la reflétait ne fait
+        // pas reculer le numéro acquitté
+        if (operation.sequence() > sequenceAppliquee) {
+            sequenceAppliquee = operation.sequence();
+        }
+    }
+
+    private void promouvoir() {
+        try {
+            LeaderReplication leader = new LeaderReplication(manager, grappe.get(rang));
+            leader.demarrer();
+            rangLeader = rang;
+            promotion = leader;
+            if (!actif) {
+                leader.arreter();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Promotion impossible sur " + grappe.get(rang), e);
+        }
+    }
+
+    private void fermerConnexion() {
+        Socket socket = connexion;
+        connexion = null;
+        if (socket != null) {
+            fermer(socket);
+        }
+    }
+
+    private static void fermer(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Déjà fermée
+        }
+    }
+
+    /**
+     * Lance un suiveur sur la boucle locale, pour éprouver la réplication
+     * entre plusieurs JVM. La commande {@code commandes} sur l'entrée standard
+     * affiche le rang du leader suivi et le nombre de commandes répliquées.
+     *
+     * @param args Le rang de ce suiveur, puis les ports des membres de la
+     *             grappe dans l'ordre de succession
+     * @throws IOException si l'entrée standard ne peut pas être lue
+     */
+    public static void main(String[] args) throws IOException {
+        List<InetSocketAddress> grappe = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            grappe.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[i])));
+        }
+        SuiveurReplication suiveur = new SuiveurReplication(grappe, Integer.parseInt(args[0]));
+        suiveur.demarrer();
+        BufferedReader entree = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String ligne;
+        while ((ligne = entree.readLine()) != null) {
+            if (ligne.trim().equals("commandes")) {
+                System.out.println(suiveur.getRangLeader() + " " + suiveur.getManager().getNombreCommandes());
+            }
+        }
+        suiveur.arreter();
+    }
+}
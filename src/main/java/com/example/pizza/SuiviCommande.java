@@ -0,0 +1,162 @@
+package com.example.pizza;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suivi asynchrone d'une commande soumise par
+ * {@link CommandeManager#soumettre(Pizza)}.
+ * Chaque étape de cuisine est représentée par un {@link CompletableFuture}
+ * complété avec la pizza lorsque la commande l'atteint : {@link #getPreparation()}
+ * à l'appel de {@link Pizza#preparer()}, {@link #getCuisson()} à
+ * {@link Pizza#cuire()} et {@link #getEmballage()} à {@link Pizza#emballer()}.
+ * Les étapes se composent avec les opérations habituelles des
+ * {@code CompletableFuture} ({@code thenApply}, {@code thenCombine},
+ * {@code allOf}...).
+ * <p>
+ * L'annulation se propage dans les deux sens. Une commande annulée ou retirée
+ * du carnet échoue toutes ses étapes restantes avec une
+ * {@link CancellationException}. Inversement, si le client annule une étape
+ * ({@code cancel}), ou si elle échoue par l'expiration d'un délai
+ * ({@link #avecDelai(Duration)}, {@code orTimeout}), la commande est retirée
+ * du carnet et annulée, et les autres étapes échouent avec la même cause. Comme
+ * pour tout {@code CompletableFuture}, l'annulation d'une étape dérivée
+ * ({@code thenApply}...) ne remonte pas jusqu'à la commande.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+public final class SuiviCommande {
+    private final Pizza pizza;
+    private final CommandeManager manager;
+    private final CompletableFuture<Pizza> preparation = new CompletableFuture<>();
+    private final CompletableFuture<Pizza> cuisson = new CompletableFuture<>();
+    private final CompletableFuture<Pizza> emballage = new CompletableFuture<>();
+    // Vrai dès que l'échec des étapes est décidé, par la commande ou par le client
+    private volatile boolean clos;
+
+    /**
+     * Crée le suivi d'une commande du gestionnaire donné.
+     */
+    SuiviCommande(Pizza pizza, CommandeManager manager) {
+        this.pizza = pizza;
+        this.manager = manager;
+        preparation.whenComplete((resultat, erreur) -> propager(erreur));
+        cuisson.whenComplete((resultat, erreur) -> propager(erreur));
+        emballage.whenComplete((resultat, erreur) -> propager(erreur));
+    }
+
+    /**
+     * Retourne la commande suivie.
+     *
+     * @return La pizza
+     */
+    public Pizza getPizza() {
+        return pizza;
+    }
+
+    /**
+     * Retourne l'étape de préparation.
+     *
+     * @return Le futur complété lorsque la préparation commence
+     */
+    public CompletableFuture<Pizza> getPreparation() {
+        return preparation;
+    }
+
+    /**
+     * Retourne l'étape de cuisson.
+     *
+     * @return Le futur complété lorsque la cuisson commence
+     */
+    public CompletableFuture<Pizza> getCuisson() {
+        return cuisson;
+    }
+
+    /**
+     * Retourne l'étape d'emballage, fin du parcours en cuisine.
+     *
+     * @return Le futur complété lorsque la pizza est emballée
+     */
+    public CompletableFuture<Pizza> getEmballage() {
+        return emballage;
+    }
+
+    /**
+     * Fixe le délai dans lequel la commande doit être emballée ; au-delà, elle
+     * est retirée du carnet et annulée, et ses étapes restantes échouent avec
+     * une {@link java.util.concurrent.TimeoutException}.
+     *
+     * @param delai Le délai à compter de cet appel
+     * @return Ce suivi, pour le chaînage
+     */
+    public SuiviCommande avecDelai(Duration delai) {
+        emballage.orTimeout(delai.toNanos(), TimeUnit.NANOSECONDS);
+        return this;
+    }
+
+    /**
+     * Annule la commande à la demande du client.
+     *
+     * @return true si l'emballage n'avait pas encore eu lieu
+     */
+    public boolean annuler() {
+        return emballage.cancel(false);
+    }
+
+    /**
+     * Complète les étapes atteintes par la commande.
+     */
+    void avancer(EtatCommande etat) {
+        if (etat == EtatCommande.ANNULEE) {
+            echouer(new CancellationException("Commande " + pizza.getId() + " annulée"));
+            return;
+        }
+        if (etat.ordinal() >= EtatCommande.EN_PREPARATION.ordinal()) {
+            preparation.complete(pizza);
+        }
+        if (etat.ordinal() >= EtatCommande.EN_CUISSON.ordinal()) {
+            cuisson.complete(pizza);
+        }
+        if (etat.ordinal() >= EtatCommande.EMBALLEE.ordinal()) {
+            emballage.complete(pizza);
+        }
+    }
+
+    /**
+     * Fait échouer les étapes que la commande n'a pas atteintes, parce que la
+     * commande a été annulée ou retirée du carnet.
+     */
+    void echouer(Throwable cause) {
+        clos = true;
+        echouerEtapes(cause);
+    }
+
+    private void echouerEtapes(Throwable cause) {
+        preparation.completeExceptionally(cause);
+        cuisson.completeExceptionally(cause);
+        emballage.completeExceptionally(cause);
+    }
+
+    /**
+     * Propage l'échec d'une étape (annulation par le client, délai dépassé)
+     * à la commande et aux autres étapes.
+     */
+    private void propager(Throwable erreur) {
+        if (erreur == null || clos) {
+            return;
+        }
+        clos = true;
+        Throwable cause = erreur instanceof CompletionException && erreur.getCause() != null ? erreur.getCause()
+                : erreur;
+        echouerEtapes(cause);
+        // Retrait avant annulation : le stock d'une commande non préparée est restitué
+        if (manager.trouverCommande(pizza.getId()) == pizza) {
+            manager.supprimerCommande(pizza);
+        }
+        pizza.annuler();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.pizza;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registre des {@link SuiviCommande} d'un gestionnaire, créé à la première
+ * soumission. Il complète les étapes d'après les transitions des pizzas, et
+ * fait échouer le suivi des commandes retirées du carnet sans avoir été
+ * emballées, connues par le flux du gestionnaire. Une commande n'est plus
+ * suivie dès qu'elle est emballée ou que son suivi a échoué.
+ * <p>
+ * Le registre n'est abonné aux transitions de toutes les pizzas et au flux du
+ * gestionnaire que tant qu'il suit au moins une commande : il se désabonne
+ * avec la dernière, si bien qu'un gestionnaire sans commande suivie n'est
+ * plus retenu par la liste globale des écouteurs de {@link Pizza}, ni
+ * parcouru à chaque transition.
+ *
+ * @author Hilal Nawfel
+ * @version 1.0
+ */
+final class SuiviCommandes implements EcouteurTransitions, Flow.Subscriber<List<EvenementCommande>> {
+    private final CommandeManager manager;
+    private final ConcurrentHashMap<Pizza, SuiviCommande> suivis = new ConcurrentHashMap<>();
+    // Protège l'abonnement et le désabonnement du registre
+    private final ReentrantLock verrou = new ReentrantLock();
+    private boolean abonne;
+    private Flow.Subscription abonnement;
+
+    SuiviCommandes(CommandeManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Commence le suivi d'une commande déjà ajoutée au carnet. Une transition
+     * ou un retrait survenus avant l'abonnement du registre sont rattrapés ici.
+     */
+    SuiviCommande suivre(Pizza pizza) {
+        SuiviCommande suivi = new SuiviCommande(pizza, manager);
+        SuiviCommande existant = suivis.putIfAbsent(pizza, suivi);
+        if (existant != null) {
+            return existant;
+        }
+        abonner();
+        // La commande a pu évoluer, ou quitter le carnet, avant d'être suivie
+        EtatCommande etat = pizza.getEtat();
+        if (etat != EtatCommande.RECUE) {
+            transition(pizza, EtatCommande.RECUE, etat);
+        }
+        retirer(pizza);
+        return suivi;
+    }
+
+    private void abonner() {
+        verrou.lock();
+        try {
+            if (abonne) {
+                return;
+            }
+            abonne = true;
+            Pizza.ajouterEcouteur(this);
+        } finally {
+            verrou.unlock();
+        }
+        manager.getFlux().subscribe(this);
+    }
+
+    /**
+     * Désabonne le registre s'il ne suit plus aucune commande. Une commande
+     * suivie entre-temps le réabonne aussitôt.
+     */
+    private void desabonnerSiVide() {
+        if (!suivis.isEmpty()) {
+            return;
+        }
+        Flow.Subscription courant;
+        verrou.lock();
+        try {
+            if (!abonne || !suivis.isEmpty()) {
+                return;
+            }
+            abonne = false;
+            Pizza.retirerEcouteur(this);
+            courant = abonnement;
+            abonnement = null;
+        } finally {
+            verrou.unlock();
+        }
+        if (courant != null) {
+            courant.cancel();
+        }
+    }
+
+    @Override
+    public void transition(Pizza pizza, EtatCommande ancien, EtatCommande nouveau) {
+        SuiviCommande suivi = suivis.get(pizza);
+        if (suivi == null) {
+            return;
+        }
+        if (nouveau.ordinal() >= EtatCommande.EMBALLEE.ordinal() && suivis.remove(pizza, suivi)) {
+            desabonnerSiVide();
+        }
+        suivi.avancer(nouveau);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        boolean actif;
+        verrou.lock();
+        try {
+            actif = abonne && abonnement == null;
+            if (actif) {
+                abonnement = subscription;
+            }
+        } finally {
+            verrou.unlock();
+        }
+        if (actif) {
+            subscription.request(Long.MAX_VALUE);
+        } else {
+            // Registre désabonné entre-temps, ou déjà abonné
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public void onNext(List<EvenementCommande> evenements) {
+        for (EvenementCommande evenement : evenements) {
+            if (evenement.type() == EvenementCommande.Type.SUPPRESSION) {
+                retirer(evenement.pizza());
+            } else if (evenement.type() == EvenementCommande.Type.VIDAGE) {
+                retirerAbsentes();
+            }
+        }
+    }
+
+    private void retirer(Pizza pizza) {
+        // Une commande retirée puis aussitôt rajoutée reste suivie
+        if (manager.trouverCommande(pizza.getId()) == pizza) {
+            return;
+        }
+        SuiviCommande suivi = suivis.remove(pizza);
+        if (suivi != null) {
+            desabonnerSiVide();
+            suivi.echouer(new CancellationException("Commande " + pizza.getId() + " retirée du carnet"));
+        }
+    }
+
+    private void retirerAbsentes() {
+        for (Pizza pizza : suivis.keySet()) {
+            retirer(pizza);
+        }
+    }
+
+    /**
+     * Appelé si le flux a débordé : le registre se réabonne et fait échouer le
+     * suivi des commandes qui ne sont plus au carnet.
+     */
+    @Override
+    public void onError(Throwable erreur) {
+        boolean actif;
+        verrou.lock();
+        try {
+            abonnement = null;
+            actif = abonne;
+        } finally {
+            verrou.unlock();
+        }
+        if (actif) {
+            manager.getFlux().subscribe(this);
+        }
+        retirerAbsentes();
+    }
+
+    @Override
+    public void onComplete() {
+        // Le flux d'un gestionnaire ne se termine pas
+    }
+}
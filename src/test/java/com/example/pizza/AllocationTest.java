@@ -0,0 +1,199 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests de régression d'allocation mémoire.
+ * Mesure le nombre d'octets alloués par opération sur les chemins critiques
+ * (factory, builder, gestionnaire) avec
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}, et
+ * échoue si une modification dépasse le budget fixé pour l'opération.
+ * <p>
+ * Les budgets valent les mesures du code interprété (pires que celles du code
+ * compilé, qui élimine certaines allocations) avec une marge d'environ 50 %,
+ * pour des références compressées (tas de moins de 32 Go). Ils ne dépendent
+ * donc pas du JIT, mais détectent une copie ou un objet intermédiaire ajouté.
+ */
+class AllocationTest {
+
+    private static final int ECHAUFFEMENT = 20_000;
+    private static final int ITERATIONS = 20_000;
+    private static final int TAILLE_CARNET = 100;
+
+    // Octets alloués par opération
+    private static final long BUDGET_FACTORY = 160;
+    private static final long BUDGET_BUILDER = 160;
+    private static final long BUDGET_AJOUT_SUPPRESSION = 128;
+    private static final long BUDGET_LECTURES = 32;
+    private static final long BUDGET_GET_COMMANDES = 704;
+    private static final long BUDGET_GET_GARNITURES = 80;
+    private static final long BUDGET_PARCOURS = 1_840;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    /**
+     * Classe de test interne pour le builder.
+     */
+    private static class TestPizza extends Pizza {
+        @Override
+        public void preparer() {
+        }
+
+        @Override
+        public void cuire() {
+        }
+
+        @Override
+        public void emballer() {
+        }
+    }
+
+    /**
+     * Ignore la suite si la JVM ne mesure pas l'allocation par thread.
+     */
+    @BeforeAll
+    static void verifierSupport() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Mesure d'allocation par thread indisponible sur cette JVM");
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+                "Mesure d'allocation par thread désactivée");
+    }
+
+    /**
+     * Exécute l'opération après échauffement et retourne le nombre moyen
+     * d'octets alloués par exécution sur le thread courant.
+     */
+    private static long octetsParOperation(Runnable operation) {
+        for (int i = 0; i < ECHAUFFEMENT; i++) {
+            operation.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long avant = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        long apres = threads.getThreadAllocatedBytes(thread);
+        return (apres - avant) / ITERATIONS;
+    }
+
+    private static void verifierBudget(String operation, long budget, long mesure) {
+        assertTrue(mesure <= budget,
+                operation + " : " + mesure + " octets alloués par opération, budget " + budget);
+    }
+
+    /**
+     * Test l'allocation de la création d'une pizza par la factory : la pizza
+     * et son builder, la recette venant du cache.
+     */
+    @Test
+    @DisplayName("Allocation de PizzaFactory.createPizza")
+    void testAllocationFactory() {
+        PizzaFactory factory = new PizzaFactory();
+
+        long mesure = octetsParOperation(() -> factory.createPizza("fromage"));
+
+        verifierBudget("createPizza", BUDGET_FACTORY, mesure);
+    }
+
+    /**
+     * Test l'allocation d'une construction par le builder.
+     */
+    @Test
+    @DisplayName("Allocation de PizzaBuilder.build")
+    void testAllocationBuilder() {
+        long mesure = octetsParOperation(() -> new Pizza.PizzaBuilder(new TestPizza())
+                .pateEpaisse()
+                .sauceBBQ()
+                .avecFromage()
+                .ajouterJambon()
+                .ajouterOlives()
+                .build());
+
+        verifierBudget("PizzaBuilder.build", BUDGET_BUILDER, mesure);
+    }
+
+    /**
+     * Test l'allocation de l'ajout puis du retrait d'une commande : une entrée
+     * de table et la clé boxée, sans copie du carnet. La table à liste à
+     * enjambements alloue en plus, selon le tirage, un nœud d'index à l'ajout,
+     * et un marqueur au retrait.
+     */
+    @Test
+    @DisplayName("Allocation de ajouterCommande / supprimerCommande")
+    void testAllocationAjoutSuppression() {
+        CommandeManager manager = new CommandeManager();
+        Pizza pizza = new PizzaFromage();
+
+        long mesure = octetsParOperation(() -> {
+            manager.ajouterCommande(pizza);
+            manager.supprimerCommande(pizza);
+        });
+
+        verifierBudget("ajouterCommande + supprimerCommande", BUDGET_AJOUT_SUPPRESSION, mesure);
+    }
+
+    /**
+     * Test que les lectures sans copie du gestionnaire n'allouent presque rien.
+     */
+    @Test
+    @DisplayName("Allocation de trouverCommande / getNombreCommandes")
+    void testAllocationLectures() {
+        CommandeManager manager = new CommandeManager();
+        Pizza pizza = new PizzaFromage();
+        manager.ajouterCommande(pizza);
+        long id = pizza.getId();
+
+        long mesure = octetsParOperation(() -> {
+            manager.trouverCommande(id);
+            manager.getNombreCommandes();
+        });
+
+        verifierBudget("trouverCommande + getNombreCommandes", BUDGET_LECTURES, mesure);
+    }
+
+    /**
+     * Test l'allocation des copies défensives : elle doit rester
+     * proportionnelle au carnet (un tableau de références), sans objet par
+     * commande.
+     */
+    @Test
+    @DisplayName("Allocation des copies défensives")
+    void testAllocationCopies() {
+        CommandeManager manager = new CommandeManager();
+        for (int i = 0; i < TAILLE_CARNET; i++) {
+            manager.ajouterCommande(new PizzaVegetarienne());
+        }
+        Pizza pizza = new PizzaVegetarienne();
+
+        long commandes = octetsParOperation(() -> manager.getCommandes());
+        long garnitures = octetsParOperation(() -> pizza.getGarnitures());
+
+        verifierBudget("getCommandes (" + TAILLE_CARNET + " commandes)", BUDGET_GET_COMMANDES, commandes);
+        verifierBudget("getGarnitures", BUDGET_GET_GARNITURES, garnitures);
+    }
+
+    /**
+     * Test que le parcours sans copie n'alloue que son tampon de lot.
+     */
+    @Test
+    @DisplayName("Allocation de parcourirCommandes")
+    void testAllocationParcours() {
+        CommandeManager manager = new CommandeManager();
+        for (int i = 0; i < TAILLE_CARNET; i++) {
+            manager.ajouterCommande(new PizzaFromage());
+        }
+        Consumer<Pizza> rien = p -> {
+        };
+
+        long mesure = octetsParOperation(() -> manager.parcourirCommandes(rien));
+
+        verifierBudget("parcourirCommandes (" + TAILLE_CARNET + " commandes)", BUDGET_PARCOURS, mesure);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+
+/**
+ * Tests unitaires pour les classes CacheRecettes et RecettePizza.
+ * Vérifie le partage des recettes, l'éviction et les métriques du cache.
+ */
+class CacheRecettesTest {
+
+    /**
+     * Test que deux pizzas de même configuration partagent la même recette.
+     */
+    @Test
+    void testRecettePartagee() {
+        Pizza pizza1 = new PizzaFactory().createPizza("fromage");
+        Pizza pizza2 = new PizzaFactory().createPizza("fromage");
+
+        assertSame(pizza1.getRecette(), pizza2.getRecette());
+        assertEquals(List.of("Mozzarella", "Emmental"), pizza1.getGarnitures());
+    }
+
+    /**
+     * Test que la description affichée est rendue une seule fois par recette,
+     * et partagée par les pizzas de même configuration.
+     */
+    @Test
+    void testDescriptionPartagee() {
+        Pizza pizza1 = new PizzaFromage();
+        Pizza pizza2 = new PizzaFromage();
+        RecettePizza exotique = RecettePizza.creer("Fine", "Tomate", false, false, List.of("Ananas"));
+
+        assertEquals("- Pizza avec fromage et garnitures : [Mozzarella, Emmental]",
+                pizza1.getRecette().getDescription());
+        assertSame(pizza1.getRecette().getDescription(), pizza2.getRecette().getDescription());
+        assertEquals("- Pizza avec légumes et garnitures : " + new PizzaVegetarienne().getGarnitures(),
+                new PizzaVegetarienne().getRecette().getDescription());
+        assertSame(exotique.getDescription(), exotique.getDescription());
+        assertEquals("- Pizza avec et garnitures : [Ananas]", exotique.getDescription());
+    }
+
+    /**
+     * Test les compteurs de succès et d'échecs du cache.
+     */
+    @Test
+    void testMetriques() {
+        CacheRecettes cache = new CacheRecettes(4);
+        long cle = RecettePizza.creer("Fine", "Tomate", true, false, List.of("Jambon")).getCle();
+
+        RecettePizza premiere = cache.obtenir(cle);
+        RecettePizza seconde = cache.obtenir(cle);
+
+        assertSame(premiere, seconde);
+        assertEquals(1, cache.getNombreEchecs());
+        assertEquals(1, cache.getNombreSucces());
+        assertEquals(List.of("Jambon"), premiere.getGarnitures());
+    }
+
+    /**
+     * Test que l'entrée la moins récemment utilisée est évincée.
+     */
+    @Test
+    void testEviction() throws InterruptedException {
+        CacheRecettes cache = new CacheRecettes(2);
+        long cleFine = RecettePizza.creer("Fine", "Tomate", false, false, List.of()).getCle();
+        long cleEpaisse = RecettePizza.creer("Epaisse", "Tomate", false, false, List.of()).getCle();
+        long cleBbq = RecettePizza.creer("Fine", "BBQ", false, false, List.of()).getCle();
+
+        RecettePizza fine = cache.obtenir(cleFine);
+        cache.obtenir(cleEpaisse);
+        Thread.sleep(1);
+        cache.obtenir(cleFine);
+        cache.obtenir(cleBbq);
+
+        assertEquals(2, cache.getTaille());
+        assertEquals(1, cache.getNombreEvictions());
+        assertSame(fine, cache.obtenir(cleFine));
+    }
+
+    /**
+     * Test qu'une configuration invalide n'est pas mise en cache.
+     */
+    @Test
+    void testRecetteInvalideNonCachee() {
+        CacheRecettes cache = new CacheRecettes(4);
+        long sansPate = RecettePizza.creer(null, "Tomate", false, false, List.of()).getCle();
+
+        assertThrows(IllegalStateException.class, () -> cache.obtenir(sansPate));
+        assertEquals(0, cache.getTaille());
+    }
+
+    /**
+     * Test qu'une garniture libre rend la recette non encodable.
+     */
+    @Test
+    void testRecetteNonEncodable() {
+        RecettePizza recette = RecettePizza.creer("Fine", "Tomate", false, false, List.of("Ananas"));
+        assertEquals(RecettePizza.CLE_NON_ENCODABLE, recette.getCle());
+    }
+}
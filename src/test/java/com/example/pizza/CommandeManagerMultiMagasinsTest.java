@@ -0,0 +1,88 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests unitaires pour la classe CommandeManagerMultiMagasins.
+ * Vérifie l'isolation des magasins et les lectures agrégées.
+ */
+class CommandeManagerMultiMagasinsTest {
+
+    /**
+     * Test que chaque magasin possède son propre gestionnaire.
+     */
+    @Test
+    void testIsolationDesMagasins() {
+        CommandeManagerMultiMagasins manager = new CommandeManagerMultiMagasins();
+        PizzaFactory factory = new PizzaFactory();
+
+        manager.ajouterCommande("paris", factory.createPizza("fromage"));
+        manager.ajouterCommande("lyon", factory.createPizza("vegetarienne"));
+        manager.ajouterCommande("lyon", factory.createPizza("fromage"));
+
+        assertNotSame(manager.magasin("paris"), manager.magasin("lyon"));
+        assertNotSame(CommandeManager.getInstance(), manager.magasin("paris"));
+        assertEquals(1, manager.magasin("paris").getNombreCommandes());
+        assertEquals(3, manager.getNombreCommandes());
+        assertEquals(3, manager.getCommandes().size());
+        assertEquals(Map.of("lyon", 2, "paris", 1), manager.getNombreCommandesParMagasin());
+    }
+
+    /**
+     * Test la suppression et le vidage des commandes.
+     */
+    @Test
+    void testSuppressionEtVidage() {
+        CommandeManagerMultiMagasins manager = new CommandeManagerMultiMagasins();
+        Pizza pizza = new PizzaFactory().createPizza("fromage");
+
+        manager.ajouterCommande("paris", pizza);
+        manager.supprimerCommande("lyon", pizza);
+        assertEquals(1, manager.getNombreCommandes());
+
+        manager.supprimerCommande("paris", pizza);
+        assertEquals(0, manager.getNombreCommandes());
+
+        manager.ajouterCommande("paris", pizza);
+        manager.viderCommandes();
+        assertEquals(0, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test qu'un identifiant de magasin null est refusé de la même façon par
+     * toutes les opérations.
+     */
+    @Test
+    void testMagasinNull() {
+        CommandeManagerMultiMagasins manager = new CommandeManagerMultiMagasins();
+        Pizza pizza = new PizzaFactory().createPizza("fromage");
+
+        assertThrows(IllegalArgumentException.class, () -> manager.magasin(null));
+        assertThrows(IllegalArgumentException.class, () -> manager.ajouterCommande(null, pizza));
+        assertThrows(IllegalArgumentException.class, () -> manager.supprimerCommande(null, pizza));
+    }
+
+    /**
+     * Test l'ajout concurrent de commandes dans plusieurs magasins.
+     */
+    @Test
+    void testAjoutsConcurrents() throws InterruptedException {
+        CommandeManagerMultiMagasins manager = new CommandeManagerMultiMagasins();
+        PizzaFactory factory = new PizzaFactory();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            String magasin = "magasin-" + (i % 4);
+            executor.submit(() -> manager.ajouterCommande(magasin, factory.createPizza("fromage")));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1000, manager.getNombreCommandes());
+        assertEquals(4, manager.getMagasins().size());
+    }
+}
@@ -2,9 +2,11 @@ package com.example.pizza;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -42,14 +44,37 @@ class CommandeManagerTest {
         assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
     }
 
+    /**
+     * Test que tous les threads observent la même instance, entièrement
+     * initialisée.
+     */
+    @Test
+    void testPublicationConcurrente() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<CommandeManager>> resultats = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            resultats.add(executor.submit(() -> {
+                CommandeManager instance = CommandeManager.getInstance();
+                // Un gestionnaire partiellement construit échouerait ici
+                instance.getNombreCommandes();
+                return instance;
+            }));
+        }
+        for (Future<CommandeManager> resultat : resultats) {
+            assertSame(CommandeManager.getInstance(), resultat.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
     /**
      * Test la gestion des commandes (ajout, suppression, récupération).
      * Vérifie que les opérations CRUD fonctionnent correctement.
      */
     @Test
     void testCommandeManagement() {
-        CommandeManager manager = CommandeManager.getInstance();
-        manager.viderCommandes();
+        // Gestionnaire isolé : le test ne dépend pas de l'état du singleton
+        CommandeManager manager = new CommandeManager();
 
         Pizza pizza = new PizzaFactory().createPizza("fromage");
 
@@ -69,4 +94,69 @@ class CommandeManagerTest {
             manager.ajouterCommande(null);
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Test la recherche et la suppression par identifiant.
+     */
+    @Test
+    void testCommandeParIdentifiant() {
+        CommandeManager manager = new CommandeManager();
+        Pizza pizza = new PizzaFactory().createPizza("vegetarienne");
+        manager.ajouterCommande(pizza);
+        manager.ajouterCommande(pizza);
+
+        assertEquals(1, manager.getNombreCommandes());
+        assertSame(pizza, manager.trouverCommande(pizza.getId()));
+        assertSame(pizza, manager.supprimerCommande(pizza.getId()));
+        assertNull(manager.trouverCommande(pizza.getId()));
+        assertNull(manager.supprimerCommande(pizza.getId()));
+    }
+
+    /**
+     * Test que les lectures sans verrou ne voient jamais une commande groupée
+     * à moitié ajoutée ou retirée, pendant qu'un autre thread en passe et en
+     * annule en continu.
+     */
+    @Test
+    void testLecturesOptimistes() throws Exception {
+        CommandeManager manager = new CommandeManager();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> ecrivain = executor.submit(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                Commande commande = new Commande(new PizzaFromage(), new PizzaFromage(),
+                        new PizzaVegetarienne(), new PizzaVegetarienne());
+                manager.passerCommande(commande);
+                manager.annulerCommande(commande.getId());
+            }
+        });
+        try {
+            while (!ecrivain.isDone()) {
+                assertEquals(0, manager.getNombreCommandes() % 4);
+                assertEquals(0, manager.getCommandes().size() % 4);
+                assertEquals(0, manager.commandesDansEtat(EtatCommande.RECUE).size() % 4);
+                assertEquals(0, manager.parcourirCommandes(p -> { }) % 4);
+            }
+            ecrivain.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test qu'un parcours se termine à la dernière commande présente à son
+     * début, même si des commandes sont ajoutées tout au long du parcours.
+     */
+    @Test
+    void testParcoursBorneMalgreLesAjouts() {
+        CommandeManager manager = new CommandeManager();
+        for (int i = 0; i < 1_000; i++) {
+            manager.ajouterCommande(new PizzaFromage());
+        }
+
+        long parcourues = manager.parcourirCommandes(p -> manager.ajouterCommande(new PizzaFromage()));
+
+        assertEquals(1_000, parcourues);
+        assertEquals(2_000, manager.getNombreCommandes());
+    }
+}
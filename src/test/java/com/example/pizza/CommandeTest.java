@@ -0,0 +1,131 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+
+/**
+ * Tests unitaires pour la classe Commande.
+ * Vérifie la composition d'une commande groupée, son ajout et son annulation
+ * d'un bloc par le CommandeManager.
+ */
+class CommandeTest {
+
+    /**
+     * Test la validation et l'état agrégé d'une commande.
+     */
+    @Test
+    void testComposition() {
+        Pizza fromage = new PizzaFromage();
+        Pizza vegetarienne = new PizzaVegetarienne();
+        Commande commande = new Commande(fromage, vegetarienne);
+
+        assertEquals(2, commande.getNombrePizzas());
+        assertEquals(List.of(fromage, vegetarienne), commande.getPizzas());
+        assertSame(vegetarienne, commande.pizza(1));
+        assertThrows(IllegalArgumentException.class, () -> new Commande());
+        assertThrows(IllegalArgumentException.class, () -> new Commande(fromage, null));
+        assertThrows(IllegalArgumentException.class, () -> new Commande(fromage, fromage));
+
+        fromage.preparer();
+        assertEquals(EtatCommande.RECUE, commande.getEtat());
+        vegetarienne.annuler();
+        assertEquals(EtatCommande.EN_PREPARATION, commande.getEtat());
+        assertEquals(1, commande.annuler());
+        assertEquals(EtatCommande.ANNULEE, commande.getEtat());
+    }
+
+    /**
+     * Test que toutes les pizzas d'une commande sont ajoutées puis annulées
+     * ensemble, et qu'une commande passée deux fois n'est ajoutée qu'une fois.
+     */
+    @Test
+    void testAjoutEtAnnulationGroupes() {
+        CommandeManager manager = new CommandeManager();
+        Pizza seule = new PizzaFromage();
+        manager.ajouterCommande(seule);
+        Commande commande = new Commande(new PizzaFromage(), new PizzaVegetarienne(), new PizzaFromage());
+
+        manager.passerCommande(commande);
+        manager.passerCommande(commande);
+
+        assertEquals(4, manager.getNombreCommandes());
+        assertSame(commande, manager.trouverCommandeGroupee(commande.getId()));
+        commande.preparer();
+        assertEquals(EtatCommande.EN_PREPARATION, commande.getEtat());
+
+        assertSame(commande, manager.annulerCommande(commande.getId()));
+        assertEquals(List.of(seule), manager.getCommandes());
+        assertEquals(EtatCommande.ANNULEE, commande.getEtat());
+        assertNull(manager.trouverCommandeGroupee(commande.getId()));
+        assertNull(manager.annulerCommande(commande.getId()));
+    }
+
+    /**
+     * Test qu'une commande groupée dont les pizzas quittent le carnet une à
+     * une est oubliée avec sa dernière pizza.
+     */
+    @Test
+    void testCommandeRetireePizzaParPizza() {
+        CommandeManager manager = new CommandeManager();
+        Pizza livree = new PizzaFromage();
+        Pizza supprimee = new PizzaVegetarienne();
+        Commande commande = new Commande(livree, supprimee);
+        manager.passerCommande(commande);
+
+        manager.supprimerCommande(livree.getId());
+        assertSame(commande, manager.trouverCommandeGroupee(commande.getId()));
+
+        manager.supprimerCommande(supprimee);
+        assertNull(manager.trouverCommandeGroupee(commande.getId()));
+        assertNull(manager.annulerCommande(commande.getId()));
+        assertEquals(0, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test que l'annulation d'une commande groupée laisse intactes les pizzas
+     * qui ont déjà quitté le carnet.
+     */
+    @Test
+    void testAnnulationIgnorePizzasSorties() {
+        CommandeManager manager = new CommandeManager();
+        Pizza emballee = new PizzaFromage();
+        Pizza restante = new PizzaVegetarienne();
+        Commande commande = new Commande(emballee, restante);
+        manager.passerCommande(commande);
+        emballee.preparer();
+        emballee.cuire();
+        emballee.emballer();
+        manager.supprimerCommande(emballee);
+
+        assertSame(commande, manager.annulerCommande(commande.getId()));
+        assertEquals(EtatCommande.EMBALLEE, emballee.getEtat());
+        assertEquals(EtatCommande.ANNULEE, restante.getEtat());
+        assertEquals(0, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test qu'une commande dont le stock ne permet pas toutes les pizzas
+     * n'est pas ajoutée du tout, et que son annulation restitue le stock.
+     */
+    @Test
+    void testStockGroupe() {
+        CommandeManager manager = new CommandeManager();
+        Inventaire inventaire = new Inventaire();
+        inventaire.reapprovisionner(Garniture.MOZZARELLA, 2);
+        inventaire.reapprovisionner(Garniture.EMMENTAL, 2);
+        manager.setInventaire(inventaire);
+
+        Commande tropGrande = new Commande(new PizzaFromage(), new PizzaFromage(), new PizzaFromage());
+        assertThrows(IllegalStateException.class, () -> manager.passerCommande(tropGrande));
+        assertEquals(0, manager.getNombreCommandes());
+        assertEquals(2, inventaire.getStock(Garniture.MOZZARELLA));
+
+        Commande commande = new Commande(new PizzaFromage(), new PizzaFromage());
+        manager.passerCommande(commande);
+        assertEquals(0, inventaire.getStock(Garniture.MOZZARELLA));
+        manager.annulerCommande(commande.getId());
+        assertEquals(2, inventaire.getStock(Garniture.MOZZARELLA));
+        assertEquals(2, inventaire.getStock(Garniture.EMMENTAL));
+    }
+}
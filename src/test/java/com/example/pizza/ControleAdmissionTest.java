@@ -0,0 +1,130 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests unitaires pour la classe ControleAdmission.
+ * Vérifie le refus au-delà de la limite, le délai de nouvel essai et
+ * l'ajustement de la limite selon l'attente avant préparation.
+ */
+class ControleAdmissionTest {
+    private static final long SECONDE = 1_000_000_000L;
+
+    /**
+     * Test qu'une commande est refusée au-delà de la limite, avec un délai de
+     * nouvel essai, puis admise lorsqu'une place se libère.
+     */
+    @Test
+    void testRefusAuDelaDeLaLimite() {
+        AtomicLong horloge = new AtomicLong(SECONDE);
+        CommandeManager manager = new CommandeManager();
+        ControleAdmission controle = new ControleAdmission(manager, Duration.ofSeconds(30), 2, 1, 10,
+                horloge::get);
+        controle.brancher();
+        try {
+            Pizza premiere = new PizzaFromage();
+            assertTrue(controle.admettre(premiere).isAdmise());
+            assertTrue(controle.admettre(new PizzaFromage()).isAdmise());
+            Pizza refusee = new PizzaVegetarienne();
+            ControleAdmission.Decision decision = controle.admettre(refusee);
+
+            assertFalse(decision.isAdmise());
+            assertEquals(Duration.ofSeconds(30), decision.reessayerApres());
+            assertNull(manager.trouverCommande(refusee.getId()));
+            assertEquals(2, controle.getEnCours());
+            assertEquals(1, controle.getNombreRejets());
+
+            premiere.preparer();
+            premiere.cuire();
+            premiere.emballer();
+            assertEquals(1, controle.getEnCours());
+            assertTrue(controle.admettre(refusee).isAdmise());
+            assertEquals(3, manager.getNombreCommandes());
+        } finally {
+            controle.debrancher();
+        }
+    }
+
+    /**
+     * Test que la limite diminue une seule fois par épisode de congestion, et
+     * que la limite réduite s'applique aux admissions suivantes.
+     */
+    @Test
+    void testAjustementLimite() {
+        AtomicLong horloge = new AtomicLong(SECONDE);
+        CommandeManager manager = new CommandeManager();
+        ControleAdmission controle = new ControleAdmission(manager, Duration.ofSeconds(60), 10, 1, 100,
+                horloge::get);
+        controle.brancher();
+        try {
+            List<Pizza> pizzas = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Pizza pizza = new PizzaFromage();
+                assertTrue(controle.admettre(pizza).isAdmise());
+                pizzas.add(pizza);
+            }
+            horloge.addAndGet(90 * SECONDE);
+            // Toutes admises avant la réduction : une seule réduction
+            for (Pizza pizza : pizzas) {
+                pizza.preparer();
+            }
+            assertEquals(8, controle.getLimite());
+
+            for (Pizza pizza : pizzas) {
+                pizza.cuire();
+                pizza.emballer();
+            }
+            for (int i = 0; i < 8; i++) {
+                Pizza pizza = new PizzaFromage();
+                assertTrue(controle.admettre(pizza).isAdmise());
+                horloge.addAndGet(SECONDE);
+                pizza.preparer();
+            }
+            assertEquals(8, controle.getLimite());
+            Pizza pizza = new PizzaFromage();
+            assertFalse(controle.admettre(pizza).isAdmise());
+            assertTrue(controle.getAttentes().percentile(99) >= 90 * SECONDE);
+        } finally {
+            controle.debrancher();
+        }
+    }
+
+    /**
+     * Test que les commandes servies dans les temps relèvent la limite tant
+     * que la cuisine l'utilise.
+     */
+    @Test
+    void testAugmentationAdditive() {
+        AtomicLong horloge = new AtomicLong(SECONDE);
+        CommandeManager manager = new CommandeManager();
+        ControleAdmission controle = new ControleAdmission(manager, Duration.ofSeconds(60), 4, 1, 100,
+                horloge::get);
+        controle.brancher();
+        try {
+            List<Pizza> enCuisine = new ArrayList<>();
+            for (int tour = 0; tour < 60; tour++) {
+                Pizza pizza = new PizzaFromage();
+                while (controle.admettre(pizza).isAdmise()) {
+                    enCuisine.add(pizza);
+                    pizza = new PizzaFromage();
+                }
+                Pizza servie = enCuisine.remove(0);
+                horloge.addAndGet(SECONDE);
+                servie.preparer();
+                servie.cuire();
+                servie.emballer();
+            }
+
+            // Environ racine(4² + 2 × 60) : une unité toutes les « limite » commandes
+            assertTrue(controle.getLimite() >= 10, "limite " + controle.getLimite());
+            assertEquals(enCuisine.size(), controle.getEnCours());
+        } finally {
+            controle.debrancher();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests unitaires pour le cycle de vie des commandes.
+ * Vérifie les transitions autorisées, les refus et les compteurs par état.
+ */
+class EtatCommandeTest {
+
+    /**
+     * Test le cycle nominal déclenché par les étapes de fabrication.
+     */
+    @Test
+    void testCycleNominal() {
+        Pizza pizza = new PizzaFactory().createPizza("fromage");
+        assertEquals(EtatCommande.RECUE, pizza.getEtat());
+
+        pizza.preparer();
+        assertEquals(EtatCommande.EN_PREPARATION, pizza.getEtat());
+        pizza.cuire();
+        assertEquals(EtatCommande.EN_CUISSON, pizza.getEtat());
+        pizza.emballer();
+        assertEquals(EtatCommande.EMBALLEE, pizza.getEtat());
+        pizza.avancerVers(EtatCommande.LIVREE);
+        assertEquals(EtatCommande.LIVREE, pizza.getEtat());
+        assertFalse(pizza.annuler());
+    }
+
+    /**
+     * Test que les transitions interdites sont rejetées.
+     */
+    @Test
+    void testTransitionsInterdites() {
+        Pizza pizza = new PizzaFactory().createPizza("vegetarienne");
+
+        assertThrows(IllegalStateException.class, pizza::cuire);
+        assertThrows(IllegalStateException.class,
+                () -> pizza.transitionner(EtatCommande.RECUE, EtatCommande.EMBALLEE));
+        assertEquals(EtatCommande.RECUE, pizza.getEtat());
+
+        assertTrue(pizza.annuler());
+        assertThrows(IllegalStateException.class, pizza::preparer);
+        assertEquals(EtatCommande.ANNULEE, pizza.getEtat());
+    }
+
+    /**
+     * Test qu'une seule transition concurrente réussit depuis un même état.
+     */
+    @Test
+    void testTransitionsConcurrentes() throws InterruptedException {
+        Pizza pizza = new PizzaFactory().createPizza("fromage");
+        AtomicInteger reussites = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 100; i++) {
+            executor.submit(() -> {
+                if (pizza.transitionner(EtatCommande.RECUE, EtatCommande.EN_PREPARATION)) {
+                    reussites.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, reussites.get());
+        assertEquals(EtatCommande.EN_PREPARATION, pizza.getEtat());
+    }
+
+    /**
+     * Test que chaque carnet tient l'effectif de ses propres commandes par
+     * état, et que le filtrage du gestionnaire lui correspond.
+     */
+    @Test
+    void testEffectifsEtFiltrage() {
+        CommandeManager manager = new CommandeManager();
+        CommandeManager autre = new CommandeManager();
+        Pizza pizza = new PizzaFactory().createPizza("fromage");
+        Pizza dejaPreparee = new PizzaFactory().createPizza("fromage");
+        dejaPreparee.preparer();
+        manager.ajouterCommande(pizza);
+        manager.ajouterCommande(dejaPreparee);
+        autre.ajouterCommande(new PizzaFactory().createPizza("fromage"));
+        new PizzaFactory().createPizza("fromage").preparer();
+
+        pizza.preparer();
+        pizza.cuire();
+
+        assertEquals(1, manager.nombreCommandesDansEtat(EtatCommande.EN_CUISSON));
+        assertEquals(1, manager.nombreCommandesDansEtat(EtatCommande.EN_PREPARATION));
+        assertEquals(0, manager.nombreCommandesDansEtat(EtatCommande.RECUE));
+        assertEquals(1, autre.nombreCommandesDansEtat(EtatCommande.RECUE));
+        assertEquals(0, autre.nombreCommandesDansEtat(EtatCommande.EN_PREPARATION));
+        assertEquals(List.of(pizza), manager.commandesDansEtat(EtatCommande.EN_CUISSON));
+
+        // Une pizza retirée du carnet n'y est plus comptée, même si elle évolue
+        manager.supprimerCommande(pizza);
+        pizza.emballer();
+        assertEquals(0, manager.nombreCommandesDansEtat(EtatCommande.EN_CUISSON));
+        assertEquals(0, manager.nombreCommandesDansEtat(EtatCommande.EMBALLEE));
+
+        // Une pizza déjà comptée par un carnet ne l'est pas par un second
+        autre.ajouterCommande(dejaPreparee);
+        assertEquals(0, autre.nombreCommandesDansEtat(EtatCommande.EN_PREPARATION));
+        manager.viderCommandes();
+        assertEquals(0, manager.nombreCommandesDansEtat(EtatCommande.EN_PREPARATION));
+    }
+
+    /**
+     * Test que les effectifs restent exacts lorsque des transitions ont lieu
+     * pendant les ajouts et suppressions des mêmes pizzas.
+     */
+    @Test
+    void testEffectifsConcurrents() throws InterruptedException {
+        CommandeManager manager = new CommandeManager();
+        List<Pizza> pizzas = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            pizzas.add(new PizzaFactory().createPizza(i % 2 == 0 ? "fromage" : "vegetarienne"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int decalage = t;
+            executor.submit(() -> {
+                for (int i = decalage; i < pizzas.size(); i += 2) {
+                    Pizza pizza = pizzas.get(i);
+                    if (decalage < 2) {
+                        manager.ajouterCommande(pizza);
+                        if (i % 3 == 0) {
+                            manager.supprimerCommande(pizza);
+                        }
+                    } else {
+                        pizza.preparer();
+                        pizza.cuire();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int total = 0;
+        for (EtatCommande etat : EtatCommande.values()) {
+            assertEquals(manager.commandesDansEtat(etat).size(), manager.nombreCommandesDansEtat(etat), etat.name());
+            total += manager.nombreCommandesDansEtat(etat);
+        }
+        assertEquals(manager.getNombreCommandes(), total);
+    }
+}
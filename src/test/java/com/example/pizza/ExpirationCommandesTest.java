@@ -0,0 +1,217 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests unitaires pour les classes ExpirationCommandes et RoueTemporelle.
+ * Vérifie les échéances de la roue hiérarchique et l'expiration des commandes
+ * inactives.
+ */
+class ExpirationCommandesTest {
+    private static final long SECONDE = 1_000_000_000L;
+
+    /**
+     * Test que chaque élément est livré au premier top suivant son échéance,
+     * y compris pour les échéances rangées dans les niveaux supérieurs.
+     */
+    @Test
+    void testRoueHierarchique() {
+        RoueTemporelle<long[]> roue = new RoueTemporelle<>(10, 0);
+        SplittableRandom aleatoire = new SplittableRandom(3);
+        for (int i = 0; i < 10_000; i++) {
+            long echeance = 1 + aleatoire.nextLong(10 * 300_000);
+            roue.planifier(new long[] { echeance }, echeance);
+        }
+
+        List<String> erreurs = new ArrayList<>();
+        int livres = 0;
+        for (long maintenant = 0; maintenant <= 10 * 300_001; maintenant += 10) {
+            long instant = maintenant;
+            livres += roue.avancer(maintenant, element -> {
+                if (instant < element[0] || instant >= element[0] + 10) {
+                    erreurs.add("échéance " + element[0] + " livrée à " + instant);
+                }
+            });
+        }
+
+        assertEquals(List.of(), erreurs);
+        assertEquals(10_000, livres);
+        assertEquals(0, roue.getTaille());
+    }
+
+    /**
+     * Test qu'une échéance est livrée au plus un top après son instant.
+     */
+    @Test
+    void testPrecisionRoue() {
+        RoueTemporelle<String> roue = new RoueTemporelle<>(10, 1_000);
+        roue.planifier("proche", 1_025);
+        roue.planifier("lointaine", 1_000 + 10 * 5_000 + 5);
+        List<String> livres = new ArrayList<>();
+
+        assertEquals(0, roue.avancer(1_029, livres::add));
+        assertEquals(1, roue.avancer(1_030, livres::add));
+        assertEquals(0, roue.avancer(1_000 + 10 * 5_000, livres::add));
+        assertEquals(1, roue.avancer(1_000 + 10 * 5_001, livres::add));
+        assertEquals(List.of("proche", "lointaine"), livres);
+    }
+
+    /**
+     * Test que seules les commandes inactives expirent, et qu'une transition
+     * reporte l'échéance.
+     */
+    @Test
+    void testExpiration() throws InterruptedException {
+        AtomicLong horloge = new AtomicLong(SECONDE);
+        CommandeManager manager = new CommandeManager();
+        ExpirationCommandes expiration = new ExpirationCommandes(manager, Duration.ofSeconds(10),
+                Duration.ofSeconds(1), horloge::get);
+        expiration.brancher();
+        try {
+            Pizza active = new PizzaFromage();
+            Pizza oubliee = new PizzaFromage();
+            manager.ajouterCommande(active);
+            manager.ajouterCommande(oubliee);
+            Pizza supprimee = new PizzaVegetarienne();
+            manager.ajouterCommande(supprimee);
+            manager.supprimerCommande(supprimee);
+            long limite = System.nanoTime() + 5 * SECONDE;
+            while (expiration.getNombreSurveillees() < 3 && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+            assertEquals(3, expiration.getNombreSurveillees());
+
+            horloge.addAndGet(5 * SECONDE);
+            active.preparer();
+            horloge.addAndGet(6 * SECONDE);
+            assertEquals(1, expiration.expirer());
+            assertEquals(EtatCommande.ANNULEE, oubliee.getEtat());
+            assertEquals(List.of(active), manager.getCommandes());
+
+            horloge.addAndGet(5 * SECONDE);
+            assertEquals(1, expiration.expirer());
+            assertEquals(EtatCommande.ANNULEE, active.getEtat());
+            assertEquals(0, manager.getNombreCommandes());
+            assertEquals(2, expiration.getNombreExpirees());
+            assertEquals(0, expiration.getNombreSurveillees());
+        } finally {
+            expiration.arreter();
+        }
+    }
+
+    /**
+     * Test qu'une commande inactive parce qu'elle est livrée, ou déjà
+     * annulée, n'est ni comptée comme expirée ni retirée du carnet.
+     */
+    @Test
+    void testCommandeTermineeNExpirePas() throws InterruptedException {
+        AtomicLong horloge = new AtomicLong(SECONDE);
+        CommandeManager manager = new CommandeManager();
+        ExpirationCommandes expiration = new ExpirationCommandes(manager, Duration.ofSeconds(10),
+                Duration.ofSeconds(1), horloge::get);
+        expiration.brancher();
+        try {
+            Pizza livree = new PizzaFromage();
+            Pizza annulee = new PizzaFromage();
+            manager.ajouterCommande(livree);
+            manager.ajouterCommande(annulee);
+            long limite = System.nanoTime() + 5 * SECONDE;
+            while (expiration.getNombreSurveillees() < 2 && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+            livree.preparer();
+            livree.cuire();
+            livree.emballer();
+            livree.avancerVers(EtatCommande.LIVREE);
+            annulee.annuler();
+
+            horloge.addAndGet(11 * SECONDE);
+            assertEquals(0, expiration.expirer());
+            assertEquals(0, expiration.getNombreExpirees());
+            assertEquals(EtatCommande.LIVREE, livree.getEtat());
+            assertEquals(2, manager.getNombreCommandes());
+        } finally {
+            expiration.arreter();
+        }
+    }
+
+    /**
+     * Test que l'expiration d'un autre carnet, réglée sur une autre horloge,
+     * n'horodate pas les transitions des commandes de ce carnet.
+     */
+    @Test
+    void testDeuxCarnetsDeuxHorloges() throws InterruptedException {
+        AtomicLong horloge = new AtomicLong(SECONDE);
+        CommandeManager manager = new CommandeManager();
+        ExpirationCommandes expiration = new ExpirationCommandes(manager, Duration.ofSeconds(10),
+                Duration.ofSeconds(1), horloge::get);
+        ExpirationCommandes autre = new ExpirationCommandes(new CommandeManager(), Duration.ofSeconds(10),
+                Duration.ofSeconds(1), () -> 1_000 * SECONDE);
+        expiration.brancher();
+        autre.brancher();
+        try {
+            Pizza pizza = new PizzaFromage();
+            manager.ajouterCommande(pizza);
+            long limite = System.nanoTime() + 5 * SECONDE;
+            while (expiration.getNombreSurveillees() < 1 && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+            horloge.addAndGet(SECONDE);
+            pizza.preparer();
+
+            assertEquals(2 * SECONDE, pizza.getInstantActivite());
+            horloge.addAndGet(11 * SECONDE);
+            assertEquals(1, expiration.expirer());
+            assertEquals(EtatCommande.ANNULEE, pizza.getEtat());
+            assertEquals(0, autre.getNombreSurveillees());
+        } finally {
+            autre.arreter();
+            expiration.arreter();
+        }
+    }
+
+    /**
+     * Test qu'une commande expirée en cours de cuisson garde ses garnitures
+     * consommées, alors que celles d'une commande jamais préparée sont
+     * restituées.
+     */
+    @Test
+    void testExpirationRestitueSeulementLeStockNonPrepare() throws InterruptedException {
+        AtomicLong horloge = new AtomicLong(SECONDE);
+        Inventaire inventaire = new Inventaire();
+        inventaire.reapprovisionner(Garniture.MOZZARELLA, 2);
+        inventaire.reapprovisionner(Garniture.EMMENTAL, 2);
+        CommandeManager manager = new CommandeManager();
+        manager.setInventaire(inventaire);
+        ExpirationCommandes expiration = new ExpirationCommandes(manager, Duration.ofSeconds(10),
+                Duration.ofSeconds(1), horloge::get);
+        expiration.brancher();
+        try {
+            Pizza enCuisson = new PizzaFromage();
+            Pizza recue = new PizzaFromage();
+            manager.ajouterCommande(enCuisson);
+            manager.ajouterCommande(recue);
+            enCuisson.preparer();
+            enCuisson.cuire();
+            long limite = System.nanoTime() + 5 * SECONDE;
+            while (expiration.getNombreSurveillees() < 2 && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+
+            horloge.addAndGet(11 * SECONDE);
+            assertEquals(2, expiration.expirer());
+            assertEquals(EtatCommande.ANNULEE, enCuisson.getEtat());
+            assertEquals(EtatCommande.ANNULEE, recue.getEtat());
+            assertEquals(1, inventaire.getStock(Garniture.MOZZARELLA));
+            assertEquals(1, inventaire.getStock(Garniture.EMMENTAL));
+        } finally {
+            expiration.arreter();
+        }
+    }
+}
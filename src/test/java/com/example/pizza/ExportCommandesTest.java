@@ -0,0 +1,119 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tests unitaires pour la classe ExportCommandes et le parcours du
+ * gestionnaire.
+ * Vérifie les formats CSV et binaire et l'export pendant la prise de
+ * commandes.
+ */
+class ExportCommandesTest {
+
+    @TempDir
+    Path repertoire;
+
+    private static Pizza pizzaPersonnalisee() {
+        Pizza pizza = new Pizza() {
+            @Override
+            public void preparer() {
+            }
+
+            @Override
+            public void cuire() {
+            }
+
+            @Override
+            public void emballer() {
+            }
+        };
+        new Pizza.PizzaBuilder(pizza).pateEpaisse().sauceCreme().ajouterJambon().build();
+        return pizza;
+    }
+
+    /**
+     * Test l'export CSV, y compris les caractères accentués.
+     */
+    @Test
+    void testExportCsv() throws IOException {
+        CommandeManager manager = new CommandeManager();
+        Pizza fromage = new PizzaFactory().createPizza("fromage");
+        Pizza personnalisee = pizzaPersonnalisee();
+        manager.ajouterCommande(fromage);
+        manager.ajouterCommande(personnalisee);
+        Path fichier = repertoire.resolve("export.csv");
+
+        long total = new ExportCommandes(manager).exporterCsv(fichier);
+
+        assertEquals(2, total);
+        List<String> lignes = Files.readAllLines(fichier);
+        assertEquals("id,type,etat,pate,sauce,fromage,legumes,garnitures", lignes.get(0));
+        assertEquals(fromage.getId() + ",fromage,RECUE,Fine,Tomate,true,false,Mozzarella|Emmental", lignes.get(1));
+        assertEquals(personnalisee.getId() + ",personnalisee,RECUE,Epaisse,Crème,false,false,Jambon", lignes.get(2));
+    }
+
+    /**
+     * Test l'export binaire.
+     */
+    @Test
+    void testExportBinaire() throws IOException {
+        CommandeManager manager = new CommandeManager();
+        Pizza pizza = new PizzaFactory().createPizza("vegetarienne");
+        manager.ajouterCommande(pizza);
+        Path fichier = repertoire.resolve("export.bin");
+
+        new ExportCommandes(manager).exporterBinaire(fichier);
+
+        try (DataInputStream entree = new DataInputStream(Files.newInputStream(fichier))) {
+            assertEquals(pizza.getId(), entree.readLong());
+            assertEquals(1, entree.readByte());
+            assertEquals(EtatCommande.RECUE.ordinal(), entree.readByte());
+            assertEquals(pizza.getRecette().getCle(), entree.readLong());
+            assertEquals(-1, entree.read());
+        }
+    }
+
+    /**
+     * Test un export volumineux, supérieur au tampon, pendant des ajouts
+     * concurrents.
+     */
+    @Test
+    void testExportPendantPriseDeCommandes() throws Exception {
+        CommandeManager manager = new CommandeManager();
+        PizzaFactory factory = new PizzaFactory();
+        List<Pizza> initiales = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            initiales.add(factory.createPizza(i % 2 == 0 ? "fromage" : "vegetarienne"));
+        }
+        manager.ajouterCommandes(initiales);
+        AtomicBoolean actif = new AtomicBoolean(true);
+        Thread prise = new Thread(() -> {
+            while (actif.get()) {
+                manager.ajouterCommande(factory.createPizza("fromage"));
+                LockSupport.parkNanos(10_000);
+            }
+        });
+        prise.start();
+
+        long total;
+        try {
+            total = new ExportCommandes(manager).exporterCsv(repertoire.resolve("gros.csv"));
+        } finally {
+            actif.set(false);
+            prise.join();
+        }
+
+        assertTrue(total >= 20_000);
+        assertEquals(total + 1, Files.readAllLines(repertoire.resolve("gros.csv")).size());
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests unitaires pour la classe FluxCommandes.
+ * Vérifie la publication des modifications, les lots, la contre-pression et
+ * le débordement.
+ */
+class FluxCommandesTest {
+
+    /**
+     * Abonné de test qui demande un lot à la fois et termine après un nombre
+     * d'événements donné.
+     */
+    private static class AbonneTest implements Flow.Subscriber<List<EvenementCommande>> {
+        private final int attendus;
+        private final List<List<EvenementCommande>> lots = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<List<EvenementCommande>> termine = new CompletableFuture<>();
+        private final List<EvenementCommande> recus = new CopyOnWriteArrayList<>();
+        private Flow.Subscription abonnement;
+
+        AbonneTest(int attendus) {
+            this.attendus = attendus;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription abonnement) {
+            this.abonnement = abonnement;
+            abonnement.request(1);
+        }
+
+        @Override
+        public void onNext(List<EvenementCommande> lot) {
+            lots.add(lot);
+            recus.addAll(lot);
+            if (recus.size() >= attendus) {
+                termine.complete(new ArrayList<>(recus));
+            } else {
+                abonnement.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable erreur) {
+            termine.completeExceptionally(erreur);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    /**
+     * Test la publication des ajouts, suppressions et vidages dans l'ordre.
+     */
+    @Test
+    void testEvenementsDuGestionnaire() throws Exception {
+        CommandeManager manager = new CommandeManager();
+        AbonneTest abonne = new AbonneTest(4);
+        manager.getFlux().subscribe(abonne);
+        Pizza p1 = new PizzaFactory().createPizza("fromage");
+        Pizza p2 = new PizzaFactory().createPizza("vegetarienne");
+
+        manager.ajouterCommande(p1);
+        manager.ajouterCommande(p1);
+        manager.ajouterCommande(p2);
+        manager.supprimerCommande(p1);
+        manager.supprimerCommande(p1);
+        manager.viderCommandes();
+        manager.viderCommandes();
+
+        List<EvenementCommande> evenements = abonne.termine.get(5, TimeUnit.SECONDS);
+        assertEquals(4, evenements.size());
+        assertEquals(EvenementCommande.Type.AJOUT, evenements.get(0).type());
+        assertSame(p1, evenements.get(0).pizza());
+        assertSame(p2, evenements.get(1).pizza());
+        assertEquals(EvenementCommande.Type.SUPPRESSION, evenements.get(2).type());
+        assertEquals(EvenementCommande.Type.VIDAGE, evenements.get(3).type());
+        for (int i = 1; i < evenements.size(); i++) {
+            assertTrue(evenements.get(i).sequence() > evenements.get(i - 1).sequence());
+        }
+    }
+
+    /**
+     * Test que les événements sont livrés par lots bornés, un lot par unité
+     * de demande.
+     */
+    @Test
+    void testLivraisonParLots() throws Exception {
+        FluxCommandes flux = new FluxCommandes(Runnable::run, 1_000, 10);
+        AbonneTest abonne = new AbonneTest(25) {
+            @Override
+            public void onSubscribe(Flow.Subscription abonnement) {
+                // Pas de demande initiale : les événements s'accumulent
+                super.abonnement = abonnement;
+            }
+        };
+        flux.subscribe(abonne);
+        Pizza pizza = new PizzaFactory().createPizza("fromage");
+        for (int i = 0; i < 25; i++) {
+            flux.publier(EvenementCommande.Type.AJOUT, pizza);
+        }
+        flux.signaler();
+        assertTrue(abonne.lots.isEmpty());
+
+        abonne.abonnement.request(1);
+
+        assertEquals(25, abonne.termine.get(5, TimeUnit.SECONDS).size());
+        assertEquals(List.of(10, 10, 5), abonne.lots.stream().map(List::size).toList());
+    }
+
+    /**
+     * Test qu'un abonné qui laisse déborder sa file reçoit une erreur et est
+     * désabonné.
+     */
+    @Test
+    void testDebordement() {
+        FluxCommandes flux = new FluxCommandes(Runnable::run, 2, 10);
+        AbonneTest abonne = new AbonneTest(10) {
+            @Override
+            public void onSubscribe(Flow.Subscription abonnement) {
+                super.abonnement = abonnement;
+            }
+        };
+        flux.subscribe(abonne);
+        Pizza pizza = new PizzaFactory().createPizza("fromage");
+        for (int i = 0; i < 3; i++) {
+            flux.publier(EvenementCommande.Type.AJOUT, pizza);
+        }
+        flux.signaler();
+
+        assertTrue(abonne.termine.isCompletedExceptionally());
+        assertFalse(flux.aDesAbonnes());
+    }
+
+    /**
+     * Test que la publication ne planifie aucune livraison : seul
+     * {@code signaler()} le fait, et uniquement s'il y a de la demande.
+     */
+    @Test
+    void testPlanificationHorsPublication() {
+        AtomicInteger planifications = new AtomicInteger();
+        FluxCommandes flux = new FluxCommandes(tache -> {
+            planifications.incrementAndGet();
+            tache.run();
+        }, 1_000, 10);
+        AbonneTest abonne = new AbonneTest(2) {
+            @Override
+            public void onSubscribe(Flow.Subscription abonnement) {
+                super.abonnement = abonnement;
+            }
+        };
+        flux.subscribe(abonne);
+        Pizza pizza = new PizzaFactory().createPizza("fromage");
+
+        flux.publier(EvenementCommande.Type.AJOUT, pizza);
+        flux.signaler();
+        assertEquals(0, planifications.get());
+
+        abonne.abonnement.request(1);
+        assertEquals(1, planifications.get());
+        flux.publier(EvenementCommande.Type.AJOUT, pizza);
+        assertEquals(1, planifications.get());
+        flux.signaler();
+        assertEquals(2, planifications.get());
+        assertEquals(2, abonne.recus.size());
+    }
+}
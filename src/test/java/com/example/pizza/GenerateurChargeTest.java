@@ -0,0 +1,71 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests unitaires pour la classe GenerateurCharge.
+ * Vérifie la lecture de la configuration, le mélange de types et une courte
+ * campagne de charge.
+ */
+class GenerateurChargeTest {
+
+    /**
+     * Test la lecture des arguments de ligne de commande.
+     */
+    @Test
+    void testConfigurationDepuisArguments() {
+        GenerateurCharge.Configuration configuration = GenerateurCharge.Configuration.depuisArguments(
+                new String[] { "--debit=500", "--duree=2", "--threads=3", "--melange=fromage:3,vegetarienne:1" });
+
+        assertEquals(500, configuration.debitParSeconde());
+        assertEquals(2, configuration.dureeSecondes());
+        assertEquals(3, configuration.threads());
+        assertEquals(Map.of("fromage", 3, "vegetarienne", 1), configuration.melange());
+        assertThrows(IllegalArgumentException.class,
+                () -> GenerateurCharge.Configuration.depuisArguments(new String[] { "--inconnu=1" }));
+    }
+
+    /**
+     * Test que le tirage des types est reproductible et respecte les poids.
+     */
+    @Test
+    void testMelangeReproductible() {
+        GenerateurCharge.Configuration configuration = GenerateurCharge.Configuration.depuisArguments(
+                new String[] { "--melange=fromage:3,vegetarienne:1", "--graine=7" });
+        GenerateurCharge g1 = new GenerateurCharge(configuration, new PizzaFactory(), new CommandeManager());
+        GenerateurCharge g2 = new GenerateurCharge(configuration, new PizzaFactory(), new CommandeManager());
+
+        int fromages = 0;
+        for (long i = 0; i < 10_000; i++) {
+            assertEquals(g1.choisirType(i), g2.choisirType(i));
+            if (g1.choisirType(i).equals("fromage")) {
+                fromages++;
+            }
+        }
+        assertEquals(7_500, fromages, 300);
+    }
+
+    /**
+     * Test une courte campagne de charge en boucle ouverte.
+     */
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testCampagneCourte() throws InterruptedException {
+        CommandeManager manager = new CommandeManager();
+        GenerateurCharge.Configuration configuration = new GenerateurCharge.Configuration(
+                2_000, 1, 2, Map.of("fromage", 1, "vegetarienne", 1), 42, 100);
+
+        GenerateurCharge.Rapport rapport = new GenerateurCharge(configuration, new PizzaFactory(), manager).executer();
+
+        assertEquals(2_000, rapport.prevues());
+        assertEquals(2_000, rapport.traitees());
+        assertEquals(0, rapport.erreurs());
+        assertTrue(rapport.debitSoutenu() > 0);
+        assertTrue(rapport.latence().percentile(99) >= rapport.service().percentile(50));
+        assertEquals(0, manager.getNombreCommandes());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe HistogrammeLatence.
+ * Vérifie la précision des percentiles et les statistiques de base.
+ */
+class HistogrammeLatenceTest {
+
+    /**
+     * Test les percentiles sur une distribution uniforme.
+     */
+    @Test
+    void testPercentiles() {
+        HistogrammeLatence histogramme = new HistogrammeLatence();
+        for (long v = 1; v <= 100_000; v++) {
+            histogramme.enregistrer(v);
+        }
+
+        assertEquals(100_000, histogramme.getNombre());
+        assertEquals(100_000, histogramme.getMax());
+        assertEquals(50_000.5, histogramme.getMoyenne(), 1e-6);
+        assertEquals(50_000, histogramme.percentile(50), 50_000 * 0.0625);
+        assertEquals(99_000, histogramme.percentile(99), 99_000 * 0.0625);
+        assertEquals(100_000, histogramme.percentile(100));
+    }
+
+    /**
+     * Test que chaque valeur est rangée dans un intervalle qui la contient.
+     */
+    @Test
+    void testIntervalles() {
+        for (long v : new long[] { 0, 1, 15, 16, 31, 32, 1_000, 123_456_789L, Long.MAX_VALUE / 3 }) {
+            int indice = HistogrammeLatence.indice(v);
+            assertTrue(HistogrammeLatence.borneSuperieure(indice) >= v, "Borne trop basse pour " + v);
+            assertTrue(indice == 0 || HistogrammeLatence.borneSuperieure(indice - 1) < v,
+                    "Intervalle trop large pour " + v);
+        }
+    }
+
+    /**
+     * Test un histogramme vide et sa remise à zéro.
+     */
+    @Test
+    void testVideEtReinitialisation() {
+        HistogrammeLatence histogramme = new HistogrammeLatence();
+        assertEquals(0, histogramme.percentile(99));
+
+        histogramme.enregistrer(42);
+        histogramme.reinitialiser();
+        assertEquals(0, histogramme.getNombre());
+        assertEquals(0, histogramme.getMax());
+        assertThrows(IllegalArgumentException.class, () -> histogramme.percentile(101));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tests unitaires pour la classe ImageDemarrage.
+ * Vérifie qu'un carnet rechargé depuis l'image est identique à celui qui a
+ * été écrit, le menu de l'image et le rejet des images invalides.
+ */
+class ImageDemarrageTest {
+
+    @TempDir
+    Path dossier;
+
+    /**
+     * Test qu'une commande rechargée garde son identifiant, sa classe, sa
+     * recette, son état et son adresse, et que les recettes en clair sont
+     * décodées une fois pour toutes les commandes qui les partagent.
+     */
+    @Test
+    void testAllerRetour() throws IOException {
+        CommandeManager source = new CommandeManager();
+        Pizza fromage = new PizzaFromage();
+        fromage.setPointLivraison(new PointLivraison(120.5, -40));
+        fromage.avancerVers(EtatCommande.EN_PREPARATION);
+        fromage.avancerVers(EtatCommande.EN_CUISSON);
+        fromage.avancerVers(EtatCommande.EMBALLEE);
+        Pizza vegetarienne = new PizzaVegetarienne();
+        vegetarienne.annuler();
+        RecettePizza exotique = RecettePizza.creer("Fine", null, true, false, List.of("Ananas", "Jambon"));
+        Pizza personnalisee1 = new PizzaPersonnalisee(exotique);
+        Pizza personnalisee2 = new PizzaPersonnalisee(exotique);
+        source.ajouterCommandes(List.of(fromage, vegetarienne, personnalisee1, personnalisee2));
+        Path fichier = dossier.resolve("carnet.img");
+
+        assertEquals(4, ImageDemarrage.ecrire(source, fichier));
+        CommandeManager cible = new CommandeManager();
+        ImageDemarrage image = ImageDemarrage.ouvrir(fichier);
+        List<Pizza> notifiees = new CopyOnWriteArrayList<>();
+        EcouteurTransitions ecouteur = (pizza, ancien, nouveau) -> notifiees.add(pizza);
+        Pizza.ajouterEcouteur(ecouteur);
+        try {
+            assertEquals(4, image.charger(cible));
+        } finally {
+            Pizza.retirerEcouteur(ecouteur);
+        }
+        // Les états sont restaurés sans rejouer de transition
+        for (Pizza pizza : cible.getCommandes()) {
+            assertFalse(notifiees.contains(pizza));
+        }
+
+        List<Pizza> rechargees = cible.getCommandes();
+        assertEquals(4, rechargees.size());
+        Pizza f = rechargees.get(0);
+        assertInstanceOf(PizzaFromage.class, f);
+        assertEquals(fromage.getId(), f.getId());
+        assertSame(fromage.getRecette(), f.getRecette());
+        assertEquals(EtatCommande.EMBALLEE, f.getEtat());
+        assertEquals(new PointLivraison(120.5, -40), f.getPointLivraison());
+        assertInstanceOf(PizzaVegetarienne.class, rechargees.get(1));
+        assertEquals(EtatCommande.ANNULEE, rechargees.get(1).getEtat());
+        assertNull(rechargees.get(1).getPointLivraison());
+        Pizza p1 = rechargees.get(2);
+        assertInstanceOf(PizzaPersonnalisee.class, p1);
+        assertEquals(Arrays.asList("Fine", null), Arrays.asList(p1.getTypePate(), p1.getTypeSauce()));
+        assertEquals(List.of("Ananas", "Jambon"), p1.getGarnitures());
+        assertSame(p1.getRecette(), rechargees.get(3).getRecette());
+        assertTrue(new PizzaFromage().getId() > personnalisee2.getId());
+    }
+
+    /**
+     * Test le menu de l'image : recettes décodées à la demande, prix, et
+     * pizzas créées par une factory à partir du menu.
+     */
+    @Test
+    void testMenu() throws IOException {
+        Path fichier = dossier.resolve("vide.img");
+        ImageDemarrage.ecrire(new CommandeManager(), fichier);
+
+        ImageDemarrage image = ImageDemarrage.ouvrir(fichier);
+
+        assertEquals(0, image.getNombreCommandes());
+        assertEquals(List.of("fromage", "vegetarienne"), image.getTypesMenu());
+        RecettePizza fromage = image.recetteMenu("fromage");
+        assertSame(new PizzaFromage().getRecette(), fromage);
+        assertSame(fromage, image.recetteMenu("fromage"));
+        assertEquals(GrilleTarifaire.STANDARD.prix(fromage), image.prixMenu("fromage"));
+        assertThrows(IllegalArgumentException.class, () -> image.recetteMenu("calzone"));
+
+        Pizza creee = new PizzaFactory(image).createPizza("Fromage");
+        assertInstanceOf(PizzaFromage.class, creee);
+        assertSame(fromage, creee.getRecette());
+        assertSame(image.recetteMenu("vegetarienne"),
+                new PizzaFactory(image).createPizza("vegetarienne").getRecette());
+    }
+
+    /**
+     * Test qu'une image tronquée ou étrangère est refusée.
+     */
+    @Test
+    void testImageInvalide() throws IOException {
+        CommandeManager manager = new CommandeManager();
+        manager.ajouterCommande(new PizzaFromage());
+        Path fichier = dossier.resolve("carnet.img");
+        ImageDemarrage.ecrire(manager, fichier);
+        byte[] octets = Files.readAllBytes(fichier);
+
+        Files.write(fichier, Arrays.copyOf(octets, octets.length - 1));
+        assertThrows(IOException.class, () -> ImageDemarrage.ouvrir(fichier));
+        Files.write(fichier, "id,type\n1,fromage\n".getBytes());
+        assertThrows(IOException.class, () -> ImageDemarrage.ouvrir(fichier));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests unitaires pour la classe ImportCommandes.
+ * Vérifie l'import CSV et NDJSON, y compris le découpage en segments.
+ */
+class ImportCommandesTest {
+
+    @TempDir
+    Path repertoire;
+
+    /**
+     * Test l'import d'un fichier CSV avec en-tête, guillemets et ligne invalide.
+     */
+    @Test
+    void testImportCsv() throws IOException {
+        Path fichier = repertoire.resolve("commandes.csv");
+        Files.writeString(fichier, "type,client\r\nfromage,alice\r\n\"Vegetarienne\",bob\r\n\r\nhawaienne,carol\r\nFROMAGE\n");
+        CommandeManager manager = new CommandeManager();
+
+        ImportCommandes.Resultat resultat = new ImportCommandes(manager, new PizzaFactory()).importer(fichier);
+
+        assertEquals(3, resultat.importees());
+        assertEquals(1, resultat.rejetees());
+        assertEquals(3, manager.getNombreCommandes());
+        assertEquals(1, manager.getCommandes().stream().filter(p -> p instanceof PizzaVegetarienne).count());
+    }
+
+    /**
+     * Test l'import d'un fichier NDJSON.
+     */
+    @Test
+    void testImportNdjson() throws IOException {
+        Path fichier = repertoire.resolve("commandes.ndjson");
+        Files.writeString(fichier, "{\"client\":\"alice\",\"type\":\"fromage\"}\n{\"type\" : \"vegetarienne\"}\n{\"client\":\"bob\"}");
+        CommandeManager manager = new CommandeManager();
+
+        ImportCommandes.Resultat resultat = new ImportCommandes(manager, new PizzaFactory()).importer(fichier);
+
+        assertEquals(2, resultat.importees());
+        assertEquals(1, resultat.rejetees());
+    }
+
+    /**
+     * Test qu'aucune ligne n'est perdue ni coupée avec de très petits segments
+     * analysés en parallèle.
+     */
+    @Test
+    void testDecoupageEnSegments() throws IOException {
+        StringBuilder contenu = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            contenu.append(i % 3 == 0 ? "vegetarienne" : "fromage").append(",client-").append(i).append('\n');
+        }
+        Path fichier = repertoire.resolve("gros.csv");
+        Files.writeString(fichier, contenu);
+        CommandeManager manager = new CommandeManager();
+
+        ImportCommandes.Resultat resultat = new ImportCommandes(manager, new PizzaFactory(), 100).importer(fichier);
+
+        assertEquals(10_000, resultat.importees());
+        assertEquals(0, resultat.rejetees());
+        assertEquals(10_000, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test qu'un lot contenant une pizza null est refusé en entier.
+     */
+    @Test
+    void testLotAtomique() {
+        CommandeManager manager = new CommandeManager();
+        List<Pizza> lot = new ArrayList<>();
+        lot.add(new PizzaFactory().createPizza("fromage"));
+        lot.add(null);
+
+        assertThrows(IllegalArgumentException.class, () -> manager.ajouterCommandes(lot));
+        assertEquals(0, manager.getNombreCommandes());
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests unitaires pour la classe Inventaire.
+ * Vérifie les réservations tout-ou-rien et leur intégration au gestionnaire de
+ * commandes.
+ */
+class InventaireTest {
+
+    /**
+     * Test qu'une réservation décrémente chaque garniture de la pizza.
+     */
+    @Test
+    void testReservation() {
+        Inventaire inventaire = new Inventaire();
+        inventaire.reapprovisionner(Garniture.MOZZARELLA, 3);
+        inventaire.reapprovisionner(Garniture.EMMENTAL, 3);
+
+        assertTrue(inventaire.reserver(new PizzaFromage()));
+
+        assertEquals(2, inventaire.getStock(Garniture.MOZZARELLA));
+        assertEquals(2, inventaire.getStock(Garniture.EMMENTAL));
+        assertEquals(0, inventaire.getStock(Garniture.JAMBON));
+    }
+
+    /**
+     * Test qu'une rupture sur une seule garniture annule toute la réservation.
+     */
+    @Test
+    void testReservationToutOuRien() {
+        Inventaire inventaire = new Inventaire();
+        inventaire.reapprovisionner(Garniture.CHAMPIGNONS, 5);
+        inventaire.reapprovisionner(Garniture.POIVRONS, 5);
+
+        assertFalse(inventaire.reserver(new PizzaVegetarienne()));
+
+        assertEquals(5, inventaire.getStock(Garniture.CHAMPIGNONS));
+        assertEquals(5, inventaire.getStock(Garniture.POIVRONS));
+        assertEquals(0, inventaire.getStock(Garniture.OIGNONS));
+    }
+
+    /**
+     * Test que le gestionnaire réserve à l'ajout et libère à la suppression.
+     */
+    @Test
+    void testIntegrationGestionnaire() {
+        Inventaire inventaire = new Inventaire();
+        inventaire.reapprovisionner(Garniture.MOZZARELLA, 1);
+        inventaire.reapprovisionner(Garniture.EMMENTAL, 1);
+        CommandeManager manager = new CommandeManager();
+        manager.setInventaire(inventaire);
+        Pizza premiere = new PizzaFromage();
+
+        manager.ajouterCommande(premiere);
+        manager.ajouterCommande(premiere);
+        assertThrows(IllegalStateException.class, () -> manager.ajouterCommande(new PizzaFromage()));
+        assertEquals(1, manager.getNombreCommandes());
+        assertEquals(0, inventaire.getStock(Garniture.MOZZARELLA));
+
+        manager.supprimerCommande(premiere);
+        assertEquals(1, inventaire.getStock(Garniture.MOZZARELLA));
+        assertEquals(1, inventaire.getStock(Garniture.EMMENTAL));
+    }
+
+    /**
+     * Test qu'un lot trop gros pour le stock n'est ni ajouté ni réservé.
+     */
+    @Test
+    void testLotToutOuRien() {
+        Inventaire inventaire = new Inventaire();
+        inventaire.reapprovisionner(Garniture.MOZZARELLA, 2);
+        inventaire.reapprovisionner(Garniture.EMMENTAL, 2);
+        CommandeManager manager = new CommandeManager();
+        manager.setInventaire(inventaire);
+
+        assertThrows(IllegalStateException.class, () -> manager.ajouterCommandes(
+                List.of(new PizzaFromage(), new PizzaFromage(), new PizzaFromage())));
+
+        assertEquals(0, manager.getNombreCommandes());
+        assertEquals(2, inventaire.getStock(Garniture.MOZZARELLA));
+        assertEquals(2, inventaire.getStock(Garniture.EMMENTAL));
+    }
+
+    /**
+     * Test que les garnitures d'une commande en préparation restent consommées.
+     */
+    @Test
+    void testCommandePrepareeNonLiberee() {
+        Inventaire inventaire = new Inventaire();
+        inventaire.reapprovisionner(Garniture.MOZZARELLA, 1);
+        inventaire.reapprovisionner(Garniture.EMMENTAL, 1);
+        CommandeManager manager = new CommandeManager();
+        manager.setInventaire(inventaire);
+        Pizza pizza = new PizzaFromage();
+        manager.ajouterCommande(pizza);
+
+        pizza.preparer();
+        manager.viderCommandes();
+
+        assertEquals(0, inventaire.getStock(Garniture.MOZZARELLA));
+    }
+
+    /**
+     * Test que les garnitures d'une commande annulée en cours de cuisson ne
+     * sont pas restituées, contrairement à celles d'une commande annulée
+     * avant sa préparation.
+     */
+    @Test
+    void testCommandeAnnuleeApresPreparation() {
+        Inventaire inventaire = new Inventaire();
+        inventaire.reapprovisionner(Garniture.MOZZARELLA, 2);
+        inventaire.reapprovisionner(Garniture.EMMENTAL, 2);
+        CommandeManager manager = new CommandeManager();
+        manager.setInventaire(inventaire);
+        Pizza cuite = new PizzaFromage();
+        Pizza recue = new PizzaFromage();
+        manager.ajouterCommande(cuite);
+        manager.ajouterCommande(recue);
+
+        cuite.preparer();
+        cuite.cuire();
+        cuite.annuler();
+        recue.annuler();
+        manager.supprimerCommande(cuite);
+        manager.supprimerCommande(recue);
+
+        assertTrue(cuite.isPreparationCommencee());
+        assertFalse(recue.isPreparationCommencee());
+        assertEquals(1, inventaire.getStock(Garniture.MOZZARELLA));
+        assertEquals(1, inventaire.getStock(Garniture.EMMENTAL));
+    }
+
+    /**
+     * Test qu'un inventaire ne peut pas être branché sur un carnet qui
+     * contient déjà des commandes, dont il n'a rien réservé.
+     */
+    @Test
+    void testInventaireSurCarnetNonVide() {
+        Inventaire inventaire = new Inventaire();
+        CommandeManager manager = new CommandeManager();
+        Pizza pizza = new PizzaFromage();
+        manager.ajouterCommande(pizza);
+
+        assertThrows(IllegalStateException.class, () -> manager.setInventaire(inventaire));
+        manager.supprimerCommande(pizza);
+
+        assertEquals(0, inventaire.getStock(Garniture.MOZZARELLA));
+        manager.setInventaire(inventaire);
+        assertThrows(IllegalStateException.class, () -> manager.ajouterCommande(new PizzaFromage()));
+    }
+
+    /**
+     * Test que des réservations concurrentes ne dépassent jamais le stock.
+     */
+    @Test
+    void testReservationsConcurrentes() throws InterruptedException {
+        Inventaire inventaire = new Inventaire();
+        inventaire.reapprovisionner(Garniture.MOZZARELLA, 100);
+        inventaire.reapprovisionner(Garniture.EMMENTAL, 100);
+        AtomicInteger reussites = new AtomicInteger();
+        int nombreThreads = 4;
+        CountDownLatch depart = new CountDownLatch(1);
+        Thread[] threads = new Thread[nombreThreads];
+        for (int t = 0; t < nombreThreads; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    depart.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 50; i++) {
+                    if (inventaire.reserver(new PizzaFromage())) {
+                        reussites.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        depart.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100, reussites.get());
+        assertEquals(0, inventaire.getStock(Garniture.MOZZARELLA));
+        assertEquals(0, inventaire.getStock(Garniture.EMMENTAL));
+    }
+}
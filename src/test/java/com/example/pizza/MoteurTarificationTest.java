@@ -0,0 +1,62 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+
+/**
+ * Tests unitaires pour les classes GrilleTarifaire et MoteurTarification.
+ * Vérifie le calcul des prix et le re-chiffrage d'un carnet de commandes.
+ */
+class MoteurTarificationTest {
+
+    /**
+     * Test le prix des pizzas de la grille standard.
+     */
+    @Test
+    void testPrixStandard() {
+        GrilleTarifaire grille = GrilleTarifaire.STANDARD;
+
+        // Fine 600 + Tomate 100 + fromage 100 + Mozzarella 150 + Emmental 150
+        assertEquals(1100, grille.prix(new PizzaFromage()));
+        // Fine 600 + Tomate 100 + légumes 100 + 100 + 100 + 80
+        assertEquals(1080, grille.prix(new PizzaVegetarienne()));
+    }
+
+    /**
+     * Test qu'une garniture répétée est facturée à chaque occurrence et qu'un
+     * libellé libre n'est pas facturé.
+     */
+    @Test
+    void testGarnituresRepeteesEtLibres() {
+        GrilleTarifaire grille = GrilleTarifaire.VIDE.avecPrixGarniture(Garniture.OLIVES, 50);
+        RecettePizza recette = RecettePizza.creer("Maison", "Tomate", false, false,
+                List.of("Olives", "Olives", "Anchois"));
+
+        assertEquals(100, grille.prix(recette));
+        assertThrows(IllegalArgumentException.class, () -> grille.avecPrixPate("Maison", 100));
+        assertThrows(IllegalArgumentException.class, () -> grille.avecPrixBase(-1));
+    }
+
+    /**
+     * Test le re-chiffrage du carnet après un changement de menu.
+     */
+    @Test
+    void testChangerMenu() {
+        CommandeManager manager = new CommandeManager();
+        for (int i = 0; i < 1000; i++) {
+            manager.ajouterCommande(i % 2 == 0 ? new PizzaFromage() : new PizzaVegetarienne());
+        }
+        MoteurTarification moteur = new MoteurTarification();
+
+        MoteurTarification.Chiffrage avant = moteur.chiffrer(manager);
+        MoteurTarification.Chiffrage apres = moteur.changerMenu(
+                GrilleTarifaire.STANDARD.avecPrixBase(50), manager);
+
+        assertEquals(1000, avant.getNombre());
+        assertEquals(500 * 1100 + 500 * 1080, avant.total());
+        assertEquals(avant.total() + 1000 * 50, apres.total());
+        assertEquals(manager.getCommandes().get(0).getId(), apres.identifiants()[0]);
+        assertEquals(1150, apres.prix()[0]);
+    }
+}
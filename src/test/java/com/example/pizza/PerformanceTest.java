@@ -53,7 +53,7 @@ class PerformanceTest {
     @Timeout(value = TIMEOUT_MS, unit = TimeUnit.MILLISECONDS)
     @DisplayName("Test de performance de gestion des commandes")
     void testCommandeManagementPerformance() {
-        CommandeManager manager = CommandeManager.getInstance();
+        CommandeManager manager = new CommandeManager();
         PizzaFactory factory = new PizzaFactory();
         List<Pizza> pizzas = new ArrayList<>();
 
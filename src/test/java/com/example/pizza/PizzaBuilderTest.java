@@ -102,4 +102,23 @@ class PizzaBuilderTest {
             builder.sauceTomate().build();
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Test la construction d'une pizza avec plus de garnitures que la clé
+     * canonique ne peut en représenter.
+     */
+    @Test
+    void testBuildPizzaNombreusesGarnitures() {
+        Pizza pizza = new TestPizza();
+        Pizza.PizzaBuilder builder = new Pizza.PizzaBuilder(pizza).pateEpaisse().sauceCreme();
+        for (int i = 0; i < RecettePizza.MAX_GARNITURES_ENCODABLES + 3; i++) {
+            builder.ajouterOlives();
+        }
+        builder.ajouterJambon().build();
+
+        List<String> garnitures = pizza.getGarnitures();
+        assertEquals(RecettePizza.MAX_GARNITURES_ENCODABLES + 4, garnitures.size());
+        assertEquals("Jambon", garnitures.get(garnitures.size() - 1));
+        assertEquals("Crème", pizza.getTypeSauce());
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests unitaires pour la classe RegistreIdempotence et les soumissions avec
+ * clé du CommandeManager.
+ * Vérifie la détection des doublons, la rétention bornée et les soumissions
+ * concurrentes.
+ */
+class RegistreIdempotenceTest {
+    private static final long MINUTE = 60_000_000_000L;
+
+    /**
+     * Test qu'une soumission répétée retourne la commande d'origine.
+     */
+    @Test
+    void testDoublon() {
+        CommandeManager manager = new CommandeManager();
+        Pizza originale = new PizzaFromage();
+
+        assertSame(originale, manager.ajouterCommande("terminal-1/42", originale));
+        assertSame(originale, manager.ajouterCommande("terminal-1/42", new PizzaFromage()));
+        assertEquals(1, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test que des clés distinctes ne sont jamais confondues.
+     */
+    @Test
+    void testClesDistinctes() {
+        CommandeManager manager = new CommandeManager();
+        manager.setIdempotence(new RegistreIdempotence(Duration.ofMinutes(10), 1_000, System::nanoTime));
+
+        for (int i = 0; i < 20_000; i++) {
+            manager.ajouterCommande("cle-" + i, new PizzaVegetarienne());
+        }
+
+        assertEquals(20_000, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test qu'une clé est retenue au moins pendant la rétention, puis oubliée.
+     */
+    @Test
+    void testRetentionBornee() {
+        AtomicLong horloge = new AtomicLong(0);
+        RegistreIdempotence registre = new RegistreIdempotence(Duration.ofMinutes(3), 1_000, horloge::get);
+        Pizza originale = new PizzaFromage();
+        registre.enregistrer("cle", originale);
+
+        for (int minute = 1; minute <= 3; minute++) {
+            horloge.set(minute * MINUTE);
+            assertSame(originale, registre.trouver("cle"), "clé oubliée après " + minute + " min");
+        }
+        horloge.set(5 * MINUTE);
+        assertNull(registre.trouver("cle"));
+        assertNull(registre.enregistrer("cle", new PizzaFromage()));
+    }
+
+    /**
+     * Test qu'un ajout refusé ne retient pas la clé.
+     */
+    @Test
+    void testAjoutRefuse() {
+        CommandeManager manager = new CommandeManager();
+        manager.setInventaire(new Inventaire());
+        Pizza pizza = new PizzaFromage();
+
+        assertThrows(IllegalStateException.class, () -> manager.ajouterCommande("cle", pizza));
+        manager.setInventaire(null);
+
+        assertSame(pizza, manager.ajouterCommande("cle", pizza));
+        assertEquals(1, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test qu'une soumission répétée pendant l'ajout de la commande d'origine
+     * attend cet ajout, et échoue avec lui faute de stock au lieu de
+     * confirmer une commande qui n'existe pas.
+     */
+    @Test
+    void testDoublonPendantAjoutRefuse() throws Exception {
+        CountDownLatch reservation = new CountDownLatch(1);
+        CountDownLatch rupture = new CountDownLatch(1);
+        CommandeManager manager = new CommandeManager();
+        manager.setInventaire(new Inventaire() {
+            @Override
+            public boolean reserver(Pizza pizza) {
+                reservation.countDown();
+                try {
+                    rupture.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }
+        });
+
+        CompletableFuture<Pizza> originale = CompletableFuture.supplyAsync(
+                () -> manager.ajouterCommande("cle", new PizzaFromage()));
+        assertTrue(reservation.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Pizza> doublon = CompletableFuture.supplyAsync(
+                () -> manager.ajouterCommande("cle", new PizzaFromage()));
+        Thread.sleep(50);
+        assertFalse(doublon.isDone());
+        rupture.countDown();
+
+        ExecutionException echec = assertThrows(ExecutionException.class, () -> originale.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, echec.getCause());
+        echec = assertThrows(ExecutionException.class, () -> doublon.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, echec.getCause());
+        assertTrue(echec.getCause().getMessage().contains("Stock insuffisant"));
+        assertEquals(0, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test que des soumissions simultanées de la même clé n'ajoutent qu'une
+     * commande.
+     */
+    @Test
+    void testSoumissionsConcurrentes() throws InterruptedException {
+        CommandeManager manager = new CommandeManager();
+        Set<Pizza> retournees = ConcurrentHashMap.newKeySet();
+        CountDownLatch depart = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    depart.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    retournees.add(manager.ajouterCommande("cle-" + i, new PizzaFromage()));
+                }
+            });
+            threads[t].start();
+        }
+        depart.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1_000, manager.getNombreCommandes());
+        assertEquals(1_000, retournees.size());
+    }
+
+    /**
+     * Test que des soumissions simultanées de la même clé, pendant qu'une
+     * rotation des générations a lieu, retournent toutes la même commande.
+     * L'horloge avance d'un tic à chaque lecture et une génération dure
+     * quatre tics : presque chaque tour croise une rotation.
+     */
+    @Test
+    void testSoumissionsConcurrentesPendantRotation() throws Exception {
+        AtomicLong horloge = new AtomicLong();
+        RegistreIdempotence registre = new RegistreIdempotence(Duration.ofNanos(12), 64,
+                horloge::getAndIncrement);
+        int tours = 2_000;
+        Pizza[][] resultats = new Pizza[tours][4];
+        Pizza[][] soumises = new Pizza[tours][4];
+        CyclicBarrier barriere = new CyclicBarrier(4);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int indice = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int tour = 0; tour < tours; tour++) {
+                        soumises[tour][indice] = new PizzaFromage();
+                        barriere.await();
+                        resultats[tour][indice] = registre.enregistrer("cle-" + tour, soumises[tour][indice]);
+                    }
+                } catch (Exception e) {
+                    barriere.reset();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int tour = 0; tour < tours; tour++) {
+            Pizza gagnante = null;
+            int nouvelles = 0;
+            for (int t = 0; t < 4; t++) {
+                if (resultats[tour][t] == null) {
+                    gagnante = soumises[tour][t];
+                    nouvelles++;
+                }
+            }
+            assertEquals(1, nouvelles, "tour " + tour);
+            for (int t = 0; t < 4; t++) {
+                if (resultats[tour][t] != null) {
+                    assertSame(gagnante, resultats[tour][t], "tour " + tour);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests unitaires pour les classes GrilleSpatiale et RegroupeurLivraisons.
+ * Vérifie l'index spatial, la formation des tournées à l'échéance de la
+ * fenêtre ou dès qu'elles sont pleines, et le suivi des transitions.
+ */
+class RegroupeurLivraisonsTest {
+
+    private static Pizza pizzaLivree(double x, double y) {
+        Pizza pizza = new PizzaFromage();
+        pizza.setPointLivraison(new PointLivraison(x, y));
+        return pizza;
+    }
+
+    /**
+     * Test les recherches de voisins de la grille, de part et d'autre des
+     * limites de cellules, et le retrait.
+     */
+    @Test
+    void testGrilleSpatiale() {
+        GrilleSpatiale<String> grille = new GrilleSpatiale<>(100);
+        grille.ajouter("a", new PointLivraison(-5, -5));
+        grille.ajouter("b", new PointLivraison(30, 0));
+        grille.ajouter("c", new PointLivraison(0, 90));
+        grille.ajouter("d", new PointLivraison(400, 400));
+
+        assertFalse(grille.ajouter("a", new PointLivraison(1, 1)));
+        assertEquals(List.of("a", "b", "c"), grille.voisins(new PointLivraison(0, 0), 100, 10));
+        assertEquals(List.of("a", "b"), grille.voisins(new PointLivraison(0, 0), 100, 2));
+        assertTrue(grille.retirer("a"));
+        assertFalse(grille.retirer("a"));
+        assertEquals(List.of("b"), grille.voisins(new PointLivraison(0, 0), 50, 10));
+        assertEquals(new PointLivraison(400, 400), grille.position("d"));
+        assertEquals(3, grille.getTaille());
+        assertThrows(IllegalArgumentException.class, () -> new PointLivraison(Double.NaN, 0));
+    }
+
+    /**
+     * Test qu'à l'échéance de sa fenêtre, une commande part avec ses voisines
+     * dans le rayon, dans l'ordre de proche en proche, et que les commandes
+     * éloignées forment leur propre tournée.
+     */
+    @Test
+    void testFenetre() {
+        AtomicLong horloge = new AtomicLong();
+        List<RegroupeurLivraisons.Tournee> tournees = new ArrayList<>();
+        RegroupeurLivraisons regroupeur = new RegroupeurLivraisons(Duration.ofNanos(1_000), 500, 4,
+                tournees::add, horloge::get);
+        Pizza premiere = pizzaLivree(0, 0);
+        Pizza lointaine = pizzaLivree(300, 0);
+        Pizza proche = pizzaLivree(100, 0);
+        Pizza isolee = pizzaLivree(5_000, 5_000);
+        Pizza aEmporter = new PizzaFromage();
+
+        regroupeur.confier(premiere);
+        horloge.set(400);
+        regroupeur.confier(lointaine);
+        regroupeur.confier(proche);
+        regroupeur.confier(isolee);
+        assertFalse(regroupeur.confier(aEmporter));
+
+        horloge.set(999);
+        assertEquals(0, regroupeur.regrouper());
+        horloge.set(1_000);
+        assertEquals(1, regroupeur.regrouper());
+        assertEquals(List.of(premiere, proche, lointaine), tournees.get(0).commandes());
+        assertEquals(1, regroupeur.getNombreEnAttente());
+
+        horloge.set(1_400);
+        assertEquals(1, regroupeur.regrouper());
+        assertEquals(List.of(isolee), tournees.get(1).commandes());
+        assertEquals(0, regroupeur.getNombreEnAttente());
+        assertEquals(4, regroupeur.getNombreRegroupees());
+    }
+
+    /**
+     * Test qu'une tournée pleine part dès l'emballage qui la complète, et
+     * qu'une commande annulée après son emballage n'est pas livrée.
+     */
+    @Test
+    void testTourneePleine() {
+        AtomicLong horloge = new AtomicLong();
+        List<RegroupeurLivraisons.Tournee> tournees = new ArrayList<>();
+        RegroupeurLivraisons regroupeur = new RegroupeurLivraisons(Duration.ofMinutes(5), 1_000, 3,
+                tournees::add, horloge::get);
+        regroupeur.brancher();
+        try {
+            Pizza annulee = pizzaLivree(10, 10);
+            List<Pizza> pizzas = List.of(pizzaLivree(0, 0), pizzaLivree(200, 0), pizzaLivree(0, 200));
+            annulee.preparer();
+            annulee.cuire();
+            annulee.emballer();
+            annulee.annuler();
+            assertEquals(0, regroupeur.getNombreEnAttente());
+
+            for (Pizza pizza : pizzas) {
+                pizza.preparer();
+                pizza.cuire();
+                pizza.emballer();
+            }
+
+            assertEquals(1, tournees.size());
+            assertEquals(Set.copyOf(pizzas), Set.copyOf(tournees.get(0).commandes()));
+            assertEquals(0, regroupeur.getNombreEnAttente());
+        } finally {
+            regroupeur.arreter();
+        }
+    }
+
+    /**
+     * Test que des milliers de commandes réparties dans la ville partent
+     * toutes, une seule fois, en tournées respectant la capacité et le rayon.
+     */
+    @Test
+    void testVolume() {
+        AtomicLong horloge = new AtomicLong();
+        List<RegroupeurLivraisons.Tournee> tournees = new ArrayList<>();
+        RegroupeurLivraisons regroupeur = new RegroupeurLivraisons(Duration.ofNanos(60_000), 800, 5,
+                tournees::add, horloge::get);
+        Random aleatoire = new Random(42);
+        Set<Pizza> confiees = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            horloge.set(i * 10L);
+            Pizza pizza = pizzaLivree(aleatoire.nextDouble() * 10_000, aleatoire.nextDouble() * 10_000);
+            regroupeur.confier(pizza);
+            confiees.add(pizza);
+            if (i % 100 == 0) {
+                regroupeur.regrouper();
+            }
+        }
+        horloge.addAndGet(60_000);
+        regroupeur.regrouper();
+
+        Set<Pizza> livrees = new HashSet<>();
+        for (RegroupeurLivraisons.Tournee tournee : tournees) {
+            List<Pizza> commandes = tournee.commandes();
+            assertTrue(commandes.size() <= 5);
+            for (Pizza pizza : commandes) {
+                assertTrue(livrees.add(pizza));
+                assertTrue(pizza.getPointLivraison().distance(commandes.get(0).getPointLivraison()) <= 800);
+            }
+        }
+        assertEquals(confiees, livrees);
+        assertTrue(tournees.size() < 10_000 / 2, "Les commandes devraient être regroupées");
+    }
+}
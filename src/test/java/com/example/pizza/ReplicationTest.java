@@ -0,0 +1,253 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests unitaires pour les classes LeaderReplication, SuiveurReplication et
+ * ProtocoleReplication.
+ * Vérifie le format des opérations, la convergence des suiveurs et la
+ * bascule vers un suiveur lorsque le leader est perdu, y compris entre
+ * plusieurs JVM.
+ */
+class ReplicationTest {
+    private static final long DELAI_MS = 10_000;
+
+    private static List<InetSocketAddress> grappe(int taille) throws IOException {
+        List<InetSocketAddress> adresses = new ArrayList<>();
+        for (int i = 0; i < taille; i++) {
+            try (ServerSocket libre = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                adresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), libre.getLocalPort()));
+            }
+        }
+        return adresses;
+    }
+
+    private static void attendre(String description, BooleanSupplier condition) throws InterruptedException {
+        long limite = System.currentTimeMillis() + DELAI_MS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "Délai dépassé : " + description);
+            Thread.sleep(5);
+        }
+    }
+
+    private static List<Long> identifiants(CommandeManager manager) {
+        List<Long> ids = new ArrayList<>();
+        for (Pizza pizza : manager.getCommandes()) {
+            ids.add(pizza.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Test qu'une commande personnalisée est recréée à l'identique : id,
+     * classe, recette non encodable et état.
+     */
+    @Test
+    void testProtocole() throws IOException {
+        List<String> garnitures = new ArrayList<>();
+        for (int i = 0; i < RecettePizza.MAX_GARNITURES_ENCODABLES + 1; i++) {
+            garnitures.add(i % 2 == 0 ? "Jambon" : "Câpres");
+        }
+        Pizza originale = new PizzaPersonnalisee(RecettePizza.creer("Fine", "Pesto", true, false, garnitures));
+        originale.preparer();
+        originale.cuire();
+        ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        DataOutputStream sortie = new DataOutputStream(octets);
+        ProtocoleReplication.ecrireCommande(sortie, ProtocoleReplication.AJOUT, 42, originale);
+        ProtocoleReplication.ecrireMarque(sortie, ProtocoleReplication.VIDAGE, 43);
+
+        DataInputStream entree = new DataInputStream(new ByteArrayInputStream(octets.toByteArray()));
+        List<Pizza> notifiees = new CopyOnWriteArrayList<>();
+        EcouteurTransitions ecouteur = (pizza, ancien, nouveau) -> notifiees.add(pizza);
+        Pizza.ajouterEcouteur(ecouteur);
+        ProtocoleReplication.Operation ajout;
+        ProtocoleReplication.Operation vidage;
+        try {
+            ajout = ProtocoleReplication.lire(entree);
+            vidage = ProtocoleReplication.lire(entree);
+        } finally {
+            Pizza.retirerEcouteur(ecouteur);
+        }
+
+        Pizza copie = ajout.pizza();
+        assertEquals(42, ajout.sequence());
+        assertEquals(originale.getId(), copie.getId());
+        assertInstanceOf(PizzaPersonnalisee.class, copie);
+        assertEquals(EtatCommande.EN_CUISSON, copie.getEtat());
+        assertTrue(copie.isPreparationCommencee());
+        // L'état est restauré sans rejouer les transitions
+        assertFalse(notifiees.contains(copie));
+        assertEquals("Pesto", copie.getTypeSauce());
+        assertEquals(originale.getGarnitures(), copie.getGarnitures());
+        assertEquals(ProtocoleReplication.VIDAGE, vidage.type());
+        assertEquals(43, vidage.sequence());
+    }
+
+    /**
+     * Test que les suiveurs reçoivent l'instantané puis les modifications, et
+     * que le premier suiveur prend la relève du leader arrêté.
+     */
+    @Test
+    void testReplicationEtBascule() throws Exception {
+        List<InetSocketAddress> adresses = grappe(3);
+        CommandeManager source = new CommandeManager();
+        Pizza avant = new PizzaFromage();
+        source.ajouterCommande(avant);
+        LeaderReplication leader = new LeaderReplication(source, adresses.get(0));
+        leader.demarrer();
+        SuiveurReplication premier = new SuiveurReplication(adresses, 1);
+        SuiveurReplication second = new SuiveurReplication(adresses, 2);
+        premier.demarrer();
+        second.demarrer();
+        try {
+            Pizza pendant = new PizzaVegetarienne();
+            source.ajouterCommande(pendant);
+            source.ajouterCommande(new PizzaFromage());
+            source.supprimerCommande(avant);
+
+            attendre("réplication", () -> identifiants(premier.getManager()).equals(identifiants(source))
+                    && identifiants(second.getManager()).equals(identifiants(source)));
+            assertInstanceOf(PizzaVegetarienne.class, premier.getManager().trouverCommande(pendant.getId()));
+            attendre("acquittements", () -> leader.getNombreSuiveurs() == 2
+                    && leader.getSequenceAcquittee() == premier.getSequenceAppliquee()
+                    && leader.getSequenceAcquittee() == second.getSequenceAppliquee());
+
+            leader.arreter();
+            attendre("promotion", () -> premier.isLeader() && second.getRangLeader() == 1
+                    && premier.getLeader().getNombreSuiveurs() == 1);
+            Pizza apres = new PizzaFromage();
+            premier.getManager().ajouterCommande(apres);
+            premier.getManager().supprimerCommande(pendant.getId());
+            attendre("réplication depuis le nouveau leader",
+                    () -> identifiants(second.getManager()).equals(identifiants(premier.getManager())));
+            assertNotNull(second.getManager().trouverCommande(apres.getId()));
+            assertNull(second.getManager().trouverCommande(pendant.getId()));
+        } finally {
+            leader.arreter();
+            premier.arreter();
+            second.arreter();
+        }
+    }
+
+    /**
+     * Test qu'un suiveur déconnecté pour avoir laissé déborder sa file se
+     * reconnecte au même leader et se resynchronise, sans se promouvoir.
+     */
+    @Test
+    void testSuiveurLentResynchronise() throws Exception {
+        List<InetSocketAddress> adresses = grappe(2);
+        CommandeManager source = new CommandeManager();
+        LeaderReplication leader = new LeaderReplication(source, adresses.get(0));
+        leader.demarrer();
+        SuiveurReplication suiveur = new SuiveurReplication(adresses, 1);
+        CountDownLatch reprise = new CountDownLatch(1);
+        AtomicInteger envois = new AtomicInteger();
+        // Son encodage bloque les threads d'envoi du leader jusqu'à la reprise
+        Pizza bloquante = new PizzaFromage() {
+            @Override
+            public RecettePizza getRecette() {
+                if (Thread.currentThread().getName().startsWith("replication-envoi-")) {
+                    envois.incrementAndGet();
+                    try {
+                        reprise.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getRecette();
+            }
+        };
+        suiveur.demarrer();
+        try {
+            attendre("connexion", () -> leader.getNombreSuiveurs() == 1);
+            source.ajouterCommande(bloquante);
+            attendre("envoi bloqué", () -> envois.get() == 1);
+            // Un lot par ajout, jusqu'au débordement de la file du suiveur : le
+            // suiveur reconnecté reçoit un instantané, qui contient la commande
+            // bloquante, bien avant que son silence ne le fasse déconnecter
+            long debut = System.nanoTime();
+            while (envois.get() == 1) {
+                assertTrue(System.nanoTime() - debut < SuiveurReplication.DELAI_SILENCE.toNanos(),
+                        "Suiveur non reconnecté après le débordement de sa file");
+                source.ajouterCommande(new PizzaFromage());
+                LockSupport.parkNanos(20_000);
+            }
+            assertFalse(suiveur.isLeader());
+            reprise.countDown();
+
+            attendre("resynchronisation", () -> leader.getNombreSuiveurs() == 1
+                    && identifiants(suiveur.getManager()).equals(identifiants(source)));
+            assertFalse(suiveur.isLeader());
+            assertEquals(0, suiveur.getRangLeader());
+        } finally {
+            reprise.countDown();
+            leader.arreter();
+            suiveur.arreter();
+        }
+    }
+
+    /**
+     * Test la réplication depuis un leader lancé dans une autre JVM, puis la
+     * bascule lorsque ce processus est tué.
+     */
+    @Test
+    void testPlusieursJvm() throws Exception {
+        List<InetSocketAddress> adresses = grappe(2);
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        Process processus = new ProcessBuilder(java.toString(), "-cp", System.getProperty("java.class.path"),
+                LeaderReplication.class.getName(), String.valueOf(adresses.get(0).getPort()))
+                .redirectErrorStream(true)
+                .start();
+        SuiveurReplication suiveur = new SuiveurReplication(adresses, 1);
+        try {
+            BufferedReader lecture = new BufferedReader(
+                    new InputStreamReader(processus.getInputStream(), StandardCharsets.UTF_8));
+            Writer ecriture = new OutputStreamWriter(processus.getOutputStream(), StandardCharsets.UTF_8);
+            assertEquals("leader " + adresses.get(0).getPort(), lecture.readLine());
+            ecriture.write("fromage\nvegetarienne\nfromage\n");
+            ecriture.flush();
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                ids.add(Long.parseLong(lecture.readLine()));
+            }
+            suiveur.demarrer();
+            ecriture.write("supprimer " + ids.get(0) + "\n");
+            ecriture.flush();
+            assertEquals("ok", lecture.readLine());
+
+            attendre("réplication", () -> identifiants(suiveur.getManager()).equals(ids.subList(1, 3)));
+            assertInstanceOf(PizzaVegetarienne.class, suiveur.getManager().trouverCommande(ids.get(1)));
+
+            processus.destroyForcibly().waitFor();
+            attendre("promotion", suiveur::isLeader);
+            assertEquals(ids.subList(1, 3), identifiants(suiveur.getManager()));
+            // Les identifiants attribués ensuite ne réutilisent pas ceux du leader perdu
+            assertTrue(new PizzaFromage().getId() > ids.get(2));
+        } finally {
+            processus.destroyForcibly();
+            suiveur.arreter();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Tests d'intégration pour la classe ServeurCommandes.
+ * Vérifie la création, la consultation et l'annulation de commandes via HTTP.
+ */
+class ServeurCommandesTest {
+
+    private CommandeManager manager;
+    private ServeurCommandes serveur;
+    private HttpClient client;
+
+    @BeforeEach
+    void demarrer() throws Exception {
+        manager = new CommandeManager();
+        serveur = new ServeurCommandes(manager, new PizzaFactory(), new InetSocketAddress("localhost", 0), 2);
+        serveur.demarrer();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void arreter() {
+        serveur.arreter();
+    }
+
+    private HttpResponse<String> envoyer(String methode, String chemin) throws Exception {
+        HttpRequest requete = HttpRequest.newBuilder(URI.create("http://localhost:" + serveur.getPort() + chemin))
+                .method(methode, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(requete, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Test le cycle création, consultation, liste et annulation.
+     */
+    @Test
+    void testCycleCommande() throws Exception {
+        HttpResponse<String> creation = envoyer("POST", "/commandes?type=fromage");
+        assertEquals(201, creation.statusCode());
+        Pizza pizza = manager.getCommandes().get(0);
+        assertEquals("{\"id\":" + pizza.getId() + ",\"type\":\"fromage\",\"etat\":\"RECUE\"}", creation.body());
+
+        assertEquals(200, envoyer("GET", "/commandes/" + pizza.getId()).statusCode());
+        assertEquals("[" + creation.body() + "]", envoyer("GET", "/commandes").body());
+
+        HttpResponse<String> annulation = envoyer("DELETE", "/commandes/" + pizza.getId());
+        assertEquals(200, annulation.statusCode());
+        assertTrue(annulation.body().contains("ANNULEE"));
+        assertEquals(0, manager.getNombreCommandes());
+        assertEquals(404, envoyer("DELETE", "/commandes/" + pizza.getId()).statusCode());
+    }
+
+    /**
+     * Test qu'une création renvoyée avec la même clé d'idempotence retourne la
+     * commande d'origine.
+     */
+    @Test
+    void testCreationIdempotente() throws Exception {
+        HttpRequest requete = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + serveur.getPort() + "/commandes?type=fromage"))
+                .header("Idempotency-Key", "borne-3/17")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        HttpResponse<String> premiere = client.send(requete, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> seconde = client.send(requete, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(201, premiere.statusCode());
+        assertEquals(200, seconde.statusCode());
+        assertEquals(premiere.body(), seconde.body());
+        assertEquals(1, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test qu'une création refusée par le contrôle d'admission reçoit une
+     * réponse 503 avec un délai de nouvel essai.
+     */
+    @Test
+    void testCuisineSaturee() throws Exception {
+        serveur.setAdmission(new ControleAdmission(manager, Duration.ofSeconds(3), 1, 1, 1, System::nanoTime));
+
+        assertEquals(201, envoyer("POST", "/commandes?type=fromage").statusCode());
+        HttpResponse<String> refus = envoyer("POST", "/commandes?type=fromage");
+
+        assertEquals(503, refus.statusCode());
+        assertEquals("3", refus.headers().firstValue("Retry-After").orElse(null));
+        assertEquals(1, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test qu'une création refusée faute de stock reçoit une réponse 409.
+     */
+    @Test
+    void testStockInsuffisant() throws Exception {
+        manager.setInventaire(new Inventaire());
+
+        HttpResponse<String> refus = envoyer("POST", "/commandes?type=fromage");
+
+        assertEquals(409, refus.statusCode());
+        assertTrue(refus.body().contains("Stock insuffisant"));
+        assertEquals(0, manager.getNombreCommandes());
+    }
+
+    /**
+     * Test les requêtes invalides.
+     */
+    @Test
+    void testRequetesInvalides() throws Exception {
+        assertEquals(400, envoyer("POST", "/commandes?type=hawaienne").statusCode());
+        assertEquals(400, envoyer("GET", "/commandes/abc").statusCode());
+        assertEquals(404, envoyer("GET", "/commandes/999999999").statusCode());
+        assertEquals(405, envoyer("PUT", "/commandes").statusCode());
+    }
+
+    /**
+     * Test l'enchaînement de nombreuses requêtes sur une connexion persistante.
+     */
+    @Test
+    void testConnexionPersistante() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            assertEquals(201, envoyer("POST", "/commandes?type=vegetarienne").statusCode());
+        }
+        assertEquals(200, manager.getNombreCommandes());
+    }
+}
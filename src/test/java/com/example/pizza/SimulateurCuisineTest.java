@@ -0,0 +1,75 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests unitaires pour la classe SimulateurCuisine.
+ * Vérifie la simulation à événements discrets et la comparaison de scénarios.
+ */
+class SimulateurCuisineTest {
+    private static final Map<String, SimulateurCuisine.DureesEtapes> DUREES = Map.of(
+            "fromage", new SimulateurCuisine.DureesEtapes(10, 20, 5));
+
+    /**
+     * Test une cuisine à un serveur par poste sur trois commandes simultanées.
+     */
+    @Test
+    void testFileUnServeur() {
+        List<SimulateurCuisine.CommandeSimulee> flux = List.of(
+                new SimulateurCuisine.CommandeSimulee(0, "fromage"),
+                new SimulateurCuisine.CommandeSimulee(0, "fromage"),
+                new SimulateurCuisine.CommandeSimulee(0, "fromage"));
+
+        SimulateurCuisine.Resultat resultat = SimulateurCuisine.simuler(
+                new SimulateurCuisine.Scenario("base", 1, 1, 1, DUREES), flux);
+
+        // Le four est le goulot : fins d'emballage à 35, 55 et 75
+        assertEquals(3, resultat.commandes());
+        assertEquals(75, resultat.duree());
+        assertEquals(55.0, resultat.latenceMoyenne(), 1e-9);
+        assertEquals(0.8, resultat.utilisation()[1], 1e-9);
+    }
+
+    /**
+     * Test que plusieurs scénarios simulés en parallèle gardent leur ordre et
+     * qu'un four supplémentaire raccourcit la file.
+     */
+    @Test
+    void testScenariosParalleles() {
+        List<SimulateurCuisine.CommandeSimulee> flux = List.of(
+                new SimulateurCuisine.CommandeSimulee(0, "fromage"),
+                new SimulateurCuisine.CommandeSimulee(0, "fromage"),
+                new SimulateurCuisine.CommandeSimulee(0, "fromage"));
+
+        List<SimulateurCuisine.Resultat> resultats = new SimulateurCuisine().simuler(List.of(
+                new SimulateurCuisine.Scenario("un four", 1, 1, 1, DUREES),
+                new SimulateurCuisine.Scenario("deux fours", 1, 2, 1, DUREES)), flux);
+
+        assertEquals("un four", resultats.get(0).scenario());
+        assertEquals(75, resultats.get(0).duree());
+        assertEquals("deux fours", resultats.get(1).scenario());
+        assertEquals(55, resultats.get(1).duree());
+    }
+
+    /**
+     * Test que le flux synthétique est reproductible et respecte le débit.
+     */
+    @Test
+    void testFluxSynthetique() {
+        Map<String, Integer> melange = new LinkedHashMap<>();
+        melange.put("fromage", 1);
+        melange.put("vegetarienne", 1);
+
+        List<SimulateurCuisine.CommandeSimulee> flux = SimulateurCuisine.genererFlux(10_000, 600, melange, 7);
+
+        assertEquals(flux, SimulateurCuisine.genererFlux(10_000, 600, melange, 7));
+        // 600 commandes par heure : une toutes les 6 secondes en moyenne
+        assertEquals(6_000.0, (double) flux.get(flux.size() - 1).arrivee() / flux.size(), 300);
+        assertThrows(IllegalArgumentException.class, () -> SimulateurCuisine.simuler(
+                new SimulateurCuisine.Scenario("incomplet", 1, 1, 1, DUREES), flux));
+    }
+}
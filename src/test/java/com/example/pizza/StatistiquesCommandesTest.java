@@ -0,0 +1,133 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests unitaires pour les classes StatistiquesCommandes et SerieTemporelle.
+ * Vérifie les fenêtres glissantes de débit et de latence.
+ */
+class StatistiquesCommandesTest {
+    private static final long SECONDE = 1_000_000_000L;
+
+    /**
+     * Test le débit et la latence ajout-emballage mesurés sur les fenêtres.
+     */
+    @Test
+    void testFenetres() {
+        AtomicLong horloge = new AtomicLong(SECONDE);
+        StatistiquesCommandes statistiques = new StatistiquesCommandes(horloge::get);
+        CommandeManager manager = new CommandeManager();
+        statistiques.brancher(manager);
+        try {
+            Pizza[] pizzas = new Pizza[10];
+            for (int i = 0; i < pizzas.length; i++) {
+                pizzas[i] = new PizzaFromage();
+                manager.ajouterCommande(pizzas[i]);
+            }
+            horloge.addAndGet(2 * SECONDE);
+            for (Pizza pizza : pizzas) {
+                pizza.preparer();
+                pizza.cuire();
+                pizza.emballer();
+            }
+
+            SerieTemporelle.Bilan bilan = statistiques.bilan(StatistiquesCommandes.Fenetre.CINQ_MINUTES);
+            assertEquals(10, bilan.ajouts());
+            assertEquals(10, bilan.emballages());
+            assertEquals(2.0 * SECONDE, bilan.latenceMoyenne(), 1.0);
+            assertTrue(bilan.latenceP99() >= 2 * SECONDE && bilan.latenceP99() <= 2.25 * SECONDE);
+            assertEquals(2.0, bilan.getCommandesParMinute(), 1e-9);
+
+            horloge.addAndGet(6 * 60 * SECONDE);
+            assertEquals(0, statistiques.bilan(StatistiquesCommandes.Fenetre.CINQ_MINUTES).ajouts());
+            assertEquals(10, statistiques.bilan(StatistiquesCommandes.Fenetre.HEURE).emballages());
+        } finally {
+            statistiques.debrancher(manager);
+        }
+    }
+
+    /**
+     * Test que les statistiques de deux gestionnaires, chacune avec son
+     * horloge, ne comptent que les emballages de leurs propres commandes.
+     */
+    @Test
+    void testDeuxGestionnaires() {
+        AtomicLong horloge = new AtomicLong(SECONDE);
+        AtomicLong autreHorloge = new AtomicLong(1_000 * SECONDE);
+        StatistiquesCommandes statistiques = new StatistiquesCommandes(horloge::get);
+        StatistiquesCommandes autres = new StatistiquesCommandes(autreHorloge::get);
+        CommandeManager manager = new CommandeManager();
+        CommandeManager autre = new CommandeManager();
+        statistiques.brancher(manager);
+        autres.brancher(autre);
+        try {
+            Pizza pizza = new PizzaFromage();
+            Pizza autrePizza = new PizzaFromage();
+            manager.ajouterCommande(pizza);
+            autre.ajouterCommande(autrePizza);
+            horloge.addAndGet(2 * SECONDE);
+            autreHorloge.addAndGet(3 * SECONDE);
+            for (Pizza p : new Pizza[] { pizza, autrePizza }) {
+                p.preparer();
+                p.cuire();
+                p.emballer();
+            }
+
+            SerieTemporelle.Bilan bilan = statistiques.bilan(StatistiquesCommandes.Fenetre.CINQ_MINUTES);
+            SerieTemporelle.Bilan autreBilan = autres.bilan(StatistiquesCommandes.Fenetre.CINQ_MINUTES);
+            assertEquals(1, bilan.emballages());
+            assertEquals(2.0 * SECONDE, bilan.latenceMoyenne(), 1.0);
+            assertEquals(1, autreBilan.emballages());
+            assertEquals(3.0 * SECONDE, autreBilan.latenceMoyenne(), 1.0);
+        } finally {
+            autres.debrancher(autre);
+            statistiques.debrancher(manager);
+        }
+    }
+
+    /**
+     * Test qu'un seau est recyclé lorsque sa période sort de la fenêtre.
+     */
+    @Test
+    void testRecyclageSeaux() {
+        SerieTemporelle serie = new SerieTemporelle(4, 10);
+        for (long t = 0; t < 40; t++) {
+            serie.enregistrerAjout(t);
+        }
+        assertEquals(40, serie.bilan(39).ajouts());
+
+        serie.enregistrerAjout(45);
+        // Un enregistrement tardif dans un seau déjà recyclé est ignoré
+        serie.enregistrerAjout(5);
+
+        assertEquals(31, serie.bilan(45).ajouts());
+        assertEquals(1, serie.bilan(75).ajouts());
+        assertEquals(0, serie.bilan(1000).ajouts());
+    }
+
+    /**
+     * Test que des enregistrements concurrents ne sont pas perdus.
+     */
+    @Test
+    void testEnregistrementsConcurrents() throws InterruptedException {
+        SerieTemporelle serie = new SerieTemporelle(8, 1000);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (long i = 0; i < 10_000; i++) {
+                    serie.enregistrerEmballage(i % 4000, 100);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        SerieTemporelle.Bilan bilan = serie.bilan(3999);
+        assertEquals(40_000, bilan.emballages());
+        assertEquals(100.0, bilan.latenceMoyenne(), 1e-9);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.pizza;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests unitaires pour la classe SuiviCommande.
+ * Vérifie la complétion des étapes, leur composition, et la propagation de
+ * l'annulation et des délais entre le client et la commande.
+ */
+class SuiviCommandeTest {
+
+    /**
+     * Test que chaque étape est complétée à la transition correspondante, et
+     * que les étapes se composent.
+     */
+    @Test
+    void testEtapes() throws Exception {
+        CommandeManager manager = new CommandeManager();
+        Pizza pizza = new PizzaFromage();
+        SuiviCommande suivi = manager.soumettre(pizza);
+        CompletableFuture<String> ticket = suivi.getEmballage()
+                .thenApply(p -> "Commande " + p.getId() + " prête");
+
+        assertSame(pizza, manager.trouverCommande(pizza.getId()));
+        assertFalse(suivi.getPreparation().isDone());
+        pizza.preparer();
+        assertSame(pizza, suivi.getPreparation().getNow(null));
+        assertFalse(suivi.getCuisson().isDone());
+        pizza.cuire();
+        pizza.emballer();
+
+        assertSame(pizza, suivi.getCuisson().getNow(null));
+        assertEquals("Commande " + pizza.getId() + " prête", ticket.get(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test que l'annulation par le client retire et annule la commande, et
+     * fait échouer les autres étapes.
+     */
+    @Test
+    void testAnnulationParLeClient() {
+        CommandeManager manager = new CommandeManager();
+        Pizza pizza = new PizzaVegetarienne();
+        SuiviCommande suivi = manager.soumettre(pizza);
+        pizza.preparer();
+
+        assertTrue(suivi.annuler());
+
+        assertEquals(EtatCommande.ANNULEE, pizza.getEtat());
+        assertEquals(0, manager.getNombreCommandes());
+        assertTrue(suivi.getPreparation().isDone() && !suivi.getPreparation().isCompletedExceptionally());
+        assertThrows(CancellationException.class, () -> suivi.getCuisson().join());
+    }
+
+    /**
+     * Test qu'une commande non emballée dans le délai est retirée et annulée.
+     */
+    @Test
+    void testDelai() throws Exception {
+        CommandeManager manager = new CommandeManager();
+        Pizza pizza = new PizzaFromage();
+        SuiviCommande suivi = manager.soumettre(pizza).avecDelai(Duration.ofMillis(50));
+
+        ExecutionException erreur = assertThrows(ExecutionException.class,
+                () -> suivi.getEmballage().get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(TimeoutException.class, erreur.getCause());
+        // La propagation s'exécute sur le thread qui a constaté l'expiration
+        ExecutionException preparation = assertThrows(ExecutionException.class,
+                () -> suivi.getPreparation().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, preparation.getCause());
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pizza.getEtat() != EtatCommande.ANNULEE && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        assertEquals(EtatCommande.ANNULEE, pizza.getEtat());
+        assertNull(manager.trouverCommande(pizza.getId()));
+    }
+
+    /**
+     * Test qu'une commande annulée ou retirée du carnet fait échouer son
+     * suivi.
+     */
+    @Test
+    void testAnnulationParLaCommande() {
+        CommandeManager manager = new CommandeManager();
+        Pizza annulee = new PizzaFromage();
+        Pizza retiree = new PizzaFromage();
+        SuiviCommande suiviAnnulee = manager.soumettre(annulee);
+        SuiviCommande suiviRetiree = manager.soumettre(retiree);
+
+        annulee.annuler();
+        manager.supprimerCommande(retiree);
+
+        assertThrows(CancellationException.class, () -> suiviAnnulee.getEmballage().join());
+        // Annulée sans être retirée : la commande reste au carnet
+        assertSame(annulee, manager.trouverCommande(annulee.getId()));
+        // Le retrait est connu par le flux, livré de façon asynchrone
+        assertThrows(CancellationException.class,
+                () -> suiviRetiree.getEmballage().orTimeout(5, TimeUnit.SECONDS).join());
+        assertEquals(EtatCommande.RECUE, retiree.getEtat());
+    }
+
+    /**
+     * Test que le registre des suivis se désabonne avec sa dernière commande
+     * suivie, et se réabonne à la soumission suivante.
+     */
+    @Test
+    void testDesabonnementSansCommandeSuivie() {
+        CommandeManager manager = new CommandeManager();
+        FluxCommandes flux = (FluxCommandes) manager.getFlux();
+        Pizza pizza = new PizzaFromage();
+
+        SuiviCommande suivi = manager.soumettre(pizza);
+        assertTrue(flux.aDesAbonnes());
+        pizza.preparer();
+        pizza.cuire();
+        pizza.emballer();
+        assertTrue(suivi.getEmballage().isDone());
+        assertFalse(flux.aDesAbonnes());
+
+        Pizza suivante = new PizzaFromage();
+        SuiviCommande suiviSuivant = manager.soumettre(suivante);
+        assertTrue(flux.aDesAbonnes());
+        manager.supprimerCommande(suivante);
+        assertThrows(CancellationException.class, () -> suiviSuivant.getEmballage().get(5, TimeUnit.SECONDS));
+        assertFalse(flux.aDesAbonnes());
+    }
+}